@@ -0,0 +1,44 @@
+package com.dtbbanking.account_service.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Connection pool settings beyond Boot's {@code spring.r2dbc.pool.*} ({@code db.pool.*}). Apply to
+ * every pool: the primary and each replica.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "db.pool")
+public class ConnectionPoolProperties {
+
+    /**
+     * Requests that may wait for a connection at once; the next one fails straight away, so a
+     * saturated database sheds load instead of queueing it until max-acquire-time. -1 is unbounded.
+     */
+    private int maxPendingAcquires = 256;
+
+    /**
+     * How often idle connections past max-idle-time (or max-life-time) are closed in the background.
+     */
+    private Duration backgroundEvictionInterval = Duration.ofSeconds(30);
+
+    /**
+     * Open the pool's minimum connections at startup, before the service reports ready.
+     */
+    private boolean warmUp = true;
+
+    /**
+     * Give up warming a pool after this long; the service then starts with what it has.
+     */
+    private Duration warmUpTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Server-side prepared statements kept per connection (least recently used go first); 0 turns
+     * the cache off, -1 makes it unbounded.
+     */
+    private int preparedStatementCacheSize = 256;
+}
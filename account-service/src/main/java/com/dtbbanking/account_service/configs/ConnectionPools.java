@@ -0,0 +1,110 @@
+package com.dtbbanking.account_service.configs;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Option;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.boot.r2dbc.ConnectionFactoryDecorator;
+
+import java.util.List;
+
+/**
+ * Builds every connection pool of the service, the primary as well as any replica pools,
+ * from {@code spring.r2dbc.pool.*} and {@code db.pool.*}.
+ */
+@Slf4j
+public class ConnectionPools {
+
+    // r2dbc-postgresql's per-connection cache of server-side prepared statements
+    static final Option<Integer> PREPARED_STATEMENT_CACHE = Option.valueOf("preparedStatementCacheQueries");
+
+    private final R2dbcProperties.Pool pool;
+    private final ConnectionPoolProperties settings;
+    private final List<ConnectionFactoryDecorator> decorators;
+    private final MeterRegistry registry;
+
+    /**
+     * @param pool       Sizes and timeouts ({@code spring.r2dbc.pool.*}).
+     * @param settings   Pending limit, eviction, warm-up and statement cache ({@code db.pool.*}).
+     * @param decorators Applied to each connection factory before pooling, as Boot does for its own
+     *                   pool (e.g. the R2DBC observation that creates statement spans).
+     * @param registry   Receives the pool timings and the statement cache limit.
+     */
+    public ConnectionPools(R2dbcProperties.Pool pool, ConnectionPoolProperties settings,
+                           List<ConnectionFactoryDecorator> decorators, MeterRegistry registry) {
+        this.pool = pool;
+        this.settings = settings;
+        this.decorators = decorators;
+        this.registry = registry;
+    }
+
+    /**
+     * Creates a pool and, with {@code db.pool.warm-up}, opens its minimum connections before returning.
+     *
+     * @param name Pool name, the {@code pool} tag of its metrics.
+     */
+    public ConnectionPool create(String name, String url, String username, String password) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(PREPARED_STATEMENT_CACHE, settings.getPreparedStatementCacheSize());
+        if (username != null) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (password != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        ConnectionFactory connectionFactory = ConnectionFactories.get(options.build());
+        for (ConnectionFactoryDecorator decorator : decorators) {
+            connectionFactory = decorator.decorate(connectionFactory);
+        }
+
+        ConnectionPoolConfiguration.Builder configuration = ConnectionPoolConfiguration.builder(connectionFactory)
+                .name(name)
+                .initialSize(pool.getInitialSize())
+                .minIdle(pool.getMinIdle())
+                .maxSize(pool.getMaxSize())
+                .validationDepth(pool.getValidationDepth())
+                .backgroundEvictionInterval(settings.getBackgroundEvictionInterval())
+                .metricsRecorder(new MicrometerPoolMetricsRecorder(name, registry))
+                .customizer(builder -> {
+                    if (settings.getMaxPendingAcquires() < 0) {
+                        builder.maxPendingAcquireUnbounded();
+                    } else {
+                        builder.maxPendingAcquire(settings.getMaxPendingAcquires());
+                    }
+                });
+        PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        map.from(pool.getMaxIdleTime()).to(configuration::maxIdleTime);
+        map.from(pool.getMaxLifeTime()).to(configuration::maxLifeTime);
+        map.from(pool.getMaxAcquireTime()).to(configuration::maxAcquireTime);
+        map.from(pool.getMaxCreateConnectionTime()).to(configuration::maxCreateConnectionTime);
+        map.from(pool.getMaxValidationTime()).to(configuration::maxValidationTime);
+        map.from(pool.getValidationQuery()).to(configuration::validationQuery);
+
+        ConnectionPool connectionPool = new ConnectionPool(configuration.build());
+        Gauge.builder("db.pool.statement-cache.limit", settings, ConnectionPoolProperties::getPreparedStatementCacheSize)
+                .description("Prepared statements cached per connection (-1 unbounded, 0 off)")
+                .tag("pool", name)
+                .register(registry);
+        if (settings.isWarmUp()) {
+            warmUp(name, connectionPool);
+        }
+        return connectionPool;
+    }
+
+    private void warmUp(String name, ConnectionPool connectionPool) {
+        try {
+            Integer opened = connectionPool.warmup().block(settings.getWarmUpTimeout());
+            log.info("Warmed up pool {} with {} connections", name, opened);
+        } catch (RuntimeException e) {
+            // the pool opens connections on demand instead
+            log.warn("Could not warm up pool {}: {}", name, e.getMessage());
+        }
+    }
+}
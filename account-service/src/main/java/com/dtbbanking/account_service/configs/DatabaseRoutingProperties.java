@@ -0,0 +1,46 @@
+package com.dtbbanking.account_service.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replica routing settings ({@code db.routing.*}). The primary is {@code spring.r2dbc.*};
+ * every pool uses the {@code spring.r2dbc.pool.*} sizes.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "db.routing")
+public class DatabaseRoutingProperties {
+
+    /**
+     * Send reads marked read-only to the replicas.
+     */
+    private boolean enabled;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * A replica further behind the primary than this gets no reads until it catches up.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * How often each replica's lag is measured.
+     */
+    private Duration lagCheckInterval = Duration.ofSeconds(2);
+
+    @Data
+    public static class Replica {
+        private String url;
+        /**
+         * Defaults to the primary's username and password.
+         */
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,132 @@
+package com.dtbbanking.account_service.configs;
+
+import io.micrometer.common.KeyValues;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.reactivestreams.Publisher;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.reactive.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationContext;
+import org.springframework.http.server.reactive.observation.ServerRequestObservationConvention;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.HandlerMapping;
+import reactor.core.observability.micrometer.Micrometer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Metrics on top of the Actuator defaults, scraped from {@code /actuator/prometheus}:
+ * <ul>
+ *     <li>{@code http.server.requests} carries a {@code handler} tag naming the controller method
+ *     ({@code AccountController.getAccount}), and the SLO buckets of {@code metrics.slo}.</li>
+ *     <li>Every {@code Mono} or {@code Flux} returned by a {@code *Service} bean is observed as
+ *     {@code service.pipeline}, tagged with the service and method ({@code metrics.pipelines.enabled}).</li>
+ * </ul>
+ * Client calls ({@code http.client.requests}, tagged by uri template) and the R2DBC pool gauges
+ * ({@code r2dbc.pool.*}, or {@code db.pool.*} with read routing or sharding) need nothing here.
+ */
+@Configuration
+public class MetricsConfig {
+
+    static final String SERVER_REQUESTS = "http.server.requests";
+    static final String PIPELINE = "service.pipeline";
+
+    private static final String SERVICE_PACKAGE = "com.dtbbanking.account_service.service";
+
+    @Bean
+    public ServerRequestObservationConvention serverRequestObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                return super.getLowCardinalityKeyValues(context).and("handler", handler(context));
+            }
+        };
+    }
+
+    @Bean
+    public MeterFilter endpointSloFilter(MetricsProperties properties) {
+        return sloFilter(properties);
+    }
+
+    @Bean
+    public static BeanPostProcessor servicePipelineMetrics(ObjectProvider<ObservationRegistry> observationRegistry,
+                                                           @Value("${metrics.pipelines.enabled:true}") boolean enabled) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return enabled ? observePipelines(bean, observationRegistry) : bean;
+            }
+        };
+    }
+
+    /**
+     * @return {@code Controller.method} of the handler method that served the request, or {@code none}.
+     */
+    static String handler(ServerRequestObservationContext context) {
+        Object handler = context.getAttributes().get(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod method) {
+            return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        }
+        return "none";
+    }
+
+    static MeterFilter sloFilter(MetricsProperties properties) {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                List<Duration> slo = id.getName().equals(SERVER_REQUESTS) ? properties.getSlo().get(id.getTag("uri")) : null;
+                if (slo == null || slo.isEmpty()) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .serviceLevelObjectives(slo.stream().mapToDouble(Duration::toNanos).toArray())
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+
+    /**
+     * Wraps a bean of the service package named {@code *Service} in a proxy that names and
+     * observes every reactive pipeline its public methods return; other beans come back as is.
+     */
+    static Object observePipelines(Object bean, ObjectProvider<ObservationRegistry> observationRegistry) {
+        Class<?> type = AopUtils.getTargetClass(bean);
+        if (!type.getPackageName().equals(SERVICE_PACKAGE) || !type.getSimpleName().endsWith("Service")) {
+            return bean;
+        }
+        String service = type.getSimpleName();
+        ProxyFactory factory = new ProxyFactory(bean);
+        factory.setProxyTargetClass(true);
+        factory.addAdvice((MethodInterceptor) invocation -> {
+            Object result = invocation.proceed();
+            if (!Publisher.class.isAssignableFrom(invocation.getMethod().getReturnType())) {
+                return result;
+            }
+            String method = invocation.getMethod().getName();
+            ObservationRegistry registry = observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+            if (result instanceof Mono<?> mono) {
+                return mono.name(PIPELINE).tag("service", service).tag("method", method)
+                        .tap(Micrometer.observation(registry));
+            }
+            if (result instanceof Flux<?> flux) {
+                return flux.name(PIPELINE).tag("service", service).tag("method", method)
+                        .tap(Micrometer.observation(registry));
+            }
+            return result;
+        });
+        return factory.getProxy(type.getClassLoader());
+    }
+}
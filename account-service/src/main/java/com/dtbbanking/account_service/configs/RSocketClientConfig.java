@@ -0,0 +1,32 @@
+package com.dtbbanking.account_service.configs;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.rsocket.RSocketRequester;
+
+/**
+ * RSocket requesters for the neighbouring services. Each connects lazily on first use and
+ * then multiplexes every call to that peer over the one TCP connection, reconnecting on the
+ * next call if it drops.
+ */
+@Configuration
+public class RSocketClientConfig {
+
+    @Bean
+    @Qualifier("customerServiceRequester")
+    public RSocketRequester customerServiceRequester(RSocketRequester.Builder builder,
+                                                     @Value("${customer.service.rsocket.host}") String host,
+                                                     @Value("${customer.service.rsocket.port}") int port) {
+        return builder.tcp(host, port);
+    }
+
+    @Bean
+    @Qualifier("cardServiceRequester")
+    public RSocketRequester cardServiceRequester(RSocketRequester.Builder builder,
+                                                 @Value("${card.service.rsocket.host}") String host,
+                                                 @Value("${card.service.rsocket.port}") int port) {
+        return builder.tcp(host, port);
+    }
+}
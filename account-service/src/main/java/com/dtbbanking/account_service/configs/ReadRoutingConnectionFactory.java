@@ -0,0 +1,226 @@
+package com.dtbbanking.account_service.configs;
+
+import com.dtbbanking.account_service.utils.ReadRouting;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Sends queries marked with {@link ReadRouting#readOnly} to a replica, round robin, and every
+ * other query to the primary. A read goes to the primary instead when its request has already
+ * written (read-your-writes) or when no replica is within {@code db.routing.max-lag}; replicas
+ * whose lag cannot be measured count as lagging.
+ * <p>
+ * Per pool, publishes {@code db.pool.acquired}, {@code db.pool.idle}, {@code db.pool.pending},
+ * {@code db.pool.max} and {@code db.pool.utilization} (acquired / max), plus
+ * {@code db.replica.lag} per replica and {@code db.routing.queries} by pool and reason.
+ * </p>
+ */
+@Slf4j
+public class ReadRoutingConnectionFactory extends AbstractRoutingConnectionFactory implements DisposableBean {
+
+    public static final String PRIMARY = "primary";
+
+    // 0 when the replica has replayed everything it received, else the age of the last replayed commit
+    private static final String LAG_SQL = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 'Infinity')
+                   END::float8 AS lag
+            """;
+
+    private final ConnectionFactory primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final Duration maxLag;
+    private final Duration lagCheckInterval;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final Counter writes;
+    private final Counter readYourWrites;
+    private final Counter replicaUnavailable;
+
+    private Disposable lagChecks;
+
+    public ReadRoutingConnectionFactory(ConnectionFactory primary, Map<String, ConnectionFactory> replicas,
+                                        Duration maxLag, Duration lagCheckInterval, MeterRegistry registry) {
+        this.primary = primary;
+        this.maxLag = maxLag;
+        this.lagCheckInterval = lagCheckInterval;
+
+        Map<String, ConnectionFactory> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetConnectionFactories(targets);
+        setDefaultTargetConnectionFactory(primary);
+
+        bindPoolMetrics(PRIMARY, primary, registry);
+        replicas.forEach((name, connectionFactory) -> {
+            Replica replica = new Replica(name, connectionFactory, routed(registry, name, "replica"));
+            Gauge.builder("db.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replay lag of the replica behind the primary")
+                    .baseUnit("seconds")
+                    .tag("pool", name)
+                    .register(registry);
+            bindPoolMetrics(name, connectionFactory, registry);
+            this.replicas.add(replica);
+        });
+        this.writes = routed(registry, PRIMARY, "write");
+        this.readYourWrites = routed(registry, PRIMARY, "read-your-writes");
+        this.replicaUnavailable = routed(registry, PRIMARY, "replica-unavailable");
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        if (!replicas.isEmpty()) {
+            lagChecks = Flux.interval(Duration.ZERO, lagCheckInterval)
+                    .onBackpressureDrop()
+                    .concatMap(tick -> Flux.fromIterable(replicas).flatMap(this::checkLag))
+                    .subscribe();
+        }
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> Mono.just(route(context)));
+    }
+
+    /**
+     * Picks the pool for a query issued with the given subscriber context.
+     *
+     * @param context the subscriber context of the query
+     * @return {@link #PRIMARY} or the name of a replica
+     */
+    public String route(ContextView context) {
+        if (!ReadRouting.isReadOnly(context)) {
+            ReadRouting.requestScope(context).ifPresent(ReadRouting.RequestScope::markWritten);
+            writes.increment();
+            return PRIMARY;
+        }
+        if (ReadRouting.requestScope(context).map(ReadRouting.RequestScope::hasWritten).orElse(false)) {
+            readYourWrites.increment();
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = nextReplica.getAndIncrement();
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, size));
+            if (replica.lagSeconds <= maxLag.toMillis() / 1000.0) {
+                replica.reads.increment();
+                return replica.name;
+            }
+        }
+        replicaUnavailable.increment();
+        return PRIMARY;
+    }
+
+    /**
+     * Records a lag measurement; a replica further behind than {@code max-lag} gets no reads.
+     *
+     * @param name       the replica name
+     * @param lagSeconds the replica's lag in seconds, or infinity if it could not be measured
+     */
+    public void updateLag(String name, double lagSeconds) {
+        double maxLagSeconds = maxLag.toMillis() / 1000.0;
+        for (Replica replica : replicas) {
+            if (replica.name.equals(name)) {
+                boolean wasUsable = replica.lagSeconds <= maxLagSeconds;
+                replica.lagSeconds = lagSeconds;
+                boolean usable = lagSeconds <= maxLagSeconds;
+                if (wasUsable != usable) {
+                    log.info("Replica {} {} (lag {}s)", name, usable ? "in use" : "out of use", lagSeconds);
+                }
+            }
+        }
+    }
+
+    private Mono<Void> checkLag(Replica replica) {
+        return Mono.usingWhen(replica.connectionFactory.create(),
+                        connection -> Mono.from(connection.createStatement(LAG_SQL).execute())
+                                .flatMap(result -> Mono.from(result.map((row, metadata) -> row.get("lag", Double.class)))),
+                        Connection::close)
+                .timeout(lagCheckInterval)
+                .doOnNext(lag -> updateLag(replica.name, lag))
+                .onErrorResume(e -> {
+                    log.debug("Lag check of replica {} failed: {}", replica.name, e.getMessage());
+                    updateLag(replica.name, Double.POSITIVE_INFINITY);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static Counter routed(MeterRegistry registry, String pool, String reason) {
+        return Counter.builder("db.routing.queries")
+                .description("Queries routed to each pool, by reason")
+                .tag("pool", pool)
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private static void bindPoolMetrics(String name, ConnectionFactory connectionFactory, MeterRegistry registry) {
+        if (!(connectionFactory instanceof ConnectionPool pool) || pool.getMetrics().isEmpty()) {
+            return;
+        }
+        PoolMetrics metrics = pool.getMetrics().get();
+        poolGauge(registry, "db.pool.acquired", "Connections in use", name, metrics, PoolMetrics::acquiredSize);
+        poolGauge(registry, "db.pool.idle", "Idle connections", name, metrics, PoolMetrics::idleSize);
+        poolGauge(registry, "db.pool.pending", "Callers waiting for a connection", name, metrics, PoolMetrics::pendingAcquireSize);
+        poolGauge(registry, "db.pool.max", "Maximum connections", name, metrics, PoolMetrics::getMaxAllocatedSize);
+        poolGauge(registry, "db.pool.utilization", "Share of the maximum connections in use", name, metrics,
+                m -> m.getMaxAllocatedSize() == 0 ? 0 : (double) m.acquiredSize() / m.getMaxAllocatedSize());
+    }
+
+    private static void poolGauge(MeterRegistry registry, String meter, String description, String pool,
+                                  PoolMetrics metrics, ToDoubleFunction<PoolMetrics> value) {
+        Gauge.builder(meter, metrics, value)
+                .description(description)
+                .tag("pool", pool)
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        if (lagChecks != null) {
+            lagChecks.dispose();
+        }
+        replicas.forEach(replica -> dispose(replica.connectionFactory));
+        dispose(primary);
+    }
+
+    private static void dispose(ConnectionFactory connectionFactory) {
+        if (connectionFactory instanceof ConnectionPool pool) {
+            pool.dispose();
+        }
+    }
+
+    private static final class Replica {
+        final String name;
+        final ConnectionFactory connectionFactory;
+        final Counter reads;
+        // unknown until the first lag check
+        volatile double lagSeconds = Double.POSITIVE_INFINITY;
+
+        Replica(String name, ConnectionFactory connectionFactory, Counter reads) {
+            this.name = name;
+            this.connectionFactory = connectionFactory;
+            this.reads = reads;
+        }
+    }
+}
@@ -11,16 +11,18 @@ public class WebClientConfig {
 
     @Bean
     @Qualifier("customerServiceWebClient")
-    public WebClient customerServiceWebClient(@Value("${customer.service.base-url}") String baseUrl) {
-        return WebClient.builder()
+    public WebClient customerServiceWebClient(WebClient.Builder builder,
+                                              @Value("${customer.service.base-url}") String baseUrl) {
+        return builder
                 .baseUrl(baseUrl)
                 .build();
     }
 
     @Bean
     @Qualifier("cardServiceWebClient")
-    public WebClient cardServiceWebClient(@Value("${card.service.base-url}") String baseUrl) {
-        return WebClient.builder()
+    public WebClient cardServiceWebClient(WebClient.Builder builder,
+                                          @Value("${card.service.base-url}") String baseUrl) {
+        return builder
                 .baseUrl(baseUrl)
                 .build();
     }
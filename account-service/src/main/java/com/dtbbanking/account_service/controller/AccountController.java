@@ -1,22 +1,33 @@
 package com.dtbbanking.account_service.controller;
 
+import com.dtbbanking.account_service.dto.AccountChangeEvent;
 import com.dtbbanking.account_service.dto.AccountRequestDto;
 import com.dtbbanking.account_service.dto.AccountResponseDto;
+import com.dtbbanking.account_service.dto.BatchGetRequestDto;
+import com.dtbbanking.account_service.dto.BatchGetResponseDto;
 import com.dtbbanking.account_service.dto.UniversalResponse;
 import com.dtbbanking.account_service.dto.UpdateAccountRequestDto;
+import com.dtbbanking.account_service.mappers.AccountField;
+import com.dtbbanking.account_service.service.AccountBatchLoader;
+import com.dtbbanking.account_service.service.AccountChangeFeed;
+import com.dtbbanking.account_service.service.AccountFieldsService;
 import com.dtbbanking.account_service.service.AccountService;
+import com.dtbbanking.account_service.utils.UuidListCodec;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
 import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -34,7 +45,13 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class AccountController {
 
+    private static final Duration CHANGE_FEED_HEARTBEAT = Duration.ofSeconds(15);
+    private static final int EXISTING_IDS_BATCH = 1000;
+
     private final AccountService accountService;
+    private final AccountFieldsService accountFieldsService;
+    private final AccountChangeFeed accountChangeFeed;
+    private final AccountBatchLoader accountBatchLoader;
     private final Validator validator;
 
     /**
@@ -82,40 +99,186 @@ public class AccountController {
     /**
      * Retrieves a specific account by its ID.
      *
-     * @param id the account ID
+     * @param id     the account ID
+     * @param fields optional comma-separated response fields (e.g. {@code id,iban}); only their
+     *               columns are read
      * @return 200 OK with a UniversalResponse containing the account details,
      *         or 404 Not Found if not found
      */
     @GetMapping("/{id}")
-    public Mono<ResponseEntity<UniversalResponse<AccountResponseDto>>> getAccount(@PathVariable UUID id) {
+    public Mono<ResponseEntity<UniversalResponse<?>>> getAccount(
+            @PathVariable UUID id,
+            @RequestParam(required = false) String fields) {
         log.info("Getting account with id: {}", id);
+        if (fields != null) {
+            return accountFieldsService.getAccountById(id, AccountField.FIELDSETS.parse(fields))
+                    .map(response -> ResponseEntity.ok(UniversalResponse.ok(response)));
+        }
         return accountService.getAccountById(id)
                 .map(response -> ResponseEntity.ok(UniversalResponse.ok(response)));
     }
 
+    /**
+     * Retrieves several accounts by ID in one query, e.g. {@code ?ids=a,b,c}.
+     *
+     * @param ids the account IDs (at most {@value AccountService#MAX_BATCH_GET_IDS})
+     * @return 200 OK with a UniversalResponse containing the accounts found, in request order,
+     *         and the IDs not found
+     */
+    @GetMapping(params = "ids")
+    public Mono<ResponseEntity<UniversalResponse<BatchGetResponseDto<AccountResponseDto>>>> getAccountsByIds(
+            @RequestParam List<UUID> ids) {
+        log.info("Getting {} accounts by id", ids.size());
+        return accountService.getAccountsByIds(ids)
+                .map(response -> ResponseEntity.ok(UniversalResponse.ok(response)));
+    }
+
+    /**
+     * Same as {@link #getAccountsByIds(List)}, with the IDs in the body for lists too long for a URL.
+     *
+     * @param request the request holding the account IDs
+     * @return 200 OK with a UniversalResponse containing the accounts found, in request order,
+     *         and the IDs not found
+     */
+    @PostMapping("/batch-get")
+    public Mono<ResponseEntity<UniversalResponse<BatchGetResponseDto<AccountResponseDto>>>> batchGetAccounts(
+            @RequestBody BatchGetRequestDto request) {
+        return getAccountsByIds(request.getIds() == null ? List.of() : request.getIds());
+    }
+
     /**
      * Retrieves a list of accounts, optionally filtered by IBAN, BIC/SWIFT, or card alias.
      *
      * @param iban      optional IBAN filter
      * @param bicSwift  optional BIC/SWIFT filter
      * @param cardAlias optional card alias filter
+     * @param after     card alias filter only: the last account ID of the previous page, instead of {@code page}
      * @param page      page number (default is 0)
      * @param size      page size (default is 10)
+     * @param fields    optional comma-separated response fields; only their columns are read
      * @return 200 OK with a UniversalResponse containing a list of matching accounts
      */
     @GetMapping
-    public Mono<ResponseEntity<UniversalResponse<List<AccountResponseDto>>>> getAccounts(
+    public Mono<ResponseEntity<UniversalResponse<?>>> getAccounts(
             @RequestParam(required = false) String iban,
             @RequestParam(required = false) String bicSwift,
             @RequestParam(required = false) String cardAlias,
+            @RequestParam(required = false) UUID after,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields) {
         log.info("Retrieving accounts with filters");
-        return accountService.getAccountsByFilters(iban, bicSwift, cardAlias, page, size)
+        if (fields != null) {
+            return accountFieldsService.getAccountsByFilters(iban, bicSwift, cardAlias, after, page, size,
+                            AccountField.FIELDSETS.parse(fields))
+                    .collectList()
+                    .map(response -> ResponseEntity.ok(UniversalResponse.ok(response)));
+        }
+        return accountService.getAccountsByFilters(iban, bicSwift, cardAlias, after, page, size)
+                .collectList()
+                .map(response -> ResponseEntity.ok(UniversalResponse.ok(response)));
+    }
+
+    /**
+     * Returns which of the given account IDs exist. Intended for internal batch validation.
+     *
+     * @param ids the account IDs to check
+     * @return 200 OK with a UniversalResponse containing the IDs that exist
+     */
+    @PostMapping("/internal/existing-ids")
+    public Mono<ResponseEntity<UniversalResponse<List<UUID>>>> getExistingAccountIds(@RequestBody List<UUID> ids) {
+        log.info("Checking existence of {} accounts", ids.size());
+        return accountService.getExistingAccountIds(ids)
+                .collectList()
+                .map(response -> ResponseEntity.ok(UniversalResponse.ok(response)));
+    }
+
+    /**
+     * Binary variant of {@link #getExistingAccountIds}: IDs are read and written as
+     * {@code application/x-uuid-list} and checked in batches as they arrive.
+     *
+     * @param ids the account IDs to check
+     * @return the IDs that exist
+     */
+    @PostMapping(value = "/internal/existing-ids",
+            consumes = UuidListCodec.MEDIA_TYPE_VALUE, produces = UuidListCodec.MEDIA_TYPE_VALUE)
+    public Flux<UUID> getExistingAccountIdsBinary(@RequestBody Flux<UUID> ids) {
+        return ids.buffer(EXISTING_IDS_BATCH)
+                .concatMap(accountService::getExistingAccountIds);
+    }
+
+    /**
+     * Pages through account IDs in primary key order. Intended for internal bulk jobs.
+     *
+     * @param after the last ID of the previous page (omit for the first page)
+     * @param limit page size (default is 1000)
+     * @return 200 OK with a UniversalResponse containing the next page of account IDs
+     */
+    @GetMapping("/internal/ids")
+    public Mono<ResponseEntity<UniversalResponse<List<UUID>>>> getAccountIds(
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "1000") int limit) {
+        return accountService.getAccountIdsAfter(after, limit)
                 .collectList()
                 .map(response -> ResponseEntity.ok(UniversalResponse.ok(response)));
     }
 
+    /**
+     * Streams every account ID in primary key order, as newline-delimited JSON or as raw
+     * 16-byte IDs ({@code application/x-uuid-list}) depending on the Accept header.
+     * Intended for internal consumers that keep a local copy of the account IDs.
+     *
+     * @return a stream of all account IDs
+     */
+    @GetMapping(value = "/internal/ids/stream",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, UuidListCodec.MEDIA_TYPE_VALUE})
+    public Flux<UUID> streamAccountIds() {
+        return accountService.streamAccountIds();
+    }
+
+    /**
+     * Streams account creations and deletions as server-sent events. A {@code connected}
+     * comment is sent once the feed is subscribed, so a consumer can then load the full
+     * ID list without missing changes; a heartbeat comment follows every 15 seconds.
+     *
+     * @return a stream of account change events
+     */
+    @GetMapping(value = "/internal/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<AccountChangeEvent>> streamAccountChanges() {
+        return Flux.merge(
+                accountChangeFeed.changes()
+                        .map(event -> ServerSentEvent.builder(event).build()),
+                Mono.just(ServerSentEvent.<AccountChangeEvent>builder().comment("connected").build()),
+                Flux.interval(CHANGE_FEED_HEARTBEAT)
+                        .map(tick -> ServerSentEvent.<AccountChangeEvent>builder().comment("heartbeat").build()));
+    }
+
+    /**
+     * Switches batching of concurrent {@code GET /{id}} lookups on or off at runtime.
+     *
+     * @param enabled whether lookups should be batched
+     * @return 200 OK with a UniversalResponse containing the new setting
+     */
+    @PutMapping("/internal/batch-loading")
+    public Mono<ResponseEntity<UniversalResponse<Boolean>>> setBatchLoading(@RequestParam boolean enabled) {
+        accountBatchLoader.setEnabled(enabled);
+        return Mono.just(ResponseEntity.ok(UniversalResponse.ok(accountBatchLoader.isEnabled())));
+    }
+
+    /**
+     * Deletes every account of a customer. Called by customer-service when it deletes the
+     * customer, as the accounts are no longer removed by a foreign key cascade.
+     *
+     * @param customerId the customer ID
+     * @return 200 OK with a UniversalResponse containing the number of accounts deleted
+     */
+    @DeleteMapping("/internal/customers/{customerId}")
+    public Mono<ResponseEntity<UniversalResponse<Long>>> deleteCustomerAccounts(@PathVariable UUID customerId) {
+        log.info("Deleting accounts of customer with id: {}", customerId);
+        return accountService.deleteAccountsByCustomerId(customerId)
+                .map(response -> ResponseEntity.ok(UniversalResponse.ok(response)));
+    }
+
     /**
      * Deletes an account by its ID.
      *
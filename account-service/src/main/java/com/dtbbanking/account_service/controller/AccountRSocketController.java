@@ -0,0 +1,49 @@
+package com.dtbbanking.account_service.controller;
+
+import com.dtbbanking.account_service.service.AccountService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * RSocket endpoints for internal service-to-service lookups.
+ * Served on the {@code spring.rsocket.server.port} TCP port; callers keep one multiplexed
+ * connection to it instead of an HTTP connection per in-flight call.
+ */
+@Controller
+@RequiredArgsConstructor
+public class AccountRSocketController {
+
+    static final int EXISTING_IDS_BATCH = 1000;
+
+    private final AccountService accountService;
+
+    /**
+     * Request-response: checks whether an account exists.
+     *
+     * @param accountId the account ID
+     * @return Mono emitting true if the account exists
+     */
+    @MessageMapping("accounts.exists")
+    public Mono<Boolean> accountExists(UUID accountId) {
+        return accountService.accountExists(accountId);
+    }
+
+    /**
+     * Request-channel: streams back the IDs that exist out of a stream of account IDs.
+     * IDs are checked in batches as they arrive, and requested from the caller only as fast as
+     * the results are consumed.
+     *
+     * @param accountIds the account IDs to check
+     * @return Flux of the IDs that exist
+     */
+    @MessageMapping("accounts.existing")
+    public Flux<UUID> existingAccountIds(Flux<UUID> accountIds) {
+        return accountIds.buffer(EXISTING_IDS_BATCH)
+                .concatMap(accountService::getExistingAccountIds);
+    }
+}
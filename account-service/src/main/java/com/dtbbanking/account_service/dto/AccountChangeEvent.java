@@ -0,0 +1,19 @@
+package com.dtbbanking.account_service.dto;
+
+import com.dtbbanking.account_service.models.AccountChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountChangeEvent {
+
+    private AccountChangeType type;
+    private UUID accountId;
+}
@@ -0,0 +1,15 @@
+package com.dtbbanking.account_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchGetRequestDto {
+    private List<UUID> ids;
+}
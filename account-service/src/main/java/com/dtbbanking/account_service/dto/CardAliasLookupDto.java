@@ -0,0 +1,22 @@
+package com.dtbbanking.account_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * One page of the card-service {@code cards.account-ids.by-alias} RSocket lookup.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardAliasLookupDto {
+
+    private String alias;
+    private UUID after;
+    private int limit;
+}
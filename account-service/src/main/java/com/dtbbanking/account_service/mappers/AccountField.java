@@ -0,0 +1,51 @@
+package com.dtbbanking.account_service.mappers;
+
+import com.dtbbanking.account_service.dto.AccountResponseDto;
+import com.dtbbanking.account_service.utils.SparseField;
+import com.dtbbanking.account_service.utils.SparseFieldsets;
+import io.r2dbc.spi.Row;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The fields of {@link AccountResponseDto} that can be picked with {@code ?fields=}, and the
+ * {@code tb_accounts} column each one is read from.
+ */
+public enum AccountField implements SparseField {
+
+    ID("id", "id", UUID.class),
+    IBAN("iban", "iban", String.class),
+    BIC_SWIFT("bicSwift", "bic_swift", String.class),
+    CUSTOMER_ID("customerId", "customer_id", UUID.class),
+    CREATED_AT("createdAt", "created_at", LocalDateTime.class),
+    UPDATED_AT("updatedAt", "updated_at", LocalDateTime.class);
+
+    public static final SparseFieldsets<AccountField> FIELDSETS = new SparseFieldsets<>(AccountField.class, "tb_accounts");
+
+    private final String jsonName;
+    private final String column;
+    private final Class<?> type;
+
+    AccountField(String jsonName, String column, Class<?> type) {
+        this.jsonName = jsonName;
+        this.column = column;
+        this.type = type;
+    }
+
+    @Override
+    public String jsonName() {
+        return jsonName;
+    }
+
+    @Override
+    public List<String> columns() {
+        return List.of(column);
+    }
+
+    @Override
+    public Object read(Row row) {
+        return row.get(column, type);
+    }
+}
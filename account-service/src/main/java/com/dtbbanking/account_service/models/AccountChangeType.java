@@ -0,0 +1,6 @@
+package com.dtbbanking.account_service.models;
+
+public enum AccountChangeType {
+    CREATED,
+    DELETED
+}
@@ -0,0 +1,11 @@
+package com.dtbbanking.account_service.models;
+
+/**
+ * Transport used for calls to a neighbouring service.
+ */
+public enum InternalTransport {
+    /** Request-response over HTTP through {@code WebClient}. */
+    HTTP,
+    /** One multiplexed RSocket TCP connection per peer. */
+    RSOCKET
+}
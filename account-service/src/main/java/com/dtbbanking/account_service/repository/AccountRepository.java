@@ -2,15 +2,23 @@ package com.dtbbanking.account_service.repository;
 
 import com.dtbbanking.account_service.models.Account;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 /**
  * Reactive repository interface for Account entities,
  * providing methods for CRUD operations and custom queries.
+ * <p>
+ * tb_accounts is partitioned by created_at month with a primary key of (id, created_at), so
+ * lookups by id (findById, existsById, findByIdIn, findExistingIds, findAllByIdArray) probe the
+ * primary key of every partition; their cost grows with the number of months kept.
+ * </p>
  */
 public interface AccountRepository extends ReactiveCrudRepository<Account, UUID> {
 
@@ -36,11 +44,16 @@ public interface AccountRepository extends ReactiveCrudRepository<Account, UUID>
 
     /**
      * Checks if an account exists with the exact specified IBAN.
+     * <p>
+     * Looks in tb_account_ibans, which holds IBAN uniqueness since tb_accounts was partitioned;
+     * tb_accounts has no IBAN index, so a derived query would scan every partition.
+     * </p>
      *
      * @param iban the IBAN to check for existence
      * @return a Mono emitting true if an account with the IBAN exists, false otherwise
      */
-    Mono<Boolean> existsByIban(String iban);
+    @Query("SELECT EXISTS (SELECT 1 FROM tb_account_ibans WHERE iban = :iban)")
+    Mono<Boolean> existsByIban(@Param("iban") String iban);
 
     /**
      * Finds accounts whose IDs are included in the provided list.
@@ -49,4 +62,50 @@ public interface AccountRepository extends ReactiveCrudRepository<Account, UUID>
      * @return a Flux stream of matching Account entities
      */
     Flux<Account> findByIdIn(List<UUID> ids);
+
+    /**
+     * Returns which of the given IDs belong to existing accounts, without loading the rows.
+     *
+     * @param ids the account UUIDs to check
+     * @return a Flux stream of the IDs that exist
+     */
+    @Query("SELECT id FROM tb_accounts WHERE id IN (:ids)")
+    Flux<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Returns account IDs in primary key order, starting after the given ID (keyset pagination).
+     *
+     * @param after the last ID of the previous page
+     * @param limit the maximum number of IDs to return
+     * @return a Flux stream of account UUIDs
+     */
+    @Query("SELECT id FROM tb_accounts WHERE id > :after ORDER BY id LIMIT :limit")
+    Flux<UUID> findIdsAfter(@Param("after") UUID after, @Param("limit") int limit);
+
+    /**
+     * Streams every account ID in primary key order, without loading the rows.
+     *
+     * @return a Flux stream of all account UUIDs
+     */
+    @Query("SELECT id FROM tb_accounts ORDER BY id")
+    Flux<UUID> findAllIds();
+
+    /**
+     * Loads the accounts with the given IDs in one query, binding the IDs as a single array
+     * parameter rather than one parameter per ID.
+     *
+     * @param ids the account UUIDs to load
+     * @return a Flux stream of the accounts that exist, in no particular order
+     */
+    @Query("SELECT * FROM tb_accounts WHERE id = ANY(:ids)")
+    Flux<Account> findAllByIdArray(@Param("ids") UUID[] ids);
+
+    /**
+     * Deletes every account of a customer. Customers may live on other databases than the
+     * accounts, so this replaces the former cascade from tb_customers.
+     *
+     * @param customerId the customer UUID
+     * @return a Mono emitting the number of accounts deleted
+     */
+    Mono<Long> deleteByCustomerId(UUID customerId);
 }
@@ -0,0 +1,157 @@
+package com.dtbbanking.account_service.service;
+
+import com.dtbbanking.account_service.models.Account;
+import com.dtbbanking.account_service.repository.AccountRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Request-coalescing loader for single account lookups ({@code account.batch-loading.*}).
+ * <p>
+ * Lookups that arrive within {@code window} of each other, up to {@code max-batch-size}, are
+ * answered by one {@code WHERE id = ANY(...)} query, so one pooled connection serves the whole
+ * window instead of one connection per lookup. An id requested several times in the same window
+ * is queried once and its row handed to every caller.
+ * </p>
+ * <p>
+ * Whether {@link AccountService#getAccountById} goes through the loader can be switched at
+ * runtime with {@link #setEnabled}; lookups already queued are still answered after it is switched off.
+ * </p>
+ * <p>
+ * Batches are cut with fair backpressure, so lookups arriving while every query slot is busy wait
+ * in the queue instead of overflowing it. Should the batching pipeline still terminate with an
+ * error, the lookups it held fail and a new pipeline takes over.
+ * </p>
+ */
+@Slf4j
+@Component
+public class AccountBatchLoader {
+
+    private static final Duration EMIT_RETRY = Duration.ofSeconds(1);
+
+    private final AccountRepository accountRepository;
+    private final int maxBatchSize;
+    private final Duration window;
+    private final int concurrency;
+    private volatile Pipeline pipeline;
+
+    private volatile boolean enabled;
+
+    public AccountBatchLoader(AccountRepository accountRepository,
+                              @Value("${account.batch-loading.enabled:false}") boolean enabled,
+                              @Value("${account.batch-loading.max-batch-size:500}") int maxBatchSize,
+                              @Value("${account.batch-loading.window:PT0.002S}") Duration window,
+                              @Value("${account.batch-loading.concurrency:4}") int concurrency) {
+        this.accountRepository = accountRepository;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.window = window;
+        this.concurrency = concurrency;
+
+        start();
+    }
+
+    private void start() {
+        Pipeline started = new Pipeline(Sinks.many().unicast().onBackpressureBuffer(), ConcurrentHashMap.newKeySet());
+        pipeline = started;
+        started.queue().asFlux()
+                .bufferTimeout(maxBatchSize, window, true)
+                .flatMap(this::flush, concurrency)
+                .subscribe(null, e -> restart(started, e));
+    }
+
+    private void restart(Pipeline failed, Throwable error) {
+        log.error("Account batch loading failed, restarting it", error);
+        start();
+        failed.outstanding().forEach(load -> load.result().tryEmitError(error));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switches batching of account lookups on or off.
+     *
+     * @param enabled whether lookups should go through the loader
+     */
+    public void setEnabled(boolean enabled) {
+        if (this.enabled != enabled) {
+            log.info("Account batch loading {}", enabled ? "enabled" : "disabled");
+        }
+        this.enabled = enabled;
+    }
+
+    /**
+     * Queues a lookup for the next batch query.
+     *
+     * @param id the account UUID
+     * @return Mono emitting the account, or empty if it does not exist
+     */
+    public Mono<Account> load(UUID id) {
+        return Mono.defer(() -> {
+            Pipeline current = pipeline;
+            PendingLoad load = new PendingLoad(id, Sinks.one());
+            current.outstanding().add(load);
+            current.queue().emitNext(load, Sinks.EmitFailureHandler.busyLooping(EMIT_RETRY));
+            return load.result().asMono()
+                    .doFinally(signal -> current.outstanding().remove(load));
+        });
+    }
+
+    private Mono<Void> flush(List<PendingLoad> batch) {
+        Map<UUID, List<Sinks.One<Account>>> callers = new LinkedHashMap<>();
+        for (PendingLoad load : batch) {
+            callers.computeIfAbsent(load.id(), id -> new ArrayList<>(1)).add(load.result());
+        }
+
+        return Flux.defer(() -> accountRepository.findAllByIdArray(callers.keySet().toArray(new UUID[0])))
+                .collectMap(Account::getId)
+                .doOnNext(accounts -> callers.forEach((id, results) -> {
+                    Account account = accounts.get(id);
+                    for (Sinks.One<Account> result : results) {
+                        if (account == null) {
+                            result.tryEmitEmpty();
+                        } else {
+                            result.tryEmitValue(account);
+                        }
+                    }
+                }))
+                .onErrorResume(e -> {
+                    callers.values().forEach(results -> results.forEach(result -> result.tryEmitError(e)));
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Answers the lookups still queued, then stops batching.
+     */
+    @PreDestroy
+    public void stop() {
+        pipeline.queue().tryEmitComplete();
+    }
+
+    /**
+     * A batching pipeline and the lookups queued to it that have not been answered yet.
+     */
+    private record Pipeline(Sinks.Many<PendingLoad> queue, Set<PendingLoad> outstanding) {
+    }
+
+    private record PendingLoad(UUID id, Sinks.One<Account> result) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.dtbbanking.account_service.service;
+
+import com.dtbbanking.account_service.dto.AccountChangeEvent;
+import com.dtbbanking.account_service.models.AccountChangeType;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Relays account creations and deletions to internal subscribers.
+ * <p>
+ * Listens on the {@code account_changes} Postgres channel, fed by a trigger on
+ * {@code tb_accounts}, so changes made through any account-service replica are seen.
+ * Events are multicast to the current subscribers only; a subscriber that connects late or
+ * reconnects is expected to reload the account ids in full first.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountChangeFeed {
+
+    static final String CHANNEL = "account_changes";
+
+    private final R2dbcProperties r2dbcProperties;
+
+    private final Sinks.Many<AccountChangeEvent> sink = Sinks.many().multicast().directBestEffort();
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    /**
+     * Starts the change listener once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscriptions.add(listen()
+                .subscribe(sink::tryEmitNext));
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscriptions.dispose();
+    }
+
+    /**
+     * @return hot stream of account changes from now on
+     */
+    public Flux<AccountChangeEvent> changes() {
+        return sink.asFlux();
+    }
+
+    /**
+     * Parses a notification payload of the form {@code INSERT:<id>} or {@code DELETE:<id>}.
+     *
+     * @param payload the notification payload
+     * @return the change event
+     */
+    static AccountChangeEvent parse(String payload) {
+        int separator = payload.indexOf(':');
+        AccountChangeType type = payload.startsWith("DELETE") ? AccountChangeType.DELETED : AccountChangeType.CREATED;
+        return AccountChangeEvent.builder()
+                .type(type)
+                .accountId(UUID.fromString(payload.substring(separator + 1)))
+                .build();
+    }
+
+    /**
+     * Listens on the {@code account_changes} channel over a dedicated, non-pooled connection.
+     *
+     * @return Flux of account changes
+     */
+    private Flux<AccountChangeEvent> listen() {
+        return Mono.defer(() -> Mono.from(ConnectionFactories.get(listenerOptions()).create()))
+                .cast(PostgresqlConnection.class)
+                .flatMapMany(connection -> connection.createStatement("LISTEN " + CHANNEL)
+                        .execute()
+                        .flatMap(PostgresqlResult::getRowsUpdated)
+                        .then(Mono.fromRunnable(() -> log.info("Listening for account changes on channel '{}'", CHANNEL)))
+                        .thenMany(connection.getNotifications())
+                        .concatWith(Mono.error(new IllegalStateException("Account change listener connection closed")))
+                        .doFinally(signal -> Mono.from(connection.close()).subscribe()))
+                .map(Notification::getParameter)
+                .map(AccountChangeFeed::parse)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Account change listener disconnected, reconnecting",
+                                signal.failure())));
+    }
+
+    private ConnectionFactoryOptions listenerOptions() {
+        ConnectionFactoryOptions.Builder builder = ConnectionFactoryOptions.parse(r2dbcProperties.getUrl()).mutate();
+        if (r2dbcProperties.getUsername() != null) {
+            builder.option(ConnectionFactoryOptions.USER, r2dbcProperties.getUsername());
+        }
+        if (r2dbcProperties.getPassword() != null) {
+            builder.option(ConnectionFactoryOptions.PASSWORD, r2dbcProperties.getPassword());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.dtbbanking.account_service.service;
+
+import com.dtbbanking.account_service.errors.CustomerNotFoundException;
+import com.dtbbanking.account_service.mappers.AccountField;
+import com.dtbbanking.account_service.utils.ReadRouting;
+import com.dtbbanking.account_service.utils.SparseFieldset;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Read-only account queries for {@code ?fields=}: the same lookups as {@link AccountService},
+ * selecting only the columns of the requested fields and returning each account as a JSON object
+ * of those fields.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountFieldsService {
+
+    private final DatabaseClient databaseClient;
+    private final CardClient cardClient;
+
+    /**
+     * Retrieves the given fields of an account.
+     *
+     * @param id     the account UUID
+     * @param fields the fields to read
+     * @return Mono emitting the account's fields, or error if not found
+     */
+    public Mono<Map<String, Object>> getAccountById(UUID id, SparseFieldset<AccountField> fields) {
+        return databaseClient.sql(fields.select() + " WHERE id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> fields.read(row))
+                .one()
+                .switchIfEmpty(Mono.error(new CustomerNotFoundException("Account not found")));
+    }
+
+    /**
+     * Same accounts, in the same order, as
+     * {@link AccountService#getAccountsByFilters(String, String, String, UUID, int, int)}, and likewise
+     * may be served by a read replica.
+     *
+     * @param fields the fields to read
+     * @return Flux emitting each account's fields
+     */
+    public Flux<Map<String, Object>> getAccountsByFilters(String iban, String bicSwift, String cardAlias, UUID after,
+                                                          int page, int size, SparseFieldset<AccountField> fields) {
+        if (iban != null && !iban.isEmpty()) {
+            return page(fields, "WHERE iban ILIKE :pattern ESCAPE '\\'", containsPattern(iban), page, size);
+        }
+
+        if (bicSwift != null && !bicSwift.isEmpty()) {
+            return page(fields, "WHERE bic_swift ILIKE :pattern ESCAPE '\\'", containsPattern(bicSwift), page, size);
+        }
+
+        if (cardAlias != null && !cardAlias.isEmpty()) {
+            return ReadRouting.readOnly(AccountService.accountIdsByCardAlias(cardClient, cardAlias, after, page, size)
+                    .buffer(Math.max(size, 1))
+                    .concatMap(ids -> findByIdsInOrder(ids, fields))
+                    .take(size));
+        }
+
+        return page(fields, "", null, page, size);
+    }
+
+    private Flux<Map<String, Object>> page(SparseFieldset<AccountField> fields, String where, String pattern,
+                                           int page, int size) {
+        DatabaseClient.GenericExecuteSpec query = databaseClient.sql(fields.select() + " " + where
+                        + " LIMIT :limit OFFSET :offset")
+                .bind("limit", size)
+                .bind("offset", (long) page * size);
+        if (pattern != null) {
+            query = query.bind("pattern", pattern);
+        }
+        return ReadRouting.readOnly(query.map((row, metadata) -> fields.read(row)).all());
+    }
+
+    /**
+     * Loads accounts by ID, emitting them in the order of the given IDs.
+     */
+    private Flux<Map<String, Object>> findByIdsInOrder(List<UUID> ids, SparseFieldset<AccountField> fields) {
+        UUID[] idArray = ids.toArray(new UUID[0]);
+        return databaseClient.sql(fields.select() + " WHERE id = ANY(:ids) ORDER BY array_position(:order, id)")
+                .bind("ids", idArray)
+                .bind("order", idArray)
+                .map((row, metadata) -> fields.read(row))
+                .all();
+    }
+
+    private static String containsPattern(String value) {
+        return "%" + value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
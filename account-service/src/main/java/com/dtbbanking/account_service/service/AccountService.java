@@ -2,12 +2,15 @@ package com.dtbbanking.account_service.service;
 
 import com.dtbbanking.account_service.dto.AccountRequestDto;
 import com.dtbbanking.account_service.dto.AccountResponseDto;
+import com.dtbbanking.account_service.dto.BatchGetResponseDto;
 import com.dtbbanking.account_service.dto.UpdateAccountRequestDto;
 import com.dtbbanking.account_service.errors.CustomerNotFoundException;
 import com.dtbbanking.account_service.errors.DuplicateResourceException;
 import com.dtbbanking.account_service.mappers.AccountMapper;
 import com.dtbbanking.account_service.models.Account;
 import com.dtbbanking.account_service.repository.AccountRepository;
+import com.dtbbanking.account_service.utils.IbanUtils;
+import com.dtbbanking.account_service.utils.ReadRouting;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
@@ -19,8 +22,11 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Service class responsible for handling account-related operations,
@@ -31,9 +37,12 @@ import java.util.concurrent.ThreadLocalRandom;
 @RequiredArgsConstructor
 public class AccountService {
 
+    public static final int MAX_BATCH_GET_IDS = 1000;
+
     private final AccountRepository accountRepository;
     private final CustomerClient customerClient;
     private final CardClient cardClient;
+    private final AccountBatchLoader accountBatchLoader;
 
     /**
      * Creates a new account after validating that the customer exists and the IBAN is unique.
@@ -49,7 +58,7 @@ public class AccountService {
                     }
 
                     // Generate IBAN here
-                    String generatedIban = generateIban();
+                    String generatedIban = IbanUtils.generateIban();
 
                     return accountRepository.existsByIban(generatedIban)
                             .flatMap(ibanExists -> {
@@ -76,70 +85,180 @@ public class AccountService {
     }
 
     /**
-     * Simple IBAN generator example (replace with real logic).
-     */
-    private String generateIban() {
-        String countryCode = "KE";
-        int checkDigits = ThreadLocalRandom.current().nextInt(10, 99);
-        // Generate 18 alphanumeric chars for BBAN
-        String bban = UUID.randomUUID().toString().replaceAll("-", "").substring(0, 18).toUpperCase();
-        return countryCode + checkDigits + bban;
-    }
-
-
-    /**
-     * Retrieves an account by its ID.
+     * Retrieves an account by its ID. When batch loading is enabled, concurrent lookups are
+     * answered together by {@link AccountBatchLoader}.
      *
      * @param id the account UUID
      * @return Mono emitting the account response DTO, or error if not found
      */
     public Mono<AccountResponseDto> getAccountById(UUID id) {
-        return accountRepository.findById(id)
+        Mono<Account> account = accountBatchLoader.isEnabled()
+                ? accountBatchLoader.load(id)
+                : accountRepository.findById(id);
+        return account
                 .switchIfEmpty(Mono.error(new CustomerNotFoundException("Account not found")))
                 .map(AccountMapper::toResponseDto);
     }
 
+    /**
+     * Retrieves several accounts by ID in one query. Duplicate IDs are looked up once.
+     *
+     * @param ids the account UUIDs, at most {@value #MAX_BATCH_GET_IDS}
+     * @return Mono emitting the accounts found, in request order, and the IDs not found
+     */
+    public Mono<BatchGetResponseDto<AccountResponseDto>> getAccountsByIds(List<UUID> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_BATCH_GET_IDS) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Between 1 and " + MAX_BATCH_GET_IDS + " ids are required"));
+        }
+        List<UUID> requested = List.copyOf(new LinkedHashSet<>(ids));
+        log.debug("Fetching {} accounts by ID", requested.size());
+
+        return accountRepository.findAllByIdArray(requested.toArray(new UUID[0]))
+                .collectMap(Account::getId)
+                .map(accounts -> {
+                    List<AccountResponseDto> found = new ArrayList<>(accounts.size());
+                    List<UUID> missingIds = new ArrayList<>();
+                    for (UUID id : requested) {
+                        Account account = accounts.get(id);
+                        if (account == null) {
+                            missingIds.add(id);
+                        } else {
+                            found.add(AccountMapper.toResponseDto(account));
+                        }
+                    }
+                    return BatchGetResponseDto.<AccountResponseDto>builder()
+                            .found(found)
+                            .missingIds(missingIds)
+                            .build();
+                });
+    }
+
     /**
      * Retrieves a list of accounts based on optional filters like IBAN, BIC/SWIFT, or card alias.
-     * Supports pagination using page and size.
+     * Supports pagination using page and size. May be served by a read replica.
+     * <p>
+     * Card alias matches come in account ID order and are paged by cursor: {@code after}, the last
+     * account ID of the previous page, resumes the card-service lookup there. Without a cursor,
+     * {@code page} skips matching IDs, never loaded accounts.
+     * </p>
      *
      * @param iban      optional IBAN filter
      * @param bicSwift  optional BIC/SWIFT filter
      * @param cardAlias optional card alias filter
+     * @param after     optional card alias cursor: the last account ID of the previous page
      * @param page      page number (zero-based)
      * @param size      number of records per page
      * @return Flux emitting account response DTOs
      */
-    public Flux<AccountResponseDto> getAccountsByFilters(String iban, String bicSwift, String cardAlias, int page, int size) {
+    public Flux<AccountResponseDto> getAccountsByFilters(String iban, String bicSwift, String cardAlias, UUID after,
+                                                         int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
 
         if (iban != null && !iban.isEmpty()) {
             log.info("Filtering accounts by IBAN: {}", iban);
-            return accountRepository.findByIbanContainingIgnoreCase(iban, pageable)
-                    .map(AccountMapper::toResponseDto);
+            return ReadRouting.readOnly(accountRepository.findByIbanContainingIgnoreCase(iban, pageable)
+                    .map(AccountMapper::toResponseDto));
         }
 
         if (bicSwift != null && !bicSwift.isEmpty()) {
             log.info("Filtering accounts by BIC/SWIFT: {}", bicSwift);
-            return accountRepository.findByBicSwiftContainingIgnoreCase(bicSwift, pageable)
-                    .map(AccountMapper::toResponseDto);
+            return ReadRouting.readOnly(accountRepository.findByBicSwiftContainingIgnoreCase(bicSwift, pageable)
+                    .map(AccountMapper::toResponseDto));
         }
 
         if (cardAlias != null && !cardAlias.isEmpty()) {
             log.info("Filtering accounts by card alias: {}", cardAlias);
-            return cardClient.getAccountIdsByCardAlias(cardAlias)
-                    .flatMapMany(accountIds -> accountRepository.findByIdIn(accountIds)
-                            .skip((long) page * size)
-                            .take(size)
-                            .map(AccountMapper::toResponseDto)
-                    );
+            return ReadRouting.readOnly(accountIdsByCardAlias(cardClient, cardAlias, after, page, size)
+                    .buffer(Math.max(size, 1))
+                    .concatMap(this::findByIdsInOrder)
+                    .take(size)
+                    .map(AccountMapper::toResponseDto));
         }
 
         log.info("No filters applied, returning all accounts");
-        return accountRepository.findAll()
+        return ReadRouting.readOnly(accountRepository.findAll()
                 .skip((long) page * size)
                 .take(size)
-                .map(AccountMapper::toResponseDto);
+                .map(AccountMapper::toResponseDto));
+    }
+
+    /**
+     * Account IDs with a card matching the alias, starting at the cursor or, without one, at the page.
+     */
+    static Flux<UUID> accountIdsByCardAlias(CardClient cardClient, String cardAlias, UUID after, int page, int size) {
+        Flux<UUID> ids = cardClient.streamAccountIdsByCardAlias(cardAlias, after);
+        return after == null ? ids.skip((long) page * size) : ids;
+    }
+
+    /**
+     * Loads accounts by ID, emitting them in the order of the given IDs.
+     *
+     * @param ids the account UUIDs
+     * @return Flux emitting the accounts that exist
+     */
+    private Flux<Account> findByIdsInOrder(List<UUID> ids) {
+        return accountRepository.findByIdIn(ids)
+                .collectMap(Account::getId)
+                .flatMapIterable(accounts -> ids.stream()
+                        .map(accounts::get)
+                        .filter(Objects::nonNull)
+                        .toList());
+    }
+
+    /**
+     * Checks whether an account exists (internal endpoint).
+     *
+     * @param id the account UUID
+     * @return Mono emitting true if the account exists
+     */
+    public Mono<Boolean> accountExists(UUID id) {
+        return accountRepository.existsById(id);
+    }
+
+    /**
+     * Returns which of the given account IDs exist (internal endpoint).
+     *
+     * @param ids the account UUIDs to check
+     * @return Flux emitting the IDs that belong to existing accounts
+     */
+    public Flux<UUID> getExistingAccountIds(List<UUID> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return accountRepository.findExistingIds(ids);
+    }
+
+    /**
+     * Pages through all account IDs in primary key order (internal endpoint).
+     *
+     * @param after the last ID of the previous page, or null for the first page
+     * @param limit the page size
+     * @return Flux emitting up to {@code limit} account UUIDs
+     */
+    public Flux<UUID> getAccountIdsAfter(UUID after, int limit) {
+        return accountRepository.findIdsAfter(after == null ? new UUID(0L, 0L) : after, limit);
+    }
+
+    /**
+     * Streams all account IDs in primary key order (internal endpoint).
+     *
+     * @return Flux emitting every account UUID
+     */
+    public Flux<UUID> streamAccountIds() {
+        return accountRepository.findAllIds();
+    }
+
+    /**
+     * Deletes every account of a deleted customer (internal endpoint, called by customer-service).
+     * Deleting a customer with no accounts, or one whose accounts are already gone, is not an error.
+     *
+     * @param customerId the UUID of the customer
+     * @return Mono emitting the number of accounts deleted
+     */
+    public Mono<Long> deleteAccountsByCustomerId(UUID customerId) {
+        return accountRepository.deleteByCustomerId(customerId)
+                .doOnNext(deleted -> log.info("Deleted {} accounts of customer {}", deleted, customerId));
     }
 
     /**
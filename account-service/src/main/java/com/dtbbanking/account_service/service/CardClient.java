@@ -1,28 +1,74 @@
 package com.dtbbanking.account_service.service;
 
+import com.dtbbanking.account_service.dto.CardAliasLookupDto;
+import com.dtbbanking.account_service.models.InternalTransport;
+import com.dtbbanking.account_service.utils.UuidListCodec;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.rsocket.RSocketRequester;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
+import reactor.core.publisher.Flux;
 
-import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Component
 @RequiredArgsConstructor
 public class CardClient {
 
+    static final int ACCOUNT_ID_PAGE_SIZE = 1000;
+
     private final WebClient cardServiceWebClient;
+    private final RSocketRequester cardServiceRequester;
+
+    @Value("${card.service.transport:HTTP}")
+    private InternalTransport transport = InternalTransport.HTTP;
+
+    /**
+     * Streams the distinct account IDs that have a card matching the alias, in account ID order,
+     * received as {@code application/x-uuid-list} over HTTP or as an RSocket request-stream,
+     * depending on {@code card.service.transport}.
+     * Pages are requested from card-service one at a time and only when the subscriber wants
+     * more, so memory stays bounded by one page however many accounts match.
+     *
+     * @param alias the card alias filter
+     * @param after the account ID to continue after, or null to start from the first
+     * @return Flux of account IDs
+     */
+    public Flux<UUID> streamAccountIdsByCardAlias(String alias, UUID after) {
+        return pageFrom(alias, after);
+    }
+
+    private Flux<UUID> pageFrom(String alias, UUID after) {
+        AtomicReference<UUID> last = new AtomicReference<>();
+        AtomicInteger received = new AtomicInteger();
+
+        return fetchPage(alias, after)
+                .doOnNext(id -> {
+                    last.set(id);
+                    received.incrementAndGet();
+                })
+                .concatWith(Flux.defer(() -> received.get() < ACCOUNT_ID_PAGE_SIZE
+                        ? Flux.empty()
+                        : pageFrom(alias, last.get())));
+    }
 
-    public Mono<List<UUID>> getAccountIdsByCardAlias(String alias) {
+    private Flux<UUID> fetchPage(String alias, UUID after) {
+        if (transport == InternalTransport.RSOCKET) {
+            return cardServiceRequester.route("cards.account-ids.by-alias")
+                    .data(new CardAliasLookupDto(alias, after, ACCOUNT_ID_PAGE_SIZE))
+                    .retrieveFlux(UUID.class);
+        }
         return cardServiceWebClient.get()
-                .uri(uriBuilder -> uriBuilder
-                        .path("/internal/cards/account-ids")
-                        .queryParam("alias", alias)
-                        .build())
+                // templates rather than a uri builder, so http.client.requests is tagged by route
+                .uri(after == null
+                                ? "/internal/cards/account-ids?alias={alias}&limit={limit}"
+                                : "/internal/cards/account-ids?alias={alias}&limit={limit}&after={after}",
+                        alias, ACCOUNT_ID_PAGE_SIZE, after)
+                .accept(UuidListCodec.MEDIA_TYPE)
                 .retrieve()
-                .bodyToFlux(UUID.class)
-                .collectList();
+                .bodyToFlux(UUID.class);
     }
 }
@@ -1,10 +1,12 @@
 package com.dtbbanking.account_service.service;
 
 import com.dtbbanking.account_service.dto.CustomerResponseDto;
+import com.dtbbanking.account_service.models.InternalTransport;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.messaging.rsocket.RSocketRequester;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
@@ -12,14 +14,27 @@ import reactor.core.publisher.Mono;
 import java.util.Objects;
 import java.util.UUID;
 
+/**
+ * Customer lookups against customer-service, over HTTP or RSocket depending on
+ * {@code customer.service.transport}.
+ */
 @Component
 @RequiredArgsConstructor
 public class CustomerClient {
 
-
     private final WebClient customerServiceWebClient;
+    private final RSocketRequester customerServiceRequester;
+
+    @Value("${customer.service.transport:HTTP}")
+    private InternalTransport transport = InternalTransport.HTTP;
 
     public Mono<Boolean> existsById(UUID customerId) {
+        if (transport == InternalTransport.RSOCKET) {
+            return customerServiceRequester.route("customers.exists")
+                    .data(customerId)
+                    .retrieveMono(Boolean.class)
+                    .defaultIfEmpty(false);
+        }
         return customerServiceWebClient.get()
                 .uri("/{id}", customerId)
                 .retrieve()
@@ -34,4 +49,4 @@ public class CustomerClient {
                 .defaultIfEmpty(false);
     }
 
-}
\ No newline at end of file
+}
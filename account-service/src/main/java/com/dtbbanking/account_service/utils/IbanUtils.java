@@ -0,0 +1,21 @@
+package com.dtbbanking.account_service.utils;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+public final class IbanUtils {
+
+    private IbanUtils() {
+    }
+
+    /**
+     * Simple IBAN generator example (replace with real logic).
+     */
+    public static String generateIban() {
+        String countryCode = "KE";
+        int checkDigits = ThreadLocalRandom.current().nextInt(10, 99);
+        // Generate 18 alphanumeric chars for BBAN
+        String bban = UUID.randomUUID().toString().replaceAll("-", "").substring(0, 18).toUpperCase();
+        return countryCode + checkDigits + bban;
+    }
+}
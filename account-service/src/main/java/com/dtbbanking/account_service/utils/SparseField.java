@@ -0,0 +1,18 @@
+package com.dtbbanking.account_service.utils;
+
+import io.r2dbc.spi.Row;
+
+import java.util.List;
+
+/**
+ * A response field a client can ask for with {@code ?fields=}: its JSON name, the columns it is
+ * read from and how its value is read from a row selecting those columns.
+ */
+public interface SparseField {
+
+    String jsonName();
+
+    List<String> columns();
+
+    Object read(Row row);
+}
@@ -0,0 +1,50 @@
+package com.dtbbanking.account_service.utils;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Counts the SQL statements run on behalf of one HTTP request: the request's scope travels in the
+ * Reactor context and {@code StatementMetricsListener} records every statement executed under it.
+ */
+public final class StatementCounting {
+
+    private static final String REQUEST_SCOPE = StatementCounting.class.getName() + ".REQUEST_SCOPE";
+
+    private StatementCounting() {
+    }
+
+    public static Context withRequestScope(Context context, RequestScope scope) {
+        return context.put(REQUEST_SCOPE, scope);
+    }
+
+    public static Optional<RequestScope> requestScope(ContextView context) {
+        return context.getOrEmpty(REQUEST_SCOPE);
+    }
+
+    /**
+     * Executions per normalized statement, in the order the statements first ran.
+     */
+    public static final class RequestScope {
+
+        private final Map<String, Integer> statements = new LinkedHashMap<>();
+        private int total;
+
+        public synchronized void record(String sql) {
+            statements.merge(sql, 1, Integer::sum);
+            total++;
+        }
+
+        public synchronized int total() {
+            return total;
+        }
+
+        public synchronized Map<String, Integer> statements() {
+            return new LinkedHashMap<>(statements);
+        }
+    }
+}
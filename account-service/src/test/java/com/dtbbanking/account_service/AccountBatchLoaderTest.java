@@ -0,0 +1,208 @@
+package com.dtbbanking.account_service;
+
+import com.dtbbanking.account_service.dto.AccountResponseDto;
+import com.dtbbanking.account_service.models.Account;
+import com.dtbbanking.account_service.repository.AccountRepository;
+import com.dtbbanking.account_service.service.AccountBatchLoader;
+import com.dtbbanking.account_service.service.AccountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AccountBatchLoaderTest {
+
+    private static final Duration QUERY_TIME = Duration.ofMillis(2);
+
+    private AccountRepository accountRepository;
+    private AccountBatchLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        accountRepository = mock(AccountRepository.class);
+        loader = new AccountBatchLoader(accountRepository, true, 500, Duration.ofMillis(20), 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        loader.stop();
+    }
+
+    @Test
+    void answersConcurrentLookupsWithOneQueryPerWindow() {
+        Account first = account();
+        Account second = account();
+        UUID missing = UUID.randomUUID();
+        ArgumentCaptor<UUID[]> ids = ArgumentCaptor.forClass(UUID[].class);
+        when(accountRepository.findAllByIdArray(ids.capture())).thenReturn(Flux.just(first, second));
+
+        StepVerifier.create(Flux.merge(
+                        loader.load(first.getId()).map(Account::getIban),
+                        loader.load(second.getId()).map(Account::getIban),
+                        loader.load(first.getId()).map(Account::getIban),
+                        loader.load(missing).map(Account::getIban).defaultIfEmpty("missing"))
+                        .collectList())
+                .assertNext(ibans -> assertEquals(
+                        Stream.of(first.getIban(), first.getIban(), second.getIban(), "missing").sorted().toList(),
+                        ibans.stream().sorted().toList()))
+                .verifyComplete();
+
+        verify(accountRepository, times(1)).findAllByIdArray(any());
+        // the duplicate lookup of the first account is queried once
+        assertEquals(List.of(first.getId(), second.getId(), missing), Arrays.asList(ids.getValue()));
+    }
+
+    @Test
+    void failsEveryLookupOfAFailedQuery() {
+        when(accountRepository.findAllByIdArray(any())).thenReturn(Flux.error(new IllegalStateException("down")));
+
+        StepVerifier.create(Flux.merge(loader.load(UUID.randomUUID()), loader.load(UUID.randomUUID()))
+                        .map(account -> "found")
+                        .onErrorResume(e -> Mono.just(e.getMessage()))
+                        .collectList())
+                .assertNext(results -> assertEquals(List.of("down"), results))
+                .verifyComplete();
+    }
+
+    @Test
+    void queuesLookupsWhileEveryQuerySlotIsBusy() {
+        loader.stop();
+        loader = new AccountBatchLoader(accountRepository, true, 2, Duration.ofMillis(1), 1);
+        // a slow database: batches fill and time out far faster than the single query slot frees up
+        when(accountRepository.findAllByIdArray(any())).thenAnswer(invocation ->
+                Flux.fromArray(invocation.<UUID[]>getArgument(0))
+                        .map(id -> Account.builder().id(id).build())
+                        .delaySubscription(Duration.ofMillis(50)));
+
+        List<Account> found = Flux.range(0, 40)
+                .delayElements(Duration.ofMillis(2))
+                .flatMap(i -> loader.load(UUID.randomUUID()))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(40, found.size());
+    }
+
+    @Test
+    void failsTheBatchAndKeepsLoadingWhenTheQueryThrows() {
+        Account account = account();
+        when(accountRepository.findAllByIdArray(any()))
+                .thenThrow(new IllegalStateException("pool closed"))
+                .thenReturn(Flux.just(account));
+
+        StepVerifier.create(loader.load(account.getId()))
+                .expectErrorMessage("pool closed")
+                .verify(Duration.ofSeconds(5));
+        StepVerifier.create(loader.load(account.getId()))
+                .expectNext(account)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    /**
+     * The same burst of {@code GET /{id}} lookups through {@link AccountService} with batch loading
+     * off and on, against a fake repository that answers after {@link #QUERY_TIME} and counts the
+     * queries in flight. An R2DBC repository holds one pooled connection per query in flight, so
+     * the peak approximates the connections the burst would need; it is not measured on a real pool.
+     */
+    @Test
+    void batchingCutsConnectionUseUnderConcurrentLookups() {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            accounts.add(account());
+        }
+        Map<UUID, Account> byId = accounts.stream().collect(Collectors.toMap(Account::getId, Function.identity()));
+        ConnectionCounter connections = new ConnectionCounter();
+        when(accountRepository.findById(any(UUID.class))).thenAnswer(invocation ->
+                connections.hold(Mono.justOrEmpty(byId.get(invocation.<UUID>getArgument(0)))));
+        when(accountRepository.findAllByIdArray(any())).thenAnswer(invocation ->
+                connections.hold(Flux.fromArray(invocation.<UUID[]>getArgument(0)).mapNotNull(byId::get)));
+        // a window wide enough that a burst slowed down by a cold JVM is still cut by batch size, not by time
+        loader.stop();
+        loader = new AccountBatchLoader(accountRepository, true, 500, Duration.ofMillis(100), 4);
+        AccountService accountService = new AccountService(accountRepository, null, null, loader);
+
+        loader.setEnabled(false);
+        ConnectionUse before = burst(accountService, accounts, connections);
+        loader.setEnabled(true);
+        ConnectionUse after = burst(accountService, accounts, connections);
+
+        System.out.printf("2000 concurrent lookups of 200 accounts: unbatched %s, batched %s%n", before, after);
+        assertEquals(2000, before.queries());
+        assertTrue(after.queries() <= 10, "batched queries: " + after.queries());
+        assertTrue(after.peakConnections() * 10 < before.peakConnections(),
+                "peak connections " + before.peakConnections() + " -> " + after.peakConnections());
+    }
+
+    private static ConnectionUse burst(AccountService accountService, List<Account> accounts, ConnectionCounter connections) {
+        connections.reset();
+        List<AccountResponseDto> found = Flux.range(0, 2000)
+                .flatMap(i -> accountService.getAccountById(accounts.get(i % accounts.size()).getId()), 2000)
+                .collectList()
+                .block(Duration.ofSeconds(30));
+        assertEquals(2000, found.size());
+        return new ConnectionUse(connections.queries.get(), connections.peak.get());
+    }
+
+    private static Account account() {
+        return Account.builder()
+                .id(UUID.randomUUID())
+                .iban("KE" + UUID.randomUUID().toString().replace("-", "").substring(0, 20).toUpperCase())
+                .bicSwift("NWBKKE2L")
+                .customerId(UUID.randomUUID())
+                .build();
+    }
+
+    private record ConnectionUse(int queries, int peakConnections) {
+        @Override
+        public String toString() {
+            return queries + " queries / peak " + peakConnections + " connections";
+        }
+    }
+
+    private static final class ConnectionCounter {
+        final AtomicInteger queries = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+
+        void reset() {
+            queries.set(0);
+            inFlight.set(0);
+            peak.set(0);
+        }
+
+        <T> Mono<T> hold(Mono<T> result) {
+            return hold(result.flux()).next();
+        }
+
+        <T> Flux<T> hold(Flux<T> result) {
+            return Flux.defer(() -> {
+                queries.incrementAndGet();
+                peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                return Mono.delay(QUERY_TIME).thenMany(result);
+            }).doFinally(signal -> inFlight.decrementAndGet());
+        }
+    }
+}
@@ -3,8 +3,17 @@ package com.dtbbanking.account_service;
 import com.dtbbanking.account_service.controller.AccountController;
 import com.dtbbanking.account_service.dto.AccountRequestDto;
 import com.dtbbanking.account_service.dto.AccountResponseDto;
+import com.dtbbanking.account_service.dto.BatchGetRequestDto;
+import com.dtbbanking.account_service.dto.BatchGetResponseDto;
 import com.dtbbanking.account_service.dto.UpdateAccountRequestDto;
+import com.dtbbanking.account_service.mappers.AccountField;
+import com.dtbbanking.account_service.service.AccountBatchLoader;
+import com.dtbbanking.account_service.service.AccountChangeFeed;
+import com.dtbbanking.account_service.service.AccountFieldsService;
 import com.dtbbanking.account_service.service.AccountService;
+import com.dtbbanking.account_service.utils.UuidListCodec;
+import com.dtbbanking.account_service.utils.UuidListDecoder;
+import com.dtbbanking.account_service.utils.UuidListEncoder;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Path;
 import jakarta.validation.Validator;
@@ -18,9 +27,13 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -36,6 +49,15 @@ class AccountControllerTest {
     @Mock
     private AccountService accountService;
 
+    @Mock
+    private AccountFieldsService accountFieldsService;
+
+    @Mock
+    private AccountChangeFeed accountChangeFeed;
+
+    @Mock
+    private AccountBatchLoader accountBatchLoader;
+
     @Mock
     private Validator validator;
 
@@ -50,7 +72,17 @@ class AccountControllerTest {
 
     @BeforeEach
     void setup() {
-        webTestClient = WebTestClient.bindToController(accountController).build();
+        webTestClient = WebTestClient.bindToController(accountController)
+                .httpMessageCodecs(codecs -> {
+                    codecs.customCodecs().register(new UuidListEncoder());
+                    codecs.customCodecs().register(new UuidListDecoder());
+                })
+                .configureClient()
+                .codecs(codecs -> {
+                    codecs.customCodecs().register(new UuidListEncoder());
+                    codecs.customCodecs().register(new UuidListDecoder());
+                })
+                .build();
 
         validRequestDto = new AccountRequestDto("DE89 3704 0044 0532 0130 00", "COBADEFFXXX", customerId);
         responseDto = AccountResponseDto.builder()
@@ -63,6 +95,20 @@ class AccountControllerTest {
                 .build();
     }
 
+    @Test
+    void setBatchLoading_shouldSwitchTheLoader() {
+        when(accountBatchLoader.isEnabled()).thenReturn(true);
+
+        webTestClient.put()
+                .uri("/api/v1/accounts/internal/batch-loading?enabled=true")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data").isEqualTo(true);
+
+        verify(accountBatchLoader).setEnabled(true);
+    }
+
     @Test
     void createAccount_shouldReturnOk() {
         when(validator.validate(any(AccountRequestDto.class))).thenReturn(Collections.emptySet());
@@ -121,6 +167,65 @@ class AccountControllerTest {
                 .jsonPath("$.data.id").isEqualTo(accountId.toString());
     }
 
+    @Test
+    void getAccounts_withFields_shouldReturnSelectedFieldsOnly() {
+        Map<String, Object> selected = new LinkedHashMap<>();
+        selected.put("id", accountId);
+        selected.put("iban", responseDto.getIban());
+        when(accountFieldsService.getAccountsByFilters(null, null, null, null, 0, 10, AccountField.FIELDSETS.parse("id,iban")))
+                .thenReturn(Flux.just(selected));
+
+        webTestClient.get()
+                .uri("/api/v1/accounts?fields=iban,id")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data[0].id").isEqualTo(accountId.toString())
+                .jsonPath("$.data[0].iban").isEqualTo(responseDto.getIban())
+                .jsonPath("$.data[0].customerId").doesNotExist();
+
+        verifyNoInteractions(accountService);
+    }
+
+    @Test
+    void getAccount_withUnknownField_shouldReturnBadRequest() {
+        webTestClient.get()
+                .uri("/api/v1/accounts/{id}?fields=id,balance", accountId)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(accountService, accountFieldsService);
+    }
+
+    @Test
+    void getAccountsByIds_shouldResolveQueryAndBodyIds() {
+        UUID missing = UUID.randomUUID();
+        BatchGetResponseDto<AccountResponseDto> result = BatchGetResponseDto.<AccountResponseDto>builder()
+                .found(List.of(responseDto))
+                .missingIds(List.of(missing))
+                .build();
+        when(accountService.getAccountsByIds(List.of(accountId, missing))).thenReturn(Mono.just(result));
+
+        webTestClient.get()
+                .uri("/api/v1/accounts?ids={a},{b}", accountId, missing)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.found[0].id").isEqualTo(accountId.toString())
+                .jsonPath("$.data.missingIds[0]").isEqualTo(missing.toString());
+
+        webTestClient.post()
+                .uri("/api/v1/accounts/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new BatchGetRequestDto(List.of(accountId, missing)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.found[0].id").isEqualTo(accountId.toString());
+
+        verify(accountService, never()).getAccountsByFilters(any(), any(), any(), any(), anyInt(), anyInt());
+    }
+
     @Test
     void deleteAccount_shouldReturnOk() {
         when(accountService.deleteAccount(accountId)).thenReturn(Mono.empty());
@@ -135,7 +240,7 @@ class AccountControllerTest {
 
     @Test
     void getAccounts_shouldReturnList() {
-        when(accountService.getAccountsByFilters(null, null, null, 0, 10))
+        when(accountService.getAccountsByFilters(null, null, null, null, 0, 10))
                 .thenReturn(Flux.just(responseDto));
 
         webTestClient.get()
@@ -148,5 +253,44 @@ class AccountControllerTest {
                 .expectBody()
                 .jsonPath("$.data[0].id").isEqualTo(accountId.toString());
     }
-}
 
+    @Test
+    void streamAccountIds_shouldReturnNdjson() {
+        UUID second = UUID.randomUUID();
+        when(accountService.streamAccountIds()).thenReturn(Flux.just(accountId, second));
+
+        Flux<UUID> ids = webTestClient.get()
+                .uri("/api/v1/accounts/internal/ids/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(UUID.class)
+                .getResponseBody();
+
+        StepVerifier.create(ids)
+                .expectNext(accountId, second)
+                .verifyComplete();
+    }
+
+    @Test
+    void getExistingAccountIds_shouldExchangeBinaryIds() {
+        UUID unknown = UUID.randomUUID();
+        when(accountService.getExistingAccountIds(List.of(accountId, unknown))).thenReturn(Flux.just(accountId));
+
+        Flux<UUID> ids = webTestClient.post()
+                .uri("/api/v1/accounts/internal/existing-ids")
+                .contentType(UuidListCodec.MEDIA_TYPE)
+                .accept(UuidListCodec.MEDIA_TYPE)
+                .body(Flux.just(accountId, unknown), UUID.class)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(UuidListCodec.MEDIA_TYPE)
+                .returnResult(UUID.class)
+                .getResponseBody();
+
+        StepVerifier.create(ids)
+                .expectNext(accountId)
+                .verifyComplete();
+    }
+}
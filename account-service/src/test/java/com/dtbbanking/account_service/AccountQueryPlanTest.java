@@ -0,0 +1,165 @@
+package com.dtbbanking.account_service;
+
+import com.dtbbanking.account_service.repository.AccountRepository;
+import io.r2dbc.spi.ConnectionFactories;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query plans of every {@link AccountRepository} method on a seeded, analyzed tb_accounts (skipped
+ * without Docker). A method whose plan loses its index, gains a sequential scan or exceeds its
+ * cost ceiling fails with the expected and actual plan properties side by side. A new repository
+ * method fails {@link #everyRepositoryMethodHasAPlanCheck()} until it is given an expectation.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class AccountQueryPlanTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15");
+
+    // Only what the tb_accounts foreign key of 001 needs until 004 drops it; the table belongs to customer-service
+    private static final String CUSTOMERS = "CREATE TABLE tb_customers (id UUID PRIMARY KEY)";
+
+    // 100k customers with one or two accounts each, over four years of monthly partitions; the
+    // bank's own BIC on most accounts
+    private static final String SEED = """
+            SELECT setseed(0.47);
+            SELECT create_monthly_partitions('tb_accounts', 'tb_accounts', (CURRENT_DATE - INTERVAL '4 years')::date, 3);
+            SET session_replication_role = replica;
+            INSERT INTO tb_customers (id) SELECT gen_random_uuid() FROM generate_series(1, 100000);
+            INSERT INTO tb_accounts (id, iban, bic_swift, customer_id, created_at, updated_at)
+            SELECT gen_random_uuid(),
+                   'KE' || (10 + floor(random() * 89))::int || upper(substr(md5(random()::text), 1, 18)),
+                   (ARRAY['DTKEKENA', 'KCBLKENX', 'EQBLKENA', 'SCBLKENX'])[1 + floor(power(random(), 4) * 4)::int],
+                   customer_id,
+                   created_at,
+                   created_at
+            FROM (SELECT c.id AS customer_id, now() - random() * INTERVAL '4 years' AS created_at
+                  FROM (SELECT id, row_number() OVER () AS n FROM tb_customers) AS c
+                  CROSS JOIN LATERAL generate_series(1, 1 + c.n % 2)) AS accounts;
+            INSERT INTO tb_account_ibans (iban, account_id) SELECT iban, id FROM tb_accounts ON CONFLICT DO NOTHING;
+            RESET session_replication_role;
+            ANALYZE tb_customers, tb_accounts, tb_account_ibans;
+            """;
+
+    private static QueryPlans plans;
+    private static AccountRepository repository;
+    private static UUID accountId;
+    private static UUID customerId;
+    private static String iban;
+
+    @BeforeAll
+    static void seed() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        new JdbcTemplate(dataSource).execute(CUSTOMERS);
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute(SEED);
+        Map<String, Object> account = jdbc.queryForMap("SELECT id, iban, customer_id FROM tb_accounts LIMIT 1");
+        accountId = (UUID) account.get("id");
+        customerId = (UUID) account.get("customer_id");
+        iban = (String) account.get("iban");
+
+        plans = new QueryPlans(ConnectionFactories.get("r2dbc:postgresql://"
+                + POSTGRES.getUsername() + ":" + POSTGRES.getPassword() + "@" + POSTGRES.getHost() + ":"
+                + POSTGRES.getFirstMappedPort() + "/" + POSTGRES.getDatabaseName()), partitionParents(jdbc));
+        repository = new R2dbcRepositoryFactory(new R2dbcEntityTemplate(plans.connectionFactory()))
+                .getRepository(AccountRepository.class);
+    }
+
+    // Cost ceilings are about twice the estimates on the seeded data. Only created_at prunes
+    // partitions, so other lookups probe an index in each of the ~50 months.
+    private static Map<String, Check> checks() {
+        Map<String, Check> checks = new LinkedHashMap<>();
+        checks.put("findByIbanContainingIgnoreCase(String, Pageable)", new Check(
+                () -> repository.findByIbanContainingIgnoreCase(iban.substring(4, 10), PageRequest.of(0, 20)),
+                QueryPlans.expect().seqScan("substring search").maxCost(3_500)));
+        checks.put("findByBicSwiftContainingIgnoreCase(String, Pageable)", new Check(
+                () -> repository.findByBicSwiftContainingIgnoreCase("kcbl", PageRequest.of(0, 20)),
+                QueryPlans.expect().seqScan("substring search").maxCost(150)));
+        checks.put("existsByIban(String)", new Check(
+                () -> repository.existsByIban(iban),
+                QueryPlans.expect().usesIndex("tb_account_ibans_pkey").maxCost(10)));
+        checks.put("findByIdIn(List)", new Check(
+                () -> repository.findByIdIn(List.of(accountId, UUID.randomUUID(), UUID.randomUUID())),
+                QueryPlans.expect().usesIndex("pk_tb_accounts_by_month").maxCost(2_500)));
+        checks.put("findExistingIds(Collection)", new Check(
+                () -> repository.findExistingIds(List.of(accountId, UUID.randomUUID(), UUID.randomUUID())),
+                QueryPlans.expect().usesIndex("pk_tb_accounts_by_month").maxCost(2_500)));
+        checks.put("findIdsAfter(UUID, int)", new Check(
+                () -> repository.findIdsAfter(accountId, 500),
+                QueryPlans.expect().usesIndex("pk_tb_accounts_by_month").maxCost(200)));
+        checks.put("findAllIds()", new Check(
+                () -> repository.findAllIds(),
+                QueryPlans.expect().usesIndex("pk_tb_accounts_by_month").maxCost(40_000)));
+        checks.put("deleteByCustomerId(UUID)", new Check(
+                () -> repository.deleteByCustomerId(customerId),
+                QueryPlans.expect().usesIndex("idx_tb_accounts_customer_id").maxCost(1_000)));
+        checks.put("findAllByIdArray(UUID[])", new Check(
+                () -> repository.findAllByIdArray(new UUID[]{accountId, UUID.randomUUID(), UUID.randomUUID()}),
+                QueryPlans.expect().usesIndex("pk_tb_accounts_by_month").maxCost(2_500)));
+        return checks;
+    }
+
+    @TestFactory
+    Stream<DynamicTest> repositoryMethodPlans() {
+        return checks().entrySet().stream().map(check -> DynamicTest.dynamicTest(check.getKey(),
+                () -> check.getValue().expectation().verify(check.getKey(), plans.explain(check.getValue().call().get()))));
+    }
+
+    @Test
+    void everyRepositoryMethodHasAPlanCheck() {
+        assertThat(checks().keySet()).containsExactlyInAnyOrderElementsOf(Arrays.stream(AccountRepository.class.getDeclaredMethods())
+                .map(AccountQueryPlanTest::signature)
+                .toList());
+    }
+
+    private static String signature(Method method) {
+        return method.getName() + Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    private static Map<String, String> partitionParents(JdbcTemplate jdbc) {
+        Map<String, String> parents = new LinkedHashMap<>();
+        jdbc.query("SELECT c.relname, p.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "JOIN pg_class p ON p.oid = i.inhparent", row -> {
+            parents.put(row.getString(1), row.getString(2));
+        });
+        return parents;
+    }
+
+    private record Check(Supplier<Publisher<?>> call, QueryPlans.Expectation expectation) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.dtbbanking.account_service;
+
+import com.dtbbanking.account_service.controller.AccountRSocketController;
+import com.dtbbanking.account_service.service.AccountService;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.transport.netty.server.CloseableChannel;
+import io.rsocket.transport.netty.server.TcpServerTransport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AccountRSocketControllerTest {
+
+    private final AccountService accountService = mock(AccountService.class);
+    private CloseableChannel server;
+    private RSocketRequester requester;
+
+    @BeforeEach
+    void setUp() {
+        RSocketStrategies strategies = RSocketStrategies.builder()
+                .encoder(new Jackson2CborEncoder())
+                .decoder(new Jackson2CborDecoder())
+                .build();
+
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.registerBean(AccountRSocketController.class, () -> new AccountRSocketController(accountService));
+        context.refresh();
+        RSocketMessageHandler handler = new RSocketMessageHandler();
+        handler.setRSocketStrategies(strategies);
+        handler.setApplicationContext(context);
+        handler.afterPropertiesSet();
+
+        server = RSocketServer.create(handler.responder())
+                .bind(TcpServerTransport.create("localhost", 0))
+                .block();
+        requester = RSocketRequester.builder()
+                .rsocketStrategies(strategies)
+                .tcp("localhost", server.address().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        requester.dispose();
+        server.dispose();
+    }
+
+    @Test
+    void accountExists_shouldAnswerOverRequestResponse() {
+        UUID accountId = UUID.randomUUID();
+        when(accountService.accountExists(accountId)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(requester.route("accounts.exists").data(accountId).retrieveMono(Boolean.class))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    void existingAccountIds_shouldCheckChannelInBatches() {
+        List<UUID> ids = IntStream.range(0, 2500).mapToObj(i -> UUID.randomUUID()).toList();
+        when(accountService.getExistingAccountIds(anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<List<UUID>>getArgument(0)).take(1));
+
+        StepVerifier.create(requester.route("accounts.existing")
+                        .data(Flux.fromIterable(ids))
+                        .retrieveFlux(UUID.class))
+                .expectNext(ids.get(0), ids.get(1000), ids.get(2000))
+                .verifyComplete();
+
+        verify(accountService, times(3)).getExistingAccountIds(anyList());
+    }
+}
@@ -5,14 +5,17 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import com.dtbbanking.account_service.dto.AccountRequestDto;
+import com.dtbbanking.account_service.dto.AccountResponseDto;
 import com.dtbbanking.account_service.dto.UpdateAccountRequestDto;
 import com.dtbbanking.account_service.errors.CustomerNotFoundException;
 import com.dtbbanking.account_service.errors.DuplicateResourceException;
 import com.dtbbanking.account_service.models.Account;
 import com.dtbbanking.account_service.repository.AccountRepository;
+import com.dtbbanking.account_service.service.AccountBatchLoader;
 import com.dtbbanking.account_service.service.AccountService;
 import com.dtbbanking.account_service.service.CardClient;
 import com.dtbbanking.account_service.service.CustomerClient;
@@ -34,6 +37,7 @@ public class AccountServiceTest {
     private AccountRepository accountRepository;
     private CustomerClient customerClient;
     private CardClient cardClient;
+    private AccountBatchLoader accountBatchLoader;
     private AccountService accountService;
 
     private Account savedAccount;
@@ -43,7 +47,8 @@ public class AccountServiceTest {
         accountRepository = mock(AccountRepository.class);
         customerClient = mock(CustomerClient.class);
         cardClient = mock(CardClient.class);
-        accountService = new AccountService(accountRepository, customerClient,cardClient);
+        accountBatchLoader = mock(AccountBatchLoader.class);
+        accountService = new AccountService(accountRepository, customerClient, cardClient, accountBatchLoader);
 
         savedAccount = Account.builder()
                 .id(UUID.randomUUID())
@@ -112,6 +117,42 @@ public class AccountServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void testGetAccountByIdGoesThroughBatchLoaderWhenEnabled() {
+        when(accountBatchLoader.isEnabled()).thenReturn(true);
+        when(accountBatchLoader.load(savedAccount.getId())).thenReturn(Mono.just(savedAccount));
+
+        StepVerifier.create(accountService.getAccountById(savedAccount.getId()))
+                .expectNextMatches(response -> response.getIban().equals(savedAccount.getIban()))
+                .verifyComplete();
+
+        verify(accountRepository, never()).findById(any(UUID.class));
+    }
+
+    @Test
+    void testGetAccountsByIdsKeepsRequestOrderAndReportsMissing() {
+        Account other = Account.builder().id(UUID.randomUUID()).iban("KE00000000000000000001").build();
+        UUID missing = UUID.randomUUID();
+        when(accountRepository.findAllByIdArray(any(UUID[].class))).thenReturn(Flux.just(savedAccount, other));
+
+        StepVerifier.create(accountService.getAccountsByIds(List.of(missing, other.getId(), savedAccount.getId())))
+                .assertNext(result -> {
+                    assertEquals(List.of(other.getId(), savedAccount.getId()),
+                            result.getFound().stream().map(AccountResponseDto::getId).toList());
+                    assertEquals(List.of(missing), result.getMissingIds());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetAccountsByIdsRejectsEmptyList() {
+        StepVerifier.create(accountService.getAccountsByIds(List.of()))
+                .expectErrorMatches(e -> e instanceof ResponseStatusException rse
+                        && rse.getStatusCode() == HttpStatus.BAD_REQUEST)
+                .verify();
+        verifyNoInteractions(accountRepository);
+    }
+
     @Test
     void testGetAccountByIdNotFound() {
         UUID randomId = UUID.randomUUID();
@@ -133,6 +174,16 @@ public class AccountServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void testDeleteAccountsByCustomerId() {
+        UUID customerId = UUID.randomUUID();
+        when(accountRepository.deleteByCustomerId(customerId)).thenReturn(Mono.just(2L));
+
+        StepVerifier.create(accountService.deleteAccountsByCustomerId(customerId))
+                .expectNext(2L)
+                .verifyComplete();
+    }
+
     @Test
     void testDeleteAccountNotFound() {
         UUID id = UUID.randomUUID();
@@ -150,7 +201,7 @@ public class AccountServiceTest {
         when(accountRepository.findByIbanContainingIgnoreCase("GB29", pageable))
                 .thenReturn(Flux.just(savedAccount));
 
-        StepVerifier.create(accountService.getAccountsByFilters("GB29", null, null, 0, 10))
+        StepVerifier.create(accountService.getAccountsByFilters("GB29", null, null, null, 0, 10))
                 .expectNextCount(1)
                 .verifyComplete();
     }
@@ -161,7 +212,7 @@ public class AccountServiceTest {
         when(accountRepository.findByBicSwiftContainingIgnoreCase("NWBK", pageable))
                 .thenReturn(Flux.just(savedAccount));
 
-        StepVerifier.create(accountService.getAccountsByFilters(null, "NWBK", null, 0, 10))
+        StepVerifier.create(accountService.getAccountsByFilters(null, "NWBK", null, null, 0, 10))
                 .expectNextCount(1)
                 .verifyComplete();
     }
@@ -170,12 +221,68 @@ public class AccountServiceTest {
     void testGetAccountsNoFilter() {
         when(accountRepository.findAll()).thenReturn(Flux.just(savedAccount));
 
-        StepVerifier.create(accountService.getAccountsByFilters(null, null, null, 0, 10))
+        StepVerifier.create(accountService.getAccountsByFilters(null, null, null, null, 0, 10))
                 .expectNextCount(1)
                 .verifyComplete();
     }
 
 
+    @Test
+    void testGetAccountsByCardAliasKeepsCardServiceOrder() {
+        Account first = Account.builder().id(UUID.randomUUID()).iban("KE01").build();
+        Account second = Account.builder().id(UUID.randomUUID()).iban("KE02").build();
+        Account third = Account.builder().id(UUID.randomUUID()).iban("KE03").build();
+        when(cardClient.streamAccountIdsByCardAlias("Travel", null))
+                .thenReturn(Flux.just(first.getId(), second.getId(), third.getId()));
+        when(accountRepository.findByIdIn(List.of(first.getId(), second.getId())))
+                .thenReturn(Flux.just(second, first));
+        when(accountRepository.findByIdIn(List.of(third.getId())))
+                .thenReturn(Flux.just(third));
+
+        StepVerifier.create(accountService.getAccountsByFilters(null, null, "Travel", null, 1, 2))
+                .expectNextMatches(dto -> dto.getId().equals(third.getId()))
+                .verifyComplete();
+        // the skipped page is not loaded
+        verify(accountRepository, never()).findByIdIn(List.of(first.getId(), second.getId()));
+
+        StepVerifier.create(accountService.getAccountsByFilters(null, null, "Travel", null, 0, 2))
+                .expectNextMatches(dto -> dto.getId().equals(first.getId()))
+                .expectNextMatches(dto -> dto.getId().equals(second.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetAccountsByCardAliasResumesAfterTheCursor() {
+        Account second = Account.builder().id(UUID.randomUUID()).iban("KE02").build();
+        Account third = Account.builder().id(UUID.randomUUID()).iban("KE03").build();
+        UUID cursor = UUID.randomUUID();
+        when(cardClient.streamAccountIdsByCardAlias("Travel", cursor))
+                .thenReturn(Flux.just(second.getId(), third.getId()));
+        when(accountRepository.findByIdIn(List.of(second.getId(), third.getId())))
+                .thenReturn(Flux.just(third, second));
+
+        // the cursor replaces the page number
+        StepVerifier.create(accountService.getAccountsByFilters(null, null, "Travel", cursor, 5, 2))
+                .expectNextMatches(dto -> dto.getId().equals(second.getId()))
+                .expectNextMatches(dto -> dto.getId().equals(third.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetExistingAccountIds() {
+        UUID missing = UUID.randomUUID();
+        List<UUID> ids = List.of(savedAccount.getId(), missing);
+        when(accountRepository.findExistingIds(ids)).thenReturn(Flux.just(savedAccount.getId()));
+
+        StepVerifier.create(accountService.getExistingAccountIds(ids))
+                .expectNext(savedAccount.getId())
+                .verifyComplete();
+
+        StepVerifier.create(accountService.getExistingAccountIds(List.of()))
+                .verifyComplete();
+        verify(accountRepository, times(1)).findExistingIds(any());
+    }
+
     @Test
     void testUpdateAccount_BicSwiftAndCustomerIdUpdatedSuccessfully() {
         UUID accountId = UUID.randomUUID();
@@ -0,0 +1,88 @@
+package com.dtbbanking.account_service;
+
+import com.dtbbanking.account_service.service.CardClient;
+import com.dtbbanking.account_service.service.CustomerClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Accounts of customers that customer-service keeps on a shard database, i.e. not in the
+ * {@code tb_customers} of the accounts database (skipped without Docker).
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AccountShardedCustomerTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15");
+
+    // known to customer-service, but stored on another shard than the accounts database
+    private static final UUID SHARDED_CUSTOMER_ID = UUID.randomUUID();
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        // the unsharded customers table, without the customer
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+        jdbc.execute("CREATE TABLE IF NOT EXISTS tb_customers (id UUID PRIMARY KEY)");
+
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + POSTGRES.getHost() + ":"
+                + POSTGRES.getFirstMappedPort() + "/" + POSTGRES.getDatabaseName());
+        registry.add("spring.r2dbc.username", POSTGRES::getUsername);
+        registry.add("spring.r2dbc.password", POSTGRES::getPassword);
+        registry.add("spring.liquibase.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.liquibase.user", POSTGRES::getUsername);
+        registry.add("spring.liquibase.password", POSTGRES::getPassword);
+        registry.add("spring.rsocket.server.port", () -> 0);
+    }
+
+    @MockitoBean
+    private CustomerClient customerClient;
+
+    @MockitoBean
+    private CardClient cardClient;
+
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    void createsAndDeletesAccountsOfACustomerOnAnotherShard() {
+        when(customerClient.existsById(SHARDED_CUSTOMER_ID)).thenReturn(Mono.just(true));
+
+        AtomicReference<String> created = new AtomicReference<>();
+        client.post().uri("/api/v1/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("bicSwift", "DTKEKENA", "customerId", SHARDED_CUSTOMER_ID))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.data.id").value(created::set);
+
+        // customer-service deleting the customer
+        client.delete().uri("/api/v1/accounts/internal/customers/{customerId}", SHARDED_CUSTOMER_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.data").isEqualTo(1);
+
+        client.get().uri("/api/v1/accounts/{id}", created.get())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
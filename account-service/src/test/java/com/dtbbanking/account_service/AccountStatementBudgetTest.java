@@ -0,0 +1,140 @@
+package com.dtbbanking.account_service;
+
+import com.dtbbanking.account_service.configs.StatementCountingFilter;
+import com.dtbbanking.account_service.service.CardClient;
+import com.dtbbanking.account_service.service.CustomerClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * SQL statements per account endpoint against a migrated Postgres (skipped without Docker). Raising
+ * a budget should be a deliberate change: a query per row of a result fails here first.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AccountStatementBudgetTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15");
+
+    private static final UUID CUSTOMER_ID = UUID.randomUUID();
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        // only what the tb_accounts foreign key of 001 needs until 004 drops it; the table belongs to customer-service
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+        jdbc.execute("CREATE TABLE IF NOT EXISTS tb_customers (id UUID PRIMARY KEY)");
+        jdbc.update("INSERT INTO tb_customers (id) VALUES (?)", CUSTOMER_ID);
+
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + POSTGRES.getHost() + ":"
+                + POSTGRES.getFirstMappedPort() + "/" + POSTGRES.getDatabaseName());
+        registry.add("spring.r2dbc.username", POSTGRES::getUsername);
+        registry.add("spring.r2dbc.password", POSTGRES::getPassword);
+        registry.add("spring.liquibase.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.liquibase.user", POSTGRES::getUsername);
+        registry.add("spring.liquibase.password", POSTGRES::getPassword);
+        registry.add("spring.rsocket.server.port", () -> 0);
+    }
+
+    @MockitoBean
+    private CustomerClient customerClient;
+
+    @MockitoBean
+    private CardClient cardClient;
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private StatementCountingFilter statementCountingFilter;
+
+    private StatementBudget budget;
+
+    @BeforeEach
+    void setUp() {
+        budget = new StatementBudget(statementCountingFilter);
+        when(customerClient.existsById(any())).thenReturn(Mono.just(true));
+    }
+
+    @Test
+    void accountEndpointsStayWithinTheirStatementBudgets() throws Exception {
+        // IBAN check and insert
+        AtomicReference<String> created = new AtomicReference<>();
+        budget.expect("POST /api/v1/accounts", 2, () -> client.post().uri("/api/v1/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("bicSwift", "DTKEKENA", "customerId", CUSTOMER_ID))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.data.id").value(created::set));
+        String id = created.get();
+        when(cardClient.streamAccountIdsByCardAlias(anyString(), any())).thenReturn(Flux.just(UUID.fromString(id)));
+
+        budget.expect("GET /api/v1/accounts/{id}", 1, () -> client.get().uri("/api/v1/accounts/{id}", id)
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("GET /api/v1/accounts/{id}", 1, () -> client.get().uri("/api/v1/accounts/{id}?fields=id,iban", id)
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("GET /api/v1/accounts", 1, () -> client.get().uri("/api/v1/accounts?ids={a},{b}", id, UUID.randomUUID())
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("POST /api/v1/accounts/batch-get", 1, () -> client.post().uri("/api/v1/accounts/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("ids", List.of(id, UUID.randomUUID())))
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("GET /api/v1/accounts", 1, () -> client.get().uri("/api/v1/accounts?bicSwift=dtke")
+                .exchange()
+                .expectStatus().isOk());
+        // account ids come from card-service, one query per page of them
+        budget.expect("GET /api/v1/accounts", 1, () -> client.get().uri("/api/v1/accounts?cardAlias=travel")
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("POST /api/v1/accounts/internal/existing-ids", 1, () -> client.post()
+                .uri("/api/v1/accounts/internal/existing-ids")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(id, UUID.randomUUID()))
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("GET /api/v1/accounts/internal/ids", 1, () -> client.get().uri("/api/v1/accounts/internal/ids")
+                .exchange()
+                .expectStatus().isOk());
+        // read and update
+        budget.expect("PUT /api/v1/accounts/{id}", 2, () -> client.put().uri("/api/v1/accounts/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("bicSwift", "DTKEKENX"))
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("DELETE /api/v1/accounts/{id}", 2, () -> client.delete().uri("/api/v1/accounts/{id}", id)
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("DELETE /api/v1/accounts/internal/customers/{customerId}", 1, () -> client.delete()
+                .uri("/api/v1/accounts/internal/customers/{customerId}", CUSTOMER_ID)
+                .exchange()
+                .expectStatus().isOk());
+    }
+}
@@ -0,0 +1,82 @@
+package com.dtbbanking.account_service;
+
+import com.dtbbanking.account_service.service.CardClient;
+import org.junit.jupiter.api.Test;
+import com.dtbbanking.account_service.utils.UuidListCodec;
+import com.dtbbanking.account_service.utils.UuidListDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CardClientTest {
+
+    @Test
+    void streamsAllPagesUsingTheLastIdAsCursor() {
+        List<UUID> ids = IntStream.range(0, 1500)
+                .mapToObj(i -> new UUID(0L, i + 1L))
+                .toList();
+        List<ClientRequest> requests = new ArrayList<>();
+
+        ExchangeStrategies strategies = ExchangeStrategies.builder()
+                .codecs(codecs -> codecs.customCodecs().register(new UuidListDecoder()))
+                .build();
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://card-service/api/v1/cards")
+                .exchangeStrategies(strategies)
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    String after = queryParam(request, "after");
+                    int from = after == null ? 0 : ids.indexOf(UUID.fromString(after)) + 1;
+                    List<UUID> page = ids.subList(from, Math.min(from + 1000, ids.size()));
+                    return Mono.just(ClientResponse.create(HttpStatus.OK, strategies)
+                            .header(HttpHeaders.CONTENT_TYPE, UuidListCodec.MEDIA_TYPE_VALUE)
+                            .body(Flux.just(toBytes(page)))
+                            .build());
+                })
+                .build();
+
+        StepVerifier.create(new CardClient(webClient, null).streamAccountIdsByCardAlias("Travel", null).collectList())
+                .expectNext(ids)
+                .verifyComplete();
+
+        assertEquals(2, requests.size());
+        assertEquals(ids.get(999).toString(), queryParam(requests.get(1), "after"));
+        assertTrue(requests.get(0).headers().getAccept().contains(UuidListCodec.MEDIA_TYPE));
+    }
+
+    private static DataBuffer toBytes(List<UUID> ids) {
+        ByteBuffer bytes = ByteBuffer.allocate(ids.size() * UuidListCodec.UUID_BYTES);
+        ids.forEach(id -> bytes.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()));
+        return DefaultDataBufferFactory.sharedInstance.wrap(bytes.flip());
+    }
+
+    private static String queryParam(ClientRequest request, String name) {
+        String query = request.url().getQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,163 @@
+package com.dtbbanking.account_service.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.dtbbanking.account_service.dto.AccountRequestDto;
+import com.dtbbanking.account_service.dto.AccountResponseDto;
+import com.dtbbanking.account_service.dto.BatchGetResponseDto;
+import com.dtbbanking.account_service.dto.UniversalResponse;
+import com.dtbbanking.account_service.dto.UpdateAccountRequestDto;
+import com.dtbbanking.account_service.mappers.AccountMapper;
+import com.dtbbanking.account_service.models.Account;
+import com.dtbbanking.account_service.repository.AccountRepository;
+import com.dtbbanking.account_service.service.AccountBatchLoader;
+import com.dtbbanking.account_service.service.AccountService;
+import com.dtbbanking.account_service.service.CustomerClient;
+import com.dtbbanking.account_service.utils.IbanUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the account paths without I/O: IBAN generation, {@link AccountMapper}, the
+ * JSON of a {@code UniversalResponse}, and the {@link AccountService} pipelines over an in-memory
+ * {@link AccountRepository} and a customer-service client that always answers "exists". Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=AccountPipelineBenchmark};
+ * the profile adds JMH's GC profiler, so {@code gc.alloc.rate.norm} gives the bytes allocated
+ * per call next to the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountPipelineBenchmark {
+
+    private static final int ACCOUNTS = 10_000;
+    private static final int BATCH = 50;
+    private static final int PAGE = 20;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private AccountService accountService;
+    private AccountBatchLoader accountBatchLoader;
+    private Account account;
+    private AccountResponseDto responseDto;
+    private UUID[] ids;
+    private List<UUID> idList;
+    private AccountRequestDto createRequest;
+    private UpdateAccountRequestDto updateRequest;
+
+    @Setup
+    public void setUp() {
+        // the service logs every create and filter at INFO; console output would be all we measure
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        Map<UUID, Account> accounts = new HashMap<>();
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account a = Account.builder()
+                    .id(UUID.randomUUID())
+                    .iban(IbanUtils.generateIban())
+                    .bicSwift("DTKEKENA")
+                    .customerId(UUID.randomUUID())
+                    .createdAt(createdAt.plusSeconds(i))
+                    .updatedAt(createdAt.plusSeconds(i))
+                    .build();
+            accounts.put(a.getId(), a);
+        }
+        ids = accounts.keySet().toArray(new UUID[0]);
+        idList = Arrays.asList(ids);
+        List<Account> all = new ArrayList<>(accounts.values());
+
+        AccountRepository repository = RepositoryStub.of(AccountRepository.class)
+                .on("findById", args -> Mono.justOrEmpty(accounts.get((UUID) args[0])))
+                .on("existsByIban", args -> Mono.just(false))
+                .on("save", args -> Mono.just((Account) args[0]))
+                .on("findAll", args -> Flux.fromIterable(all))
+                .on("findAllByIdArray", args -> Flux.fromArray((UUID[]) args[0]).mapNotNull(accounts::get))
+                .build();
+        CustomerClient customerClient = new CustomerClient(null, null) {
+            @Override
+            public Mono<Boolean> existsById(UUID customerId) {
+                return Mono.just(true);
+            }
+        };
+        accountBatchLoader = new AccountBatchLoader(repository, false, 500, Duration.ofMillis(2), 4);
+        accountService = new AccountService(repository, customerClient, null, accountBatchLoader);
+
+        account = accounts.get(ids[0]);
+        responseDto = AccountMapper.toResponseDto(account);
+        createRequest = new AccountRequestDto(null, "DTKEKENA", UUID.randomUUID());
+        updateRequest = new UpdateAccountRequestDto("DTKEKENAXXX", null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        accountBatchLoader.stop();
+    }
+
+    @Benchmark
+    public String generateIban() {
+        return IbanUtils.generateIban();
+    }
+
+    @Benchmark
+    public AccountResponseDto toResponseDto() {
+        return AccountMapper.toResponseDto(account);
+    }
+
+    @Benchmark
+    public byte[] responseJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(UniversalResponse.ok(responseDto));
+    }
+
+    @Benchmark
+    public AccountResponseDto getAccountById() {
+        return accountService.getAccountById(randomId()).block();
+    }
+
+    @Benchmark
+    public AccountResponseDto createAccount() {
+        return accountService.createAccount(createRequest).block();
+    }
+
+    @Benchmark
+    public AccountResponseDto updateAccount() {
+        return accountService.updateAccount(randomId(), updateRequest).block();
+    }
+
+    @Benchmark
+    public BatchGetResponseDto<AccountResponseDto> getAccountsByIds() {
+        int from = ThreadLocalRandom.current().nextInt(ids.length - BATCH);
+        return accountService.getAccountsByIds(idList.subList(from, from + BATCH)).block();
+    }
+
+    @Benchmark
+    public List<AccountResponseDto> getAccountsByFilters() {
+        return accountService.getAccountsByFilters(null, null, null, null, 0, PAGE).collectList().block();
+    }
+
+    private UUID randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
@@ -0,0 +1,46 @@
+package com.dtbbanking.account_service.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory repository for the pipeline benchmarks, answering only the methods a benchmark
+ * registers (overloads share an answer). Like the Spring Data repository it replaces it is a JDK
+ * proxy, so a call costs about what the real one does before it reaches the driver; Mockito would
+ * record every invocation and show up in the allocation figures.
+ */
+final class RepositoryStub<R> implements InvocationHandler {
+
+    private final Class<R> type;
+    private final Map<String, Function<Object[], Object>> answers = new HashMap<>();
+
+    private RepositoryStub(Class<R> type) {
+        this.type = type;
+    }
+
+    static <R> RepositoryStub<R> of(Class<R> type) {
+        return new RepositoryStub<>(type);
+    }
+
+    RepositoryStub<R> on(String method, Function<Object[], Object> answer) {
+        answers.put(method, answer);
+        return this;
+    }
+
+    R build() {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, this));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        Function<Object[], Object> answer = answers.get(method.getName());
+        if (answer == null) {
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName() + " is not stubbed");
+        }
+        return answer.apply(args);
+    }
+}
@@ -0,0 +1,56 @@
+package com.dtbbanking.card_service.configs;
+
+import com.dtbbanking.card_service.utils.ReadRouting;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.server.WebFilter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured connection pool with a primary pool and one pool per replica behind
+ * a {@link ReadRoutingConnectionFactory} ({@code db.routing.enabled=true}).
+ */
+@Configuration
+@ConditionalOnProperty(name = "db.routing.enabled", havingValue = "true")
+public class DatabaseRoutingConfig {
+
+    @Bean
+    public ReadRoutingConnectionFactory connectionFactory(R2dbcProperties r2dbcProperties,
+                                                          DatabaseRoutingProperties routingProperties,
+                                                          ConnectionPools connectionPools,
+                                                          ObjectProvider<MeterRegistry> meterRegistry) {
+        ConnectionFactory primary = connectionPools.create(ReadRoutingConnectionFactory.PRIMARY,
+                r2dbcProperties.getUrl(), r2dbcProperties.getUsername(), r2dbcProperties.getPassword());
+
+        Map<String, ConnectionFactory> replicas = new LinkedHashMap<>();
+        List<DatabaseRoutingProperties.Replica> configured = routingProperties.getReplicas();
+        for (int i = 0; i < configured.size(); i++) {
+            DatabaseRoutingProperties.Replica replica = configured.get(i);
+            String name = "replica-" + i;
+            boolean ownCredentials = replica.getUsername() != null;
+            replicas.put(name, connectionPools.create(name, replica.getUrl(),
+                    ownCredentials ? replica.getUsername() : r2dbcProperties.getUsername(),
+                    ownCredentials ? replica.getPassword() : r2dbcProperties.getPassword()));
+        }
+
+        return new ReadRoutingConnectionFactory(primary, replicas, routingProperties.getMaxLag(),
+                routingProperties.getLagCheckInterval(), meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    /**
+     * Gives every HTTP request its own read-your-writes scope.
+     */
+    @Bean
+    public WebFilter readYourWritesFilter() {
+        return (exchange, chain) -> chain.filter(exchange).contextWrite(ReadRouting::withRequestScope);
+    }
+}
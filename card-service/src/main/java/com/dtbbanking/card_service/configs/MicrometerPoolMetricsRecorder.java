@@ -0,0 +1,107 @@
+package com.dtbbanking.card_service.configs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.pool.PoolMetricsRecorder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timings of one connection pool, next to the size gauges Boot and {@link ReadRoutingConnectionFactory}
+ * register: how long opening a connection takes, how long callers wait for one, and how often a
+ * caller gets an idle connection straight away ({@code path=fast}) rather than waiting or opening
+ * one ({@code path=slow}).
+ */
+class MicrometerPoolMetricsRecorder implements PoolMetricsRecorder {
+
+    private final Timer allocated;
+    private final Timer allocationFailed;
+    private final Timer waited;
+    private final Timer waitFailed;
+    private final Counter fastPath;
+    private final Counter slowPath;
+
+    MicrometerPoolMetricsRecorder(String pool, MeterRegistry registry) {
+        this.allocated = allocation(registry, pool, "success");
+        this.allocationFailed = allocation(registry, pool, "failure");
+        this.waited = pending(registry, pool, "success");
+        this.waitFailed = pending(registry, pool, "failure");
+        this.fastPath = acquire(registry, pool, "fast");
+        this.slowPath = acquire(registry, pool, "slow");
+    }
+
+    @Override
+    public void recordAllocationSuccessAndLatency(long latencyMs) {
+        allocated.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordAllocationFailureAndLatency(long latencyMs) {
+        allocationFailed.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordPendingSuccessAndLatency(long latencyMs) {
+        waited.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordPendingFailureAndLatency(long latencyMs) {
+        waitFailed.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordFastPath() {
+        fastPath.increment();
+    }
+
+    @Override
+    public void recordSlowPath() {
+        slowPath.increment();
+    }
+
+    @Override
+    public void recordResetLatency(long latencyMs) {
+    }
+
+    @Override
+    public void recordDestroyLatency(long latencyMs) {
+    }
+
+    @Override
+    public void recordRecycled() {
+    }
+
+    @Override
+    public void recordLifetimeDuration(long lifetimeMs) {
+    }
+
+    @Override
+    public void recordIdleTime(long idleTimeMs) {
+    }
+
+    private static Timer allocation(MeterRegistry registry, String pool, String outcome) {
+        return Timer.builder("db.pool.allocation")
+                .description("Time to open a new connection")
+                .tag("pool", pool)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Timer pending(MeterRegistry registry, String pool, String outcome) {
+        return Timer.builder("db.pool.acquire.wait")
+                .description("Time callers waited for a connection")
+                .tag("pool", pool)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Counter acquire(MeterRegistry registry, String pool, String path) {
+        return Counter.builder("db.pool.acquires")
+                .description("Connection acquires, by whether an idle connection was ready")
+                .tag("pool", pool)
+                .tag("path", path)
+                .register(registry);
+    }
+}
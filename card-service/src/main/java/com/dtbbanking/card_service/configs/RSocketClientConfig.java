@@ -0,0 +1,25 @@
+package com.dtbbanking.card_service.configs;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.rsocket.RSocketRequester;
+
+/**
+ * RSocket requester for account-service. It connects lazily on first use and then multiplexes
+ * every call over the one TCP connection, reconnecting on the next call if it drops.
+ */
+@Configuration
+public class RSocketClientConfig {
+
+    @Value("${account.service.rsocket.host}")
+    private String accountServiceHost;
+
+    @Value("${account.service.rsocket.port}")
+    private int accountServicePort;
+
+    @Bean
+    public RSocketRequester accountServiceRequester(RSocketRequester.Builder builder) {
+        return builder.tcp(accountServiceHost, accountServicePort);
+    }
+}
@@ -0,0 +1,107 @@
+package com.dtbbanking.card_service.configs;
+
+import com.dtbbanking.card_service.utils.StatementCounting;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the statements each HTTP request runs, as {@code db.statements.per-request} by method
+ * and uri template. Logs requests running more than {@code db.statements.request-warn-threshold}
+ * statements, and those running one statement {@code repeat-threshold} times or more as a
+ * possible N+1 (also counted as {@code db.statements.repeated}).
+ */
+@Slf4j
+public class StatementCountingFilter implements WebFilter {
+
+    static final String PER_REQUEST = "db.statements.per-request";
+    static final String REPEATED = "db.statements.repeated";
+
+    private final StatementMetricsProperties properties;
+    private final MeterRegistry registry;
+    private final List<Consumer<RequestStatements>> listeners = new CopyOnWriteArrayList<>();
+
+    public StatementCountingFilter(StatementMetricsProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        StatementCounting.RequestScope scope = new StatementCounting.RequestScope();
+        return chain.filter(exchange)
+                .contextWrite(context -> StatementCounting.withRequestScope(context, scope))
+                .doFinally(signal -> completed(new RequestStatements(exchange.getRequest().getMethod().name(),
+                        uri(exchange), scope.total(), scope.statements())));
+    }
+
+    /**
+     * Receives the statements of every completed request, e.g. to assert statement budgets in tests.
+     */
+    public void addListener(Consumer<RequestStatements> listener) {
+        listeners.add(listener);
+    }
+
+    private void completed(RequestStatements statements) {
+        DistributionSummary.builder(PER_REQUEST)
+                .description("SQL statements run per HTTP request")
+                .tag("method", statements.method())
+                .tag("uri", statements.uri())
+                .register(registry)
+                .record(statements.total());
+
+        Map<String, Integer> repeated = statements.repeated(properties.getRepeatThreshold());
+        if (!repeated.isEmpty()) {
+            Counter.builder(REPEATED)
+                    .description("Requests running one statement repeat-threshold times or more (possible N+1)")
+                    .tag("method", statements.method())
+                    .tag("uri", statements.uri())
+                    .register(registry)
+                    .increment();
+            log.warn("Possible N+1 in {}: {} statements, repeated {}", statements.endpoint(), statements.total(), repeated);
+        } else if (statements.total() > properties.getRequestWarnThreshold()) {
+            log.warn("{} ran {} statements: {}", statements.endpoint(), statements.total(), statements.statements());
+        }
+        listeners.forEach(listener -> listener.accept(statements));
+    }
+
+    private static String uri(ServerWebExchange exchange) {
+        Object pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern instanceof PathPattern pathPattern ? pathPattern.getPatternString() : "UNKNOWN";
+    }
+
+    /**
+     * @param uri        The matched uri template, {@code UNKNOWN} if no handler matched.
+     * @param statements Executions per normalized statement.
+     */
+    public record RequestStatements(String method, String uri, int total, Map<String, Integer> statements) {
+
+        public String endpoint() {
+            return method + " " + uri;
+        }
+
+        /**
+         * @return the statements run at least {@code threshold} times
+         */
+        public Map<String, Integer> repeated(int threshold) {
+            return statements.entrySet().stream()
+                    .filter(statement -> statement.getValue() >= threshold)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
+                            (a, b) -> a, LinkedHashMap::new));
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.dtbbanking.card_service.configs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.r2dbc.proxy.ProxyConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.r2dbc.ConnectionFactoryDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Instruments every SQL statement ({@code db.statements.enabled}, on by default): each connection
+ * factory is wrapped by r2dbc-proxy before {@link ConnectionPools} pools it, so the primary and any
+ * replica pool report to one {@link StatementMetricsListener}, and {@link StatementCountingFilter}
+ * gives every HTTP request a statement count.
+ */
+@Configuration
+@ConditionalOnProperty(name = "db.statements.enabled", havingValue = "true", matchIfMissing = true)
+public class StatementMetricsConfig {
+
+    @Bean
+    public StatementMetricsListener statementMetricsListener(StatementMetricsProperties properties,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        return new StatementMetricsListener(properties, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Bean
+    public ConnectionFactoryDecorator statementMetricsDecorator(StatementMetricsListener listener) {
+        return connectionFactory -> ProxyConnectionFactory.builder(connectionFactory).listener(listener).build();
+    }
+
+    @Bean
+    public StatementCountingFilter statementCountingFilter(StatementMetricsProperties properties,
+                                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        return new StatementCountingFilter(properties, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+}
@@ -0,0 +1,153 @@
+package com.dtbbanking.card_service.configs;
+
+import com.dtbbanking.card_service.utils.StatementCounting;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.proxy.core.Bindings;
+import io.r2dbc.proxy.core.BoundValue;
+import io.r2dbc.proxy.core.QueryExecutionInfo;
+import io.r2dbc.proxy.core.QueryInfo;
+import io.r2dbc.proxy.listener.ProxyExecutionListener;
+import lombok.extern.slf4j.Slf4j;
+import reactor.util.context.ContextView;
+
+import java.lang.reflect.Array;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Times every statement as {@code db.statement}, tagged with its normalized SQL, logs the slow
+ * ones and records each in the request's {@link StatementCounting} scope.
+ * <p>
+ * Normalizing replaces literals and bind markers with {@code ?} and folds lists of them, so a
+ * query differing only in values (or in the number of ids bound) is one statement. Slow statement
+ * logs show the types of the bind values, never the values (PANs and CVVs are bound here).
+ * </p>
+ */
+@Slf4j
+public class StatementMetricsListener implements ProxyExecutionListener {
+
+    static final String STATEMENT = "db.statement";
+    static final String OTHER = "other";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern BIND_MARKER = Pattern.compile("\\$\\d+");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // raw SQL to normalized; bounded, as LIMIT and OFFSET literals make raw SQL open ended
+    private static final int MAX_CACHED = 1_000;
+
+    private final StatementMetricsProperties properties;
+    private final MeterRegistry registry;
+    private final Map<String, String> normalized = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public StatementMetricsListener(StatementMetricsProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    @Override
+    public void afterQuery(QueryExecutionInfo execution) {
+        List<QueryInfo> queries = execution.getQueries();
+        if (queries.isEmpty()) {
+            return;
+        }
+        ContextView context = execution.getValueStore().get(ContextView.class, ContextView.class);
+        StatementCounting.RequestScope scope = context == null
+                ? null : StatementCounting.requestScope(context).orElse(null);
+        StringJoiner batch = new StringJoiner("; ");
+        for (QueryInfo query : queries) {
+            String sql = normalize(query.getQuery());
+            if (scope != null) {
+                scope.record(sql);
+            }
+            batch.add(sql);
+        }
+
+        // a batch runs its statements in one round trip, so it is timed as one
+        String sql = batch.toString();
+        Duration elapsed = execution.getExecuteDuration();
+        timer(sql).record(elapsed);
+        if (elapsed.compareTo(properties.getSlowThreshold()) >= 0) {
+            log.warn("Slow statement ({} ms{}): {} bindings [{}]", elapsed.toMillis(),
+                    execution.isSuccess() ? "" : ", failed", sql, bindingShapes(queries.get(0)));
+        }
+    }
+
+    /**
+     * @return the SQL with literals and bind markers replaced by {@code ?}, lists of them (and any
+     * {@code IN} list, even of one) folded into {@code ?, ...} and whitespace collapsed
+     */
+    public String normalize(String sql) {
+        String cached = normalized.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String result = STRING_LITERAL.matcher(sql).replaceAll("?");
+        result = BIND_MARKER.matcher(result).replaceAll("?");
+        result = NUMBER.matcher(result).replaceAll("?");
+        result = IN_LIST.matcher(result).replaceAll("IN (?, ...)");
+        result = PLACEHOLDER_LIST.matcher(result).replaceAll("?, ...");
+        result = WHITESPACE.matcher(result).replaceAll(" ").trim();
+        if (normalized.size() < MAX_CACHED) {
+            normalized.put(sql, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return e.g. {@code $1=UUID, $2=String(16)} for the first set of bindings, with the number
+     * of sets when the statement was executed for several
+     */
+    public static String bindingShapes(QueryInfo query) {
+        List<Bindings> bindingsList = query.getBindingsList();
+        if (bindingsList.isEmpty()) {
+            return "";
+        }
+        StringJoiner shapes = new StringJoiner(", ");
+        Bindings bindings = bindingsList.get(0);
+        bindings.getIndexBindings().forEach(binding ->
+                shapes.add("$" + ((Integer) binding.getKey() + 1) + "=" + shape(binding.getBoundValue())));
+        bindings.getNamedBindings().forEach(binding ->
+                shapes.add(binding.getKey() + "=" + shape(binding.getBoundValue())));
+        return bindingsList.size() == 1 ? shapes.toString() : shapes + " x" + bindingsList.size();
+    }
+
+    private static String shape(BoundValue value) {
+        if (value.isNull()) {
+            return "null " + value.getNullType().getSimpleName();
+        }
+        Object bound = value.getValue();
+        if (bound instanceof CharSequence text) {
+            return "String(" + text.length() + ")";
+        }
+        if (bound instanceof Collection<?> collection) {
+            return bound.getClass().getSimpleName() + "(" + collection.size() + ")";
+        }
+        if (bound.getClass().isArray()) {
+            return bound.getClass().getComponentType().getSimpleName() + "[" + Array.getLength(bound) + "]";
+        }
+        return bound.getClass().getSimpleName();
+    }
+
+    private Timer timer(String sql) {
+        Timer timer = timers.get(sql);
+        if (timer != null) {
+            return timer;
+        }
+        String tag = timers.size() < properties.getMaxStatements() ? sql : OTHER;
+        return timers.computeIfAbsent(tag, key -> Timer.builder(STATEMENT)
+                .description("Statement execution, by normalized SQL")
+                .tag("sql", key)
+                .register(registry));
+    }
+}
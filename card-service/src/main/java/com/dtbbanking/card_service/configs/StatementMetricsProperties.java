@@ -0,0 +1,41 @@
+package com.dtbbanking.card_service.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * SQL statement instrumentation ({@code db.statements.*}), see {@link StatementMetricsConfig}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "db.statements")
+public class StatementMetricsProperties {
+
+    /**
+     * Times, logs and counts statements on every connection pool.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Statements running at least this long are logged, with the types of their bind values.
+     */
+    private Duration slowThreshold = Duration.ofMillis(200);
+
+    /**
+     * Distinct normalized statements timed on their own; any further ones share {@code sql=other}.
+     */
+    private int maxStatements = 200;
+
+    /**
+     * A request running more statements than this is logged.
+     */
+    private int requestWarnThreshold = 20;
+
+    /**
+     * A request running the same statement this many times is logged as a possible N+1.
+     */
+    private int repeatThreshold = 5;
+}
@@ -0,0 +1,18 @@
+package com.dtbbanking.card_service.configs;
+
+import com.dtbbanking.card_service.service.CardVelocityEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class VelocityConfig {
+
+    @Bean
+    public CardVelocityEngine cardVelocityEngine(VelocityProperties velocityProperties,
+                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        return new CardVelocityEngine(velocityProperties, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+}
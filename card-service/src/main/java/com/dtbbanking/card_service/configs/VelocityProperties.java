@@ -0,0 +1,55 @@
+package com.dtbbanking.card_service.configs;
+
+import com.dtbbanking.card_service.model.CardType;
+import com.dtbbanking.card_service.model.VelocityWindow;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per card type velocity limits and counter housekeeping settings ({@code card.velocity.*}).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "card.velocity")
+public class VelocityProperties {
+
+    /**
+     * Maximum uses per window for each card type. A limit of 0 or less means unlimited.
+     */
+    private Map<CardType, Limits> limits = new EnumMap<>(CardType.class);
+
+    /**
+     * Counters of cards unused for this long are dropped from memory and from the snapshot table.
+     * Keep it at least as long as the day window so no live count is lost.
+     */
+    private Duration idleEviction = Duration.ofDays(1);
+
+    /**
+     * How often changed counters are written to {@code tb_card_velocity_snapshots}.
+     */
+    private Duration snapshotInterval = Duration.ofSeconds(30);
+
+    @Data
+    public static class Limits {
+        private long perMinute;
+        private long perHour;
+        private long perDay;
+
+        public long forWindow(VelocityWindow window) {
+            return switch (window) {
+                case MINUTE -> perMinute;
+                case HOUR -> perHour;
+                case DAY -> perDay;
+            };
+        }
+    }
+
+    public Limits limitsFor(CardType cardType) {
+        return limits.getOrDefault(cardType, new Limits());
+    }
+}
@@ -15,8 +15,8 @@ public class WebClientConfig {
     private String accountServiceBaseUrl;
 
     @Bean
-    public WebClient accountServiceWebClient() {
-        return WebClient.builder()
+    public WebClient accountServiceWebClient(WebClient.Builder builder) {
+        return builder
                 .baseUrl(accountServiceBaseUrl)
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .build();
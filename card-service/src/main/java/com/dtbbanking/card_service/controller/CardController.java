@@ -1,15 +1,27 @@
 package com.dtbbanking.card_service.controller;
 
+import com.dtbbanking.card_service.dto.BulkCardIssuanceJobDto;
+import com.dtbbanking.card_service.dto.BulkCardIssuanceRequestDto;
+import com.dtbbanking.card_service.dto.CardAuthorizationRequestDto;
 import com.dtbbanking.card_service.dto.CardRequestDto;
 import com.dtbbanking.card_service.dto.CardResponseDto;
 import com.dtbbanking.card_service.dto.UniversalResponse;
 import com.dtbbanking.card_service.dto.UpdateCardAliasRequest;
+import com.dtbbanking.card_service.dto.UpdateCardStatusRequest;
+import com.dtbbanking.card_service.dto.VelocityCheckResponseDto;
+import com.dtbbanking.card_service.mapper.CardField;
 import com.dtbbanking.card_service.model.CardType;
+import com.dtbbanking.card_service.service.BulkCardIssuanceService;
+import com.dtbbanking.card_service.service.CardAuthorizationService;
+import com.dtbbanking.card_service.service.CardFieldsService;
 import com.dtbbanking.card_service.service.CardService;
+import com.dtbbanking.card_service.service.CardVelocityService;
+import com.dtbbanking.card_service.utils.UuidListCodec;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
@@ -29,12 +41,26 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/v1/cards")
 public class CardController {
 
+
     private final CardService cardService;
+    private final CardFieldsService cardFieldsService;
+    private final CardAuthorizationService cardAuthorizationService;
+    private final CardVelocityService cardVelocityService;
+    private final BulkCardIssuanceService bulkCardIssuanceService;
     private final Validator validator;
 
     @Autowired
-    public CardController(CardService cardService, Validator validator) {
+    public CardController(CardService cardService,
+                          CardFieldsService cardFieldsService,
+                          CardAuthorizationService cardAuthorizationService,
+                          CardVelocityService cardVelocityService,
+                          BulkCardIssuanceService bulkCardIssuanceService,
+                          Validator validator) {
         this.cardService = cardService;
+        this.cardFieldsService = cardFieldsService;
+        this.cardAuthorizationService = cardAuthorizationService;
+        this.cardVelocityService = cardVelocityService;
+        this.bulkCardIssuanceService = bulkCardIssuanceService;
         this.validator = validator;
     }
 
@@ -65,31 +91,155 @@ public class CardController {
     }
 
     /**
-     * Retrieves a list of account IDs associated with the given card alias.
+     * Authorizes a card by checking its PAN, CVV and status.
+     * Declined authorizations are still returned with 200 and carry the decline reason.
+     *
+     * @param dto The authorization request containing PAN and CVV.
+     * @return A response containing the authorization decision or validation errors.
+     */
+    @PostMapping("/authorize")
+    public Mono<ResponseEntity<UniversalResponse<?>>> authorize(@RequestBody CardAuthorizationRequestDto dto) {
+        Set<ConstraintViolation<CardAuthorizationRequestDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            Map<String, String> errors = violations.stream()
+                    .collect(Collectors.toMap(
+                            v -> v.getPropertyPath().toString(),
+                            ConstraintViolation::getMessage
+                    ));
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(UniversalResponse.error(400, "Validation failed", errors)));
+        }
+
+        return cardAuthorizationService.authorize(dto)
+                .map(result -> ResponseEntity.ok(UniversalResponse.ok(result)));
+    }
+
+    /**
+     * Checks the velocity limits of a card and records one use if they allow it.
+     * A use over the limit is not recorded and is returned with {@code allowed=false}.
+     *
+     * @param id The UUID of the card being used.
+     * @return A response containing the check result and the card's current usage.
+     */
+    @PostMapping("velocity/{id}")
+    public Mono<ResponseEntity<UniversalResponse<VelocityCheckResponseDto>>> recordCardUsage(@PathVariable UUID id) {
+        return cardVelocityService.checkAndRecordUsage(id)
+                .map(result -> ResponseEntity.ok(UniversalResponse.ok(result)));
+    }
+
+    /**
+     * Retrieves the current velocity usage of a card without recording a use.
+     *
+     * @param id The UUID of the card.
+     * @return A response containing the card's usage per window.
+     */
+    @GetMapping("velocity/{id}")
+    public Mono<ResponseEntity<UniversalResponse<VelocityCheckResponseDto>>> getCardUsage(@PathVariable UUID id) {
+        return cardVelocityService.getUsage(id)
+                .map(result -> ResponseEntity.ok(UniversalResponse.ok(result)));
+    }
+
+    /**
+     * Starts a background job issuing a VIRTUAL card to many accounts.
+     * Accounts that do not exist or already have a VIRTUAL card (or 2 cards) are skipped.
+     *
+     * @param dto The job request with the card alias and either account IDs or {@code allAccounts}.
+     * @return A 202 response containing the created job or validation errors.
+     */
+    @PostMapping("/bulk-issuance")
+    public Mono<ResponseEntity<UniversalResponse<?>>> createBulkIssuanceJob(@RequestBody BulkCardIssuanceRequestDto dto) {
+        Set<ConstraintViolation<BulkCardIssuanceRequestDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            Map<String, String> errors = violations.stream()
+                    .collect(Collectors.toMap(
+                            v -> v.getPropertyPath().toString(),
+                            ConstraintViolation::getMessage
+                    ));
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(UniversalResponse.error(400, "Validation failed", errors)));
+        }
+
+        return bulkCardIssuanceService.createJob(dto)
+                .map(job -> ResponseEntity
+                        .status(HttpStatus.ACCEPTED)
+                        .body(UniversalResponse.ok(job)));
+    }
+
+    /**
+     * Retrieves the progress and throughput of a bulk issuance job.
+     *
+     * @param id The UUID of the job.
+     * @return A response containing the job.
+     */
+    @GetMapping("/bulk-issuance/{id}")
+    public Mono<ResponseEntity<UniversalResponse<BulkCardIssuanceJobDto>>> getBulkIssuanceJob(@PathVariable UUID id) {
+        return bulkCardIssuanceService.getJob(id)
+                .map(job -> ResponseEntity.ok(UniversalResponse.ok(job)));
+    }
+
+    /**
+     * Restarts a failed bulk issuance job from its last checkpoint.
+     *
+     * @param id The UUID of the job.
+     * @return A 202 response containing the job.
+     */
+    @PostMapping("/bulk-issuance/{id}/resume")
+    public Mono<ResponseEntity<UniversalResponse<BulkCardIssuanceJobDto>>> resumeBulkIssuanceJob(@PathVariable UUID id) {
+        return bulkCardIssuanceService.resumeJob(id)
+                .map(job -> ResponseEntity.status(HttpStatus.ACCEPTED).body(UniversalResponse.ok(job)));
+    }
+
+    /**
+     * Retrieves one page of distinct account IDs associated with the given card alias, in account
+     * ID order. Pass the last ID of a page as {@code after} to fetch the next one.
      * This endpoint is intended for internal use.
      *
      * @param alias The card alias used to filter cards.
+     * @param after The last account ID of the previous page (omit for the first page).
+     * @param limit The page size (default 1000, at most 10000).
      * @return A response containing a list of account UUIDs.
      */
-    @GetMapping("/internal/cards/account-ids")
-    public Mono<ResponseEntity<UniversalResponse<List<UUID>>>> getAccountIdsByCardAlias(@RequestParam String alias) {
-        return cardService.getAccountIdsByCardAlias(alias)
+    @GetMapping(value = "/internal/cards/account-ids", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<UniversalResponse<List<UUID>>>> getAccountIdsByCardAlias(
+            @RequestParam String alias,
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "1000") int limit) {
+        return cardService.getAccountIdsByCardAlias(alias, after, limit)
                 .collectList()
                 .map(accountIds -> ResponseEntity.ok(UniversalResponse.ok(accountIds)));
     }
 
+    /**
+     * Streams the same page as {@link #getAccountIdsByCardAlias} without an envelope, either as
+     * newline-delimited JSON or as raw 16-byte account IDs ({@code application/x-uuid-list}),
+     * depending on the Accept header.
+     */
+    @GetMapping(value = "/internal/cards/account-ids",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, UuidListCodec.MEDIA_TYPE_VALUE})
+    public Flux<UUID> streamAccountIdsByCardAlias(
+            @RequestParam String alias,
+            @RequestParam(required = false) UUID after,
+            @RequestParam(defaultValue = "1000") int limit) {
+        return cardService.getAccountIdsByCardAlias(alias, after, limit);
+    }
 
     /**
      * Retrieves a card by its ID.
      *
      * @param id     The UUID of the card to fetch.
      * @param unmask Whether to return the full PAN and CVV values (true) or masked versions (false).
+     * @param fields Optional comma-separated response fields (e.g. {@code id,cardAlias}); only their columns are read.
      * @return A response containing the card details.
      */
     @GetMapping("/{id}")
-    public Mono<ResponseEntity<UniversalResponse<CardResponseDto>>> getCardById(
+    public Mono<ResponseEntity<UniversalResponse<?>>> getCardById(
             @PathVariable UUID id,
-            @RequestParam(defaultValue = "false") boolean unmask) {
+            @RequestParam(defaultValue = "false") boolean unmask,
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return cardFieldsService.getCardById(id, unmask, CardField.FIELDSETS.parse(fields))
+                    .map(card -> ResponseEntity.ok(UniversalResponse.ok(card)));
+        }
         return cardService.getCardById(id, unmask)
                 .map(card -> ResponseEntity.ok(UniversalResponse.ok(card)));
     }
@@ -103,17 +253,24 @@ public class CardController {
      * @param page    Page number for pagination (default is 0).
      * @param size    Page size for pagination (default is 10).
      * @param unmask  Whether to return full PAN/CVV or masked values.
+     * @param fields  Optional comma-separated response fields; only their columns are read.
      * @return A response containing a list of matching card records.
      */
     @GetMapping
-    public Mono<ResponseEntity<UniversalResponse<List<CardResponseDto>>>> getCardsByFilters(
+    public Mono<ResponseEntity<UniversalResponse<?>>> getCardsByFilters(
             @RequestParam(required = false) String alias,
             @RequestParam(required = false) CardType type,
             @RequestParam(required = false) String pan,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "false") boolean unmask) {
+            @RequestParam(defaultValue = "false") boolean unmask,
+            @RequestParam(required = false) String fields) {
 
+        if (fields != null) {
+            return cardFieldsService.getCardsByFilters(alias, type, pan, page, size, unmask, CardField.FIELDSETS.parse(fields))
+                    .collectList()
+                    .map(cards -> ResponseEntity.ok(UniversalResponse.ok(cards)));
+        }
         return cardService.getCardsByFilters(alias, type, pan, page, size, unmask)
                 .collectList()
                 .map(cards -> ResponseEntity.ok(UniversalResponse.ok(cards)));
@@ -134,6 +291,25 @@ public class CardController {
                 .map(updated -> ResponseEntity.ok(UniversalResponse.ok(updated)));
     }
 
+    /**
+     * Updates the status of a specific card, e.g. to block or unblock it.
+     *
+     * @param id      The UUID of the card to update.
+     * @param request The request containing the new status.
+     * @return A response containing the updated card details.
+     */
+    @PatchMapping("status/{id}")
+    public Mono<ResponseEntity<UniversalResponse<?>>> updateCardStatus(
+            @PathVariable UUID id,
+            @RequestBody UpdateCardStatusRequest request) {
+        if (request.getStatus() == null) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(UniversalResponse.error(400, "Validation failed", Map.of("status", "Card status is required"))));
+        }
+        return cardService.updateCardStatus(id, request.getStatus())
+                .map(updated -> ResponseEntity.ok(UniversalResponse.ok(updated)));
+    }
+
     /**
      * Deletes a card by its ID.
      *
@@ -0,0 +1,51 @@
+package com.dtbbanking.card_service.controller;
+
+import com.dtbbanking.card_service.dto.CardAliasLookupDto;
+import com.dtbbanking.card_service.dto.CardResponseDto;
+import com.dtbbanking.card_service.service.CardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+
+import java.util.UUID;
+
+/**
+ * RSocket endpoints for internal service-to-service lookups.
+ * Served on the {@code spring.rsocket.server.port} TCP port; callers keep one multiplexed
+ * connection to it instead of an HTTP connection per in-flight call.
+ */
+@Controller
+@RequiredArgsConstructor
+public class CardRSocketController {
+
+    static final int ACCOUNT_BATCH = 500;
+
+    private final CardService cardService;
+
+    /**
+     * Request-stream: one page of distinct account IDs with a card matching the alias, in
+     * account ID order. Same paging as {@code GET /internal/cards/account-ids}.
+     *
+     * @param lookup alias, cursor and page size
+     * @return Flux of account IDs
+     */
+    @MessageMapping("cards.account-ids.by-alias")
+    public Flux<UUID> accountIdsByCardAlias(CardAliasLookupDto lookup) {
+        return cardService.getAccountIdsByCardAlias(lookup.getAlias(), lookup.getAfter(), lookup.getLimit());
+    }
+
+    /**
+     * Request-channel: streams back the cards, masked, of a stream of account IDs. Accounts are
+     * looked up in batches as they arrive, and requested from the caller only as fast as the
+     * cards are consumed.
+     *
+     * @param accountIds the account IDs
+     * @return Flux of the cards of those accounts
+     */
+    @MessageMapping("cards.by-account")
+    public Flux<CardResponseDto> cardsByAccount(Flux<UUID> accountIds) {
+        return accountIds.buffer(ACCOUNT_BATCH)
+                .concatMap(cardService::getCardsByAccountIds);
+    }
+}
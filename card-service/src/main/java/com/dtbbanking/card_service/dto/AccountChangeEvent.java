@@ -0,0 +1,18 @@
+package com.dtbbanking.card_service.dto;
+
+import com.dtbbanking.card_service.model.AccountChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountChangeEvent {
+    private AccountChangeType type;
+    private UUID accountId;
+}
@@ -0,0 +1,31 @@
+package com.dtbbanking.card_service.dto;
+
+import com.dtbbanking.card_service.model.CardIssuanceJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkCardIssuanceJobDto {
+    private UUID id;
+    private String cardAlias;
+    private boolean allAccounts;
+    private CardIssuanceJobStatus status;
+    private long totalAccounts;     // 0 when issuing to all accounts
+    private long processedAccounts;
+    private long issuedCards;
+    private long skippedAccounts;   // unknown accounts or accounts the card rules exclude
+    private double cardsPerSecond;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,17 @@
+package com.dtbbanking.card_service.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class BulkCardIssuanceRequestDto {
+    @NotBlank(message = "Card alias is required")
+    private String cardAlias;
+
+    private List<UUID> accountIds; // accounts to issue to, ignored when allAccounts is set
+
+    private boolean allAccounts;   // issue to every account known to account-service
+}
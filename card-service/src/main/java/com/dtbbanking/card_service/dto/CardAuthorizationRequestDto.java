@@ -0,0 +1,17 @@
+package com.dtbbanking.card_service.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardAuthorizationRequestDto {
+    @NotBlank(message = "PAN is required")
+    private String pan;
+
+    @NotBlank(message = "CVV is required")
+    private String cvv;
+}
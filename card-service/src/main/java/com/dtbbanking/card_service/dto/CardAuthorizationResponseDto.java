@@ -0,0 +1,20 @@
+package com.dtbbanking.card_service.dto;
+
+import com.dtbbanking.card_service.model.AuthorizationDecision;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CardAuthorizationResponseDto {
+    private boolean approved;
+    private AuthorizationDecision decision;
+    private UUID cardId;
+    private UUID accountId;
+}
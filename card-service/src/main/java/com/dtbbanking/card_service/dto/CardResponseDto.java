@@ -1,11 +1,13 @@
 package com.dtbbanking.card_service.dto;
 
+import com.dtbbanking.card_service.model.CardStatus;
 import com.dtbbanking.card_service.model.CardType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -20,5 +22,7 @@ public class CardResponseDto {
     private CardType cardType;
     private String pan;
     private String cvv;
+    private CardStatus status;
+    private LocalDate expiryDate;
     private LocalDateTime createdAt;
 }
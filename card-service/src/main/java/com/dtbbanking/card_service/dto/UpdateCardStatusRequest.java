@@ -0,0 +1,11 @@
+package com.dtbbanking.card_service.dto;
+
+import com.dtbbanking.card_service.model.CardStatus;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class UpdateCardStatusRequest {
+    @NotNull(message = "Card status is required")
+    private CardStatus status;
+}
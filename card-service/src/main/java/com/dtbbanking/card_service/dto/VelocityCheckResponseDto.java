@@ -0,0 +1,24 @@
+package com.dtbbanking.card_service.dto;
+
+import com.dtbbanking.card_service.model.CardType;
+import com.dtbbanking.card_service.model.VelocityWindow;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class VelocityCheckResponseDto {
+    private UUID cardId;
+    private CardType cardType;
+    private boolean allowed;
+    private VelocityWindow exceededWindow;
+    private long usedLastMinute;
+    private long usedLastHour;
+    private long usedLastDay;
+}
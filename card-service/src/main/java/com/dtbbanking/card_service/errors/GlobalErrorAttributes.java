@@ -1,6 +1,7 @@
 package com.dtbbanking.card_service.errors;
 
 import com.dtbbanking.card_service.dto.UniversalResponse;
+import io.r2dbc.spi.R2dbcTimeoutException;
 import org.springframework.boot.web.error.ErrorAttributeOptions;
 import org.springframework.boot.web.reactive.error.DefaultErrorAttributes;
 import org.springframework.http.HttpStatus;
@@ -8,6 +9,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.bind.support.WebExchangeBindException;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.pool.PoolAcquirePendingLimitException;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -50,6 +52,16 @@ public class GlobalErrorAttributes extends DefaultErrorAttributes {
             status = HttpStatus.NOT_FOUND.value();
             message = "Resource not found";
 
+        } else if (error instanceof ResponseStatusException rsEx && rsEx.getStatusCode() == HttpStatus.BAD_REQUEST) {
+            // e.g. an unknown ?fields= name
+            status = HttpStatus.BAD_REQUEST.value();
+            message = rsEx.getReason();
+
+        } else if (databaseBusy(error)) {
+            // pool wait queue full (db.pool.max-pending-acquires) or no connection within max-acquire-time
+            status = HttpStatus.SERVICE_UNAVAILABLE.value();
+            message = "Service busy, please retry";
+
         } else {
             status = HttpStatus.INTERNAL_SERVER_ERROR.value();
             message = "An unexpected error occurred";
@@ -71,6 +83,13 @@ public class GlobalErrorAttributes extends DefaultErrorAttributes {
 
         return errorAttributes;
     }
-}
-
 
+    private static boolean databaseBusy(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PoolAcquirePendingLimitException || cause instanceof R2dbcTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,56 @@
+package com.dtbbanking.card_service.mapper;
+
+import com.dtbbanking.card_service.dto.CardResponseDto;
+import com.dtbbanking.card_service.utils.SparseField;
+import com.dtbbanking.card_service.utils.SparseFieldsets;
+import io.r2dbc.spi.Row;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The fields of {@link CardResponseDto} that can be picked with {@code ?fields=}, and the
+ * {@code tb_cards} column each one is read from. Enum columns are read as their stored names,
+ * which is also how they are serialized.
+ */
+public enum CardField implements SparseField {
+
+    ID("id", "id", UUID.class),
+    CARD_ALIAS("cardAlias", "card_alias", String.class),
+    ACCOUNT_ID("accountId", "account_id", UUID.class),
+    CARD_TYPE("cardType", "type", String.class),
+    PAN("pan", "pan", String.class),
+    CVV("cvv", "cvv", String.class),
+    STATUS("status", "status", String.class),
+    EXPIRY_DATE("expiryDate", "expiry_date", LocalDate.class),
+    CREATED_AT("createdAt", "created_at", LocalDateTime.class);
+
+    public static final SparseFieldsets<CardField> FIELDSETS = new SparseFieldsets<>(CardField.class, "tb_cards");
+
+    private final String jsonName;
+    private final String column;
+    private final Class<?> type;
+
+    CardField(String jsonName, String column, Class<?> type) {
+        this.jsonName = jsonName;
+        this.column = column;
+        this.type = type;
+    }
+
+    @Override
+    public String jsonName() {
+        return jsonName;
+    }
+
+    @Override
+    public List<String> columns() {
+        return List.of(column);
+    }
+
+    @Override
+    public Object read(Row row) {
+        return row.get(column, type);
+    }
+}
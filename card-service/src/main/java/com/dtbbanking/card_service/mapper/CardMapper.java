@@ -56,6 +56,8 @@ public class CardMapper {
                 .cardType(card.getCardType())
                 .pan(maskPan(card.getPan()))
                 .cvv(maskCvv(card.getCvv()))
+                .status(card.getStatus())
+                .expiryDate(card.getExpiryDate())
                 .createdAt(card.getCreatedAt())
                 .build();
     }
@@ -107,6 +109,8 @@ public class CardMapper {
                 .cardType(card.getCardType())
                 .pan(card.getPan())
                 .cvv(card.getCvv())
+                .status(card.getStatus())
+                .expiryDate(card.getExpiryDate())
                 .createdAt(card.getCreatedAt())
                 .build();
     }
@@ -0,0 +1,6 @@
+package com.dtbbanking.card_service.model;
+
+public enum AccountChangeType {
+    CREATED,
+    DELETED
+}
@@ -0,0 +1,9 @@
+package com.dtbbanking.card_service.model;
+
+public enum AuthorizationDecision {
+    APPROVED,
+    UNKNOWN_CARD,
+    INVALID_CVV,
+    CARD_BLOCKED,
+    CARD_EXPIRED
+}
@@ -1,7 +1,5 @@
 package com.dtbbanking.card_service.model;
 
-import jakarta.persistence.EnumType;
-import jakarta.persistence.Enumerated;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,6 +10,7 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -31,7 +30,6 @@ public class Card {
     @Column("account_id")
     private UUID accountId;
 
-    @Enumerated(EnumType.STRING)
     @Column("type")
     private CardType cardType; // VIRTUAL or PHYSICAL
 
@@ -41,6 +39,12 @@ public class Card {
     @Column("cvv")
     private String cvv;
 
+    @Column("status")
+    private CardStatus status; // ACTIVE, BLOCKED or EXPIRED
+
+    @Column("expiry_date")
+    private LocalDate expiryDate;
+
     @Column("created_at")
     private LocalDateTime createdAt;
 
@@ -0,0 +1,68 @@
+package com.dtbbanking.card_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Table(name = "tb_card_issuance_jobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardIssuanceJob {
+
+    @Id
+    private UUID id;
+
+    @Column("card_alias")
+    private String cardAlias;
+
+    @Column("all_accounts")
+    private boolean allAccounts; // true = every account, false = ids in tb_card_issuance_job_accounts
+
+    @Column("status")
+    private CardIssuanceJobStatus status;
+
+    @Column("checkpoint_account_id")
+    private UUID checkpointAccountId; // last account id fully processed
+
+    @Column("total_accounts")
+    private long totalAccounts;
+
+    @Column("processed_accounts")
+    private long processedAccounts;
+
+    @Column("issued_cards")
+    private long issuedCards;
+
+    @Column("skipped_accounts")
+    private long skippedAccounts;
+
+    @Column("last_error")
+    private String lastError;
+
+    @Column("lease_owner")
+    private String leaseOwner;
+
+    @Column("lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    @Column("started_at")
+    private LocalDateTime startedAt;
+
+    @Column("updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column("completed_at")
+    private LocalDateTime completedAt;
+}
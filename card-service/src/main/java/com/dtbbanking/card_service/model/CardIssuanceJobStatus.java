@@ -0,0 +1,8 @@
+package com.dtbbanking.card_service.model;
+
+public enum CardIssuanceJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
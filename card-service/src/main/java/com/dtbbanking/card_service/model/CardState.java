@@ -0,0 +1,31 @@
+package com.dtbbanking.card_service.model;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Compact, immutable view of the card fields needed on the authorization path.
+ * <p>
+ * The PAN itself is never held here; entries are keyed by a PAN hash in
+ * {@link com.dtbbanking.card_service.service.CardStateIndex} and the CVV is kept
+ * only as a 64-bit hash bound to its PAN.
+ * </p>
+ *
+ * @param cardId     the card id
+ * @param accountId  the account the card belongs to
+ * @param cvvHash    64-bit hash of the PAN and CVV pair
+ * @param status     the card status
+ * @param cardType   the card type
+ * @param expiryDate the last day the card is valid, or {@code null} if it does not expire
+ */
+public record CardState(UUID cardId, UUID accountId, long cvvHash, CardStatus status, CardType cardType,
+                        LocalDate expiryDate) {
+
+    /**
+     * @param today the current date
+     * @return whether the card is expired, whether or not the sweeper has marked it yet
+     */
+    public boolean isExpired(LocalDate today) {
+        return status == CardStatus.EXPIRED || (expiryDate != null && expiryDate.isBefore(today));
+    }
+}
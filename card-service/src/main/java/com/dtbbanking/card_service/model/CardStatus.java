@@ -0,0 +1,7 @@
+package com.dtbbanking.card_service.model;
+
+public enum CardStatus {
+    ACTIVE,
+    BLOCKED,
+    EXPIRED
+}
@@ -0,0 +1,16 @@
+package com.dtbbanking.card_service.model;
+
+import java.util.UUID;
+
+/**
+ * Persistable copy of a card's velocity counters.
+ *
+ * @param cardId         the card id
+ * @param lastUsedMillis epoch millis of the last recorded use
+ * @param minuteBuckets  packed buckets of the minute window
+ * @param hourBuckets    packed buckets of the hour window
+ * @param dayBuckets     packed buckets of the day window
+ */
+public record VelocitySnapshot(UUID cardId, long lastUsedMillis, long[] minuteBuckets, long[] hourBuckets,
+                               long[] dayBuckets) {
+}
@@ -0,0 +1,28 @@
+package com.dtbbanking.card_service.model;
+
+import java.time.Duration;
+
+/**
+ * Velocity windows with their length and bucket resolution.
+ */
+public enum VelocityWindow {
+    MINUTE(Duration.ofMinutes(1), 60),  // 1 second buckets
+    HOUR(Duration.ofHours(1), 60),      // 1 minute buckets
+    DAY(Duration.ofDays(1), 96);        // 15 minute buckets
+
+    private final Duration length;
+    private final int buckets;
+
+    VelocityWindow(Duration length, int buckets) {
+        this.length = length;
+        this.buckets = buckets;
+    }
+
+    public Duration getLength() {
+        return length;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+}
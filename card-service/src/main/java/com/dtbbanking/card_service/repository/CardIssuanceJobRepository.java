@@ -0,0 +1,57 @@
+package com.dtbbanking.card_service.repository;
+
+import com.dtbbanking.card_service.model.CardIssuanceJob;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+public interface CardIssuanceJobRepository extends R2dbcRepository<CardIssuanceJob, UUID> {
+
+    // Unfinished jobs whose lease has lapsed, e.g. after the owning instance crashed
+    @Query("SELECT id FROM tb_card_issuance_jobs WHERE status IN ('PENDING', 'RUNNING') " +
+            "AND (lease_until IS NULL OR lease_until < NOW())")
+    Flux<UUID> findResumableJobIds();
+
+    // Take (or renew) the lease on a job; returns the job only if this instance now owns it
+    @Query("UPDATE tb_card_issuance_jobs SET status = 'RUNNING', lease_owner = :owner, " +
+            "lease_until = NOW() + :leaseSeconds * INTERVAL '1 second', started_at = COALESCE(started_at, NOW()), updated_at = NOW(), last_error = NULL " +
+            "WHERE id = :id AND status IN ('PENDING', 'RUNNING') " +
+            "AND (lease_until IS NULL OR lease_until < NOW() OR lease_owner = :owner) RETURNING *")
+    Mono<CardIssuanceJob> claim(@Param("id") UUID id, @Param("owner") String owner,
+                                @Param("leaseSeconds") long leaseSeconds);
+
+    // Advance the checkpoint after a chunk; affects no row if the lease was lost
+    @Query("UPDATE tb_card_issuance_jobs SET checkpoint_account_id = :checkpoint, " +
+            "processed_accounts = processed_accounts + :processed, issued_cards = issued_cards + :issued, " +
+            "skipped_accounts = skipped_accounts + :skipped, lease_until = NOW() + :leaseSeconds * INTERVAL '1 second', " +
+            "updated_at = NOW() WHERE id = :id AND lease_owner = :owner")
+    @Modifying
+    Mono<Long> checkpoint(@Param("id") UUID id, @Param("owner") String owner, @Param("checkpoint") UUID checkpoint,
+                          @Param("processed") long processed, @Param("issued") long issued,
+                          @Param("skipped") long skipped, @Param("leaseSeconds") long leaseSeconds);
+
+    // Extend the lease of a running job between checkpoints; affects no row if the lease was lost
+    @Query("UPDATE tb_card_issuance_jobs SET lease_until = NOW() + :leaseSeconds * INTERVAL '1 second' " +
+            "WHERE id = :id AND lease_owner = :owner AND status = 'RUNNING'")
+    @Modifying
+    Mono<Long> renewLease(@Param("id") UUID id, @Param("owner") String owner, @Param("leaseSeconds") long leaseSeconds);
+
+    @Query("UPDATE tb_card_issuance_jobs SET status = :status, last_error = :error, lease_owner = NULL, " +
+            "lease_until = NULL, updated_at = NOW(), " +
+            "completed_at = CASE WHEN :status = 'COMPLETED' THEN NOW() ELSE completed_at END " +
+            "WHERE id = :id AND lease_owner = :owner")
+    @Modifying
+    Mono<Long> finish(@Param("id") UUID id, @Param("owner") String owner, @Param("status") String status,
+                      @Param("error") String error);
+
+    // Put a failed job back in the queue; it continues from its checkpoint
+    @Query("UPDATE tb_card_issuance_jobs SET status = 'PENDING', last_error = NULL, updated_at = NOW() " +
+            "WHERE id = :id AND status = 'FAILED'")
+    @Modifying
+    Mono<Long> reopen(@Param("id") UUID id);
+}
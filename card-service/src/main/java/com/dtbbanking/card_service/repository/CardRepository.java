@@ -3,10 +3,13 @@ package com.dtbbanking.card_service.repository;
 import com.dtbbanking.card_service.model.Card;
 import com.dtbbanking.card_service.model.CardType;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
 import java.util.UUID;
 
 public interface CardRepository extends R2dbcRepository<Card, UUID> {
@@ -17,18 +20,39 @@ public interface CardRepository extends R2dbcRepository<Card, UUID> {
     // Filter by alias
     Flux<Card> findByCardAliasContainingIgnoreCase(String cardAlias);
 
+    // Distinct account ids with a matching alias, one keyset page at a time (internal endpoint)
+    @Query("SELECT DISTINCT account_id FROM tb_cards WHERE card_alias ILIKE :pattern ESCAPE '\\' " +
+            "AND account_id > :after ORDER BY account_id LIMIT :limit")
+    Flux<UUID> findDistinctAccountIdsByCardAlias(@Param("pattern") String pattern,
+                                                 @Param("after") UUID after,
+                                                 @Param("limit") int limit);
+
+    // Cards of several accounts (internal RSocket lookup)
+    Flux<Card> findByAccountIdIn(Collection<UUID> accountIds);
+
     // Filter by card type
     Flux<Card> findByCardType(CardType cardType, Pageable pageable);
 
     // Filter by partial PAN
     Flux<Card> findByPanContaining(String pan, Pageable pageable);
 
+    // Authorization fallback while the card state index is loading
+    Mono<Card> findFirstByPan(String pan);
+
     // Ensure each account has max 1 of each type
     Mono<Boolean> existsByAccountIdAndCardType(UUID accountId, CardType cardType);
 
     // Ensure max 2 cards per account
     Mono<Long> countByAccountId(UUID accountId);
 
+    // Status change that can never un-expire a card, even when the expiry sweeper runs concurrently
+    @Query("UPDATE tb_cards SET status = :status, updated_at = NOW() WHERE id = :id AND status <> 'EXPIRED' RETURNING *")
+    Mono<Card> updateStatusUnlessExpired(@Param("id") UUID id, @Param("status") String status);
+
+    // Alias change that leaves every other column, e.g. a concurrent expiry, untouched
+    @Query("UPDATE tb_cards SET card_alias = :alias, updated_at = NOW() WHERE id = :id RETURNING *")
+    Mono<Card> updateAlias(@Param("id") UUID id, @Param("alias") String alias);
+
     // Check if alias is already taken by another card under same account
     Mono<Boolean> existsByAccountIdAndCardAliasIgnoreCaseAndIdIsNot(UUID accountId, String cardAlias, UUID excludedId);
 
@@ -0,0 +1,135 @@
+package com.dtbbanking.card_service.service;
+
+import com.dtbbanking.card_service.dto.AccountChangeEvent;
+import com.dtbbanking.card_service.dto.UniversalResponse;
+import com.dtbbanking.card_service.model.InternalTransport;
+import com.dtbbanking.card_service.utils.UuidListCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lookups against the internal account-service endpoints. Existence checks go over HTTP or
+ * RSocket depending on {@code account.service.transport}.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountClient {
+
+    private static final ParameterizedTypeReference<UniversalResponse<List<UUID>>> ID_LIST =
+            new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<ServerSentEvent<AccountChangeEvent>> CHANGE_EVENT =
+            new ParameterizedTypeReference<>() {};
+
+    private final WebClient accountWebClient;
+    private final RSocketRequester accountServiceRequester;
+
+    @Value("${account.service.transport:HTTP}")
+    private InternalTransport transport = InternalTransport.HTTP;
+
+    /**
+     * Checks whether an account exists.
+     *
+     * @param accountId the account id
+     * @return Mono emitting true if account-service knows the account, false if it answers 4xx
+     */
+    public Mono<Boolean> existsById(UUID accountId) {
+        if (transport == InternalTransport.RSOCKET) {
+            return accountServiceRequester.route("accounts.exists")
+                    .data(accountId)
+                    .retrieveMono(Boolean.class)
+                    .defaultIfEmpty(false);
+        }
+        return accountWebClient.get()
+                .uri("/{accountId}", accountId)
+                .retrieve()
+                .onStatus(HttpStatusCode::is4xxClientError, response -> Mono.empty())
+                .toBodilessEntity()
+                .map(response -> response.getStatusCode().is2xxSuccessful());
+    }
+
+    /**
+     * Returns which of the given account ids exist. Over HTTP this is one request with ids
+     * travelling both ways as {@code application/x-uuid-list}; over RSocket the ids are streamed
+     * through an {@code accounts.existing} request-channel, which account-service checks in
+     * batches with backpressure.
+     *
+     * @param accountIds the account ids to check
+     * @return Mono emitting the ids that exist
+     */
+    public Mono<List<UUID>> getExistingAccountIds(List<UUID> accountIds) {
+        if (accountIds.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        if (transport == InternalTransport.RSOCKET) {
+            return accountServiceRequester.route("accounts.existing")
+                    .data(Flux.fromIterable(accountIds))
+                    .retrieveFlux(UUID.class)
+                    .collectList();
+        }
+        return accountWebClient.post()
+                .uri("/internal/existing-ids")
+                .contentType(UuidListCodec.MEDIA_TYPE)
+                .accept(UuidListCodec.MEDIA_TYPE)
+                .body(Flux.fromIterable(accountIds), UUID.class)
+                .retrieve()
+                .bodyToFlux(UUID.class)
+                .collectList();
+    }
+
+    /**
+     * Pages through all account ids in id order.
+     *
+     * @param after the last id of the previous page, or {@code null} for the first page
+     * @param limit the page size
+     * @return Mono emitting the next page of account ids
+     */
+    public Mono<List<UUID>> getAccountIdsAfter(UUID after, int limit) {
+        return accountWebClient.get()
+                // templates rather than a uri builder, so http.client.requests is tagged by route
+                .uri(after == null ? "/internal/ids?limit={limit}" : "/internal/ids?limit={limit}&after={after}",
+                        limit, after)
+                .retrieve()
+                .bodyToMono(ID_LIST)
+                .map(UniversalResponse::data);
+    }
+
+    /**
+     * Streams all account ids in id order as {@code application/x-uuid-list}, decoded
+     * buffer by buffer.
+     *
+     * @return Flux of every account id
+     */
+    public Flux<UUID> streamAccountIds() {
+        return accountWebClient.get()
+                .uri("/internal/ids/stream")
+                .accept(UuidListCodec.MEDIA_TYPE)
+                .retrieve()
+                .bodyToFlux(UUID.class);
+    }
+
+    /**
+     * Follows account creations and deletions. The first event is a {@code connected} comment,
+     * sent once account-service has subscribed to its change listener.
+     *
+     * @return Flux of server-sent events; comment-only events carry no data
+     */
+    public Flux<ServerSentEvent<AccountChangeEvent>> accountChanges() {
+        return accountWebClient.get()
+                .uri("/internal/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .retrieve()
+                .bodyToFlux(CHANGE_EVENT);
+    }
+}
@@ -0,0 +1,177 @@
+package com.dtbbanking.card_service.service;
+
+import com.dtbbanking.card_service.utils.OffHeapUuidSet;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Local copy of the ids of all existing accounts, used to validate card creation
+ * without calling account-service.
+ * <p>
+ * The bulk of the ids sit in an immutable {@link OffHeapUuidSet} loaded from account-service.
+ * Changes since that load are kept in two small on-heap delta sets, which are folded into a
+ * new off-heap set in the background once they grow past {@code card.accounts.compact-threshold}.
+ * A miss is not authoritative: callers fall back to account-service for ids newer than the
+ * last sync.
+ * </p>
+ */
+@Slf4j
+@Component
+public class AccountExistenceProjection {
+
+    private final int compactThreshold;
+
+    private volatile OffHeapUuidSet base = OffHeapUuidSet.empty();
+    private final Set<UUID> added = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> removed = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private volatile boolean loaded;
+
+    // While a reload runs: the deltas it will supersede, and the ids changed since it began
+    private Set<UUID> staleAdded = Set.of();
+    private Set<UUID> staleRemoved = Set.of();
+    private volatile Set<UUID> changedDuringReload;
+
+    public AccountExistenceProjection(ObjectProvider<MeterRegistry> meterRegistry,
+                                      @Value("${card.accounts.compact-threshold:10000}") int compactThreshold) {
+        this.compactThreshold = compactThreshold;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        Gauge.builder("card.accounts.projection.size", this, p -> p.base.size() + p.added.size())
+                .description("Account ids held in the local account projection")
+                .register(registry);
+        Gauge.builder("card.accounts.projection.memory", this, p -> p.base.footprintBytes())
+                .description("Off-heap memory used by the local account projection")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * @param accountId the account id
+     * @return true if the account is known to exist; false means unknown, not absent
+     */
+    public boolean contains(UUID accountId) {
+        if (removed.contains(accountId)) {
+            return false;
+        }
+        return added.contains(accountId) || base.contains(accountId);
+    }
+
+    public void add(UUID accountId) {
+        trackReloadChange(accountId);
+        removed.remove(accountId);
+        added.add(accountId);
+        compactIfNeeded();
+    }
+
+    public void remove(UUID accountId) {
+        trackReloadChange(accountId);
+        added.remove(accountId);
+        removed.add(accountId);
+        compactIfNeeded();
+    }
+
+    /**
+     * Marks the start of a full reload. The deltas stay in effect until {@link #replace(OffHeapUuidSet)}
+     * swaps in the new set, which then drops only the deltas the reload supersedes: changes arriving
+     * during the reload are kept on top of the new set. Compaction is paused meanwhile, as it would
+     * fold those changes into the set about to be replaced.
+     */
+    public synchronized void beginReload() {
+        staleAdded = Set.copyOf(added);
+        staleRemoved = Set.copyOf(removed);
+        changedDuringReload = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Abandons a failed reload; the current set and its deltas stay in use.
+     */
+    public synchronized void cancelReload() {
+        endReload();
+        compactIfNeeded();
+    }
+
+    /**
+     * Swaps in a freshly loaded set of account ids.
+     *
+     * @param ids all account ids as of the load
+     */
+    public synchronized void replace(OffHeapUuidSet ids) {
+        base = ids;
+        loaded = true;
+        Set<UUID> changed = changedDuringReload;
+        if (changed != null) {
+            staleAdded.stream().filter(id -> !changed.contains(id)).forEach(added::remove);
+            staleRemoved.stream().filter(id -> !changed.contains(id)).forEach(removed::remove);
+        }
+        endReload();
+        compactIfNeeded();
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        return base.size() + added.size();
+    }
+
+    /**
+     * Folds the deltas into a new off-heap set. Deltas changed while the merge runs are kept.
+     */
+    synchronized void compact() {
+        if (changedDuringReload != null) {
+            return;
+        }
+        List<UUID> adds = List.copyOf(added);
+        Set<UUID> removes = Set.copyOf(removed);
+        long started = System.nanoTime();
+
+        base = base.merge(adds, removes);
+        adds.forEach(added::remove);
+        removes.forEach(removed::remove);
+        log.debug("Compacted account projection to {} ids in {} ms",
+                base.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void trackReloadChange(UUID accountId) {
+        Set<UUID> changed = changedDuringReload;
+        if (changed != null) {
+            changed.add(accountId);
+        }
+    }
+
+    private void endReload() {
+        staleAdded = Set.of();
+        staleRemoved = Set.of();
+        changedDuringReload = null;
+    }
+
+    private void compactIfNeeded() {
+        if (added.size() + removed.size() < compactThreshold || changedDuringReload != null
+                || !compacting.compareAndSet(false, true)) {
+            return;
+        }
+        Schedulers.boundedElastic().schedule(() -> {
+            try {
+                compact();
+            } catch (RuntimeException e) {
+                log.error("Failed to compact account projection", e);
+            } finally {
+                compacting.set(false);
+            }
+        });
+    }
+}
@@ -0,0 +1,136 @@
+package com.dtbbanking.card_service.service;
+
+import com.dtbbanking.card_service.dto.AccountChangeEvent;
+import com.dtbbanking.card_service.model.AccountChangeType;
+import com.dtbbanking.card_service.utils.OffHeapUuidSet;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps {@link AccountExistenceProjection} in step with account-service.
+ * <p>
+ * It follows the account change feed and, once account-service confirms the subscription,
+ * streams all account ids into a new off-heap set. Changes arriving during the load land in
+ * the projection's delta sets, so none are lost. When the feed drops it reconnects with backoff
+ * and reloads in full; a periodic full resync bounds drift from anything missed regardless.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountProjectionSynchronizer {
+
+    private final AccountExistenceProjection projection;
+    private final AccountClient accountClient;
+
+    @Value("${card.accounts.projection-enabled:true}")
+    private boolean projectionEnabled;
+
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    /**
+     * Starts following the account change feed once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (projectionEnabled) {
+            subscriptions.add(follow().subscribe());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscriptions.dispose();
+    }
+
+    /**
+     * Reloads all account ids to correct any drift from missed changes.
+     *
+     * @return Mono completing when the reload ends
+     */
+    @Scheduled(fixedDelayString = "${card.accounts.resync-interval:PT30M}",
+            initialDelayString = "${card.accounts.resync-interval:PT30M}")
+    public Mono<Void> resync() {
+        return projectionEnabled ? reload() : Mono.empty();
+    }
+
+    /**
+     * Streams every account id from account-service into a fresh off-heap set and swaps it in.
+     *
+     * @return Mono completing when the projection is reloaded, or at once if a reload is running
+     */
+    Mono<Void> reload() {
+        return Mono.defer(() -> {
+            if (!reloading.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            long started = System.nanoTime();
+            projection.beginReload();
+            OffHeapUuidSet.Builder ids = OffHeapUuidSet.builder(Math.max(projection.size(), 1024));
+
+            return accountClient.streamAccountIds()
+                    .doOnNext(ids::add)
+                    .then(Mono.fromRunnable(() -> projection.replace(ids.build())))
+                    .doOnSuccess(v -> log.info("Account projection loaded with {} ids in {} ms",
+                            projection.size(), Duration.ofNanos(System.nanoTime() - started).toMillis()))
+                    .onErrorResume(e -> {
+                        log.error("Failed to load account projection", e);
+                        projection.cancelReload();
+                        return Mono.empty();
+                    })
+                    .doFinally(signal -> reloading.set(false))
+                    .then();
+        });
+    }
+
+    void apply(AccountChangeEvent event) {
+        if (event.getAccountId() == null) {
+            return;
+        }
+        if (event.getType() == AccountChangeType.DELETED) {
+            projection.remove(event.getAccountId());
+        } else {
+            projection.add(event.getAccountId());
+        }
+    }
+
+    /**
+     * Follows the account change feed, reloading all ids each time it (re)connects.
+     */
+    private Mono<Void> follow() {
+        return Flux.defer(() -> {
+                    AtomicBoolean connected = new AtomicBoolean();
+                    return accountClient.accountChanges()
+                            .doOnNext(event -> {
+                                if (!connected.getAndSet(true)) {
+                                    log.info("Following account changes");
+                                    subscriptions.add(reload().subscribe());
+                                }
+                                if (event.data() != null) {
+                                    apply(event.data());
+                                }
+                            })
+                            .concatWith(Mono.error(new IllegalStateException("Account change feed closed")));
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Account change feed disconnected, reconnecting",
+                                signal.failure())))
+                .then();
+    }
+}
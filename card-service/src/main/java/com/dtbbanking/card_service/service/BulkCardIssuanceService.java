@@ -0,0 +1,443 @@
+package com.dtbbanking.card_service.service;
+
+import com.dtbbanking.card_service.dto.BulkCardIssuanceJobDto;
+import com.dtbbanking.card_service.dto.BulkCardIssuanceRequestDto;
+import com.dtbbanking.card_service.errors.GlobalException;
+import com.dtbbanking.card_service.model.Card;
+import com.dtbbanking.card_service.model.CardIssuanceJob;
+import com.dtbbanking.card_service.model.CardIssuanceJobStatus;
+import com.dtbbanking.card_service.model.CardStatus;
+import com.dtbbanking.card_service.model.CardType;
+import com.dtbbanking.card_service.repository.CardIssuanceJobRepository;
+import com.dtbbanking.card_service.utils.CardUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Issues a VIRTUAL card to many accounts as a background job.
+ * <p>
+ * Accounts are walked in id order in chunks. Each chunk is validated against the local account
+ * projection, with one account-service request for the accounts it does not know, gets its PANs
+ * and CVVs generated off the event loop, and is written with a
+ * single multi-row insert that applies the per-account card rules in SQL. Up to
+ * {@code card.bulk-issuance.concurrency} chunks are in flight at once, but the checkpoint in
+ * {@code tb_card_issuance_jobs} only advances in order, so a job whose instance dies is picked
+ * up from its last checkpoint by any instance once its lease expires. The lease is renewed on a
+ * timer while the job runs, not only at checkpoints, so a slow chunk does not hand the job to a
+ * second instance. Re-running a chunk is safe because accounts that already have a VIRTUAL card
+ * are skipped by the insert.
+ * </p>
+ * <p>
+ * The insert mutes the per-row {@code card_state} trigger for its transaction and publishes the
+ * chunk's card ids itself, a few hundred per notification, so other replicas get a handful of
+ * notifications per chunk rather than one per card.
+ * </p>
+ */
+@Slf4j
+@Service
+public class BulkCardIssuanceService {
+
+    private static final int ACCOUNT_ID_INSERT_BATCH = 5000;
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final UUID MIN_UUID = new UUID(0, 0);
+
+    private static final String INSERT_JOB_ACCOUNTS_SQL = """
+            INSERT INTO tb_card_issuance_job_accounts (job_id, account_id)
+            SELECT $1, unnest($2::uuid[])
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String JOB_ACCOUNTS_PAGE_SQL = """
+            SELECT account_id FROM tb_card_issuance_job_accounts
+            WHERE job_id = $1 AND account_id > $2
+            ORDER BY account_id
+            LIMIT $3
+            """;
+
+    // Same rules as CardService.createCard: no second VIRTUAL card and at most 2 cards per account
+    private static final String ISSUE_CHUNK_SQL = """
+            INSERT INTO tb_cards (card_alias, account_id, type, pan, cvv, status, expiry_date, created_at, updated_at)
+            SELECT $1, n.account_id, 'VIRTUAL', n.pan, n.cvv, 'ACTIVE', $5, NOW(), NOW()
+            FROM unnest($2::uuid[], $3::varchar[], $4::varchar[]) AS n(account_id, pan, cvv)
+            WHERE NOT EXISTS (SELECT 1 FROM tb_cards c WHERE c.account_id = n.account_id AND c.type = 'VIRTUAL')
+              AND (SELECT COUNT(*) FROM tb_cards c WHERE c.account_id = n.account_id) < 2
+            RETURNING id, card_alias, account_id, type, pan, cvv, status, expiry_date
+            """;
+
+    private static final String MUTE_ROW_NOTIFY_SQL = "SELECT set_config('card.bulk_issuance', 'on', true)";
+
+    // Notification payloads are capped at 8000 bytes, i.e. about 200 comma-separated ids
+    private static final String NOTIFY_CHUNK_SQL = """
+            SELECT pg_notify('card_state', string_agg(id::text, ','))
+            FROM unnest($1::uuid[]) WITH ORDINALITY AS n(id, i)
+            GROUP BY (i - 1) / 200
+            """;
+
+    private final CardIssuanceJobRepository jobRepository;
+    private final AccountClient accountClient;
+    private final AccountExistenceProjection accountExistenceProjection;
+    private final CardStateIndex cardStateIndex;
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final int chunkSize;
+    private final int concurrency;
+    private final long leaseSeconds;
+    private final Duration leaseRenewal;
+
+    private final String owner = UUID.randomUUID().toString();
+    private final Set<UUID> runningJobs = ConcurrentHashMap.newKeySet();
+
+    private final Counter issuedCards;
+    private final Timer chunkLatency;
+
+    public BulkCardIssuanceService(CardIssuanceJobRepository jobRepository,
+                                   AccountClient accountClient,
+                                   AccountExistenceProjection accountExistenceProjection,
+                                   CardStateIndex cardStateIndex,
+                                   DatabaseClient databaseClient,
+                                   TransactionalOperator transactionalOperator,
+                                   ObjectProvider<MeterRegistry> meterRegistry,
+                                   @Value("${card.bulk-issuance.chunk-size:500}") int chunkSize,
+                                   @Value("${card.bulk-issuance.concurrency:4}") int concurrency,
+                                   @Value("${card.bulk-issuance.lease:PT2M}") Duration lease) {
+        this.jobRepository = jobRepository;
+        this.accountClient = accountClient;
+        this.accountExistenceProjection = accountExistenceProjection;
+        this.cardStateIndex = cardStateIndex;
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.chunkSize = chunkSize;
+        this.concurrency = concurrency;
+        this.leaseSeconds = lease.toSeconds();
+        this.leaseRenewal = lease.dividedBy(3);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.issuedCards = Counter.builder("card.bulk.issued")
+                .description("Cards issued by bulk issuance jobs")
+                .register(registry);
+        this.chunkLatency = Timer.builder("card.bulk.chunk.latency")
+                .description("Time to validate, generate and insert one chunk of cards")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    /**
+     * Creates a bulk issuance job and starts it on this instance.
+     *
+     * @param dto The job request, either a list of account ids or {@code allAccounts}.
+     * @return Mono emitting the created job.
+     */
+    public Mono<BulkCardIssuanceJobDto> createJob(BulkCardIssuanceRequestDto dto) {
+        List<UUID> accountIds = dto.isAllAccounts() || dto.getAccountIds() == null
+                ? List.of()
+                : dto.getAccountIds().stream().filter(Objects::nonNull).distinct().toList();
+        if (!dto.isAllAccounts() && accountIds.isEmpty()) {
+            return Mono.error(new GlobalException("Account ids are required unless allAccounts is set"));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        CardIssuanceJob job = CardIssuanceJob.builder()
+                .cardAlias(dto.getCardAlias().trim())
+                .allAccounts(dto.isAllAccounts())
+                .status(CardIssuanceJobStatus.PENDING)
+                .totalAccounts(accountIds.size())
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+
+        return jobRepository.save(job)
+                .flatMap(saved -> Flux.fromIterable(accountIds)
+                        .buffer(ACCOUNT_ID_INSERT_BATCH)
+                        .concatMap(batch -> databaseClient.sql(INSERT_JOB_ACCOUNTS_SQL)
+                                .bind(0, saved.getId())
+                                .bind(1, batch.toArray(UUID[]::new))
+                                .fetch()
+                                .rowsUpdated())
+                        .then(Mono.just(saved)))
+                .as(transactionalOperator::transactional)
+                .doOnNext(saved -> {
+                    log.info("Created card issuance job {} for {}", saved.getId(),
+                            saved.isAllAccounts() ? "all accounts" : accountIds.size() + " accounts");
+                    start(saved.getId());
+                })
+                .map(this::toDto);
+    }
+
+    /**
+     * Retrieves a job with its progress and throughput.
+     *
+     * @param jobId The job id.
+     * @return Mono emitting the job.
+     */
+    public Mono<BulkCardIssuanceJobDto> getJob(UUID jobId) {
+        return jobRepository.findById(jobId)
+                .switchIfEmpty(Mono.error(new GlobalException("Card issuance job not found")))
+                .map(this::toDto);
+    }
+
+    /**
+     * Restarts a failed job from its last checkpoint.
+     *
+     * @param jobId The job id.
+     * @return Mono emitting the job.
+     */
+    public Mono<BulkCardIssuanceJobDto> resumeJob(UUID jobId) {
+        return jobRepository.findById(jobId)
+                .switchIfEmpty(Mono.error(new GlobalException("Card issuance job not found")))
+                .flatMap(job -> jobRepository.reopen(jobId))
+                .flatMap(reopened -> reopened == 0
+                        ? Mono.error(new GlobalException("Only failed card issuance jobs can be resumed"))
+                        : Mono.just(reopened))
+                .doOnNext(reopened -> start(jobId))
+                .then(getJob(jobId));
+    }
+
+    /**
+     * Picks up unfinished jobs whose lease has expired, e.g. because their instance crashed.
+     *
+     * @return Mono completing when all resumable jobs have been claimed
+     */
+    @Scheduled(fixedDelayString = "${card.bulk-issuance.resume-interval:PT1M}", initialDelayString = "PT30S")
+    public Mono<Void> resumeAbandonedJobs() {
+        return jobRepository.findResumableJobIds()
+                .filter(jobId -> !runningJobs.contains(jobId))
+                .concatMap(jobId -> jobRepository.claim(jobId, owner, leaseSeconds))
+                .doOnNext(job -> {
+                    log.info("Resuming card issuance job {} after account {}", job.getId(), job.getCheckpointAccountId());
+                    run(job).subscribe();
+                })
+                .then()
+                .onErrorResume(e -> {
+                    log.error("Failed to resume card issuance jobs", e);
+                    return Mono.empty();
+                });
+    }
+
+    private void start(UUID jobId) {
+        jobRepository.claim(jobId, owner, leaseSeconds)
+                .flatMap(this::run)
+                .subscribe(null, e -> log.error("Failed to start card issuance job {}", jobId, e));
+    }
+
+    /**
+     * Runs a claimed job to completion, checkpointing after every chunk in account id order. The
+     * job stops, and is left to the instance now holding it, as soon as the lease turns out lost.
+     */
+    private Mono<Void> run(CardIssuanceJob job) {
+        UUID jobId = job.getId();
+        return Mono.defer(() -> {
+            if (!runningJobs.add(jobId)) {
+                return Mono.empty();
+            }
+            Mono<Void> chunks = pages(job)
+                    .flatMapSequential(page -> issueChunk(job, page), concurrency)
+                    .concatMap(chunk -> jobRepository.checkpoint(jobId, owner, chunk.lastAccountId(),
+                                    chunk.processed(), chunk.issued(), chunk.skipped(), leaseSeconds)
+                            .flatMap(updated -> updated == 0 ? Mono.error(lostLease(jobId)) : Mono.just(updated)))
+                    .then();
+            return Mono.firstWithSignal(chunks, keepLease(jobId))
+                    .then(Mono.defer(() -> jobRepository.finish(jobId, owner, CardIssuanceJobStatus.COMPLETED.name(), null)))
+                    .doOnSuccess(v -> log.info("Card issuance job {} completed", jobId))
+                    .onErrorResume(e -> {
+                        log.error("Card issuance job {} failed", jobId, e);
+                        return jobRepository.finish(jobId, owner, CardIssuanceJobStatus.FAILED.name(), truncate(e.getMessage()));
+                    })
+                    .then()
+                    .doFinally(signal -> runningJobs.remove(jobId));
+        });
+    }
+
+    /**
+     * Renews the lease every third of its length. Errors once the lease is found lost and never
+     * completes otherwise; a failed renewal is retried on the next tick.
+     */
+    private Mono<Void> keepLease(UUID jobId) {
+        return Flux.interval(leaseRenewal)
+                .onBackpressureDrop()
+                .concatMap(tick -> jobRepository.renewLease(jobId, owner, leaseSeconds)
+                        .onErrorResume(e -> {
+                            log.warn("Failed to renew the lease on card issuance job {}", jobId, e);
+                            return Mono.empty();
+                        }))
+                .filter(updated -> updated == 0)
+                .next()
+                .flatMap(lost -> Mono.error(lostLease(jobId)));
+    }
+
+    private static GlobalException lostLease(UUID jobId) {
+        return new GlobalException("Lost the lease on card issuance job " + jobId);
+    }
+
+    /**
+     * Streams the job's account ids after its checkpoint, one chunk at a time. The next chunk is
+     * only fetched when downstream asks for it, so at most {@code concurrency} chunks are buffered.
+     */
+    private Flux<List<UUID>> pages(CardIssuanceJob job) {
+        return nextPage(job, job.getCheckpointAccountId())
+                .expand(page -> page.size() < chunkSize
+                        ? Mono.empty()
+                        : nextPage(job, page.get(page.size() - 1)))
+                .filter(page -> !page.isEmpty());
+    }
+
+    private Mono<List<UUID>> nextPage(CardIssuanceJob job, UUID after) {
+        if (job.isAllAccounts()) {
+            return accountClient.getAccountIdsAfter(after, chunkSize);
+        }
+        return databaseClient.sql(JOB_ACCOUNTS_PAGE_SQL)
+                .bind(0, job.getId())
+                .bind(1, after == null ? MIN_UUID : after)
+                .bind(2, chunkSize)
+                .map((row, metadata) -> row.get("account_id", UUID.class))
+                .all()
+                .collectList();
+    }
+
+    private Mono<ChunkResult> issueChunk(CardIssuanceJob job, List<UUID> page) {
+        long started = System.nanoTime();
+        Mono<List<UUID>> existing = job.isAllAccounts()
+                ? Mono.just(page)
+                : existingAccountIds(page);
+
+        return existing
+                .flatMap(accountIds -> Mono.fromCallable(() -> NewCards.generate(accountIds))
+                        .subscribeOn(Schedulers.parallel()))
+                .flatMap(cards -> insert(job.getCardAlias(), cards))
+                .map(issued -> {
+                    chunkLatency.record(Duration.ofNanos(System.nanoTime() - started));
+                    issuedCards.increment(issued);
+                    return new ChunkResult(page.get(page.size() - 1), page.size(), issued, page.size() - issued);
+                });
+    }
+
+    /**
+     * Keeps the accounts that exist, asking account-service only about those the local
+     * account projection does not know.
+     */
+    private Mono<List<UUID>> existingAccountIds(List<UUID> accountIds) {
+        Map<Boolean, List<UUID>> known = accountIds.stream()
+                .collect(Collectors.partitioningBy(accountExistenceProjection::contains));
+        if (known.get(false).isEmpty()) {
+            return Mono.just(accountIds);
+        }
+        return accountClient.getExistingAccountIds(known.get(false))
+                .map(confirmed -> {
+                    List<UUID> existing = new ArrayList<>(known.get(true));
+                    existing.addAll(confirmed);
+                    return existing;
+                });
+    }
+
+    private Mono<Integer> insert(String cardAlias, NewCards cards) {
+        if (cards.accountIds().length == 0) {
+            return Mono.just(0);
+        }
+        Mono<List<Card>> inserted = databaseClient.sql(ISSUE_CHUNK_SQL)
+                .bind(0, cardAlias)
+                .bind(1, cards.accountIds())
+                .bind(2, cards.pans())
+                .bind(3, cards.cvvs())
+                .bind(4, LocalDate.now().plusYears(CardUtils.CARD_VALIDITY_YEARS))
+                .map((row, metadata) -> Card.builder()
+                        .id(row.get("id", UUID.class))
+                        .cardAlias(row.get("card_alias", String.class))
+                        .accountId(row.get("account_id", UUID.class))
+                        .cardType(CardType.valueOf(row.get("type", String.class)))
+                        .pan(row.get("pan", String.class))
+                        .cvv(row.get("cvv", String.class))
+                        .status(CardStatus.valueOf(row.get("status", String.class)))
+                        .expiryDate(row.get("expiry_date", LocalDate.class))
+                        .build())
+                .all()
+                .collectList();
+
+        return databaseClient.sql(MUTE_ROW_NOTIFY_SQL).then()
+                .then(inserted)
+                .flatMap(issued -> issued.isEmpty()
+                        ? Mono.just(issued)
+                        : databaseClient.sql(NOTIFY_CHUNK_SQL)
+                                .bind(0, issued.stream().map(Card::getId).toArray(UUID[]::new))
+                                .then()
+                                .thenReturn(issued))
+                .as(transactionalOperator::transactional)
+                .doOnNext(issued -> issued.forEach(cardStateIndex::put))
+                .map(List::size);
+    }
+
+    private BulkCardIssuanceJobDto toDto(CardIssuanceJob job) {
+        double cardsPerSecond = 0;
+        if (job.getStartedAt() != null && job.getUpdatedAt() != null) {
+            LocalDateTime end = job.getCompletedAt() != null ? job.getCompletedAt() : job.getUpdatedAt();
+            long millis = Duration.between(job.getStartedAt(), end).toMillis();
+            cardsPerSecond = millis > 0 ? job.getIssuedCards() * 1000.0 / millis : 0;
+        }
+
+        return BulkCardIssuanceJobDto.builder()
+                .id(job.getId())
+                .cardAlias(job.getCardAlias())
+                .allAccounts(job.isAllAccounts())
+                .status(job.getStatus())
+                .totalAccounts(job.getTotalAccounts())
+                .processedAccounts(job.getProcessedAccounts())
+                .issuedCards(job.getIssuedCards())
+                .skippedAccounts(job.getSkippedAccounts())
+                .cardsPerSecond(Math.round(cardsPerSecond * 10) / 10.0)
+                .lastError(job.getLastError())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .updatedAt(job.getUpdatedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return "Unknown error";
+        }
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private record ChunkResult(UUID lastAccountId, int processed, int issued, int skipped) {
+    }
+
+    /**
+     * Column arrays for one multi-row insert, bound as Postgres arrays and expanded with {@code unnest}.
+     */
+    private record NewCards(UUID[] accountIds, String[] pans, String[] cvvs) {
+
+        static NewCards generate(List<UUID> accountIds) {
+            int n = accountIds.size();
+            String[] pans = new String[n];
+            String[] cvvs = new String[n];
+            for (int i = 0; i < n; i++) {
+                pans[i] = CardUtils.generatePan();
+                cvvs[i] = CardUtils.generateCvv();
+            }
+            return new NewCards(accountIds.toArray(UUID[]::new), pans, cvvs);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.dtbbanking.card_service.service;
+
+import com.dtbbanking.card_service.dto.CardAuthorizationRequestDto;
+import com.dtbbanking.card_service.dto.CardAuthorizationResponseDto;
+import com.dtbbanking.card_service.model.AuthorizationDecision;
+import com.dtbbanking.card_service.model.CardState;
+import com.dtbbanking.card_service.model.CardStatus;
+import com.dtbbanking.card_service.repository.CardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Service class for card authorization, checking PAN, CVV, card status and expiry date
+ * against the in-memory {@link CardStateIndex}. A card past its expiry date is declined
+ * even before {@link CardExpirySweeper} has marked it expired.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CardAuthorizationService {
+
+    private final CardStateIndex cardStateIndex;
+    private final CardRepository cardRepository;
+
+    /**
+     * Authorizes a card. Served from memory once the index is loaded; until then
+     * the card is looked up by PAN in the database.
+     *
+     * @param dto The authorization request containing PAN and CVV.
+     * @return Mono emitting the authorization decision.
+     */
+    public Mono<CardAuthorizationResponseDto> authorize(CardAuthorizationRequestDto dto) {
+        if (cardStateIndex.isLoaded()) {
+            return Mono.just(decide(cardStateIndex.find(dto.getPan()), dto));
+        }
+
+        log.debug("Card state index not loaded yet, authorizing from the database");
+        return cardRepository.findFirstByPan(dto.getPan().trim())
+                .map(CardStateIndex::toState)
+                .map(state -> decide(state, dto))
+                .defaultIfEmpty(decide(null, dto));
+    }
+
+    /**
+     * Evaluates an authorization request against a card state.
+     *
+     * @param state The indexed card state, or {@code null} if the PAN is unknown.
+     * @param dto   The authorization request.
+     * @return The authorization response.
+     */
+    CardAuthorizationResponseDto decide(CardState state, CardAuthorizationRequestDto dto) {
+        if (state == null) {
+            return CardAuthorizationResponseDto.builder()
+                    .approved(false)
+                    .decision(AuthorizationDecision.UNKNOWN_CARD)
+                    .build();
+        }
+
+        AuthorizationDecision decision;
+        if (state.cvvHash() != CardStateIndex.cvvHash(dto.getPan(), dto.getCvv())) {
+            decision = AuthorizationDecision.INVALID_CVV;
+        } else if (state.isExpired(LocalDate.now())) {
+            decision = AuthorizationDecision.CARD_EXPIRED;
+        } else if (state.status() != CardStatus.ACTIVE) {
+            decision = AuthorizationDecision.CARD_BLOCKED;
+        } else {
+            decision = AuthorizationDecision.APPROVED;
+        }
+
+        return CardAuthorizationResponseDto.builder()
+                .approved(decision == AuthorizationDecision.APPROVED)
+                .decision(decision)
+                .cardId(state.cardId())
+                .accountId(state.accountId())
+                .build();
+    }
+}
@@ -0,0 +1,160 @@
+package com.dtbbanking.card_service.service;
+
+import com.dtbbanking.card_service.model.CardStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scheduled job that moves cards past their expiry date to {@link CardStatus#EXPIRED}.
+ * <p>
+ * Cards are expired in chunks, each one short auto-committed statement that picks its rows
+ * through {@code idx_tb_cards_status_expiry_date} with {@code FOR UPDATE SKIP LOCKED}.
+ * Several instances can therefore sweep at the same time without waiting on each other's
+ * rows, and no lock is held for longer than one chunk.
+ * </p>
+ */
+@Slf4j
+@Component
+public class CardExpirySweeper {
+
+    private static final String EXPIRE_CHUNK_SQL = """
+            UPDATE tb_cards SET status = 'EXPIRED', updated_at = NOW()
+            WHERE id IN (
+                SELECT id FROM tb_cards
+                WHERE status IN ('ACTIVE', 'BLOCKED') AND expiry_date < $1
+                ORDER BY status, expiry_date
+                LIMIT $2
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING id
+            """;
+
+    private static final String OLDEST_DUE_SQL = """
+            SELECT MIN(expiry_date) AS oldest FROM tb_cards
+            WHERE status IN ('ACTIVE', 'BLOCKED') AND expiry_date < $1
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final CardStateIndex cardStateIndex;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+
+    private final Counter expiredCards;
+    private final Timer chunkLatency;
+    private final Timer sweepDuration;
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    public CardExpirySweeper(DatabaseClient databaseClient,
+                             CardStateIndex cardStateIndex,
+                             ObjectProvider<MeterRegistry> meterRegistry,
+                             @Value("${card.lifecycle.sweep-chunk-size:2000}") int chunkSize,
+                             @Value("${card.lifecycle.sweep-max-chunks:500}") int maxChunksPerRun) {
+        this.databaseClient = databaseClient;
+        this.cardStateIndex = cardStateIndex;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.expiredCards = Counter.builder("card.sweeper.expired")
+                .description("Cards moved to EXPIRED by the sweeper")
+                .register(registry);
+        this.chunkLatency = Timer.builder("card.sweeper.chunk.latency")
+                .description("Time to expire one chunk of cards")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.sweepDuration = Timer.builder("card.sweeper.run.duration")
+                .description("Time taken by one sweep run")
+                .register(registry);
+        Gauge.builder("card.sweeper.lag", lagSeconds, AtomicLong::get)
+                .description("Age of the oldest card that is past expiry but not yet expired")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    /**
+     * Expires due cards chunk by chunk until none are left or the per-run chunk budget is used.
+     *
+     * @return Mono completing when the run ends
+     */
+    @Scheduled(fixedDelayString = "${card.lifecycle.sweep-interval:PT5M}", initialDelayString = "PT1M")
+    public Mono<Void> sweep() {
+        LocalDate today = LocalDate.now();
+        long started = System.nanoTime();
+        AtomicLong expired = new AtomicLong();
+
+        return measureLag(today)
+                .thenMany(Flux.range(0, maxChunksPerRun)
+                        .concatMap(chunk -> expireChunk(today))
+                        .doOnNext(expired::addAndGet)
+                        .takeUntil(count -> count < chunkSize))
+                .then(measureLag(today))
+                .doOnSuccess(v -> {
+                    Duration took = Duration.ofNanos(System.nanoTime() - started);
+                    sweepDuration.record(took);
+                    if (expired.get() > 0) {
+                        double perSecond = expired.get() / Math.max(took.toNanos() / 1e9, 1e-3);
+                        log.info("Expired {} cards in {} ms ({} cards/s), lag now {} s",
+                                expired.get(), took.toMillis(), Math.round(perSecond), lagSeconds.get());
+                    }
+                })
+                .onErrorResume(e -> {
+                    log.error("Card expiry sweep failed after expiring {} cards", expired.get(), e);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Expires one chunk of due cards and mirrors the change into the local authorization index.
+     *
+     * @param today cards with an expiry date before this day are due
+     * @return Mono emitting the number of cards expired
+     */
+    private Mono<Integer> expireChunk(LocalDate today) {
+        long started = System.nanoTime();
+        return databaseClient.sql(EXPIRE_CHUNK_SQL)
+                .bind(0, today)
+                .bind(1, chunkSize)
+                .map((row, metadata) -> row.get("id", UUID.class))
+                .all()
+                .collectList()
+                .map(ids -> {
+                    chunkLatency.record(Duration.ofNanos(System.nanoTime() - started));
+                    expiredCards.increment(ids.size());
+                    ids.forEach(id -> cardStateIndex.updateStatus(id, CardStatus.EXPIRED));
+                    return ids.size();
+                });
+    }
+
+    private Mono<Void> measureLag(LocalDate today) {
+        return databaseClient.sql(OLDEST_DUE_SQL)
+                .bind(0, today)
+                .map((row, metadata) -> Optional.ofNullable(row.get("oldest", LocalDate.class)))
+                .one()
+                .doOnNext(oldest -> lagSeconds.set(oldest
+                        .map(date -> Duration.between(
+                                date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant(),
+                                Instant.now()).getSeconds())
+                        .map(seconds -> Math.max(seconds, 0))
+                        .orElse(0L)))
+                .then();
+    }
+}
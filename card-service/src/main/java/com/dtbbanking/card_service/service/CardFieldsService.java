@@ -0,0 +1,107 @@
+package com.dtbbanking.card_service.service;
+
+import com.dtbbanking.card_service.dto.CardResponseDto;
+import com.dtbbanking.card_service.errors.GlobalException;
+import com.dtbbanking.card_service.mapper.CardField;
+import com.dtbbanking.card_service.mapper.CardMapper;
+import com.dtbbanking.card_service.model.Card;
+import com.dtbbanking.card_service.model.CardType;
+import com.dtbbanking.card_service.utils.CardUtils;
+import com.dtbbanking.card_service.utils.ReadRouting;
+import com.dtbbanking.card_service.utils.SparseFieldset;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Read-only card queries for {@code ?fields=}: the same lookups as {@link CardService}, selecting
+ * only the columns of the requested fields and returning each card as a JSON object of those
+ * fields. PAN and CVV are masked the same way as on the DTO path unless unmasking is requested.
+ */
+@Service
+@RequiredArgsConstructor
+public class CardFieldsService {
+
+    private final DatabaseClient databaseClient;
+    private final CardMapper cardMapper;
+
+    /**
+     * Retrieves the given fields of a card.
+     *
+     * @param id     The card UUID.
+     * @param unmask Whether to return sensitive fields unmasked.
+     * @param fields The fields to read.
+     * @return Mono emitting the card's fields.
+     */
+    public Mono<Map<String, Object>> getCardById(UUID id, boolean unmask, SparseFieldset<CardField> fields) {
+        return databaseClient.sql(fields.select() + " WHERE id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> fields.read(row))
+                .one()
+                .switchIfEmpty(Mono.error(new GlobalException("Card not found")))
+                .map(card -> unmask ? card : maskSensitiveData(card, fields));
+    }
+
+    /**
+     * Same cards as {@link CardService#getCardsByFilters(String, CardType, String, int, int, boolean)},
+     * and likewise may be served by a read replica.
+     *
+     * @param fields The fields to read.
+     * @return Flux stream of each card's fields.
+     */
+    public Flux<Map<String, Object>> getCardsByFilters(String alias, CardType type, String pan, int page, int size,
+                                                       boolean unmask, SparseFieldset<CardField> fields) {
+        String where = "";
+        Object value = null;
+        if (alias != null) {
+            where = "WHERE card_alias ILIKE :value ESCAPE '\\'";
+            value = containsPattern(alias);
+        } else if (type != null) {
+            where = "WHERE type = :value";
+            value = type.name();
+        } else if (pan != null) {
+            where = "WHERE pan LIKE :value ESCAPE '\\'";
+            value = containsPattern(pan);
+        }
+
+        DatabaseClient.GenericExecuteSpec query = databaseClient.sql(fields.select() + " " + where
+                        + " LIMIT :limit OFFSET :offset")
+                .bind("limit", size)
+                .bind("offset", (long) page * size);
+        if (value != null) {
+            query = query.bind("value", value);
+        }
+        return ReadRouting.readOnly(query.map((row, metadata) -> fields.read(row)).all())
+                .map(card -> unmask ? card : maskSensitiveData(card, fields));
+    }
+
+    /**
+     * Masks PAN and CVV exactly as {@link CardService} does: the mapper's masking followed by
+     * {@link CardUtils}'.
+     */
+    private Map<String, Object> maskSensitiveData(Map<String, Object> card, SparseFieldset<CardField> fields) {
+        if (!fields.includes(CardField.PAN) && !fields.includes(CardField.CVV)) {
+            return card;
+        }
+        CardResponseDto masked = cardMapper.toDto(Card.builder()
+                .pan((String) card.get("pan"))
+                .cvv((String) card.get("cvv"))
+                .build());
+        if (fields.includes(CardField.PAN)) {
+            card.put("pan", CardUtils.maskPan(masked.getPan()));
+        }
+        if (fields.includes(CardField.CVV)) {
+            card.put("cvv", CardUtils.maskCvv(masked.getCvv()));
+        }
+        return card;
+    }
+
+    private static String containsPattern(String value) {
+        return "%" + value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
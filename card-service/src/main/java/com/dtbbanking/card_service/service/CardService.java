@@ -6,25 +6,25 @@ import com.dtbbanking.card_service.errors.CustomerNotFoundException;
 import com.dtbbanking.card_service.errors.GlobalException;
 import com.dtbbanking.card_service.mapper.CardMapper;
 import com.dtbbanking.card_service.model.Card;
+import com.dtbbanking.card_service.model.CardStatus;
 import com.dtbbanking.card_service.model.CardType;
 import com.dtbbanking.card_service.repository.CardRepository;
 import com.dtbbanking.card_service.utils.CardUtils;
+import com.dtbbanking.card_service.utils.ReadRouting;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Service;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -36,29 +36,35 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class CardService {
 
+    public static final int MAX_ACCOUNT_ID_PAGE = 10_000;
+
     private final CardRepository cardRepository;
     private final CardMapper cardMapper;
-    private final WebClient accountWebClient;
+    private final AccountClient accountClient;
+    private final CardStateIndex cardStateIndex;
+    private final AccountExistenceProjection accountExistenceProjection;
+    private final CardVelocityEngine cardVelocityEngine;
 
     /**
-     * Checks if an account with the given ID exists by calling the Account service.
+     * Checks if an account with the given ID exists, first in the local account projection and,
+     * for accounts it does not know yet, by calling the Account service over the configured transport.
      *
      * @param accountId UUID of the account.
      * @return Mono emitting true if the account exists, otherwise an error.
      */
     private Mono<Boolean> checkAccountExists(UUID accountId) {
-        return accountWebClient.get()
-                .uri("/{accountId}", accountId)
-                .retrieve()
-                .onStatus(
-                        HttpStatusCode::is4xxClientError,
-                        response -> {
-                            log.warn("Account not found: {}", accountId);
-                            return Mono.error(new GlobalException("Account does not exist"));
-                        }
-                )
-                .toBodilessEntity()
-                .thenReturn(true);
+        if (accountExistenceProjection.contains(accountId)) {
+            return Mono.just(true);
+        }
+        return accountClient.existsById(accountId)
+                .flatMap(exists -> {
+                    if (!exists) {
+                        log.warn("Account not found: {}", accountId);
+                        return Mono.error(new GlobalException("Account does not exist"));
+                    }
+                    accountExistenceProjection.add(accountId);
+                    return Mono.just(true);
+                });
     }
 
     /**
@@ -84,10 +90,13 @@ public class CardService {
                     Card card = cardMapper.toEntity(dto);
                     card.setPan(CardUtils.generatePan());
                     card.setCvv(CardUtils.generateCvv());
+                    card.setStatus(CardStatus.ACTIVE);
+                    card.setExpiryDate(LocalDate.now().plusYears(CardUtils.CARD_VALIDITY_YEARS));
                     card.setCreatedAt(LocalDateTime.now());
                     card.setUpdatedAt(LocalDateTime.now());
                     return cardRepository.save(card);
                 })
+                .doOnNext(cardStateIndex::put)
                 .map(cardMapper::toDto)
                 .map(this::maskSensitiveData);
     }
@@ -102,13 +111,12 @@ public class CardService {
     public Mono<CardResponseDto> getCardById(UUID id, boolean unmask) {
         return cardRepository.findById(id)
                 .switchIfEmpty(Mono.error(new GlobalException("Card not found")))
-                .map(cardMapper::toDto)
-                .zipWith(cardRepository.findById(id))
-                .map(tuple2 -> unmask ? cardMapper.toDtoUnmasked(tuple2.getT2()) : maskSensitiveData(tuple2.getT1()));
+                .map(card -> unmask ? cardMapper.toDtoUnmasked(card) : maskSensitiveData(cardMapper.toDto(card)));
     }
 
     /**
      * Retrieves cards filtered by alias, type, or PAN with pagination and masking options.
+     * May be served by a read replica.
      *
      * @param alias  Optional card alias filter.
      * @param type   Optional card type filter.
@@ -133,7 +141,7 @@ public class CardService {
             cards = cardRepository.findAll().skip((long) page * size).take(size);
         }
 
-        return cards
+        return ReadRouting.readOnly(cards)
                 .map(card -> {
                     CardResponseDto dto = unmask ? cardMapper.toDtoUnmasked(card) : cardMapper.toDto(card);
                     return unmask ? dto : maskSensitiveData(dto);
@@ -142,6 +150,8 @@ public class CardService {
 
     /**
      * Updates the alias of a card if it doesn't conflict with existing aliases under the same account.
+     * Only the alias column is written, so a status change or expiry sweep between the read and
+     * the update is kept.
      *
      * @param cardId   UUID of the card to update.
      * @param newAlias The new alias to set.
@@ -156,15 +166,37 @@ public class CardService {
                                     if (duplicateExists) {
                                         return Mono.error(new GlobalException( "Duplicate card alias for this account"));
                                     }
-                                    card.setCardAlias(newAlias);
-                                    card.setUpdatedAt(LocalDateTime.now());
-                                    return cardRepository.save(card);
+                                    return cardRepository.updateAlias(cardId, newAlias)
+                                            .switchIfEmpty(Mono.error(new GlobalException("Card not found")));
                                 })
                 )
                 .map(cardMapper::toDto)
                 .map(this::maskSensitiveData);
     }
 
+    /**
+     * Updates the status of a card, e.g. to block or unblock it. The local authorization
+     * index is updated immediately; other replicas pick the change up via Postgres notifications.
+     * <p>
+     * The update is a single conditional statement, so it cannot overwrite a concurrent
+     * expiry sweep; the card is only read again to tell why nothing was updated.
+     * </p>
+     *
+     * @param cardId UUID of the card to update.
+     * @param status The new card status.
+     * @return Mono emitting the updated card response DTO.
+     */
+    public Mono<CardResponseDto> updateCardStatus(UUID cardId, CardStatus status) {
+        return cardRepository.updateStatusUnlessExpired(cardId, status.name())
+                .switchIfEmpty(Mono.defer(() -> cardRepository.findById(cardId)
+                        .switchIfEmpty(Mono.error(new GlobalException("Card not found")))
+                        .flatMap(card -> Mono.error(new GlobalException("Card has expired")))))
+                .doOnNext(cardStateIndex::put)
+                .doOnNext(card -> log.info("Card {} status changed to {}", card.getId(), status))
+                .map(cardMapper::toDto)
+                .map(this::maskSensitiveData);
+    }
+
     /**
      * Deletes a card by its ID.
      *
@@ -174,7 +206,11 @@ public class CardService {
     public Mono<Void> deleteCard(UUID id) {
         return cardRepository.findById(id)
                 .switchIfEmpty(Mono.error(new GlobalException("Card not found")))
-                .flatMap(card -> cardRepository.deleteById(card.getId()));
+                .flatMap(card -> cardRepository.deleteById(card.getId()))
+                .doOnSuccess(v -> {
+                    cardStateIndex.remove(id);
+                    cardVelocityEngine.forget(id);
+                });
     }
 
     /**
@@ -190,14 +226,32 @@ public class CardService {
     }
 
     /**
-     * Retrieves account IDs by card alias (internal endpoint).
+     * Retrieves the cards of the given accounts, with sensitive data masked (internal lookup).
+     *
+     * @param accountIds The account UUIDs.
+     * @return Flux stream of masked card response DTOs.
+     */
+    public Flux<CardResponseDto> getCardsByAccountIds(List<UUID> accountIds) {
+        if (accountIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return cardRepository.findByAccountIdIn(accountIds)
+                .map(cardMapper::toDto)
+                .map(this::maskSensitiveData);
+    }
+
+    /**
+     * Retrieves one page of distinct account IDs by card alias (internal endpoint), in account ID
+     * order. The next page starts after the last ID returned.
      *
-     * @param alias The card alias filter.
+     * @param alias The card alias filter (substring, case-insensitive).
+     * @param after The last account ID of the previous page, or null for the first page.
+     * @param limit The maximum number of account IDs to return.
      * @return Flux stream of account UUIDs matching the alias.
      */
-    @GetMapping("/internal/cards/account-ids")
-    public Flux<UUID> getAccountIdsByCardAlias(@RequestParam String alias) {
-        return cardRepository.findByCardAliasContainingIgnoreCase(alias)
-                .map(Card::getAccountId);
+    public Flux<UUID> getAccountIdsByCardAlias(String alias, UUID after, int limit) {
+        String pattern = "%" + alias.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        int pageSize = Math.min(Math.max(limit, 1), MAX_ACCOUNT_ID_PAGE);
+        return cardRepository.findDistinctAccountIdsByCardAlias(pattern, after == null ? new UUID(0L, 0L) : after, pageSize);
     }
-}
\ No newline at end of file
+}
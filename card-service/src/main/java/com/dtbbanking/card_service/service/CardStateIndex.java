@@ -0,0 +1,167 @@
+package com.dtbbanking.card_service.service;
+
+import com.dtbbanking.card_service.model.Card;
+import com.dtbbanking.card_service.model.CardState;
+import com.dtbbanking.card_service.model.CardStatus;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of card authorization state keyed by a SHA-256 hash of the PAN.
+ * <p>
+ * Lookups are lock-free map reads so the authorization path never touches {@code tb_cards}.
+ * The index is bulk-loaded at startup by {@link CardStateSynchronizer} and kept current by
+ * {@link CardService} writes and by Postgres {@code card_state} notifications from other replicas.
+ * </p>
+ */
+@Component
+public class CardStateIndex {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final Map<PanKey, CardState> statesByPan = new ConcurrentHashMap<>();
+    private final Map<UUID, PanKey> panKeysByCardId = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    /**
+     * Looks up the authorization state of a card.
+     *
+     * @param pan the clear PAN presented for authorization
+     * @return the card state, or {@code null} if no card with that PAN is indexed
+     */
+    public CardState find(String pan) {
+        return statesByPan.get(panKey(pan));
+    }
+
+    /**
+     * Looks up the authorization state of a card by its id.
+     *
+     * @param cardId the card id
+     * @return the card state, or {@code null} if the card is not indexed
+     */
+    public CardState findByCardId(UUID cardId) {
+        PanKey key = panKeysByCardId.get(cardId);
+        return key == null ? null : statesByPan.get(key);
+    }
+
+    /**
+     * Adds or replaces the indexed state of a card.
+     *
+     * @param card the card entity, which must carry its PAN and CVV
+     */
+    public void put(Card card) {
+        PanKey key = panKey(card.getPan());
+        PanKey previous = panKeysByCardId.put(card.getId(), key);
+        if (previous != null && !previous.equals(key)) {
+            statesByPan.remove(previous);
+        }
+        statesByPan.put(key, toState(card));
+    }
+
+    /**
+     * Changes the status of an indexed card, keeping the rest of its state.
+     *
+     * @param cardId the card id
+     * @param status the new status
+     */
+    public void updateStatus(UUID cardId, CardStatus status) {
+        PanKey key = panKeysByCardId.get(cardId);
+        if (key != null) {
+            statesByPan.computeIfPresent(key, (k, state) -> new CardState(state.cardId(), state.accountId(),
+                    state.cvvHash(), status, state.cardType(), state.expiryDate()));
+        }
+    }
+
+    /**
+     * Removes a card from the index.
+     *
+     * @param cardId the card id
+     */
+    public void remove(UUID cardId) {
+        PanKey key = panKeysByCardId.remove(cardId);
+        if (key != null) {
+            statesByPan.remove(key);
+        }
+    }
+
+    /**
+     * Removes every indexed card whose id is not in the given set, such as cards deleted while
+     * the index was not receiving notifications.
+     *
+     * @param cardIds the ids of the cards to keep
+     */
+    public void retainAll(Set<UUID> cardIds) {
+        for (UUID cardId : panKeysByCardId.keySet()) {
+            if (!cardIds.contains(cardId)) {
+                remove(cardId);
+            }
+        }
+    }
+
+    /**
+     * Marks the initial bulk load as complete; until then authorizations fall back to the database.
+     */
+    public void markLoaded() {
+        loaded = true;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        return statesByPan.size();
+    }
+
+    /**
+     * Converts a card entity to its compact authorization state.
+     *
+     * @param card the card entity
+     * @return the card state
+     */
+    public static CardState toState(Card card) {
+        CardStatus status = card.getStatus() == null ? CardStatus.ACTIVE : card.getStatus();
+        return new CardState(card.getId(), card.getAccountId(), cvvHash(card.getPan(), card.getCvv()), status,
+                card.getCardType(), card.getExpiryDate());
+    }
+
+    /**
+     * Hashes a CVV together with its PAN so equal CVVs on different cards never share a hash.
+     *
+     * @param pan the clear PAN
+     * @param cvv the clear CVV
+     * @return the first 64 bits of SHA-256(pan ':' cvv)
+     */
+    public static long cvvHash(String pan, String cvv) {
+        MessageDigest digest = SHA_256.get();
+        digest.update(pan.trim().getBytes(StandardCharsets.US_ASCII));
+        digest.update((byte) ':');
+        return ByteBuffer.wrap(digest.digest(cvv.trim().getBytes(StandardCharsets.US_ASCII))).getLong();
+    }
+
+    private static PanKey panKey(String pan) {
+        ByteBuffer hash = ByteBuffer.wrap(SHA_256.get().digest(pan.trim().getBytes(StandardCharsets.US_ASCII)));
+        return new PanKey(hash.getLong(), hash.getLong());
+    }
+
+    /**
+     * First 128 bits of the PAN's SHA-256 hash, held as two longs to keep map keys small.
+     */
+    private record PanKey(long high, long low) {
+    }
+}
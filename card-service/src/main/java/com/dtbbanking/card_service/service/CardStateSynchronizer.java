@@ -0,0 +1,212 @@
+package com.dtbbanking.card_service.service;
+
+import com.dtbbanking.card_service.model.Card;
+import com.dtbbanking.card_service.model.CardStatus;
+import com.dtbbanking.card_service.model.CardType;
+import com.dtbbanking.card_service.repository.CardRepository;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps {@link CardStateIndex} in step with {@code tb_cards}.
+ * <p>
+ * At startup it subscribes to the {@code card_state} Postgres channel (fed by a trigger on
+ * {@code tb_cards} and by bulk issuance) and then streams the table into the index. Card ids notified while the
+ * bulk load runs are re-read once it finishes, so a concurrent block is never lost. If the
+ * listener connection drops, it reconnects with backoff and reloads the index in full.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CardStateSynchronizer {
+
+    static final String CHANNEL = "card_state";
+
+    private static final String LOAD_SQL = "SELECT id, account_id, type, pan, cvv, status, expiry_date FROM tb_cards";
+
+    private final CardStateIndex cardStateIndex;
+    private final CardRepository cardRepository;
+    private final DatabaseClient databaseClient;
+    private final R2dbcProperties r2dbcProperties;
+
+    @Value("${card.authorization.listen-enabled:true}")
+    private boolean listenEnabled;
+
+    private final Set<UUID> notifiedDuringLoad = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    /**
+     * Starts the change listener and the initial bulk load once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (listenEnabled) {
+            subscriptions.add(listen()
+                    .concatMap(this::refresh)
+                    .subscribe());
+        }
+        subscriptions.add(load().subscribe());
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscriptions.dispose();
+    }
+
+    /**
+     * Streams every card row into the index, reading only the columns the index needs. A reload
+     * after a reconnect then drops indexed cards that are no longer in the table, i.e. deleted
+     * while the listener was down; cards notified during the load are kept and re-read instead,
+     * as they may have been created after the load's snapshot. Notifications stay recorded until
+     * the prune is done, so none slips in between the prune and the re-read.
+     *
+     * @return Mono completing when the index is loaded
+     */
+    Mono<Void> load() {
+        long started = System.nanoTime();
+        loading.set(true);
+        notifiedDuringLoad.clear();
+        Set<UUID> loaded = new HashSet<>();
+
+        return databaseClient.sql(LOAD_SQL)
+                .map((row, metadata) -> Card.builder()
+                        .id(row.get("id", UUID.class))
+                        .accountId(row.get("account_id", UUID.class))
+                        .cardType(CardType.valueOf(row.get("type", String.class)))
+                        .pan(row.get("pan", String.class))
+                        .cvv(row.get("cvv", String.class))
+                        .status(CardStatus.valueOf(row.get("status", String.class)))
+                        .expiryDate(row.get("expiry_date", LocalDate.class))
+                        .build())
+                .all()
+                .doOnNext(card -> {
+                    cardStateIndex.put(card);
+                    loaded.add(card.getId());
+                })
+                .then(Mono.defer(() -> {
+                    // prune while notifications are still recorded, so a card notified during
+                    // the prune is re-read below even if the prune evicted it
+                    if (cardStateIndex.isLoaded()) {
+                        loaded.addAll(notifiedDuringLoad);
+                        cardStateIndex.retainAll(loaded);
+                    }
+                    loading.set(false);
+                    Set<UUID> notified = Set.copyOf(notifiedDuringLoad);
+                    return Flux.fromIterable(notified)
+                            .concatMap(this::refresh)
+                            .then();
+                }))
+                .doOnSuccess(v -> {
+                    cardStateIndex.markLoaded();
+                    log.info("Card state index loaded with {} cards in {} ms",
+                            cardStateIndex.size(), Duration.ofNanos(System.nanoTime() - started).toMillis());
+                })
+                .doOnError(e -> {
+                    loading.set(false);
+                    log.error("Failed to load card state index", e);
+                });
+    }
+
+    /**
+     * Re-reads a single card and applies it to the index, removing it if it no longer exists.
+     *
+     * @param cardId the card id
+     * @return Mono completing when the index entry is refreshed
+     */
+    public Mono<Void> refresh(UUID cardId) {
+        if (loading.get()) {
+            notifiedDuringLoad.add(cardId);
+        }
+        return cardRepository.findById(cardId)
+                .doOnNext(cardStateIndex::put)
+                .switchIfEmpty(Mono.fromRunnable(() -> cardStateIndex.remove(cardId)))
+                .onErrorResume(e -> {
+                    log.warn("Failed to refresh card state for {}", cardId, e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Listens on the {@code card_state} channel over a dedicated, non-pooled connection.
+     *
+     * @return Flux of notified card ids
+     */
+    private Flux<UUID> listen() {
+        AtomicBoolean connectedBefore = new AtomicBoolean();
+
+        return Mono.defer(() -> Mono.from(ConnectionFactories.get(listenerOptions()).create()))
+                .cast(PostgresqlConnection.class)
+                .flatMapMany(connection -> connection.createStatement("LISTEN " + CHANNEL)
+                        .execute()
+                        .flatMap(PostgresqlResult::getRowsUpdated)
+                        .then(Mono.fromRunnable(() -> {
+                            log.info("Listening for card state changes on channel '{}'", CHANNEL);
+                            if (connectedBefore.getAndSet(true)) {
+                                subscriptions.add(load().subscribe());
+                            }
+                        }))
+                        .thenMany(connection.getNotifications())
+                        .concatWith(Mono.error(new IllegalStateException("Card state listener connection closed")))
+                        .doFinally(signal -> Mono.from(connection.close()).subscribe()))
+                .map(Notification::getParameter)
+                .flatMapIterable(CardStateSynchronizer::parse)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("Card state listener disconnected, reconnecting",
+                                signal.failure())));
+    }
+
+    /**
+     * Parses a {@code card_state} payload: one card id per row trigger, or a comma-separated
+     * list of ids from a bulk issuance chunk.
+     *
+     * @param payload the notification payload
+     * @return the notified card ids
+     */
+    static List<UUID> parse(String payload) {
+        return Arrays.stream(payload.split(","))
+                .map(UUID::fromString)
+                .toList();
+    }
+
+    private ConnectionFactoryOptions listenerOptions() {
+        ConnectionFactoryOptions.Builder builder = ConnectionFactoryOptions.parse(r2dbcProperties.getUrl()).mutate();
+        if (r2dbcProperties.getUsername() != null) {
+            builder.option(ConnectionFactoryOptions.USER, r2dbcProperties.getUsername());
+        }
+        if (r2dbcProperties.getPassword() != null) {
+            builder.option(ConnectionFactoryOptions.PASSWORD, r2dbcProperties.getPassword());
+        }
+        return builder.build();
+    }
+}
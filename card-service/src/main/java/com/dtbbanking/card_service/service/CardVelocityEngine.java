@@ -0,0 +1,267 @@
+package com.dtbbanking.card_service.service;
+
+import com.dtbbanking.card_service.configs.VelocityProperties;
+import com.dtbbanking.card_service.dto.VelocityCheckResponseDto;
+import com.dtbbanking.card_service.model.CardType;
+import com.dtbbanking.card_service.model.VelocitySnapshot;
+import com.dtbbanking.card_service.model.VelocityWindow;
+import com.dtbbanking.card_service.utils.SlidingWindowCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * In-memory per-card velocity counters with minute, hour and day sliding windows.
+ * <p>
+ * Counters live in a {@link ConcurrentHashMap} (itself striped across bins) and every
+ * window is a lock-free {@link SlidingWindowCounter}, so checks never block and never
+ * touch the database. A use is recorded first and rolled back if it breaks a limit,
+ * which keeps concurrent uses of the same card from overshooting.
+ * </p>
+ * <p>
+ * Limits are enforced per instance: replicas do not share counters, so with N replicas
+ * behind a load balancer a card can be used up to N times its limit.
+ * </p>
+ */
+public class CardVelocityEngine {
+
+    private static final VelocityWindow[] WINDOWS = VelocityWindow.values();
+    private static final long MAP_ENTRY_BYTES = 64L;
+
+    private final VelocityProperties properties;
+    private final Map<UUID, CardCounters> counters = new ConcurrentHashMap<>();
+    private final Queue<UUID> forgotten = new ConcurrentLinkedQueue<>();
+    private final Counter evictions;
+    private final Map<VelocityWindow, Counter> rejections = new EnumMap<>(VelocityWindow.class);
+
+    public CardVelocityEngine(VelocityProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+
+        Gauge.builder("card.velocity.tracked.cards", counters, Map::size)
+                .description("Cards with in-memory velocity counters")
+                .register(meterRegistry);
+        Gauge.builder("card.velocity.memory", this, CardVelocityEngine::footprintBytes)
+                .description("Approximate heap used by velocity counters")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("card.velocity.evictions")
+                .description("Idle card counters evicted from memory")
+                .register(meterRegistry);
+        for (VelocityWindow window : WINDOWS) {
+            rejections.put(window, Counter.builder("card.velocity.rejections")
+                    .description("Card uses rejected by a velocity limit")
+                    .tag("window", window.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Records a use of the card if it stays within all limits of its card type.
+     *
+     * @param cardId    the card id
+     * @param cardType  the card type whose limits apply
+     * @param nowMillis current epoch millis
+     * @return the check result with usage after this call
+     */
+    public VelocityCheckResponseDto checkAndRecord(UUID cardId, CardType cardType, long nowMillis) {
+        VelocityProperties.Limits limits = properties.limitsFor(cardType);
+        CardCounters card = counters.computeIfAbsent(cardId, id -> new CardCounters(nowMillis));
+
+        long[] slices = new long[WINDOWS.length];
+        long[] used = new long[WINDOWS.length];
+        VelocityWindow exceeded = null;
+        for (int w = 0; w < WINDOWS.length; w++) {
+            slices[w] = card.windows[w].increment(nowMillis);
+            used[w] = card.windows[w].sum(nowMillis);
+            long limit = limits.forWindow(WINDOWS[w]);
+            if (exceeded == null && limit > 0 && used[w] > limit) {
+                exceeded = WINDOWS[w];
+            }
+        }
+
+        if (exceeded != null) {
+            for (int w = 0; w < WINDOWS.length; w++) {
+                if (card.windows[w].undo(slices[w])) {
+                    used[w]--;
+                }
+            }
+            rejections.get(exceeded).increment();
+        } else {
+            card.lastUsedMillis = nowMillis;
+            card.dirty = true;
+        }
+
+        return toResponse(cardId, cardType, exceeded, used);
+    }
+
+    /**
+     * Reports the current usage of a card without recording a use.
+     *
+     * @param cardId    the card id
+     * @param cardType  the card type whose limits apply
+     * @param nowMillis current epoch millis
+     * @return the check result; {@code allowed} tells whether one more use would pass
+     */
+    public VelocityCheckResponseDto check(UUID cardId, CardType cardType, long nowMillis) {
+        VelocityProperties.Limits limits = properties.limitsFor(cardType);
+        CardCounters card = counters.get(cardId);
+
+        long[] used = new long[WINDOWS.length];
+        VelocityWindow exceeded = null;
+        for (int w = 0; w < WINDOWS.length; w++) {
+            used[w] = card == null ? 0 : card.windows[w].sum(nowMillis);
+            long limit = limits.forWindow(WINDOWS[w]);
+            if (exceeded == null && limit > 0 && used[w] >= limit) {
+                exceeded = WINDOWS[w];
+            }
+        }
+        return toResponse(cardId, cardType, exceeded, used);
+    }
+
+    /**
+     * Drops the counters of a card, e.g. when it is deleted. Its snapshot row is deleted with
+     * those of the next {@link #evictIdle(long)}.
+     *
+     * @param cardId the card id
+     */
+    public void forget(UUID cardId) {
+        if (counters.remove(cardId) != null) {
+            forgotten.add(cardId);
+        }
+    }
+
+    /**
+     * Evicts counters of cards idle for longer than {@code card.velocity.idle-eviction}.
+     *
+     * @param nowMillis current epoch millis
+     * @return ids of the evicted cards and of the cards forgotten since the previous call
+     */
+    public List<UUID> evictIdle(long nowMillis) {
+        long cutoff = nowMillis - properties.getIdleEviction().toMillis();
+        List<UUID> evicted = new ArrayList<>();
+        counters.forEach((cardId, card) -> {
+            if (card.lastUsedMillis < cutoff && counters.remove(cardId, card)) {
+                evicted.add(cardId);
+            }
+        });
+        evictions.increment(evicted.size());
+        UUID cardId;
+        while ((cardId = forgotten.poll()) != null) {
+            evicted.add(cardId);
+        }
+        return evicted;
+    }
+
+    /**
+     * Takes snapshots of all counters changed since the previous call.
+     *
+     * @return snapshots of changed counters
+     */
+    public List<VelocitySnapshot> drainDirty() {
+        List<VelocitySnapshot> snapshots = new ArrayList<>();
+        counters.forEach((cardId, card) -> {
+            if (card.dirty) {
+                card.dirty = false;
+                snapshots.add(new VelocitySnapshot(cardId, card.lastUsedMillis,
+                        card.windows[VelocityWindow.MINUTE.ordinal()].snapshot(),
+                        card.windows[VelocityWindow.HOUR.ordinal()].snapshot(),
+                        card.windows[VelocityWindow.DAY.ordinal()].snapshot()));
+            }
+        });
+        return snapshots;
+    }
+
+    /**
+     * Marks snapshots as not persisted so the next {@link #drainDirty()} retries them.
+     *
+     * @param snapshots snapshots whose write failed
+     */
+    public void markDirty(List<VelocitySnapshot> snapshots) {
+        for (VelocitySnapshot snapshot : snapshots) {
+            CardCounters card = counters.get(snapshot.cardId());
+            if (card != null) {
+                card.dirty = true;
+            }
+        }
+    }
+
+    /**
+     * Restores a card's counters from a persisted snapshot. Uses recorded since startup, before
+     * the restore reached the card, are kept and added to the snapshot's.
+     *
+     * @param snapshot the snapshot
+     */
+    public void restore(VelocitySnapshot snapshot) {
+        boolean[] created = new boolean[1];
+        CardCounters card = counters.computeIfAbsent(snapshot.cardId(), id -> {
+            created[0] = true;
+            return new CardCounters(snapshot.lastUsedMillis());
+        });
+        card.windows[VelocityWindow.MINUTE.ordinal()].merge(snapshot.minuteBuckets());
+        card.windows[VelocityWindow.HOUR.ordinal()].merge(snapshot.hourBuckets());
+        card.windows[VelocityWindow.DAY.ordinal()].merge(snapshot.dayBuckets());
+        if (!created[0]) {
+            card.lastUsedMillis = Math.max(card.lastUsedMillis, snapshot.lastUsedMillis());
+            card.dirty = true;
+        }
+    }
+
+    public int trackedCards() {
+        return counters.size();
+    }
+
+    /**
+     * @return approximate heap held by all counters in bytes
+     */
+    public long footprintBytes() {
+        return counters.size() * CardCounters.FOOTPRINT_BYTES;
+    }
+
+    private static VelocityCheckResponseDto toResponse(UUID cardId, CardType cardType, VelocityWindow exceeded, long[] used) {
+        return VelocityCheckResponseDto.builder()
+                .cardId(cardId)
+                .cardType(cardType)
+                .allowed(exceeded == null)
+                .exceededWindow(exceeded)
+                .usedLastMinute(used[VelocityWindow.MINUTE.ordinal()])
+                .usedLastHour(used[VelocityWindow.HOUR.ordinal()])
+                .usedLastDay(used[VelocityWindow.DAY.ordinal()])
+                .build();
+    }
+
+    /**
+     * Counters of one card, one sliding window per {@link VelocityWindow}.
+     */
+    private static final class CardCounters {
+
+        static final long FOOTPRINT_BYTES;
+
+        static {
+            long bytes = MAP_ENTRY_BYTES + 32L;
+            for (VelocityWindow window : WINDOWS) {
+                bytes += new SlidingWindowCounter(window.getLength(), window.getBuckets()).footprintBytes();
+            }
+            FOOTPRINT_BYTES = bytes;
+        }
+
+        final SlidingWindowCounter[] windows = new SlidingWindowCounter[WINDOWS.length];
+        volatile long lastUsedMillis;
+        volatile boolean dirty;
+
+        CardCounters(long lastUsedMillis) {
+            this.lastUsedMillis = lastUsedMillis;
+            for (VelocityWindow window : WINDOWS) {
+                windows[window.ordinal()] = new SlidingWindowCounter(window.getLength(), window.getBuckets());
+            }
+        }
+    }
+}
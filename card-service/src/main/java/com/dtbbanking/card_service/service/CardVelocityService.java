@@ -0,0 +1,65 @@
+package com.dtbbanking.card_service.service;
+
+import com.dtbbanking.card_service.dto.VelocityCheckResponseDto;
+import com.dtbbanking.card_service.errors.GlobalException;
+import com.dtbbanking.card_service.model.CardState;
+import com.dtbbanking.card_service.model.CardType;
+import com.dtbbanking.card_service.repository.CardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+/**
+ * Service class for per-card velocity checks. The card type, which selects the limits,
+ * is read from the in-memory {@link CardStateIndex}; the database is only consulted
+ * for cards the index does not know yet.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CardVelocityService {
+
+    private final CardVelocityEngine cardVelocityEngine;
+    private final CardStateIndex cardStateIndex;
+    private final CardRepository cardRepository;
+
+    /**
+     * Records a use of the card if it is within the velocity limits of its card type.
+     *
+     * @param cardId UUID of the card being used.
+     * @return Mono emitting the check result; {@code allowed} is false if a limit was hit.
+     */
+    public Mono<VelocityCheckResponseDto> checkAndRecordUsage(UUID cardId) {
+        return withCardType(cardId, (id, type) -> cardVelocityEngine.checkAndRecord(id, type, System.currentTimeMillis()))
+                .doOnNext(result -> {
+                    if (!result.isAllowed()) {
+                        log.warn("Card {} exceeded {} velocity limit", cardId, result.getExceededWindow());
+                    }
+                });
+    }
+
+    /**
+     * Reports the current usage of a card without recording a use.
+     *
+     * @param cardId UUID of the card.
+     * @return Mono emitting the usage; {@code allowed} tells whether one more use would pass.
+     */
+    public Mono<VelocityCheckResponseDto> getUsage(UUID cardId) {
+        return withCardType(cardId, (id, type) -> cardVelocityEngine.check(id, type, System.currentTimeMillis()));
+    }
+
+    private Mono<VelocityCheckResponseDto> withCardType(UUID cardId,
+                                                        BiFunction<UUID, CardType, VelocityCheckResponseDto> action) {
+        CardState state = cardStateIndex.findByCardId(cardId);
+        if (state != null && state.cardType() != null) {
+            return Mono.just(action.apply(cardId, state.cardType()));
+        }
+        return cardRepository.findById(cardId)
+                .switchIfEmpty(Mono.error(new GlobalException("Card not found")))
+                .map(card -> action.apply(cardId, card.getCardType()));
+    }
+}
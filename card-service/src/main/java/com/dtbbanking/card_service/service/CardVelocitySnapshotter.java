@@ -0,0 +1,157 @@
+package com.dtbbanking.card_service.service;
+
+import com.dtbbanking.card_service.model.VelocitySnapshot;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Persists velocity counters to {@code tb_card_velocity_snapshots} so restarts don't reset them.
+ * <p>
+ * Only counters changed since the last run are written, as one multi-row upsert per batch.
+ * Idle counters are evicted from memory in the same run and their snapshot rows deleted.
+ * </p>
+ * <p>
+ * Rows are keyed by card only. With several replicas each one upserts its own counters, so
+ * a card's row holds whichever replica wrote last and a restart restores that replica's
+ * history, in line with the engine's per-instance limits.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CardVelocitySnapshotter {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO tb_card_velocity_snapshots (card_id, last_used_at, minute_buckets, hour_buckets, day_buckets, updated_at)
+            VALUES ($1, $2, $3, $4, $5, NOW())
+            ON CONFLICT (card_id) DO UPDATE SET
+                last_used_at = EXCLUDED.last_used_at,
+                minute_buckets = EXCLUDED.minute_buckets,
+                hour_buckets = EXCLUDED.hour_buckets,
+                day_buckets = EXCLUDED.day_buckets,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private final CardVelocityEngine cardVelocityEngine;
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Restores persisted counters into memory at startup. It runs alongside live traffic, so
+     * counters already created by then are merged with their snapshot rather than skipped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        databaseClient.sql("SELECT card_id, last_used_at, minute_buckets, hour_buckets, day_buckets FROM tb_card_velocity_snapshots")
+                .map((row, metadata) -> new VelocitySnapshot(
+                        row.get("card_id", UUID.class),
+                        toMillis(row.get("last_used_at", LocalDateTime.class)),
+                        unbox(row.get("minute_buckets", Long[].class)),
+                        unbox(row.get("hour_buckets", Long[].class)),
+                        unbox(row.get("day_buckets", Long[].class))))
+                .all()
+                .doOnNext(cardVelocityEngine::restore)
+                .count()
+                .subscribe(
+                        restored -> log.info("Restored velocity counters for {} cards", restored),
+                        e -> log.error("Failed to restore velocity counters", e));
+    }
+
+    /**
+     * Writes changed counters and evicts idle ones.
+     *
+     * @return Mono completing when the snapshot is written
+     */
+    @Scheduled(fixedDelayString = "${card.velocity.snapshot-interval:PT30S}",
+            initialDelayString = "${card.velocity.snapshot-interval:PT30S}")
+    public Mono<Void> snapshot() {
+        List<UUID> evicted = cardVelocityEngine.evictIdle(System.currentTimeMillis());
+        List<VelocitySnapshot> dirty = cardVelocityEngine.drainDirty();
+
+        Mono<Void> deletes = evicted.isEmpty() ? Mono.empty() : databaseClient
+                .sql("DELETE FROM tb_card_velocity_snapshots WHERE card_id = ANY($1)")
+                .bind(0, evicted.toArray(UUID[]::new))
+                .then();
+
+        Mono<Void> upserts = Flux.fromIterable(dirty)
+                .buffer(BATCH_SIZE)
+                .concatMap(batch -> upsert(batch)
+                        .onErrorResume(e -> {
+                            log.warn("Failed to persist {} velocity snapshots, retrying next run", batch.size(), e);
+                            cardVelocityEngine.markDirty(batch);
+                            return Mono.empty();
+                        }))
+                .then();
+
+        return deletes
+                .onErrorResume(e -> {
+                    log.warn("Failed to delete snapshots of {} evicted cards", evicted.size(), e);
+                    return Mono.empty();
+                })
+                .then(upserts)
+                .doOnSuccess(v -> {
+                    if (!dirty.isEmpty() || !evicted.isEmpty()) {
+                        log.debug("Velocity snapshot: {} written, {} evicted", dirty.size(), evicted.size());
+                    }
+                });
+    }
+
+    private Mono<Void> upsert(List<VelocitySnapshot> batch) {
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(UPSERT_SQL);
+                    for (int i = 0; i < batch.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        VelocitySnapshot snapshot = batch.get(i);
+                        statement.bind(0, snapshot.cardId())
+                                .bind(1, toDateTime(snapshot.lastUsedMillis()))
+                                .bind(2, box(snapshot.minuteBuckets()))
+                                .bind(3, box(snapshot.hourBuckets()))
+                                .bind(4, box(snapshot.dayBuckets()));
+                    }
+                    return Flux.from(statement.execute()).flatMap(result -> result.getRowsUpdated());
+                })
+                .then();
+    }
+
+    private static Long[] box(long[] values) {
+        Long[] boxed = new Long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            boxed[i] = values[i];
+        }
+        return boxed;
+    }
+
+    private static long[] unbox(Long[] values) {
+        if (values == null) return null;
+        long[] unboxed = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            unboxed[i] = values[i] == null ? 0 : values[i];
+        }
+        return unboxed;
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime == null ? 0 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,197 @@
+package com.dtbbanking.card_service.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.r2dbc.spi.Connection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Scheduled upkeep of the monthly partitions of {@code tb_cards} ({@code db.partitioning.*}).
+ * <p>
+ * Each run creates the partitions for the next {@code months-ahead} months, so inserts never
+ * meet a month without one (there is no default partition). With {@code archive.enabled}, it
+ * then detaches every partition that ends before {@code now - retention} and moves it into the
+ * {@code archive.schema} schema: old rows leave the table in one catalog change rather than a
+ * mass delete, and stay queryable (or can be dumped and dropped) from there.
+ * </p>
+ * <p>
+ * Detaching uses {@code DETACH PARTITION ... CONCURRENTLY}, which takes no lock that blocks
+ * queries on {@code tb_cards}; a detach interrupted half way is finished by the next run. Runs
+ * hold a session advisory lock, so with several instances only one does the work.
+ * </p>
+ */
+@Slf4j
+@Component
+public class PartitionMaintenanceJob {
+
+    static final String TABLE = "tb_cards";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile(TABLE + "_p(\\d{4}_\\d{2})");
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final String PARTITIONS_SQL = """
+            SELECT c.relname AS name, i.inhdetachpending AS detaching
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = to_regclass($1)
+            ORDER BY c.relname
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final int monthsAhead;
+    private final boolean archiveEnabled;
+    private final Period retention;
+    private final String archiveSchema;
+
+    private final Counter created;
+    private final Counter archived;
+    private final AtomicInteger partitions = new AtomicInteger();
+
+    public PartitionMaintenanceJob(DatabaseClient databaseClient,
+                                   ObjectProvider<MeterRegistry> meterRegistry,
+                                   @Value("${db.partitioning.months-ahead:3}") int monthsAhead,
+                                   @Value("${db.partitioning.archive.enabled:false}") boolean archiveEnabled,
+                                   @Value("${db.partitioning.archive.retention:P5Y}") Period retention,
+                                   @Value("${db.partitioning.archive.schema:archive}") String archiveSchema) {
+        this.databaseClient = databaseClient;
+        this.monthsAhead = monthsAhead;
+        this.archiveEnabled = archiveEnabled;
+        this.retention = retention;
+        this.archiveSchema = archiveSchema;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.created = Counter.builder("db.partitions.created")
+                .description("Monthly partitions created ahead of time")
+                .tag("table", TABLE)
+                .register(registry);
+        this.archived = Counter.builder("db.partitions.archived")
+                .description("Partitions detached into the archive schema")
+                .tag("table", TABLE)
+                .register(registry);
+        Gauge.builder("db.partitions", partitions, AtomicInteger::get)
+                .description("Partitions attached to the table")
+                .tag("table", TABLE)
+                .register(registry);
+    }
+
+    /**
+     * Creates upcoming partitions and archives expired ones, all on one connection that holds the
+     * maintenance lock for the run.
+     *
+     * @return Mono completing when the run ends
+     */
+    @Scheduled(fixedDelayString = "${db.partitioning.maintenance-interval:PT6H}", initialDelayString = "PT10S")
+    public Mono<Void> maintain() {
+        return databaseClient.inConnection(connection -> withLock(connection, Mono.defer(() -> run(connection))))
+                .onErrorResume(e -> {
+                    log.error("Partition maintenance of {} failed", TABLE, e);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> run(Connection connection) {
+        Mono<Void> createAhead = execute(connection,
+                "SELECT create_monthly_partitions('" + TABLE + "', '" + TABLE + "', CURRENT_DATE, " + monthsAhead + ") AS created")
+                .doOnNext(count -> {
+                    created.increment(count);
+                    if (count > 0) {
+                        log.info("Created {} partitions of {}", count, TABLE);
+                    }
+                })
+                .then();
+        return createAhead
+                .then(listPartitions(connection))
+                .flatMap(attached -> {
+                    List<String> expired = expired(attached, LocalDate.now());
+                    partitions.set(attached.size());
+                    if (!archiveEnabled || expired.isEmpty()) {
+                        return Mono.empty();
+                    }
+                    return execute(connection, "CREATE SCHEMA IF NOT EXISTS \"" + archiveSchema + "\"")
+                            .thenMany(Flux.fromIterable(attached)
+                                    .filter(partition -> expired.contains(partition.name()))
+                                    .concatMap(partition -> archive(connection, partition)))
+                            .then();
+                });
+    }
+
+    /**
+     * @return The names of the attached partitions whose month ends on or before {@code today - retention}.
+     */
+    public List<String> expired(List<Partition> attached, LocalDate today) {
+        YearMonth cutoff = YearMonth.from(today.minus(retention));
+        return attached.stream()
+                .map(Partition::name)
+                .filter(name -> {
+                    Matcher matcher = PARTITION_NAME.matcher(name);
+                    return matcher.matches() && YearMonth.parse(matcher.group(1), MONTH).isBefore(cutoff);
+                })
+                .toList();
+    }
+
+    private Mono<Void> archive(Connection connection, Partition partition) {
+        // partition names come from the catalog and match PARTITION_NAME, so they are safe to inline
+        String detach = "ALTER TABLE " + TABLE + " DETACH PARTITION " + partition.name()
+                + (partition.detaching() ? " FINALIZE" : " CONCURRENTLY");
+        return execute(connection, detach)
+                .then(execute(connection, "ALTER TABLE " + partition.name() + " SET SCHEMA \"" + archiveSchema + "\""))
+                .doOnSuccess(v -> {
+                    archived.increment();
+                    partitions.decrementAndGet();
+                    log.info("Archived partition {} of {} to schema {}", partition.name(), TABLE, archiveSchema);
+                })
+                .then();
+    }
+
+    private Mono<List<Partition>> listPartitions(Connection connection) {
+        return Flux.from(connection.createStatement(PARTITIONS_SQL).bind("$1", TABLE).execute())
+                .flatMap(result -> result.map((row, metadata) -> new Partition(
+                        row.get("name", String.class),
+                        Boolean.TRUE.equals(row.get("detaching", Boolean.class)))))
+                .collectList();
+    }
+
+    private Mono<Void> withLock(Connection connection, Mono<Void> work) {
+        String key = "hashtext('partition-maintenance:" + TABLE + "')";
+        Mono<Integer> unlock = execute(connection, "SELECT pg_advisory_unlock(" + key + ")::int");
+        return execute(connection, "SELECT pg_try_advisory_lock(" + key + ")::int")
+                .flatMap(locked -> {
+                    if (locked != 1) {
+                        log.debug("Partition maintenance of {} is running on another instance", TABLE);
+                        return Mono.empty();
+                    }
+                    // the lock belongs to the pooled connection, so it must be released whatever happens
+                    return Mono.usingWhen(Mono.just(locked), l -> work, l -> unlock, (l, e) -> unlock, l -> unlock);
+                });
+    }
+
+    /**
+     * Runs one statement; emits the first column of its first row as an int, if it returns one.
+     */
+    private static Mono<Integer> execute(Connection connection, String sql) {
+        return Flux.from(connection.createStatement(sql).execute())
+                .flatMap(result -> result.map((row, metadata) -> ((Number) row.get(0)).intValue()))
+                .next();
+    }
+
+    public record Partition(String name, boolean detaching) {
+    }
+}
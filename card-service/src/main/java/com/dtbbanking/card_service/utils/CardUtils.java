@@ -3,6 +3,8 @@ package com.dtbbanking.card_service.utils;
 import java.security.SecureRandom;
 
 public class CardUtils {
+    public static final int CARD_VALIDITY_YEARS = 3;
+
     private static final SecureRandom random = new SecureRandom();
 
     public static String generatePan() {
@@ -0,0 +1,224 @@
+package com.dtbbanking.card_service.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable set of UUIDs stored off-heap as a sorted array of (msb, lsb) long pairs.
+ * <p>
+ * Pairs are ordered by unsigned msb then unsigned lsb, which is how Postgres orders
+ * {@code uuid} values, so an id stream read with {@code ORDER BY id} is appended without
+ * sorting. Lookups are a binary search over the direct buffer: 16 bytes per id, no object
+ * per id and nothing for the garbage collector to trace.
+ * </p>
+ */
+public final class OffHeapUuidSet {
+
+    private static final OffHeapUuidSet EMPTY = new OffHeapUuidSet(allocate(0), 0);
+
+    private final LongBuffer ids;
+    private final int size;
+
+    private OffHeapUuidSet(LongBuffer ids, int size) {
+        this.ids = ids;
+        this.size = size;
+    }
+
+    public static OffHeapUuidSet empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    public boolean contains(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(ids.get(2 * mid), ids.get(2 * mid + 1), msb, lsb);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return off-heap bytes held by this set
+     */
+    public long footprintBytes() {
+        return (long) ids.capacity() * Long.BYTES;
+    }
+
+    /**
+     * Builds a new set holding this set's ids plus {@code added} minus {@code removed}.
+     * This set is left unchanged.
+     *
+     * @param added   ids to add, in any order
+     * @param removed ids to leave out
+     * @return the merged set
+     */
+    public OffHeapUuidSet merge(Collection<UUID> added, Set<UUID> removed) {
+        Builder additions = builder(added.size());
+        added.forEach(additions::add);
+        OffHeapUuidSet extra = additions.build();
+
+        Builder merged = builder(size + extra.size);
+        int i = 0;
+        int j = 0;
+        while (i < size || j < extra.size) {
+            int cmp = i == size ? 1
+                    : j == extra.size ? -1
+                    : compare(ids.get(2 * i), ids.get(2 * i + 1), extra.ids.get(2 * j), extra.ids.get(2 * j + 1));
+            LongBuffer source = cmp <= 0 ? ids : extra.ids;
+            int index = cmp <= 0 ? i : j;
+            long msb = source.get(2 * index);
+            long lsb = source.get(2 * index + 1);
+            if (cmp <= 0) {
+                i++;
+            }
+            if (cmp >= 0) {
+                j++;
+            }
+            if (removed.isEmpty() || !removed.contains(new UUID(msb, lsb))) {
+                merged.add(msb, lsb);
+            }
+        }
+        return merged.build();
+    }
+
+    static int compare(long msb1, long lsb1, long msb2, long lsb2) {
+        int cmp = Long.compareUnsigned(msb1, msb2);
+        return cmp != 0 ? cmp : Long.compareUnsigned(lsb1, lsb2);
+    }
+
+    private static LongBuffer allocate(int pairs) {
+        return ByteBuffer.allocateDirect(pairs * 2 * Long.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asLongBuffer();
+    }
+
+    /**
+     * Appends ids into a growing direct buffer. Ids that arrive in order are kept as is;
+     * otherwise the pairs are heap-sorted in place on {@link #build()}. Duplicates are dropped.
+     */
+    public static final class Builder {
+
+        private LongBuffer ids;
+        private int size;
+        private boolean sorted = true;
+
+        private Builder(int expectedSize) {
+            this.ids = allocate(Math.max(expectedSize, 16));
+        }
+
+        public Builder add(UUID id) {
+            return add(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        }
+
+        Builder add(long msb, long lsb) {
+            if (2 * size == ids.capacity()) {
+                grow();
+            }
+            if (sorted && size > 0 && compare(ids.get(2 * size - 2), ids.get(2 * size - 1), msb, lsb) > 0) {
+                sorted = false;
+            }
+            ids.put(2 * size, msb);
+            ids.put(2 * size + 1, lsb);
+            size++;
+            return this;
+        }
+
+        public OffHeapUuidSet build() {
+            if (!sorted) {
+                heapSort();
+            }
+            int unique = 0;
+            for (int i = 0; i < size; i++) {
+                long msb = ids.get(2 * i);
+                long lsb = ids.get(2 * i + 1);
+                if (unique > 0 && ids.get(2 * unique - 2) == msb && ids.get(2 * unique - 1) == lsb) {
+                    continue;
+                }
+                ids.put(2 * unique, msb);
+                ids.put(2 * unique + 1, lsb);
+                unique++;
+            }
+            if (unique == 0) {
+                return EMPTY;
+            }
+            LongBuffer exact = ids;
+            if (2 * unique < ids.capacity()) {
+                exact = allocate(unique);
+                exact.put(0, ids, 0, 2 * unique);
+            }
+            return new OffHeapUuidSet(exact, unique);
+        }
+
+        private void grow() {
+            int pairs = ids.capacity() / 2;
+            if (pairs > Integer.MAX_VALUE / 32) {
+                throw new IllegalStateException("Too many ids for an off-heap UUID set: " + pairs);
+            }
+            LongBuffer larger = allocate(pairs * 2);
+            larger.put(0, ids, 0, ids.capacity());
+            ids = larger;
+        }
+
+        private void heapSort() {
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i, size);
+            }
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+        }
+
+        private void siftDown(int root, int end) {
+            while (true) {
+                int child = 2 * root + 1;
+                if (child >= end) {
+                    return;
+                }
+                if (child + 1 < end && greater(child + 1, child)) {
+                    child++;
+                }
+                if (!greater(child, root)) {
+                    return;
+                }
+                swap(root, child);
+                root = child;
+            }
+        }
+
+        private boolean greater(int a, int b) {
+            return compare(ids.get(2 * a), ids.get(2 * a + 1), ids.get(2 * b), ids.get(2 * b + 1)) > 0;
+        }
+
+        private void swap(int a, int b) {
+            long msb = ids.get(2 * a);
+            long lsb = ids.get(2 * a + 1);
+            ids.put(2 * a, ids.get(2 * b));
+            ids.put(2 * a + 1, ids.get(2 * b + 1));
+            ids.put(2 * b, msb);
+            ids.put(2 * b + 1, lsb);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.dtbbanking.card_service.utils;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.Optional;
+
+/**
+ * Marks queries that may be served by a read replica when {@code db.routing.enabled} is set
+ * (see {@code ReadRoutingConnectionFactory}); without routing the marks have no effect.
+ * <p>
+ * Every query not marked read-only goes to the primary and, inside a request scope, counts as a
+ * write: later read-only queries of the same request then go to the primary too, so a request
+ * always reads its own writes.
+ * </p>
+ */
+public final class ReadRouting {
+
+    private static final String READ_ONLY = ReadRouting.class.getName() + ".READ_ONLY";
+    private static final String REQUEST_SCOPE = ReadRouting.class.getName() + ".REQUEST_SCOPE";
+
+    private ReadRouting() {
+    }
+
+    public static <T> Flux<T> readOnly(Flux<T> reads) {
+        return reads.contextWrite(context -> context.put(READ_ONLY, true));
+    }
+
+    public static <T> Mono<T> readOnly(Mono<T> read) {
+        return read.contextWrite(context -> context.put(READ_ONLY, true));
+    }
+
+    /**
+     * Opens a read-your-writes scope, typically one per HTTP request.
+     */
+    public static Context withRequestScope(Context context) {
+        return context.put(REQUEST_SCOPE, new RequestScope());
+    }
+
+    public static boolean isReadOnly(ContextView context) {
+        return context.getOrDefault(READ_ONLY, false);
+    }
+
+    public static Optional<RequestScope> requestScope(ContextView context) {
+        return context.getOrEmpty(REQUEST_SCOPE);
+    }
+
+    /**
+     * Remembers whether a request has sent a query to the primary.
+     */
+    public static final class RequestScope {
+
+        private volatile boolean written;
+
+        public void markWritten() {
+            written = true;
+        }
+
+        public boolean hasWritten() {
+            return written;
+        }
+    }
+}
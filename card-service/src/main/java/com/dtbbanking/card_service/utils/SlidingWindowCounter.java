@@ -0,0 +1,157 @@
+package com.dtbbanking.card_service.utils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free sliding-window event counter backed by a ring of atomic buckets.
+ * <p>
+ * Each bucket packs the index of the time slice it belongs to (upper 40 bits) with the
+ * event count of that slice (lower 24 bits) into a single {@code long}, so resetting a
+ * stale bucket and incrementing it is one CAS. Buckets whose slice has slid out of the
+ * window are ignored when summing, so no background reset is needed.
+ * </p>
+ */
+public final class SlidingWindowCounter {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    /**
+     * Returned by {@link #increment(long)} when the event was not recorded.
+     */
+    public static final long NOT_RECORDED = -1;
+
+    private final long bucketMillis;
+    private final AtomicLongArray buckets;
+
+    /**
+     * @param window      total window length
+     * @param bucketCount number of buckets the window is split into
+     */
+    public SlidingWindowCounter(Duration window, int bucketCount) {
+        this.bucketMillis = window.toMillis() / bucketCount;
+        this.buckets = new AtomicLongArray(bucketCount);
+    }
+
+    /**
+     * Records one event.
+     *
+     * @param nowMillis current epoch millis
+     * @return the slice index the event was recorded in, for {@link #undo(long)}, or
+     * {@link #NOT_RECORDED} if its bucket is saturated or already holds a later slice
+     */
+    public long increment(long nowMillis) {
+        long slice = nowMillis / bucketMillis;
+        int i = (int) (slice % buckets.length());
+        while (true) {
+            long current = buckets.get(i);
+            long next;
+            if (current >>> COUNT_BITS == slice) {
+                if ((current & COUNT_MASK) == COUNT_MASK) {
+                    return NOT_RECORDED; // saturated
+                }
+                next = current + 1;
+            } else if (current >>> COUNT_BITS > slice) {
+                return NOT_RECORDED; // bucket already moved on to a later slice
+            } else {
+                next = (slice << COUNT_BITS) | 1;
+            }
+            if (buckets.compareAndSet(i, current, next)) {
+                return slice;
+            }
+        }
+    }
+
+    /**
+     * Reverts one event recorded by {@link #increment(long)}, if its slice is still held.
+     *
+     * @param slice the slice index returned by {@code increment}
+     * @return whether an event was reverted; not if none was recorded or the bucket has since
+     * moved on to a later slice
+     */
+    public boolean undo(long slice) {
+        if (slice == NOT_RECORDED) {
+            return false;
+        }
+        int i = (int) (slice % buckets.length());
+        while (true) {
+            long current = buckets.get(i);
+            if (current >>> COUNT_BITS != slice || (current & COUNT_MASK) == 0) {
+                return false;
+            }
+            if (buckets.compareAndSet(i, current, current - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Sums the events inside the window ending at {@code nowMillis}.
+     *
+     * @param nowMillis current epoch millis
+     * @return number of events in the window
+     */
+    public long sum(long nowMillis) {
+        long slice = nowMillis / bucketMillis;
+        long oldest = slice - buckets.length() + 1;
+        long total = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            long bucket = buckets.get(i);
+            long bucketSlice = bucket >>> COUNT_BITS;
+            if (bucketSlice >= oldest && bucketSlice <= slice) {
+                total += bucket & COUNT_MASK;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return the raw packed buckets, for persisting a snapshot
+     */
+    public long[] snapshot() {
+        long[] values = new long[buckets.length()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buckets.get(i);
+        }
+        return values;
+    }
+
+    /**
+     * Merges buckets from a snapshot taken with the same window layout into the live ones:
+     * counts of the same slice are added up, otherwise the later slice wins. Snapshots of a
+     * different length are ignored.
+     *
+     * @param values the packed buckets
+     */
+    public void merge(long[] values) {
+        if (values == null || values.length != buckets.length()) {
+            return;
+        }
+        for (int i = 0; i < values.length; i++) {
+            long restored = values[i];
+            while (true) {
+                long current = buckets.get(i);
+                long next;
+                if (current >>> COUNT_BITS == restored >>> COUNT_BITS) {
+                    long count = Math.min((current & COUNT_MASK) + (restored & COUNT_MASK), COUNT_MASK);
+                    next = (current & ~COUNT_MASK) | count;
+                } else if (current >>> COUNT_BITS > restored >>> COUNT_BITS) {
+                    break;
+                } else {
+                    next = restored;
+                }
+                if (buckets.compareAndSet(i, current, next)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return approximate heap footprint of this counter in bytes
+     */
+    public long footprintBytes() {
+        return 16L + 24L + 16L + 8L * buckets.length();
+    }
+}
@@ -0,0 +1,109 @@
+package com.dtbbanking.card_service.utils;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.codec.Decoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads {@link UuidListCodec#MEDIA_TYPE} bodies into {@code Flux<UUID>}, {@code Mono<UUID>} or
+ * {@code List<UUID>}. Ids are read with {@code getLong} straight from the incoming buffers,
+ * without intermediate strings, and an id split across two network buffers is carried over.
+ */
+public class UuidListDecoder implements Decoder<Object> {
+
+    private static final List<MimeType> MIME_TYPES = List.of(UuidListCodec.MEDIA_TYPE);
+
+    @Override
+    public boolean canDecode(ResolvableType elementType, MimeType mimeType) {
+        return UuidListCodec.supports(mimeType)
+                && (UuidListCodec.isUuid(elementType) || UuidListCodec.isUuidCollection(elementType));
+    }
+
+    @Override
+    public Flux<Object> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType,
+                               MimeType mimeType, Map<String, Object> hints) {
+        if (UuidListCodec.isUuidCollection(elementType)) {
+            return Flux.from(decodeToMono(inputStream, elementType, mimeType, hints));
+        }
+        return readIds(inputStream).cast(Object.class);
+    }
+
+    @Override
+    public Mono<Object> decodeToMono(Publisher<DataBuffer> inputStream, ResolvableType elementType,
+                                     MimeType mimeType, Map<String, Object> hints) {
+        if (UuidListCodec.isUuidCollection(elementType)) {
+            return readIds(inputStream).collectList().cast(Object.class);
+        }
+        return readIds(inputStream).next().cast(Object.class);
+    }
+
+    @Override
+    public List<MimeType> getDecodableMimeTypes() {
+        return MIME_TYPES;
+    }
+
+    private static Flux<UUID> readIds(Publisher<DataBuffer> inputStream) {
+        return Flux.defer(() -> {
+            Reader reader = new Reader();
+            return Flux.from(inputStream)
+                    .concatMapIterable(reader::read)
+                    .concatWith(Mono.defer(reader::complete));
+        });
+    }
+
+    /**
+     * Reads whole ids from each buffer and keeps the bytes of a trailing partial id.
+     */
+    private static final class Reader {
+
+        private final ByteBuffer partial = ByteBuffer.allocate(UuidListCodec.UUID_BYTES);
+
+        List<UUID> read(DataBuffer buffer) {
+            List<UUID> ids = new ArrayList<>(buffer.readableByteCount() / UuidListCodec.UUID_BYTES + 1);
+            try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+                while (chunks.hasNext()) {
+                    ByteBuffer chunk = chunks.next().order(ByteOrder.BIG_ENDIAN);
+                    if (partial.position() > 0) {
+                        while (partial.hasRemaining() && chunk.hasRemaining()) {
+                            partial.put(chunk.get());
+                        }
+                        if (partial.hasRemaining()) {
+                            continue;
+                        }
+                        partial.flip();
+                        ids.add(new UUID(partial.getLong(), partial.getLong()));
+                        partial.clear();
+                    }
+                    while (chunk.remaining() >= UuidListCodec.UUID_BYTES) {
+                        ids.add(new UUID(chunk.getLong(), chunk.getLong()));
+                    }
+                    partial.put(chunk);
+                }
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+            return ids;
+        }
+
+        Mono<UUID> complete() {
+            if (partial.position() > 0) {
+                return Mono.error(new DecodingException(
+                        "Truncated " + UuidListCodec.MEDIA_TYPE_VALUE + " body: " + partial.position() + " trailing bytes"));
+            }
+            return Mono.empty();
+        }
+    }
+}
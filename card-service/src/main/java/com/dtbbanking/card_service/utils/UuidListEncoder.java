@@ -0,0 +1,95 @@
+package com.dtbbanking.card_service.utils;
+
+import io.netty.buffer.ByteBuf;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes {@code Flux<UUID>}, {@code Mono<UUID>} and {@code Collection<UUID>} bodies as
+ * {@link UuidListCodec#MEDIA_TYPE}. Ids are written in batches straight into buffers from the
+ * response's buffer factory, pooled Netty buffers on a Reactor Netty server or client, and each
+ * batch is flushed as soon as it is written so long streams start arriving at once.
+ * <p>
+ * It only applies when {@code application/x-uuid-list} is requested explicitly or is the only
+ * type the handler produces, so JSON stays the default for every other request.
+ * </p>
+ */
+public class UuidListEncoder implements HttpMessageEncoder<Object> {
+
+    static final int IDS_PER_BUFFER = 512;
+
+    private static final List<MimeType> MIME_TYPES = List.of(UuidListCodec.MEDIA_TYPE);
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        return (mimeType == null || UuidListCodec.supports(mimeType))
+                && (UuidListCodec.isUuid(elementType) || UuidListCodec.isUuidCollection(elementType));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        Flux<UUID> ids = UuidListCodec.isUuidCollection(elementType)
+                ? Flux.from(inputStream).concatMapIterable(value -> (Collection<UUID>) value)
+                : Flux.from(inputStream).cast(UUID.class);
+        return ids.buffer(IDS_PER_BUFFER)
+                .map(batch -> write(batch, bufferFactory));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory,
+                                  ResolvableType valueType, MimeType mimeType, Map<String, Object> hints) {
+        Collection<UUID> ids = value instanceof Collection<?> collection
+                ? (Collection<UUID>) collection
+                : List.of((UUID) value);
+        return write(ids, bufferFactory);
+    }
+
+    @Override
+    public List<MimeType> getEncodableMimeTypes() {
+        return MIME_TYPES;
+    }
+
+    @Override
+    public List<MediaType> getStreamingMediaTypes() {
+        return List.of(UuidListCodec.MEDIA_TYPE);
+    }
+
+    /**
+     * Writes ids into one buffer of exactly {@code 16 * ids.size()} bytes.
+     */
+    static DataBuffer write(Collection<UUID> ids, DataBufferFactory bufferFactory) {
+        DataBuffer buffer = bufferFactory.allocateBuffer(ids.size() * UuidListCodec.UUID_BYTES);
+        if (buffer instanceof NettyDataBuffer nettyBuffer) {
+            ByteBuf byteBuf = nettyBuffer.getNativeBuffer();
+            for (UUID id : ids) {
+                byteBuf.writeLong(id.getMostSignificantBits());
+                byteBuf.writeLong(id.getLeastSignificantBits());
+            }
+            return buffer;
+        }
+
+        ByteBuffer bytes = ByteBuffer.allocate(ids.size() * UuidListCodec.UUID_BYTES);
+        for (UUID id : ids) {
+            bytes.putLong(id.getMostSignificantBits());
+            bytes.putLong(id.getLeastSignificantBits());
+        }
+        return buffer.write(bytes.array());
+    }
+}
@@ -0,0 +1,136 @@
+package com.dtbbanking.card_service;
+
+import com.dtbbanking.card_service.service.AccountExistenceProjection;
+import com.dtbbanking.card_service.utils.OffHeapUuidSet;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccountExistenceProjectionTest {
+
+    private AccountExistenceProjection projection;
+
+    @BeforeEach
+    void setUp() {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", new SimpleMeterRegistry());
+        projection = new AccountExistenceProjection(beans.getBeanProvider(MeterRegistry.class), 10_000);
+    }
+
+    @Test
+    void offHeapSetFindsIdsLoadedInAnyOrder() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        ids.add(new UUID(0xFFFFFFFFFFFFFFFFL, 1)); // negative msb sorts last, as in Postgres
+        ids.add(new UUID(0, 1));
+        Collections.shuffle(ids);
+
+        OffHeapUuidSet.Builder builder = OffHeapUuidSet.builder(8);
+        ids.forEach(builder::add);
+        builder.add(ids.get(0)); // duplicate
+        OffHeapUuidSet set = builder.build();
+
+        assertEquals(ids.size(), set.size());
+        assertTrue(ids.stream().allMatch(set::contains));
+        assertFalse(set.contains(UUID.randomUUID()));
+        assertEquals(ids.size() * 16L, set.footprintBytes());
+    }
+
+    @Test
+    void mergeAddsAndRemovesIds() {
+        UUID kept = UUID.randomUUID();
+        UUID dropped = UUID.randomUUID();
+        UUID added = UUID.randomUUID();
+        OffHeapUuidSet base = OffHeapUuidSet.builder(2).add(kept).add(dropped).build();
+
+        OffHeapUuidSet merged = base.merge(List.of(added, kept), Set.of(dropped));
+
+        assertEquals(2, merged.size());
+        assertTrue(merged.contains(kept));
+        assertTrue(merged.contains(added));
+        assertFalse(merged.contains(dropped));
+        assertTrue(base.contains(dropped));
+    }
+
+    @Test
+    void deltasOverrideTheLoadedSet() {
+        UUID existing = UUID.randomUUID();
+        UUID deleted = UUID.randomUUID();
+        UUID created = UUID.randomUUID();
+
+        assertFalse(projection.isLoaded());
+        projection.replace(OffHeapUuidSet.builder(2).add(existing).add(deleted).build());
+        projection.remove(deleted);
+        projection.add(created);
+
+        assertTrue(projection.isLoaded());
+        assertTrue(projection.contains(existing));
+        assertTrue(projection.contains(created));
+        assertFalse(projection.contains(deleted));
+        assertFalse(projection.contains(UUID.randomUUID()));
+    }
+
+    @Test
+    void reloadDropsStaleDeltas() {
+        UUID created = UUID.randomUUID();
+        projection.add(created);
+
+        projection.beginReload();
+        projection.replace(OffHeapUuidSet.empty());
+
+        assertFalse(projection.contains(created));
+    }
+
+    @Test
+    void deltasStayInEffectUntilTheReloadedSetIsSwappedIn() {
+        UUID deleted = UUID.randomUUID();
+        UUID created = UUID.randomUUID();
+        projection.replace(OffHeapUuidSet.builder(1).add(deleted).build());
+        projection.remove(deleted);
+        projection.add(created);
+
+        projection.beginReload();
+
+        assertFalse(projection.contains(deleted));
+        assertTrue(projection.contains(created));
+    }
+
+    @Test
+    void changesDuringReloadSurviveTheSwap() {
+        UUID deletedDuringLoad = UUID.randomUUID();
+        UUID createdDuringLoad = UUID.randomUUID();
+
+        projection.beginReload();
+        projection.remove(deletedDuringLoad);
+        projection.add(createdDuringLoad);
+        // the load read the deleted account before it was deleted, and missed the new one
+        projection.replace(OffHeapUuidSet.builder(1).add(deletedDuringLoad).build());
+
+        assertFalse(projection.contains(deletedDuringLoad));
+        assertTrue(projection.contains(createdDuringLoad));
+    }
+
+    @Test
+    void failedReloadKeepsTheDeltas() {
+        UUID deleted = UUID.randomUUID();
+        projection.replace(OffHeapUuidSet.builder(1).add(deleted).build());
+        projection.remove(deleted);
+
+        projection.beginReload();
+        projection.cancelReload();
+
+        assertFalse(projection.contains(deleted));
+    }
+}
@@ -0,0 +1,306 @@
+package com.dtbbanking.card_service;
+
+import com.dtbbanking.card_service.model.Card;
+import com.dtbbanking.card_service.model.CardIssuanceJob;
+import com.dtbbanking.card_service.model.CardIssuanceJobStatus;
+import com.dtbbanking.card_service.model.CardState;
+import com.dtbbanking.card_service.model.CardStatus;
+import com.dtbbanking.card_service.model.CardType;
+import com.dtbbanking.card_service.repository.CardIssuanceJobRepository;
+import com.dtbbanking.card_service.service.AccountClient;
+import com.dtbbanking.card_service.service.AccountExistenceProjection;
+import com.dtbbanking.card_service.service.BulkCardIssuanceService;
+import com.dtbbanking.card_service.service.CardStateIndex;
+import com.dtbbanking.card_service.utils.CardUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class BulkCardIssuanceServiceTest {
+
+    private static final int CHUNK_SIZE = 3;
+    private static final long TIMEOUT_MS = 5_000;
+
+    private CardIssuanceJobRepository jobRepository;
+    private AccountClient accountClient;
+    private DatabaseClient databaseClient;
+    private CardStateIndex cardStateIndex;
+
+    private UUID jobId;
+    private List<UUID> accountIds;
+    private Set<UUID> issued;
+    // the multi-row insert of one chunk, given its account ids
+    private Function<UUID[], Flux<Card>> insert;
+    // statements other than the insert, with their first binding
+    private List<String> statements;
+    private List<UUID> notified;
+
+    @BeforeEach
+    void setUp() {
+        jobRepository = mock(CardIssuanceJobRepository.class);
+        accountClient = mock(AccountClient.class);
+        databaseClient = mock(DatabaseClient.class);
+        cardStateIndex = new CardStateIndex();
+
+        jobId = UUID.randomUUID();
+        accountIds = IntStream.range(0, 10).mapToObj(i -> new UUID(0, i + 1)).toList();
+        issued = ConcurrentHashMap.newKeySet();
+        insert = this::issue;
+        statements = new CopyOnWriteArrayList<>();
+        notified = new CopyOnWriteArrayList<>();
+
+        when(accountClient.getAccountIdsAfter(any(), anyInt())).thenAnswer(invocation -> {
+            UUID after = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            int from = after == null ? 0 : accountIds.indexOf(after) + 1;
+            return Mono.just(accountIds.subList(from, Math.min(from + limit, accountIds.size())));
+        });
+        when(databaseClient.sql(anyString())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            return sql.contains("INSERT INTO tb_cards") ? insertStatement() : statement(sql);
+        });
+        when(jobRepository.checkpoint(eq(jobId), anyString(), any(), anyLong(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(Mono.just(1L));
+        when(jobRepository.renewLease(eq(jobId), anyString(), anyLong())).thenReturn(Mono.just(1L));
+        when(jobRepository.finish(eq(jobId), anyString(), anyString(), any())).thenReturn(Mono.just(1L));
+    }
+
+    @Test
+    void resumeAbandonedJobs_shouldContinueACrashedJobFromItsCheckpoint() {
+        // the previous owner died after checkpointing the first chunk
+        abandoned(job(accountIds.get(2)));
+
+        StepVerifier.create(service(Duration.ofMinutes(2)).resumeAbandonedJobs()).verifyComplete();
+
+        verifyFinished(CardIssuanceJobStatus.COMPLETED);
+        verify(accountClient, never()).getAccountIdsAfter(isNull(), anyInt());
+        assertEquals(Set.copyOf(accountIds.subList(3, 10)), issued);
+        InOrder checkpoints = inOrder(jobRepository);
+        for (UUID checkpoint : List.of(accountIds.get(5), accountIds.get(8), accountIds.get(9))) {
+            checkpoints.verify(jobRepository).checkpoint(eq(jobId), anyString(), eq(checkpoint),
+                    anyLong(), anyLong(), anyLong(), anyLong());
+        }
+        assertNotNull(cardStateIndex.findByCardId(issuedCardId(accountIds.get(9))));
+    }
+
+    @Test
+    void run_shouldPublishEachChunkOnceInsteadOfOncePerCard() {
+        abandoned(job(null));
+
+        service(Duration.ofMinutes(2)).resumeAbandonedJobs().block();
+
+        verifyFinished(CardIssuanceJobStatus.COMPLETED);
+        // every chunk mutes the row trigger and then notifies its cards in one statement
+        assertEquals(4, statements.stream().filter(sql -> sql.contains("set_config('card.bulk_issuance'")).count());
+        assertEquals(4, statements.stream().filter(sql -> sql.contains("pg_notify")).count());
+        assertEquals(accountIds.stream().map(BulkCardIssuanceServiceTest::issuedCardId).collect(Collectors.toSet()),
+                Set.copyOf(notified));
+        CardState indexed = cardStateIndex.findByCardId(issuedCardId(accountIds.get(0)));
+        assertNotNull(indexed.expiryDate());
+    }
+
+    @Test
+    void resumeAbandonedJobs_shouldNotClaimAJobAlreadyRunningHere() {
+        insert = accounts -> issue(accounts).delaySubscription(Duration.ofSeconds(2));
+        abandoned(job(null));
+        BulkCardIssuanceService service = service(Duration.ofMinutes(2));
+
+        service.resumeAbandonedJobs().block();
+        service.resumeAbandonedJobs().block();
+
+        verify(jobRepository, times(1)).claim(eq(jobId), anyString(), anyLong());
+        verifyFinished(CardIssuanceJobStatus.COMPLETED);
+        assertEquals(Set.copyOf(accountIds), issued);
+    }
+
+    @Test
+    void run_shouldStopOnceAnotherInstanceHasTakenTheJobOver() {
+        // the lease expired and another instance claimed the job before our first checkpoint
+        when(jobRepository.checkpoint(eq(jobId), anyString(), any(), anyLong(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(Mono.just(0L));
+        abandoned(job(null));
+
+        service(Duration.ofMinutes(2)).resumeAbandonedJobs().block();
+
+        verifyFailed("Lost the lease on card issuance job " + jobId);
+        verify(jobRepository, times(1)).checkpoint(eq(jobId), anyString(), any(), anyLong(), anyLong(), anyLong(), anyLong());
+        verify(jobRepository, never()).finish(eq(jobId), anyString(), eq(CardIssuanceJobStatus.COMPLETED.name()), any());
+    }
+
+    @Test
+    void run_shouldRenewTheLeaseWhileAChunkIsSlow() {
+        insert = accounts -> issue(accounts).delaySubscription(Duration.ofMillis(1_500));
+        accountIds = accountIds.subList(0, CHUNK_SIZE);
+        abandoned(job(null));
+
+        // a 600 ms lease is renewed every 200 ms, well before the chunk is done
+        service(Duration.ofMillis(600)).resumeAbandonedJobs().block();
+
+        verifyFinished(CardIssuanceJobStatus.COMPLETED);
+        verify(jobRepository, atLeast(3)).renewLease(eq(jobId), anyString(), anyLong());
+    }
+
+    @Test
+    void run_shouldStopASlowChunkWhenTheLeaseCannotBeRenewed() {
+        insert = accounts -> issue(accounts).delaySubscription(Duration.ofSeconds(30));
+        when(jobRepository.renewLease(eq(jobId), anyString(), anyLong())).thenReturn(Mono.just(0L));
+        abandoned(job(null));
+
+        service(Duration.ofMillis(600)).resumeAbandonedJobs().block();
+
+        verifyFailed("Lost the lease on card issuance job " + jobId);
+        verify(jobRepository, never()).checkpoint(eq(jobId), anyString(), any(), anyLong(), anyLong(), anyLong(), anyLong());
+        assertTrue(issued.isEmpty());
+    }
+
+    @Test
+    void run_shouldCheckpointOnlyUpToAFailedChunkAndResumeFromThere() {
+        UUID failing = accountIds.get(4);
+        insert = accounts -> Arrays.asList(accounts).contains(failing)
+                ? Flux.error(new IllegalStateException("deadlock detected"))
+                : issue(accounts);
+        abandoned(job(null));
+        BulkCardIssuanceService service = service(Duration.ofMinutes(2));
+
+        service.resumeAbandonedJobs().block();
+
+        verifyFailed("deadlock detected");
+        verify(jobRepository).checkpoint(eq(jobId), anyString(), eq(accountIds.get(2)), eq(3L), eq(3L), eq(0L), anyLong());
+        verify(jobRepository, times(1)).checkpoint(eq(jobId), anyString(), any(), anyLong(), anyLong(), anyLong(), anyLong());
+
+        // resumed by hand once the database has recovered
+        insert = this::issue;
+        CardIssuanceJob failed = job(accountIds.get(2));
+        failed.setStatus(CardIssuanceJobStatus.FAILED);
+        when(jobRepository.findById(jobId)).thenReturn(Mono.just(failed));
+        when(jobRepository.reopen(jobId)).thenReturn(Mono.just(1L));
+        when(jobRepository.claim(eq(jobId), anyString(), anyLong())).thenReturn(Mono.just(job(accountIds.get(2))));
+        clearInvocations(accountClient);
+
+        StepVerifier.create(service.resumeJob(jobId)).expectNextCount(1).verifyComplete();
+
+        verifyFinished(CardIssuanceJobStatus.COMPLETED);
+        verify(accountClient).getAccountIdsAfter(accountIds.get(2), CHUNK_SIZE);
+        verify(accountClient, never()).getAccountIdsAfter(isNull(), anyInt());
+        assertEquals(Set.copyOf(accountIds), issued);
+    }
+
+    private BulkCardIssuanceService service(Duration lease) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", new SimpleMeterRegistry());
+        TransactionalOperator transactionalOperator = mock(TransactionalOperator.class);
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        return new BulkCardIssuanceService(jobRepository, accountClient, mock(AccountExistenceProjection.class),
+                cardStateIndex, databaseClient, transactionalOperator,
+                beans.getBeanProvider(MeterRegistry.class), CHUNK_SIZE, 2, lease);
+    }
+
+    private CardIssuanceJob job(UUID checkpoint) {
+        return CardIssuanceJob.builder()
+                .id(jobId)
+                .cardAlias("Online")
+                .allAccounts(true)
+                .status(CardIssuanceJobStatus.RUNNING)
+                .checkpointAccountId(checkpoint)
+                .build();
+    }
+
+    private void abandoned(CardIssuanceJob job) {
+        when(jobRepository.findResumableJobIds()).thenReturn(Flux.just(jobId));
+        when(jobRepository.claim(eq(jobId), anyString(), anyLong())).thenReturn(Mono.just(job));
+    }
+
+    private void verifyFinished(CardIssuanceJobStatus status) {
+        verify(jobRepository, timeout(TIMEOUT_MS)).finish(eq(jobId), anyString(), eq(status.name()), any());
+    }
+
+    private void verifyFailed(String error) {
+        verify(jobRepository, timeout(TIMEOUT_MS)).finish(eq(jobId), anyString(),
+                eq(CardIssuanceJobStatus.FAILED.name()), argThat(message -> message.contains(error)));
+    }
+
+    private DatabaseClient.GenericExecuteSpec statement(String sql) {
+        DatabaseClient.GenericExecuteSpec statement = mock(DatabaseClient.GenericExecuteSpec.class);
+        when(statement.bind(anyInt(), any())).thenAnswer(invocation -> {
+            if (sql.contains("pg_notify")) {
+                notified.addAll(Arrays.asList((UUID[]) invocation.getArgument(1)));
+            }
+            return statement;
+        });
+        when(statement.then()).thenAnswer(invocation -> Mono.fromRunnable(() -> statements.add(sql)));
+        return statement;
+    }
+
+    @SuppressWarnings("unchecked")
+    private DatabaseClient.GenericExecuteSpec insertStatement() {
+        Map<Integer, Object> bindings = new HashMap<>();
+        DatabaseClient.GenericExecuteSpec statement = mock(DatabaseClient.GenericExecuteSpec.class);
+        RowsFetchSpec<Card> rows = mock(RowsFetchSpec.class);
+        when(statement.bind(anyInt(), any())).thenAnswer(invocation -> {
+            bindings.put(invocation.getArgument(0), invocation.getArgument(1));
+            return statement;
+        });
+        when(statement.map(any(BiFunction.class))).thenReturn(rows);
+        when(rows.all()).thenAnswer(invocation -> insert.apply((UUID[]) bindings.get(1)));
+        return statement;
+    }
+
+    private Flux<Card> issue(UUID[] accounts) {
+        return Flux.defer(() -> {
+            List<Card> cards = new ArrayList<>();
+            for (UUID accountId : accounts) {
+                if (issued.add(accountId)) {
+                    cards.add(Card.builder()
+                            .id(issuedCardId(accountId))
+                            .accountId(accountId)
+                            .cardType(CardType.VIRTUAL)
+                            .pan(CardUtils.generatePan())
+                            .cvv(CardUtils.generateCvv())
+                            .status(CardStatus.ACTIVE)
+                            .expiryDate(LocalDate.now().plusYears(CardUtils.CARD_VALIDITY_YEARS))
+                            .build());
+                }
+            }
+            return Flux.fromIterable(cards);
+        });
+    }
+
+    private static UUID issuedCardId(UUID accountId) {
+        return new UUID(1, accountId.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,142 @@
+package com.dtbbanking.card_service;
+
+import com.dtbbanking.card_service.dto.CardAuthorizationRequestDto;
+import com.dtbbanking.card_service.model.AuthorizationDecision;
+import com.dtbbanking.card_service.model.Card;
+import com.dtbbanking.card_service.model.CardStatus;
+import com.dtbbanking.card_service.model.CardType;
+import com.dtbbanking.card_service.repository.CardRepository;
+import com.dtbbanking.card_service.service.CardAuthorizationService;
+import com.dtbbanking.card_service.service.CardStateIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CardAuthorizationServiceTest {
+
+    private static final String PAN = "4000001234567890";
+
+    private CardRepository cardRepository;
+    private CardStateIndex cardStateIndex;
+    private CardAuthorizationService authorizationService;
+    private Card card;
+
+    @BeforeEach
+    void setUp() {
+        cardRepository = mock(CardRepository.class);
+        cardStateIndex = new CardStateIndex();
+        authorizationService = new CardAuthorizationService(cardStateIndex, cardRepository);
+
+        card = Card.builder()
+                .id(UUID.randomUUID())
+                .accountId(UUID.randomUUID())
+                .cardType(CardType.VIRTUAL)
+                .pan(PAN)
+                .cvv("123")
+                .status(CardStatus.ACTIVE)
+                .build();
+        cardStateIndex.put(card);
+        cardStateIndex.markLoaded();
+    }
+
+    @Test
+    void authorize_shouldApproveActiveCardWithMatchingCvv() {
+        StepVerifier.create(authorizationService.authorize(new CardAuthorizationRequestDto(PAN, "123")))
+                .assertNext(response -> {
+                    assertTrue(response.isApproved());
+                    assertEquals(AuthorizationDecision.APPROVED, response.getDecision());
+                    assertEquals(card.getId(), response.getCardId());
+                    assertEquals(card.getAccountId(), response.getAccountId());
+                })
+                .verifyComplete();
+
+        verifyNoInteractions(cardRepository);
+    }
+
+    @Test
+    void authorize_shouldDeclineInvalidCvv() {
+        StepVerifier.create(authorizationService.authorize(new CardAuthorizationRequestDto(PAN, "999")))
+                .assertNext(response -> {
+                    assertFalse(response.isApproved());
+                    assertEquals(AuthorizationDecision.INVALID_CVV, response.getDecision());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void authorize_shouldDeclineBlockedCard() {
+        card.setStatus(CardStatus.BLOCKED);
+        cardStateIndex.put(card);
+
+        StepVerifier.create(authorizationService.authorize(new CardAuthorizationRequestDto(PAN, "123")))
+                .assertNext(response -> assertEquals(AuthorizationDecision.CARD_BLOCKED, response.getDecision()))
+                .verifyComplete();
+    }
+
+    @Test
+    void authorize_shouldDeclineExpiredCard() {
+        cardStateIndex.updateStatus(card.getId(), CardStatus.EXPIRED);
+
+        StepVerifier.create(authorizationService.authorize(new CardAuthorizationRequestDto(PAN, "123")))
+                .assertNext(response -> {
+                    assertFalse(response.isApproved());
+                    assertEquals(AuthorizationDecision.CARD_EXPIRED, response.getDecision());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void authorize_shouldDeclineCardPastItsExpiryDateBeforeTheSweeperRuns() {
+        card.setExpiryDate(LocalDate.now().minusDays(1));
+        cardStateIndex.put(card);
+
+        StepVerifier.create(authorizationService.authorize(new CardAuthorizationRequestDto(PAN, "123")))
+                .assertNext(response -> {
+                    assertFalse(response.isApproved());
+                    assertEquals(AuthorizationDecision.CARD_EXPIRED, response.getDecision());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void authorize_shouldApproveCardOnItsExpiryDate() {
+        card.setExpiryDate(LocalDate.now());
+        cardStateIndex.put(card);
+
+        StepVerifier.create(authorizationService.authorize(new CardAuthorizationRequestDto(PAN, "123")))
+                .assertNext(response -> assertTrue(response.isApproved()))
+                .verifyComplete();
+    }
+
+    @Test
+    void authorize_shouldDeclineUnknownAndRemovedCards() {
+        cardStateIndex.remove(card.getId());
+
+        StepVerifier.create(authorizationService.authorize(new CardAuthorizationRequestDto(PAN, "123")))
+                .assertNext(response -> {
+                    assertEquals(AuthorizationDecision.UNKNOWN_CARD, response.getDecision());
+                    assertNull(response.getCardId());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void authorize_shouldFallBackToDatabaseUntilIndexIsLoaded() {
+        CardStateIndex emptyIndex = new CardStateIndex();
+        CardAuthorizationService service = new CardAuthorizationService(emptyIndex, cardRepository);
+        when(cardRepository.findFirstByPan(PAN)).thenReturn(Mono.just(card));
+
+        StepVerifier.create(service.authorize(new CardAuthorizationRequestDto(PAN, "123")))
+                .assertNext(response -> assertTrue(response.isApproved()))
+                .verifyComplete();
+
+        verify(cardRepository).findFirstByPan(PAN);
+    }
+}
@@ -1,11 +1,25 @@
 package com.dtbbanking.card_service;
 
 import com.dtbbanking.card_service.controller.CardController;
+import com.dtbbanking.card_service.dto.BulkCardIssuanceJobDto;
+import com.dtbbanking.card_service.dto.BulkCardIssuanceRequestDto;
+import com.dtbbanking.card_service.dto.CardAuthorizationRequestDto;
+import com.dtbbanking.card_service.dto.CardAuthorizationResponseDto;
 import com.dtbbanking.card_service.dto.CardRequestDto;
 import com.dtbbanking.card_service.dto.CardResponseDto;
 import com.dtbbanking.card_service.dto.UpdateCardAliasRequest;
+import com.dtbbanking.card_service.dto.VelocityCheckResponseDto;
+import com.dtbbanking.card_service.model.AuthorizationDecision;
+import com.dtbbanking.card_service.model.CardIssuanceJobStatus;
+import com.dtbbanking.card_service.mapper.CardField;
 import com.dtbbanking.card_service.model.CardType;
+import com.dtbbanking.card_service.service.BulkCardIssuanceService;
+import com.dtbbanking.card_service.service.CardAuthorizationService;
+import com.dtbbanking.card_service.service.CardFieldsService;
 import com.dtbbanking.card_service.service.CardService;
+import com.dtbbanking.card_service.service.CardVelocityService;
+import com.dtbbanking.card_service.utils.UuidListCodec;
+import com.dtbbanking.card_service.utils.UuidListEncoder;
 
 import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,10 +35,14 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -36,6 +54,18 @@ public class CardControllerTest {
     @Mock
     private CardService cardService;
 
+    @Mock
+    private CardFieldsService cardFieldsService;
+
+    @Mock
+    private CardAuthorizationService cardAuthorizationService;
+
+    @Mock
+    private CardVelocityService cardVelocityService;
+
+    @Mock
+    private BulkCardIssuanceService bulkCardIssuanceService;
+
     @InjectMocks
     private CardController cardController;
 
@@ -51,7 +81,9 @@ public class CardControllerTest {
 
     @BeforeEach
     void setUp() {
-        webTestClient = WebTestClient.bindToController(cardController).build();
+        webTestClient = WebTestClient.bindToController(cardController)
+                .httpMessageCodecs(codecs -> codecs.customCodecs().register(new UuidListEncoder()))
+                .build();
 
         cardId = UUID.randomUUID();
         accountId = UUID.randomUUID();
@@ -99,6 +131,25 @@ public class CardControllerTest {
                 .jsonPath("$.data.cardAlias").isEqualTo("MyCard");
     }
 
+    @Test
+    void getCardById_withFields_shouldReturnSelectedFieldsOnly() {
+        Map<String, Object> selected = new LinkedHashMap<>();
+        selected.put("id", cardId);
+        selected.put("cardAlias", "MyCard");
+        when(cardFieldsService.getCardById(cardId, false, CardField.FIELDSETS.parse("id,cardAlias")))
+                .thenReturn(Mono.just(selected));
+
+        webTestClient.get()
+                .uri("/api/v1/cards/{id}?fields=cardAlias,id", cardId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.cardAlias").isEqualTo("MyCard")
+                .jsonPath("$.data.pan").doesNotExist();
+
+        verifyNoInteractions(cardService);
+    }
+
     @Test
     void getCardsByFilters_shouldReturnList() {
         when(cardService.getCardsByFilters(null, null, null, 0, 10, false))
@@ -159,7 +210,7 @@ public class CardControllerTest {
         UUID acc1 = UUID.randomUUID();
         UUID acc2 = UUID.randomUUID();
 
-        when(cardService.getAccountIdsByCardAlias(alias)).thenReturn(Flux.just(acc1, acc2));
+        when(cardService.getAccountIdsByCardAlias(alias, null, 1000)).thenReturn(Flux.just(acc1, acc2));
 
         webTestClient.get()
                 .uri(uriBuilder -> uriBuilder
@@ -173,4 +224,150 @@ public class CardControllerTest {
                 .jsonPath("$.data[0]").isEqualTo(acc1.toString())
                 .jsonPath("$.data[1]").isEqualTo(acc2.toString());
     }
+
+    @Test
+    void authorize_shouldReturnDecision() {
+        CardAuthorizationRequestDto request = new CardAuthorizationRequestDto("4000001234567890", "123");
+        CardAuthorizationResponseDto response = CardAuthorizationResponseDto.builder()
+                .approved(true)
+                .decision(AuthorizationDecision.APPROVED)
+                .cardId(cardId)
+                .accountId(accountId)
+                .build();
+
+        when(validator.validate(any(CardAuthorizationRequestDto.class))).thenReturn(Collections.emptySet());
+        when(cardAuthorizationService.authorize(request)).thenReturn(Mono.just(response));
+
+        webTestClient.post()
+                .uri("/api/v1/cards/authorize")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.approved").isEqualTo(true)
+                .jsonPath("$.data.decision").isEqualTo("APPROVED")
+                .jsonPath("$.data.cardId").isEqualTo(cardId.toString());
+    }
+
+    @Test
+    void recordCardUsage_shouldReturnVelocityCheck() {
+        VelocityCheckResponseDto result = VelocityCheckResponseDto.builder()
+                .cardId(cardId)
+                .cardType(CardType.VIRTUAL)
+                .allowed(true)
+                .usedLastMinute(1)
+                .usedLastHour(1)
+                .usedLastDay(1)
+                .build();
+
+        when(cardVelocityService.checkAndRecordUsage(cardId)).thenReturn(Mono.just(result));
+
+        webTestClient.post()
+                .uri("/api/v1/cards/velocity/{id}", cardId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.allowed").isEqualTo(true)
+                .jsonPath("$.data.usedLastMinute").isEqualTo(1);
+    }
+
+    @Test
+    void createBulkIssuanceJob_shouldReturnAcceptedJob() {
+        BulkCardIssuanceRequestDto request = new BulkCardIssuanceRequestDto();
+        request.setCardAlias("Launch");
+        request.setAccountIds(List.of(accountId));
+
+        UUID jobId = UUID.randomUUID();
+        BulkCardIssuanceJobDto job = BulkCardIssuanceJobDto.builder()
+                .id(jobId)
+                .cardAlias("Launch")
+                .status(CardIssuanceJobStatus.PENDING)
+                .totalAccounts(1)
+                .build();
+
+        when(validator.validate(any(BulkCardIssuanceRequestDto.class))).thenReturn(Collections.emptySet());
+        when(bulkCardIssuanceService.createJob(any(BulkCardIssuanceRequestDto.class))).thenReturn(Mono.just(job));
+
+        webTestClient.post()
+                .uri("/api/v1/cards/bulk-issuance")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isAccepted()
+                .expectBody()
+                .jsonPath("$.data.id").isEqualTo(jobId.toString())
+                .jsonPath("$.data.status").isEqualTo("PENDING");
+    }
+
+    @Test
+    void getBulkIssuanceJob_shouldReturnProgress() {
+        UUID jobId = UUID.randomUUID();
+        BulkCardIssuanceJobDto job = BulkCardIssuanceJobDto.builder()
+                .id(jobId)
+                .status(CardIssuanceJobStatus.RUNNING)
+                .processedAccounts(1000)
+                .issuedCards(950)
+                .skippedAccounts(50)
+                .build();
+
+        when(bulkCardIssuanceService.getJob(jobId)).thenReturn(Mono.just(job));
+
+        webTestClient.get()
+                .uri("/api/v1/cards/bulk-issuance/{id}", jobId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.data.issuedCards").isEqualTo(950)
+                .jsonPath("$.data.skippedAccounts").isEqualTo(50);
+    }
+
+    @Test
+    void streamAccountIdsByCardAlias_shouldReturnNdjsonPage() {
+        UUID after = UUID.randomUUID();
+        UUID acc1 = UUID.randomUUID();
+
+        when(cardService.getAccountIdsByCardAlias("MyCard", after, 2)).thenReturn(Flux.just(acc1));
+
+        Flux<UUID> ids = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/v1/cards/internal/cards/account-ids")
+                        .queryParam("alias", "MyCard")
+                        .queryParam("after", after)
+                        .queryParam("limit", 2)
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(UUID.class)
+                .getResponseBody();
+
+        StepVerifier.create(ids)
+                .expectNext(acc1)
+                .verifyComplete();
+    }
+
+    @Test
+    void streamAccountIdsByCardAlias_shouldReturnSixteenBytesPerId() {
+        UUID acc1 = new UUID(0x0102030405060708L, 0x090A0B0C0D0E0F10L);
+        UUID acc2 = UUID.randomUUID();
+
+        when(cardService.getAccountIdsByCardAlias("MyCard", null, 1000)).thenReturn(Flux.just(acc1, acc2));
+
+        byte[] body = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/v1/cards/internal/cards/account-ids")
+                        .queryParam("alias", "MyCard")
+                        .build())
+                .accept(UuidListCodec.MEDIA_TYPE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        assertEquals(32, body.length);
+        assertEquals(1, body[0]);
+        assertEquals(16, body[15]);
+    }
 }
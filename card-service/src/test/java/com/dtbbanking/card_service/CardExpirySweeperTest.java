@@ -0,0 +1,118 @@
+package com.dtbbanking.card_service;
+
+import com.dtbbanking.card_service.model.Card;
+import com.dtbbanking.card_service.model.CardStatus;
+import com.dtbbanking.card_service.model.CardType;
+import com.dtbbanking.card_service.service.CardExpirySweeper;
+import com.dtbbanking.card_service.service.CardStateIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CardExpirySweeperTest {
+
+    private DatabaseClient databaseClient;
+    private RowsFetchSpec<UUID> expiredIds;
+    private RowsFetchSpec<Optional<LocalDate>> oldestDue;
+    private CardStateIndex cardStateIndex;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        DatabaseClient.GenericExecuteSpec expireSpec = mock(DatabaseClient.GenericExecuteSpec.class, RETURNS_SELF);
+        DatabaseClient.GenericExecuteSpec lagSpec = mock(DatabaseClient.GenericExecuteSpec.class, RETURNS_SELF);
+        expiredIds = mock(RowsFetchSpec.class);
+        oldestDue = mock(RowsFetchSpec.class);
+        when(expireSpec.map(any(BiFunction.class))).thenReturn(expiredIds);
+        when(lagSpec.map(any(BiFunction.class))).thenReturn(oldestDue);
+        when(oldestDue.one()).thenReturn(Mono.just(Optional.empty()));
+
+        databaseClient = mock(DatabaseClient.class);
+        when(databaseClient.sql(anyString())).thenAnswer(invocation ->
+                invocation.<String>getArgument(0).contains("UPDATE") ? expireSpec : lagSpec);
+
+        cardStateIndex = new CardStateIndex();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void sweep_shouldExpireChunksUntilOneIsShortAndMirrorThemIntoTheIndex() {
+        Card first = indexedCard("4000000000000001");
+        Card second = indexedCard("4000000000000002");
+        Card third = indexedCard("4000000000000003");
+        when(expiredIds.all()).thenReturn(
+                Flux.just(first.getId(), second.getId()),
+                Flux.just(third.getId()));
+
+        StepVerifier.create(sweeper(2, 10).sweep()).verifyComplete();
+
+        verify(expiredIds, times(2)).all();
+        for (Card card : List.of(first, second, third)) {
+            assertEquals(CardStatus.EXPIRED, cardStateIndex.findByCardId(card.getId()).status());
+        }
+        assertEquals(3.0, meterRegistry.get("card.sweeper.expired").counter().count());
+    }
+
+    @Test
+    void sweep_shouldStopAtTheChunkBudgetAndReportTheRemainingLag() {
+        when(expiredIds.all()).thenAnswer(invocation -> Flux.just(UUID.randomUUID(), UUID.randomUUID()));
+        when(oldestDue.one()).thenReturn(Mono.just(Optional.of(LocalDate.now().minusDays(3))));
+
+        StepVerifier.create(sweeper(2, 3).sweep()).verifyComplete();
+
+        verify(expiredIds, times(3)).all();
+        assertEquals(6.0, meterRegistry.get("card.sweeper.expired").counter().count());
+        assertTrue(meterRegistry.get("card.sweeper.lag").gauge().value() >= 2 * 86_400);
+    }
+
+    @Test
+    void sweep_shouldNotFailTheScheduleWhenAChunkFails() {
+        Card card = indexedCard("4000000000000001");
+        when(expiredIds.all()).thenReturn(Flux.error(new IllegalStateException("connection reset")));
+
+        StepVerifier.create(sweeper(2, 10).sweep()).verifyComplete();
+
+        assertEquals(CardStatus.ACTIVE, cardStateIndex.findByCardId(card.getId()).status());
+        assertEquals(0.0, meterRegistry.get("card.sweeper.expired").counter().count());
+    }
+
+    private CardExpirySweeper sweeper(int chunkSize, int maxChunksPerRun) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", meterRegistry);
+        return new CardExpirySweeper(databaseClient, cardStateIndex,
+                beans.getBeanProvider(MeterRegistry.class), chunkSize, maxChunksPerRun);
+    }
+
+    private Card indexedCard(String pan) {
+        Card card = Card.builder()
+                .id(UUID.randomUUID())
+                .accountId(UUID.randomUUID())
+                .cardType(CardType.VIRTUAL)
+                .pan(pan)
+                .cvv("123")
+                .status(CardStatus.ACTIVE)
+                .expiryDate(LocalDate.now().minusDays(1))
+                .build();
+        cardStateIndex.put(card);
+        return card;
+    }
+}
@@ -4,10 +4,12 @@ import com.dtbbanking.card_service.dto.CardRequestDto;
 import com.dtbbanking.card_service.dto.CardResponseDto;
 import com.dtbbanking.card_service.mapper.CardMapper;
 import com.dtbbanking.card_service.model.Card;
+import com.dtbbanking.card_service.model.CardStatus;
 import com.dtbbanking.card_service.model.CardType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -53,6 +55,8 @@ class CardMapperTest {
                 .cardType(CardType.VIRTUAL)
                 .pan("1234567812345678")
                 .cvv("123")
+                .status(CardStatus.ACTIVE)
+                .expiryDate(LocalDate.of(2029, 6, 30))
                 .createdAt(createdAt)
                 .build();
 
@@ -65,6 +69,8 @@ class CardMapperTest {
         assertEquals(CardType.VIRTUAL, dto.getCardType());
         assertEquals("**** **** **** 5678", dto.getPan());
         assertEquals("***", dto.getCvv());
+        assertEquals(CardStatus.ACTIVE, dto.getStatus());
+        assertEquals(LocalDate.of(2029, 6, 30), dto.getExpiryDate());
         assertEquals(createdAt, dto.getCreatedAt());
     }
 
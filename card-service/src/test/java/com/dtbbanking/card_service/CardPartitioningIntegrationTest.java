@@ -0,0 +1,102 @@
+package com.dtbbanking.card_service;
+
+import com.dtbbanking.card_service.service.PartitionMaintenanceJob;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The tb_cards partitioning migration and partition maintenance against a real Postgres
+ * (skipped without Docker).
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CardPartitioningIntegrationTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15");
+
+    @Test
+    void migratesExistingCardsPrunesByDateAndArchivesOldMonths() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        migrate(dataSource, "classpath:db/changelog/pre-partitioning.yaml");
+        LocalDateTime now = LocalDateTime.now();
+        for (int month = 0; month < 24; month++) {
+            for (int i = 0; i < 100; i++) {
+                LocalDateTime createdAt = now.minusMonths(month).withDayOfMonth(1).plusHours(i);
+                jdbc.update("INSERT INTO tb_cards (id, account_id, type, pan, cvv, status, expiry_date, created_at, updated_at) "
+                                + "VALUES (?, ?, 'VIRTUAL', '4000000000000000', '123', 'ACTIVE', ?, ?, ?)",
+                        UUID.randomUUID(), UUID.randomUUID(), createdAt.toLocalDate().plusYears(3), createdAt, createdAt);
+            }
+        }
+        jdbc.update("INSERT INTO tb_cards (id, account_id, type, pan, cvv, status, expiry_date, created_at, updated_at) "
+                + "VALUES (gen_random_uuid(), gen_random_uuid(), 'PHYSICAL', '4000000000000001', '123', 'ACTIVE', CURRENT_DATE, NULL, now())");
+
+        migrate(dataSource, "classpath:db/changelog/db.changelog-master.yaml");
+
+        assertThat(jdbc.queryForObject("SELECT relkind::text FROM pg_class WHERE relname = 'tb_cards'", String.class)).isEqualTo("p");
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM tb_cards", Long.class)).isEqualTo(2401L);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM tb_cards_unpartitioned", Long.class)).isEqualTo(2401L);
+        // 24 months with cards plus 3 ahead
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM pg_inherits WHERE inhparent = 'tb_cards'::regclass", Long.class))
+                .isEqualTo(27L);
+
+        YearMonth lastMonth = YearMonth.from(now).minusMonths(1);
+        String plan = String.join("\n", jdbc.queryForList("EXPLAIN SELECT * FROM tb_cards WHERE created_at >= '"
+                + lastMonth.atDay(1) + "' AND created_at < '" + lastMonth.plusMonths(1).atDay(1) + "'", String.class));
+        assertThat(plan).contains("tb_cards_p" + lastMonth.toString().replace('-', '_'));
+        assertThat(plan).doesNotContain("tb_cards_p" + lastMonth.minusMonths(1).toString().replace('-', '_'));
+
+        @SuppressWarnings("unchecked")
+        ObjectProvider<MeterRegistry> meterRegistry = mock(ObjectProvider.class);
+        when(meterRegistry.getIfAvailable(any())).thenReturn(new SimpleMeterRegistry());
+        DatabaseClient databaseClient = DatabaseClient.create(ConnectionFactories.get("r2dbc:postgresql://"
+                + POSTGRES.getUsername() + ":" + POSTGRES.getPassword() + "@" + POSTGRES.getHost() + ":"
+                + POSTGRES.getFirstMappedPort() + "/" + POSTGRES.getDatabaseName()));
+        PartitionMaintenanceJob job = PartitionMaintenanceJobTest.job(databaseClient, meterRegistry, true, Period.ofYears(1));
+
+        List<String> expired = job.expired(jdbc.query("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "WHERE i.inhparent = 'tb_cards'::regclass",
+                (rs, n) -> new PartitionMaintenanceJob.Partition(rs.getString(1), false)), LocalDate.now());
+        job.maintain().block();
+
+        // months 13 to 23 back end before the cutoff month
+        assertThat(expired).hasSize(11);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM pg_inherits WHERE inhparent = 'tb_cards'::regclass", Long.class))
+                .isEqualTo(16L);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM pg_tables WHERE schemaname = 'archive'", Long.class)).isEqualTo(11L);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM tb_cards", Long.class)).isEqualTo(2401L - 1100L);
+    }
+
+    private static void migrate(DriverManagerDataSource dataSource, String changeLog) throws Exception {
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog(changeLog);
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+    }
+}
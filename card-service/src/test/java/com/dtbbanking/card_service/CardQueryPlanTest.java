@@ -0,0 +1,173 @@
+package com.dtbbanking.card_service;
+
+import com.dtbbanking.card_service.model.CardType;
+import com.dtbbanking.card_service.repository.CardRepository;
+import io.r2dbc.spi.ConnectionFactories;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query plans of every {@link CardRepository} method on a seeded, analyzed tb_cards (skipped
+ * without Docker). A method whose plan loses its index, gains a sequential scan or exceeds its
+ * cost ceiling fails with the expected and actual plan properties side by side. A new repository
+ * method fails {@link #everyRepositoryMethodHasAPlanCheck()} until it is given an expectation.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CardQueryPlanTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15");
+
+    // 150k accounts with one or two cards each, over four years of monthly partitions; aliases are
+    // Zipf-like, a few shared by most cards
+    private static final String SEED = """
+            SELECT setseed(0.47);
+            SELECT create_monthly_partitions('tb_cards', 'tb_cards', (CURRENT_DATE - INTERVAL '4 years')::date, 3);
+            SET session_replication_role = replica;
+            INSERT INTO tb_cards (id, card_alias, account_id, type, pan, cvv, status, expiry_date, created_at, updated_at)
+            SELECT gen_random_uuid(),
+                   (ARRAY['Main', 'Salary', 'Shopping', 'Online', 'Travel', 'Savings', 'Daily', 'Personal',
+                          'Groceries', 'Fuel', 'Business', 'Family'])[1 + floor(power(random(), 3) * 12)::int],
+                   account_id,
+                   CASE card WHEN 1 THEN 'VIRTUAL' ELSE 'PHYSICAL' END,
+                   '400000' || lpad(floor(random() * 1e10)::bigint::text, 10, '0'),
+                   lpad(floor(random() * 1000)::int::text, 3, '0'),
+                   CASE WHEN created_at < now() - INTERVAL '3 years' THEN 'EXPIRED'
+                        WHEN random() < 0.03 THEN 'BLOCKED' ELSE 'ACTIVE' END,
+                   (created_at + INTERVAL '3 years')::date,
+                   created_at,
+                   created_at
+            FROM (SELECT account_id, card, now() - random() * INTERVAL '4 years' AS created_at
+                  FROM (SELECT gen_random_uuid() AS account_id, n FROM generate_series(1, 150000) AS n) AS accounts
+                  CROSS JOIN LATERAL generate_series(1, 1 + n % 2) AS card) AS cards;
+            RESET session_replication_role;
+            ANALYZE tb_cards;
+            """;
+
+    private static QueryPlans plans;
+    private static CardRepository repository;
+    private static UUID accountId;
+    private static String pan;
+
+    @BeforeAll
+    static void seed() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute(SEED);
+        Map<String, Object> card = jdbc.queryForMap("SELECT account_id, pan FROM tb_cards LIMIT 1");
+        accountId = (UUID) card.get("account_id");
+        pan = (String) card.get("pan");
+
+        plans = new QueryPlans(ConnectionFactories.get("r2dbc:postgresql://"
+                + POSTGRES.getUsername() + ":" + POSTGRES.getPassword() + "@" + POSTGRES.getHost() + ":"
+                + POSTGRES.getFirstMappedPort() + "/" + POSTGRES.getDatabaseName()), partitionParents(jdbc));
+        repository = new R2dbcRepositoryFactory(new R2dbcEntityTemplate(plans.connectionFactory()))
+                .getRepository(CardRepository.class);
+    }
+
+    // Cost ceilings are about twice the estimates on the seeded data. Only created_at prunes
+    // partitions, so other lookups probe an index in each of the ~50 months.
+    private static Map<String, Check> checks() {
+        Map<String, Check> checks = new LinkedHashMap<>();
+        checks.put("findByCardAliasContainingIgnoreCase(String, Pageable)", new Check(
+                () -> repository.findByCardAliasContainingIgnoreCase("sav", PageRequest.of(0, 20)),
+                QueryPlans.expect().seqScan("substring search").maxCost(100)));
+        checks.put("findByCardAliasContainingIgnoreCase(String)", new Check(
+                () -> repository.findByCardAliasContainingIgnoreCase("sav"),
+                QueryPlans.expect().seqScan("substring search over every card").maxCost(15_000)));
+        checks.put("findDistinctAccountIdsByCardAlias(String, UUID, int)", new Check(
+                () -> repository.findDistinctAccountIdsByCardAlias("%sav%", new UUID(0L, 0L), 100),
+                QueryPlans.expect().usesIndex("idx_tb_cards_account_id_type").maxCost(1_500)));
+        checks.put("findByAccountIdIn(Collection)", new Check(
+                () -> repository.findByAccountIdIn(List.of(accountId, UUID.randomUUID(), UUID.randomUUID())),
+                QueryPlans.expect().usesIndex("idx_tb_cards_account_id_type").maxCost(2_500)));
+        checks.put("findByCardType(CardType, Pageable)", new Check(
+                () -> repository.findByCardType(CardType.PHYSICAL, PageRequest.of(0, 20)),
+                QueryPlans.expect().seqScan("half the cards match; the LIMIT stops the scan early").maxCost(20)));
+        checks.put("findByPanContaining(String, Pageable)", new Check(
+                () -> repository.findByPanContaining("1234", PageRequest.of(0, 20)),
+                QueryPlans.expect().seqScan("substring search").maxCost(3_000)));
+        checks.put("findFirstByPan(String)", new Check(
+                () -> repository.findFirstByPan(pan),
+                QueryPlans.expect().usesIndex("idx_tb_cards_pan").maxCost(50)));
+        checks.put("existsByAccountIdAndCardType(UUID, CardType)", new Check(
+                () -> repository.existsByAccountIdAndCardType(accountId, CardType.VIRTUAL),
+                QueryPlans.expect().usesIndex("idx_tb_cards_account_id_type").maxCost(50)));
+        checks.put("countByAccountId(UUID)", new Check(
+                () -> repository.countByAccountId(accountId),
+                QueryPlans.expect().usesIndex("idx_tb_cards_account_id_type").maxCost(1_000)));
+        checks.put("existsByAccountIdAndCardAliasIgnoreCaseAndIdIsNot(UUID, String, UUID)", new Check(
+                () -> repository.existsByAccountIdAndCardAliasIgnoreCaseAndIdIsNot(accountId, "Main", UUID.randomUUID()),
+                QueryPlans.expect().usesIndex("idx_tb_cards_account_id_type").maxCost(50)));
+        checks.put("updateStatusUnlessExpired(UUID, String)", new Check(
+                () -> repository.updateStatusUnlessExpired(UUID.randomUUID(), "BLOCKED"),
+                QueryPlans.expect().usesIndex("pk_tb_cards_by_month").maxCost(800)));
+        checks.put("updateAlias(UUID, String)", new Check(
+                () -> repository.updateAlias(UUID.randomUUID(), "Main"),
+                QueryPlans.expect().usesIndex("pk_tb_cards_by_month").maxCost(800)));
+        return checks;
+    }
+
+    @TestFactory
+    Stream<DynamicTest> repositoryMethodPlans() {
+        return checks().entrySet().stream().map(check -> DynamicTest.dynamicTest(check.getKey(),
+                () -> check.getValue().expectation().verify(check.getKey(), plans.explain(check.getValue().call().get()))));
+    }
+
+    @Test
+    void everyRepositoryMethodHasAPlanCheck() {
+        assertThat(checks().keySet()).containsExactlyInAnyOrderElementsOf(Arrays.stream(CardRepository.class.getDeclaredMethods())
+                .map(CardQueryPlanTest::signature)
+                .toList());
+    }
+
+    private static String signature(Method method) {
+        return method.getName() + Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    private static Map<String, String> partitionParents(JdbcTemplate jdbc) {
+        Map<String, String> parents = new LinkedHashMap<>();
+        jdbc.query("SELECT c.relname, p.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "JOIN pg_class p ON p.oid = i.inhparent", row -> {
+            parents.put(row.getString(1), row.getString(2));
+        });
+        return parents;
+    }
+
+    private record Check(Supplier<Publisher<?>> call, QueryPlans.Expectation expectation) {
+    }
+}
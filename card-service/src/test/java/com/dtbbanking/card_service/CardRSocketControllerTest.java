@@ -0,0 +1,98 @@
+package com.dtbbanking.card_service;
+
+import com.dtbbanking.card_service.controller.CardRSocketController;
+import com.dtbbanking.card_service.dto.CardAliasLookupDto;
+import com.dtbbanking.card_service.dto.CardResponseDto;
+import com.dtbbanking.card_service.service.CardService;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.transport.netty.server.CloseableChannel;
+import io.rsocket.transport.netty.server.TcpServerTransport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CardRSocketControllerTest {
+
+    private final CardService cardService = mock(CardService.class);
+    private CloseableChannel server;
+    private RSocketRequester requester;
+
+    @BeforeEach
+    void setUp() {
+        RSocketStrategies strategies = RSocketStrategies.builder()
+                .encoder(new Jackson2CborEncoder())
+                .decoder(new Jackson2CborDecoder())
+                .build();
+
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.registerBean(CardRSocketController.class, () -> new CardRSocketController(cardService));
+        context.refresh();
+        RSocketMessageHandler handler = new RSocketMessageHandler();
+        handler.setRSocketStrategies(strategies);
+        handler.setApplicationContext(context);
+        handler.afterPropertiesSet();
+
+        server = RSocketServer.create(handler.responder())
+                .bind(TcpServerTransport.create("localhost", 0))
+                .block();
+        requester = RSocketRequester.builder()
+                .rsocketStrategies(strategies)
+                .tcp("localhost", server.address().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        requester.dispose();
+        server.dispose();
+    }
+
+    @Test
+    void accountIdsByCardAlias_shouldStreamOnePage() {
+        UUID after = UUID.randomUUID();
+        UUID acc1 = UUID.randomUUID();
+        UUID acc2 = UUID.randomUUID();
+        when(cardService.getAccountIdsByCardAlias("Travel", after, 1000)).thenReturn(Flux.just(acc1, acc2));
+
+        StepVerifier.create(requester.route("cards.account-ids.by-alias")
+                        .data(new CardAliasLookupDto("Travel", after, 1000))
+                        .retrieveFlux(UUID.class))
+                .expectNext(acc1, acc2)
+                .verifyComplete();
+    }
+
+    @Test
+    void cardsByAccount_shouldLookUpChannelInBatches() {
+        List<UUID> accountIds = IntStream.range(0, 1200).mapToObj(i -> UUID.randomUUID()).toList();
+        when(cardService.getCardsByAccountIds(anyList()))
+                .thenAnswer(invocation -> Flux.just(CardResponseDto.builder()
+                        .accountId(invocation.<List<UUID>>getArgument(0).get(0))
+                        .build()));
+
+        StepVerifier.create(requester.route("cards.by-account")
+                        .data(Flux.fromIterable(accountIds))
+                        .retrieveFlux(CardResponseDto.class)
+                        .map(CardResponseDto::getAccountId))
+                .expectNext(accountIds.get(0), accountIds.get(500), accountIds.get(1000))
+                .verifyComplete();
+
+        verify(cardService, times(3)).getCardsByAccountIds(anyList());
+    }
+}
@@ -5,9 +5,14 @@ import com.dtbbanking.card_service.dto.CardResponseDto;
 import com.dtbbanking.card_service.errors.GlobalException;
 import com.dtbbanking.card_service.mapper.CardMapper;
 import com.dtbbanking.card_service.model.Card;
+import com.dtbbanking.card_service.model.CardStatus;
 import com.dtbbanking.card_service.model.CardType;
 import com.dtbbanking.card_service.repository.CardRepository;
 import com.dtbbanking.card_service.service.CardService;
+import com.dtbbanking.card_service.service.AccountClient;
+import com.dtbbanking.card_service.service.AccountExistenceProjection;
+import com.dtbbanking.card_service.service.CardStateIndex;
+import com.dtbbanking.card_service.service.CardVelocityEngine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,8 +20,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -32,7 +35,10 @@ public class CardServiceTest {
 
     @Mock private CardRepository cardRepository;
     @Mock private CardMapper cardMapper;
-    @Mock private WebClient webClient;
+    @Mock private AccountClient accountClient;
+    @Mock private CardStateIndex cardStateIndex;
+    @Mock private AccountExistenceProjection accountExistenceProjection;
+    @Mock private CardVelocityEngine cardVelocityEngine;
 
     @InjectMocks
     private CardService cardService;
@@ -74,7 +80,7 @@ public class CardServiceTest {
 
     @Test
     void testCreateCardSuccess() {
-        mockWebClientAccountExists();
+        mockAccountExists();
 
         when(cardRepository.countByAccountId(accountId)).thenReturn(Mono.just(1L));
         when(cardRepository.existsByAccountIdAndCardType(accountId, CardType.VIRTUAL)).thenReturn(Mono.just(false));
@@ -87,9 +93,37 @@ public class CardServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void testCreateCardUsesAccountProjectionWithoutCallingAccountService() {
+        when(accountExistenceProjection.contains(accountId)).thenReturn(true);
+        when(cardRepository.countByAccountId(accountId)).thenReturn(Mono.just(0L));
+        when(cardRepository.existsByAccountIdAndCardType(accountId, CardType.VIRTUAL)).thenReturn(Mono.just(false));
+        when(cardMapper.toEntity(requestDto)).thenReturn(card);
+        when(cardRepository.save(any(Card.class))).thenReturn(Mono.just(card));
+        when(cardMapper.toDto(any(Card.class))).thenReturn(responseDto);
+
+        StepVerifier.create(cardService.createCard(requestDto))
+                .expectNextMatches(resp -> resp.getCardAlias().equals("My Visa"))
+                .verifyComplete();
+
+        verifyNoInteractions(accountClient);
+    }
+
+    @Test
+    void testCreateCardFailsWhenAccountDoesNotExist() {
+        when(accountClient.existsById(accountId)).thenReturn(Mono.just(false));
+
+        StepVerifier.create(cardService.createCard(requestDto))
+                .expectErrorMatches(e -> e instanceof GlobalException &&
+                        e.getMessage().contains("Account does not exist"))
+                .verify();
+
+        verify(accountExistenceProjection, never()).add(accountId);
+    }
+
     @Test
     void testCreateCardFailsWhenAccountHasTwoCards() {
-        mockWebClientAccountExists();
+        mockAccountExists();
 
         when(cardRepository.countByAccountId(accountId)).thenReturn(Mono.just(2L));
 
@@ -101,7 +135,7 @@ public class CardServiceTest {
 
     @Test
     void testCreateCardFailsWhenDuplicateCardType() {
-        mockWebClientAccountExists();
+        mockAccountExists();
 
         when(cardRepository.countByAccountId(accountId)).thenReturn(Mono.just(1L));
         when(cardRepository.existsByAccountIdAndCardType(accountId, CardType.VIRTUAL)).thenReturn(Mono.just(true));
@@ -118,6 +152,9 @@ public class CardServiceTest {
         when(cardRepository.deleteById(cardId)).thenReturn(Mono.empty());
 
         StepVerifier.create(cardService.deleteCard(cardId)).verifyComplete();
+
+        verify(cardStateIndex).remove(cardId);
+        verify(cardVelocityEngine).forget(cardId);
     }
 
     @Test
@@ -130,18 +167,83 @@ public class CardServiceTest {
                 .verify();
     }
 
-    @SuppressWarnings({"unchecked", "rawtypes"})
-    private void mockWebClientAccountExists() {
-        WebClient.RequestHeadersUriSpec uriSpecMock = mock(WebClient.RequestHeadersUriSpec.class);
-        WebClient.RequestHeadersSpec headersSpecMock = mock(WebClient.RequestHeadersSpec.class);
-        WebClient.ResponseSpec responseSpecMock = mock(WebClient.ResponseSpec.class);
+    @Test
+    void testUpdateCardStatusUpdatesIndex() {
+        card.setStatus(CardStatus.BLOCKED);
+        when(cardRepository.updateStatusUnlessExpired(cardId, "BLOCKED")).thenReturn(Mono.just(card));
+        when(cardMapper.toDto(any(Card.class))).thenReturn(responseDto);
+
+        StepVerifier.create(cardService.updateCardStatus(cardId, CardStatus.BLOCKED))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(cardStateIndex).put(argThat(saved -> saved.getStatus() == CardStatus.BLOCKED));
+        verify(cardRepository, never()).findById(any(UUID.class));
+        verify(cardRepository, never()).save(any(Card.class));
+    }
+
+    @Test
+    void testUpdateCardStatusRejectsExpiredCard() {
+        card.setStatus(CardStatus.EXPIRED);
+        when(cardRepository.updateStatusUnlessExpired(cardId, "ACTIVE")).thenReturn(Mono.empty());
+        when(cardRepository.findById(cardId)).thenReturn(Mono.just(card));
+
+        StepVerifier.create(cardService.updateCardStatus(cardId, CardStatus.ACTIVE))
+                .expectErrorMatches(e -> e instanceof GlobalException &&
+                        e.getMessage().equals("Card has expired"))
+                .verify();
+
+        verify(cardStateIndex, never()).put(any(Card.class));
+    }
+
+    @Test
+    void testUpdateCardStatusNotFound() {
+        when(cardRepository.updateStatusUnlessExpired(cardId, "BLOCKED")).thenReturn(Mono.empty());
+        when(cardRepository.findById(cardId)).thenReturn(Mono.empty());
 
-        when(webClient.get()).thenReturn(uriSpecMock);
-        when(uriSpecMock.uri("/{accountId}", accountId)).thenReturn(headersSpecMock);
-        when(headersSpecMock.retrieve()).thenReturn(responseSpecMock);
+        StepVerifier.create(cardService.updateCardStatus(cardId, CardStatus.BLOCKED))
+                .expectErrorMatches(e -> e instanceof GlobalException &&
+                        e.getMessage().equals("Card not found"))
+                .verify();
+    }
 
-        when(responseSpecMock.onStatus(any(), any())).thenReturn(responseSpecMock);
+    @Test
+    void testUpdateCardAliasKeepsConcurrentExpiry() {
+        Card expired = Card.builder()
+                .id(cardId)
+                .accountId(accountId)
+                .cardAlias("Travel")
+                .status(CardStatus.EXPIRED)
+                .build();
+        when(cardRepository.findById(cardId)).thenReturn(Mono.just(card));
+        when(cardRepository.existsByAccountIdAndCardAliasIgnoreCaseAndIdIsNot(accountId, "Travel", cardId))
+                .thenReturn(Mono.just(false));
+        // the expiry sweeper runs between the read and the update
+        when(cardRepository.updateAlias(cardId, "Travel")).thenReturn(Mono.just(expired));
+        when(cardMapper.toDto(any(Card.class))).thenReturn(responseDto);
+
+        StepVerifier.create(cardService.updateCardAlias(cardId, "Travel"))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(cardMapper).toDto(argThat(updated -> updated.getStatus() == CardStatus.EXPIRED));
+        verify(cardRepository, never()).save(any(Card.class));
+    }
+
+    @Test
+    void testUpdateCardAliasNotFoundAfterRead() {
+        when(cardRepository.findById(cardId)).thenReturn(Mono.just(card));
+        when(cardRepository.existsByAccountIdAndCardAliasIgnoreCaseAndIdIsNot(accountId, "Travel", cardId))
+                .thenReturn(Mono.just(false));
+        when(cardRepository.updateAlias(cardId, "Travel")).thenReturn(Mono.empty());
+
+        StepVerifier.create(cardService.updateCardAlias(cardId, "Travel"))
+                .expectErrorMatches(e -> e instanceof GlobalException &&
+                        e.getMessage().equals("Card not found"))
+                .verify();
+    }
 
-        when(responseSpecMock.toBodilessEntity()).thenReturn(Mono.just(ResponseEntity.ok().build()));
+    private void mockAccountExists() {
+        when(accountClient.existsById(accountId)).thenReturn(Mono.just(true));
     }
 }
@@ -0,0 +1,103 @@
+package com.dtbbanking.card_service;
+
+import com.dtbbanking.card_service.model.Card;
+import com.dtbbanking.card_service.model.CardStatus;
+import com.dtbbanking.card_service.model.CardType;
+import com.dtbbanking.card_service.repository.CardRepository;
+import com.dtbbanking.card_service.service.CardStateIndex;
+import com.dtbbanking.card_service.service.CardStateSynchronizer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CardStateSynchronizerTest {
+
+    private DatabaseClient.GenericExecuteSpec executeSpec;
+    private RowsFetchSpec<Card> rows;
+    private CardRepository cardRepository;
+    private CardStateIndex cardStateIndex;
+    private CardStateSynchronizer synchronizer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        DatabaseClient databaseClient = mock(DatabaseClient.class);
+        executeSpec = mock(DatabaseClient.GenericExecuteSpec.class);
+        rows = mock(RowsFetchSpec.class);
+        when(databaseClient.sql(anyString())).thenReturn(executeSpec);
+        when(executeSpec.map(any(BiFunction.class))).thenReturn(rows);
+
+        cardRepository = mock(CardRepository.class);
+        cardStateIndex = spy(new CardStateIndex());
+        synchronizer = new CardStateSynchronizer(cardStateIndex, cardRepository, databaseClient,
+                new R2dbcProperties());
+    }
+
+    @Test
+    void load_shouldFillTheIndex() {
+        Card card = card("4000001234567890");
+        when(rows.all()).thenReturn(Flux.just(card));
+
+        synchronizer.start();
+
+        assertTrue(cardStateIndex.isLoaded());
+        assertNotNull(cardStateIndex.findByCardId(card.getId()));
+    }
+
+    @Test
+    void reload_shouldDropCardsDeletedSinceTheLastLoad() {
+        Card deleted = card("4000001234567890");
+        Card kept = card("4000009876543210");
+        cardStateIndex.put(deleted);
+        cardStateIndex.put(kept);
+        cardStateIndex.markLoaded();
+        when(rows.all()).thenReturn(Flux.just(kept));
+
+        synchronizer.start();
+
+        assertNull(cardStateIndex.findByCardId(deleted.getId()));
+        assertNull(cardStateIndex.find(deleted.getPan()));
+        assertNotNull(cardStateIndex.findByCardId(kept.getId()));
+        assertEquals(1, cardStateIndex.size());
+    }
+
+    @Test
+    void reload_shouldKeepACardNotifiedWhileItPrunes() {
+        Card created = card("4000001111111111");
+        cardStateIndex.markLoaded();
+        when(rows.all()).thenReturn(Flux.empty());
+        when(cardRepository.findById(created.getId())).thenReturn(Mono.just(created));
+        // the card is created and notified just as the reload prunes the index
+        doAnswer(invocation -> {
+            synchronizer.refresh(created.getId()).block();
+            return invocation.callRealMethod();
+        }).when(cardStateIndex).retainAll(any());
+
+        synchronizer.start();
+
+        assertNotNull(cardStateIndex.findByCardId(created.getId()));
+    }
+
+    private static Card card(String pan) {
+        return Card.builder()
+                .id(UUID.randomUUID())
+                .accountId(UUID.randomUUID())
+                .cardType(CardType.VIRTUAL)
+                .pan(pan)
+                .cvv("123")
+                .status(CardStatus.ACTIVE)
+                .build();
+    }
+}
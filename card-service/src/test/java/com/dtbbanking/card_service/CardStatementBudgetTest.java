@@ -0,0 +1,109 @@
+package com.dtbbanking.card_service;
+
+import com.dtbbanking.card_service.configs.StatementCountingFilter;
+import com.dtbbanking.card_service.service.AccountClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * SQL statements per card endpoint against a migrated Postgres (skipped without Docker). Raising a
+ * budget should be a deliberate change: a query per row of a result fails here first.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CardStatementBudgetTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + POSTGRES.getHost() + ":"
+                + POSTGRES.getFirstMappedPort() + "/" + POSTGRES.getDatabaseName());
+        registry.add("spring.r2dbc.username", POSTGRES::getUsername);
+        registry.add("spring.r2dbc.password", POSTGRES::getPassword);
+        registry.add("spring.liquibase.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.liquibase.user", POSTGRES::getUsername);
+        registry.add("spring.liquibase.password", POSTGRES::getPassword);
+        registry.add("spring.rsocket.server.port", () -> 0);
+        registry.add("card.accounts.projection-enabled", () -> false);
+    }
+
+    @MockitoBean
+    private AccountClient accountClient;
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private StatementCountingFilter statementCountingFilter;
+
+    private StatementBudget budget;
+    private UUID accountId;
+
+    @BeforeEach
+    void setUp() {
+        budget = new StatementBudget(statementCountingFilter);
+        accountId = UUID.randomUUID();
+        when(accountClient.existsById(any())).thenReturn(Mono.just(true));
+    }
+
+    @Test
+    void cardEndpointsStayWithinTheirStatementBudgets() throws Exception {
+        // count, same-type check and insert
+        AtomicReference<String> created = new AtomicReference<>();
+        budget.expect("POST /api/v1/cards", 3, () -> client.post().uri("/api/v1/cards")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("cardAlias", "Travel", "accountId", accountId, "cardType", "VIRTUAL"))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody().jsonPath("$.data.id").value(created::set));
+        String id = created.get();
+
+        budget.expect("GET /api/v1/cards/{id}", 1, () -> client.get().uri("/api/v1/cards/{id}?unmask=true", id)
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("GET /api/v1/cards/{id}", 1, () -> client.get().uri("/api/v1/cards/{id}?fields=id,cardAlias", id)
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("GET /api/v1/cards", 1, () -> client.get().uri("/api/v1/cards?alias=trav&size=20")
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("GET /api/v1/cards/internal/cards/account-ids", 1, () -> client.get()
+                .uri("/api/v1/cards/internal/cards/account-ids?alias=trav")
+                .exchange()
+                .expectStatus().isOk());
+        // read, duplicate alias check, update
+        budget.expect("PATCH /api/v1/cards/alias/{id}", 3, () -> client.patch().uri("/api/v1/cards/alias/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("newAlias", "Holidays"))
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("PATCH /api/v1/cards/status/{id}", 1, () -> client.patch().uri("/api/v1/cards/status/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("status", "BLOCKED"))
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("DELETE /api/v1/cards/{id}", 2, () -> client.delete().uri("/api/v1/cards/{id}", id)
+                .exchange()
+                .expectStatus().isNoContent());
+    }
+}
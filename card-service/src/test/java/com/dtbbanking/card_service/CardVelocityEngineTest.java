@@ -0,0 +1,178 @@
+package com.dtbbanking.card_service;
+
+import com.dtbbanking.card_service.configs.VelocityProperties;
+import com.dtbbanking.card_service.dto.VelocityCheckResponseDto;
+import com.dtbbanking.card_service.model.CardType;
+import com.dtbbanking.card_service.model.VelocitySnapshot;
+import com.dtbbanking.card_service.model.VelocityWindow;
+import com.dtbbanking.card_service.service.CardVelocityEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardVelocityEngineTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private VelocityProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private CardVelocityEngine engine;
+    private UUID cardId;
+
+    @BeforeEach
+    void setUp() {
+        VelocityProperties.Limits limits = new VelocityProperties.Limits();
+        limits.setPerMinute(3);
+        limits.setPerHour(5);
+        limits.setPerDay(0);
+
+        properties = new VelocityProperties();
+        properties.getLimits().put(CardType.VIRTUAL, limits);
+        properties.setIdleEviction(Duration.ofHours(1));
+
+        meterRegistry = new SimpleMeterRegistry();
+        engine = new CardVelocityEngine(properties, meterRegistry);
+        cardId = UUID.randomUUID();
+    }
+
+    @Test
+    void checkAndRecord_shouldRejectUsesOverTheMinuteLimitWithoutRecordingThem() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(engine.checkAndRecord(cardId, CardType.VIRTUAL, NOW + i).isAllowed());
+        }
+
+        VelocityCheckResponseDto rejected = engine.checkAndRecord(cardId, CardType.VIRTUAL, NOW + 10);
+
+        assertFalse(rejected.isAllowed());
+        assertEquals(VelocityWindow.MINUTE, rejected.getExceededWindow());
+        assertEquals(3, rejected.getUsedLastMinute());
+        assertEquals(3, engine.check(cardId, CardType.VIRTUAL, NOW + 20).getUsedLastHour());
+        assertEquals(1.0, meterRegistry.get("card.velocity.rejections").tag("window", "MINUTE").counter().count());
+    }
+
+    @Test
+    void checkAndRecord_shouldSlideMinuteWindowButKeepHourCount() {
+        for (int i = 0; i < 3; i++) {
+            engine.checkAndRecord(cardId, CardType.VIRTUAL, NOW);
+        }
+        long later = NOW + Duration.ofSeconds(61).toMillis();
+
+        VelocityCheckResponseDto result = engine.checkAndRecord(cardId, CardType.VIRTUAL, later);
+
+        assertTrue(result.isAllowed());
+        assertEquals(1, result.getUsedLastMinute());
+        assertEquals(4, result.getUsedLastHour());
+        assertEquals(4, result.getUsedLastDay());
+    }
+
+    @Test
+    void checkAndRecord_shouldEnforceHourLimit() {
+        long t = NOW;
+        for (int i = 0; i < 5; i++) {
+            engine.checkAndRecord(cardId, CardType.VIRTUAL, t);
+            t += Duration.ofMinutes(2).toMillis();
+        }
+
+        VelocityCheckResponseDto result = engine.checkAndRecord(cardId, CardType.VIRTUAL, t);
+
+        assertFalse(result.isAllowed());
+        assertEquals(VelocityWindow.HOUR, result.getExceededWindow());
+    }
+
+    @Test
+    void checkAndRecord_shouldOnlyRollBackUsesThatWereRecorded() {
+        VelocityProperties.Limits limits = properties.limitsFor(CardType.VIRTUAL);
+        limits.setPerMinute(0);
+        limits.setPerHour(0);
+        limits.setPerDay(5);
+        long latest = NOW / Duration.ofMinutes(15).toMillis() * Duration.ofMinutes(15).toMillis()
+                + Duration.ofMinutes(5).toMillis();
+        for (int i = 0; i < 5; i++) {
+            engine.checkAndRecord(cardId, CardType.VIRTUAL, latest);
+        }
+
+        // A use stamped a minute earlier, e.g. by a thread that read the clock first: its minute
+        // bucket already holds the later second, so nothing is recorded there to roll back
+        VelocityCheckResponseDto late = engine.checkAndRecord(cardId, CardType.VIRTUAL,
+                latest - Duration.ofMinutes(1).toMillis());
+
+        assertFalse(late.isAllowed());
+        assertEquals(VelocityWindow.DAY, late.getExceededWindow());
+        assertEquals(0, late.getUsedLastMinute());
+        assertEquals(0, late.getUsedLastHour());
+        assertEquals(5, late.getUsedLastDay());
+        assertEquals(5, engine.check(cardId, CardType.VIRTUAL, latest).getUsedLastMinute());
+    }
+
+    @Test
+    void checkAndRecord_shouldTreatMissingLimitsAsUnlimited() {
+        for (int i = 0; i < 100; i++) {
+            assertTrue(engine.checkAndRecord(cardId, CardType.PHYSICAL, NOW).isAllowed());
+        }
+    }
+
+    @Test
+    void evictIdle_shouldDropCardsIdleLongerThanConfigured() {
+        engine.checkAndRecord(cardId, CardType.VIRTUAL, NOW);
+        UUID activeCard = UUID.randomUUID();
+        engine.checkAndRecord(activeCard, CardType.VIRTUAL, NOW + Duration.ofMinutes(50).toMillis());
+
+        List<UUID> evicted = engine.evictIdle(NOW + Duration.ofMinutes(61).toMillis());
+
+        assertEquals(List.of(cardId), evicted);
+        assertEquals(1, engine.trackedCards());
+        assertEquals(1.0, meterRegistry.get("card.velocity.evictions").counter().count());
+    }
+
+    @Test
+    void forget_shouldDropCountersAndReportTheCardWithTheNextEviction() {
+        engine.checkAndRecord(cardId, CardType.VIRTUAL, NOW);
+
+        engine.forget(cardId);
+
+        assertEquals(0, engine.trackedCards());
+        assertEquals(0, engine.check(cardId, CardType.VIRTUAL, NOW).getUsedLastMinute());
+        assertEquals(List.of(cardId), engine.evictIdle(NOW));
+        assertTrue(engine.evictIdle(NOW).isEmpty());
+        assertEquals(0.0, meterRegistry.get("card.velocity.evictions").counter().count());
+    }
+
+    @Test
+    void drainDirtyAndRestore_shouldRoundTripCounters() {
+        engine.checkAndRecord(cardId, CardType.VIRTUAL, NOW);
+        engine.checkAndRecord(cardId, CardType.VIRTUAL, NOW);
+
+        List<VelocitySnapshot> snapshots = engine.drainDirty();
+        assertEquals(1, snapshots.size());
+        assertTrue(engine.drainDirty().isEmpty());
+
+        CardVelocityEngine restarted = new CardVelocityEngine(properties, new SimpleMeterRegistry());
+        snapshots.forEach(restarted::restore);
+
+        assertEquals(2, restarted.check(cardId, CardType.VIRTUAL, NOW + 5).getUsedLastMinute());
+        assertTrue(restarted.footprintBytes() > 0);
+    }
+
+    @Test
+    void restore_shouldMergeSnapshotIntoCountersCreatedBeforeIt() {
+        engine.checkAndRecord(cardId, CardType.VIRTUAL, NOW);
+        engine.checkAndRecord(cardId, CardType.VIRTUAL, NOW);
+        List<VelocitySnapshot> snapshots = engine.drainDirty();
+
+        // the card is used after the restart but before the restore reaches it
+        CardVelocityEngine restarted = new CardVelocityEngine(properties, new SimpleMeterRegistry());
+        restarted.checkAndRecord(cardId, CardType.VIRTUAL, NOW + 10);
+        restarted.drainDirty();
+        snapshots.forEach(restarted::restore);
+
+        assertEquals(3, restarted.check(cardId, CardType.VIRTUAL, NOW + 20).getUsedLastMinute());
+        assertFalse(restarted.checkAndRecord(cardId, CardType.VIRTUAL, NOW + 30).isAllowed());
+        assertEquals(1, restarted.drainDirty().size());
+    }
+}
@@ -0,0 +1,47 @@
+package com.dtbbanking.card_service;
+
+import com.dtbbanking.card_service.service.PartitionMaintenanceJob;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PartitionMaintenanceJobTest {
+
+    @Test
+    void expiresOnlyWholeMonthsBeforeTheRetentionCutoff() {
+        PartitionMaintenanceJob job = job(true, Period.ofYears(2));
+        List<PartitionMaintenanceJob.Partition> attached = List.of(
+                new PartitionMaintenanceJob.Partition("tb_cards_p2022_12", false),
+                new PartitionMaintenanceJob.Partition("tb_cards_p2023_01", true),
+                new PartitionMaintenanceJob.Partition("tb_cards_p2023_02", false),
+                new PartitionMaintenanceJob.Partition("tb_cards_p2025_03", false),
+                new PartitionMaintenanceJob.Partition("tb_cards_manual", false));
+
+        // cutoff 2023-02-15: February 2023 still has rows inside the retention window
+        assertThat(job.expired(attached, LocalDate.of(2025, 2, 15)))
+                .containsExactly("tb_cards_p2022_12", "tb_cards_p2023_01");
+    }
+
+    static PartitionMaintenanceJob job(boolean archive, Period retention) {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<MeterRegistry> meterRegistry = mock(ObjectProvider.class);
+        when(meterRegistry.getIfAvailable(any())).thenReturn(new SimpleMeterRegistry());
+        return job(mock(DatabaseClient.class), meterRegistry, archive, retention);
+    }
+
+    static PartitionMaintenanceJob job(DatabaseClient databaseClient, ObjectProvider<MeterRegistry> meterRegistry,
+                                       boolean archive, Period retention) {
+        return new PartitionMaintenanceJob(databaseClient, meterRegistry, 3, archive, retention, "archive");
+    }
+}
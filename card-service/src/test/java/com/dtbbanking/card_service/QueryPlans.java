@@ -0,0 +1,246 @@
+package com.dtbbanking.card_service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.proxy.ProxyConnectionFactory;
+import io.r2dbc.proxy.core.Binding;
+import io.r2dbc.proxy.core.Bindings;
+import io.r2dbc.proxy.core.QueryInfo;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Statement;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Captures the SQL a repository call sends (derived queries included) through an r2dbc-proxy
+ * {@link ConnectionFactory}, and runs {@code EXPLAIN (FORMAT JSON)} on it with the same bind
+ * values. Partitions and their indexes are reported under their parent's name, so expectations
+ * hold whatever months exist.
+ */
+final class QueryPlans {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final ConnectionFactory connectionFactory;
+    private final ConnectionFactory capturing;
+    private final Map<String, String> parents;
+    private final Queue<QueryInfo> executed = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param parents partition (table or index) name to its parent's name
+     */
+    QueryPlans(ConnectionFactory connectionFactory, Map<String, String> parents) {
+        this.connectionFactory = connectionFactory;
+        this.parents = parents;
+        this.capturing = ProxyConnectionFactory.builder(connectionFactory)
+                .onBeforeQuery(execution -> executed.addAll(execution.getQueries()))
+                .build();
+    }
+
+    /**
+     * @return the factory repositories under test must use
+     */
+    ConnectionFactory connectionFactory() {
+        return capturing;
+    }
+
+    /**
+     * Runs the call, then explains the statement it executed.
+     */
+    Plan explain(Publisher<?> call) {
+        executed.clear();
+        Flux.from(call).then().block();
+        assertThat(executed).as("statements executed").hasSize(1);
+        QueryInfo query = executed.remove();
+        List<Bindings> bindings = query.getBindingsList();
+        String json = Mono.usingWhen(connectionFactory.create(),
+                connection -> explain(connection, query.getQuery(), bindings.isEmpty() ? null : bindings.get(0)),
+                Connection::close).block();
+        try {
+            return new Plan(query.getQuery(), JSON.readTree(json).get(0).get("Plan"));
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable plan: " + json, e);
+        }
+    }
+
+    private static Mono<String> explain(Connection connection, String sql, Bindings bindings) {
+        Statement statement = connection.createStatement("EXPLAIN (FORMAT JSON) " + sql);
+        if (bindings != null) {
+            for (Binding binding : bindings.getIndexBindings()) {
+                int index = (Integer) binding.getKey();
+                if (binding.getBoundValue().isNull()) {
+                    statement.bindNull(index, binding.getBoundValue().getNullType());
+                } else {
+                    statement.bind(index, binding.getBoundValue().getValue());
+                }
+            }
+        }
+        return Mono.from(statement.execute())
+                .flatMap(result -> Mono.from(result.map((row, metadata) -> row.get(0, String.class))));
+    }
+
+    /**
+     * Expected properties of a plan; by default it must not contain a sequential scan.
+     */
+    static Expectation expect() {
+        return new Expectation();
+    }
+
+    final class Plan {
+
+        private final String sql;
+        private final JsonNode root;
+
+        private Plan(String sql, JsonNode root) {
+            this.sql = sql;
+            this.root = root;
+        }
+
+        double totalCost() {
+            return root.get("Total Cost").asDouble();
+        }
+
+        Set<String> indexes() {
+            Set<String> indexes = new LinkedHashSet<>();
+            collect(root, "Index Name", indexes);
+            return indexes;
+        }
+
+        /**
+         * @return tables read by a sequential scan, leaving out empty partitions (months ahead),
+         * which the planner scans at (next to) no cost rather than opening an index
+         */
+        Set<String> seqScans() {
+            Set<String> tables = new LinkedHashSet<>();
+            nodes(root).stream()
+                    .filter(node -> node.path("Node Type").asText().equals("Seq Scan"))
+                    .filter(node -> node.get("Total Cost").asDouble() >= 1)
+                    .forEach(node -> tables.add(parent(node.get("Relation Name").asText())));
+            return tables;
+        }
+
+        /**
+         * @return one line per node, identical sibling scans of partitions folded into one
+         */
+        String tree() {
+            StringBuilder tree = new StringBuilder();
+            render(root, 0, 1, tree);
+            return tree.toString();
+        }
+
+        private void collect(JsonNode node, String field, Set<String> values) {
+            for (JsonNode each : nodes(node)) {
+                if (each.has(field)) {
+                    values.add(parent(each.get(field).asText()));
+                }
+            }
+        }
+
+        private void render(JsonNode node, int depth, int partitions, StringBuilder tree) {
+            tree.append("  ".repeat(depth)).append(depth == 0 ? "" : "-> ").append(label(node));
+            if (partitions > 1) {
+                tree.append(" x").append(partitions).append(" partitions");
+            }
+            tree.append(String.format(" (cost=%.2f rows=%d)%n", node.get("Total Cost").asDouble(), node.get("Plan Rows").asLong()));
+            List<JsonNode> children = new ArrayList<>();
+            node.path("Plans").forEach(children::add);
+            for (int i = 0; i < children.size(); ) {
+                int same = 1;
+                while (i + same < children.size() && !children.get(i).has("Plans") && !children.get(i + same).has("Plans")
+                        && label(children.get(i + same)).equals(label(children.get(i)))) {
+                    same++;
+                }
+                render(children.get(i), depth + 1, same, tree);
+                i += same;
+            }
+        }
+
+        private String label(JsonNode node) {
+            StringBuilder label = new StringBuilder(node.get("Node Type").asText());
+            if (node.has("Index Name")) {
+                label.append(" using ").append(parent(node.get("Index Name").asText()));
+            }
+            if (node.has("Relation Name")) {
+                label.append(" on ").append(parent(node.get("Relation Name").asText()));
+            }
+            return label.toString();
+        }
+
+        private String parent(String name) {
+            return parents.getOrDefault(name, name);
+        }
+
+        private List<JsonNode> nodes(JsonNode node) {
+            List<JsonNode> nodes = new ArrayList<>();
+            nodes.add(node);
+            node.path("Plans").forEach(child -> nodes.addAll(nodes(child)));
+            return nodes;
+        }
+    }
+
+    static final class Expectation {
+
+        private final List<String> indexes = new ArrayList<>();
+        private String seqScanReason;
+        private double maxCost;
+
+        Expectation usesIndex(String index) {
+            indexes.add(index);
+            return this;
+        }
+
+        /**
+         * Accepts a sequential scan, e.g. for a substring search no B-tree index can serve.
+         */
+        Expectation seqScan(String reason) {
+            seqScanReason = reason;
+            return this;
+        }
+
+        /**
+         * Ceiling on the planner's total cost estimate for the seeded data.
+         */
+        Expectation maxCost(double cost) {
+            maxCost = cost;
+            return this;
+        }
+
+        /**
+         * Fails with the expected and actual properties side by side, plus the SQL and the plan.
+         */
+        void verify(String method, Plan plan) {
+            List<String> expected = new ArrayList<>();
+            List<String> actual = new ArrayList<>();
+            Set<String> used = plan.indexes();
+            for (String index : indexes) {
+                expected.add("uses " + index);
+                actual.add(used.contains(index) ? "uses " + index : "does not use " + index + ", uses " + used);
+            }
+            Set<String> seqScans = plan.seqScans();
+            if (seqScanReason == null) {
+                expected.add("no seq scan");
+                actual.add(seqScans.isEmpty() ? "no seq scan" : "seq scan on " + seqScans);
+            }
+            if (maxCost > 0) {
+                expected.add("cost <= " + maxCost);
+                actual.add(plan.totalCost() <= maxCost ? "cost <= " + maxCost : "cost " + plan.totalCost());
+            }
+
+            assertThat(String.join("\n", actual))
+                    .as("plan of %s regressed%nSQL: %s%n%s", method, plan.sql, plan.tree())
+                    .isEqualTo(String.join("\n", expected));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.dtbbanking.card_service;
+
+import com.dtbbanking.card_service.configs.StatementCountingFilter;
+import com.dtbbanking.card_service.configs.StatementCountingFilter.RequestStatements;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement budgets per endpoint: {@link #expect} runs one request against the application and
+ * fails if it ran more SQL statements than allowed, listing each statement with its executions.
+ * A loop of queries (N+1) added behind an endpoint thus fails the build.
+ */
+final class StatementBudget {
+
+    private final BlockingQueue<RequestStatements> completed = new LinkedBlockingQueue<>();
+
+    StatementBudget(StatementCountingFilter filter) {
+        filter.addListener(completed::add);
+    }
+
+    /**
+     * Runs the request, which must complete, and checks the statements it ran.
+     *
+     * @param endpoint   Method and uri template the request must be served by, e.g. {@code GET /api/v1/cards/{id}}.
+     * @param statements The budget: most statements the request may run.
+     */
+    RequestStatements expect(String endpoint, int statements, Runnable request) throws InterruptedException {
+        completed.clear();
+        request.run();
+        // the filter sees the request end just after the client has read the response
+        RequestStatements actual = completed.poll(5, TimeUnit.SECONDS);
+        assertThat(actual).as("statements of %s", endpoint).isNotNull();
+        assertThat(actual.endpoint()).isEqualTo(endpoint);
+        assertThat(actual.total())
+                .as("statements run by %s (budget %d):%n%s", endpoint, statements, actual.statements().entrySet().stream()
+                        .map(statement -> statement.getValue() + " x " + statement.getKey())
+                        .collect(Collectors.joining(System.lineSeparator())))
+                .isLessThanOrEqualTo(statements);
+        return actual;
+    }
+}
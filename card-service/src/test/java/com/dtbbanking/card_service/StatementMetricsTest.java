@@ -0,0 +1,108 @@
+package com.dtbbanking.card_service;
+
+import com.dtbbanking.card_service.configs.StatementCountingFilter;
+import com.dtbbanking.card_service.configs.StatementMetricsListener;
+import com.dtbbanking.card_service.configs.StatementMetricsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.proxy.core.Bindings;
+import io.r2dbc.proxy.core.BoundValue;
+import io.r2dbc.proxy.core.QueryInfo;
+import io.r2dbc.proxy.test.MockQueryExecutionInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StatementMetricsProperties properties = new StatementMetricsProperties();
+    private final StatementMetricsListener listener = new StatementMetricsListener(properties, registry);
+
+    @Test
+    void normalizesLiteralsBindMarkersAndLists() {
+        assertThat(listener.normalize("""
+                SELECT * FROM tb_cards_p2025_01
+                WHERE card_alias = 'it''s' AND account_id IN ($1, $2,$3) AND status in ($4) LIMIT 20 OFFSET 40"""))
+                .isEqualTo("SELECT * FROM tb_cards_p2025_01 WHERE card_alias = ? AND account_id IN (?, ...) "
+                        + "AND status IN (?, ...) LIMIT ? OFFSET ?");
+    }
+
+    @Test
+    void timesStatementsByNormalizedSqlAndCapsDistinctOnes() {
+        properties.setMaxStatements(2);
+        execute(null, "SELECT * FROM tb_cards WHERE id = $1 LIMIT 1");
+        execute(null, "SELECT * FROM tb_cards WHERE id = $1 LIMIT 2");
+        execute(null, "SELECT * FROM tb_cards WHERE pan = $1");
+        execute(null, "SELECT * FROM tb_cards WHERE cvv = $1");
+        execute(null, "SELECT * FROM tb_cards WHERE account_id = $1");
+
+        assertThat(registry.get("db.statement").tag("sql", "SELECT * FROM tb_cards WHERE id = ? LIMIT ?").timer().count())
+                .isEqualTo(2);
+        assertThat(registry.get("db.statement").tag("sql", "other").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void describesBindValuesByTypeOnly() {
+        QueryInfo query = new QueryInfo("SELECT * FROM tb_cards WHERE pan = $1 AND account_id = ANY($2) AND card_alias = $3");
+        Bindings bindings = new Bindings();
+        bindings.addIndexBinding(Bindings.indexBinding(0, BoundValue.value("4000001234567899")));
+        bindings.addIndexBinding(Bindings.indexBinding(1, BoundValue.value(new UUID[]{UUID.randomUUID(), UUID.randomUUID()})));
+        bindings.addIndexBinding(Bindings.indexBinding(2, BoundValue.nullValue(String.class)));
+        query.getBindingsList().add(bindings);
+
+        assertThat(StatementMetricsListener.bindingShapes(query))
+                .isEqualTo("$1=String(16), $2=UUID[2], $3=null String")
+                .doesNotContain("4000");
+    }
+
+    @Test
+    void countsStatementsPerRequestAndFlagsRepeatedOnes() {
+        StatementCountingFilter filter = new StatementCountingFilter(properties, registry);
+        List<StatementCountingFilter.RequestStatements> completed = new ArrayList<>();
+        filter.addListener(completed::add);
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/cards/1"));
+        exchange.getAttributes().put(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                PathPatternParser.defaultInstance.parse("/api/v1/cards/{id}"));
+
+        filter.filter(exchange, served -> Mono.deferContextual(context -> {
+            execute(context, "SELECT * FROM tb_cards LIMIT 10");
+            for (int i = 0; i < 5; i++) {
+                execute(context, "SELECT * FROM tb_account_ibans WHERE account_id = $1");
+            }
+            return Mono.empty();
+        })).block();
+
+        assertThat(completed).singleElement().satisfies(statements -> {
+            assertThat(statements.endpoint()).isEqualTo("GET /api/v1/cards/{id}");
+            assertThat(statements.total()).isEqualTo(6);
+            assertThat(statements.repeated(properties.getRepeatThreshold()))
+                    .isEqualTo(Map.of("SELECT * FROM tb_account_ibans WHERE account_id = ?", 5));
+        });
+        assertThat(registry.get("db.statements.per-request").tag("uri", "/api/v1/cards/{id}").summary().totalAmount())
+                .isEqualTo(6);
+        assertThat(registry.get("db.statements.repeated").counter().count()).isEqualTo(1);
+    }
+
+    private void execute(ContextView context, String sql) {
+        MockQueryExecutionInfo.Builder execution = MockQueryExecutionInfo.builder()
+                .queryInfo(new QueryInfo(sql))
+                .executeDuration(Duration.ofMillis(1))
+                .isSuccess(true);
+        if (context != null) {
+            execution.customValue(ContextView.class, context);
+        }
+        listener.afterQuery(execution.build());
+    }
+}
@@ -0,0 +1,84 @@
+package com.dtbbanking.card_service;
+
+import com.dtbbanking.card_service.utils.UuidListCodec;
+import com.dtbbanking.card_service.utils.UuidListDecoder;
+import com.dtbbanking.card_service.utils.UuidListEncoder;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UuidListCodecTest {
+
+    private static final ResolvableType UUID_TYPE = ResolvableType.forClass(UUID.class);
+    private static final ResolvableType UUID_LIST_TYPE = ResolvableType.forClassWithGenerics(List.class, UUID.class);
+
+    private final UuidListEncoder encoder = new UuidListEncoder();
+    private final UuidListDecoder decoder = new UuidListDecoder();
+
+    @Test
+    void encodesBigEndianPairsIntoPooledBuffers() {
+        UUID id = new UUID(0x0102030405060708L, 0x090A0B0C0D0E0F10L);
+        NettyDataBufferFactory pooled = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+
+        DataBuffer buffer = DataBufferUtils.join(encoder.encode(Flux.just(id), pooled, UUID_TYPE,
+                UuidListCodec.MEDIA_TYPE, null)).block();
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16}, bytes);
+    }
+
+    @Test
+    void decodesIdsSplitAcrossBuffers() {
+        List<UUID> ids = IntStream.range(0, 1000).mapToObj(i -> UUID.randomUUID()).toList();
+        DataBuffer encoded = DataBufferUtils.join(encoder.encode(Flux.fromIterable(ids),
+                DefaultDataBufferFactory.sharedInstance, UUID_TYPE, UuidListCodec.MEDIA_TYPE, null)).block();
+        byte[] bytes = new byte[encoded.readableByteCount()];
+        encoded.read(bytes);
+
+        Flux<DataBuffer> chunks = Flux.range(0, (bytes.length + 6) / 7)
+                .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(
+                        ByteBuffer.wrap(bytes, i * 7, Math.min(7, bytes.length - i * 7))));
+
+        StepVerifier.create(decoder.decodeToMono(chunks, UUID_LIST_TYPE, UuidListCodec.MEDIA_TYPE, null))
+                .expectNext(ids)
+                .verifyComplete();
+    }
+
+    @Test
+    void rejectsTruncatedBody() {
+        Flux<DataBuffer> body = Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(new byte[20]));
+
+        StepVerifier.create(decoder.decode(body, UUID_TYPE, UuidListCodec.MEDIA_TYPE, null))
+                .expectNext(new UUID(0, 0))
+                .verifyError(DecodingException.class);
+    }
+
+    @Test
+    void appliesOnlyToUuidsRequestedAsUuidList() {
+        assertTrue(encoder.canEncode(UUID_TYPE, UuidListCodec.MEDIA_TYPE));
+        assertTrue(encoder.canEncode(UUID_LIST_TYPE, UuidListCodec.MEDIA_TYPE));
+        assertFalse(encoder.canEncode(UUID_TYPE, MediaType.APPLICATION_JSON));
+        assertFalse(encoder.canEncode(UUID_TYPE, MediaType.ALL));
+        assertFalse(encoder.canEncode(ResolvableType.forClass(String.class), UuidListCodec.MEDIA_TYPE));
+        assertFalse(decoder.canDecode(UUID_TYPE, null));
+    }
+}
@@ -0,0 +1,90 @@
+package com.dtbbanking.card_service.benchmark;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load generator for {@code POST /api/v1/cards/authorize} against a running card-service.
+ * <p>
+ * Usage: {@code AuthorizationLoadGenerator <baseUrl> <seconds> <concurrency> <pan:cvv>...}, e.g.
+ * {@code http://localhost:8083 30 256 4000001234567890:123}. Prints the achieved rate and
+ * latency percentiles; the per-instance target is 50k authorizations/sec.
+ * </p>
+ */
+public class AuthorizationLoadGenerator {
+
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            System.err.println("Usage: AuthorizationLoadGenerator <baseUrl> <seconds> <concurrency> <pan:cvv>...");
+            System.exit(1);
+        }
+
+        String baseUrl = args[0];
+        Duration duration = Duration.ofSeconds(Long.parseLong(args[1]));
+        int concurrency = Integer.parseInt(args[2]);
+        String[][] cards = Arrays.stream(args, 3, args.length)
+                .map(card -> card.split(":"))
+                .toArray(String[][]::new);
+
+        WebClient client = WebClient.builder()
+                .baseUrl(baseUrl + "/api/v1/cards/authorize")
+                .build();
+
+        AtomicLong sequence = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long[] latencies = new long[1 << 22];
+        AtomicLong completed = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        long started = System.nanoTime();
+        Flux.range(0, concurrency)
+                .flatMap(worker -> Flux.generate(sink -> {
+                            if (System.nanoTime() < deadline) {
+                                sink.next(sequence.getAndIncrement());
+                            } else {
+                                sink.complete();
+                            }
+                        })
+                        .concatMap(n -> {
+                            String[] card = cards[(int) ((long) n % cards.length)];
+                            long sent = System.nanoTime();
+                            return client.post()
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .bodyValue(Map.of("pan", card[0], "cvv", card[1]))
+                                    .retrieve()
+                                    .toBodilessEntity()
+                                    .doOnSuccess(r -> {
+                                        long i = completed.getAndIncrement();
+                                        if (i < latencies.length) {
+                                            latencies[(int) i] = System.nanoTime() - sent;
+                                        }
+                                    })
+                                    .onErrorResume(e -> {
+                                        errors.incrementAndGet();
+                                        return Mono.empty();
+                                    });
+                        }), concurrency)
+                .blockLast();
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        int samples = (int) Math.min(completed.get(), latencies.length);
+        long[] sorted = Arrays.copyOf(latencies, samples);
+        Arrays.sort(sorted);
+
+        System.out.printf("requests=%d errors=%d rate=%.0f/s p50=%.3fms p99=%.3fms p999=%.3fms%n",
+                completed.get(), errors.get(), completed.get() / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+}
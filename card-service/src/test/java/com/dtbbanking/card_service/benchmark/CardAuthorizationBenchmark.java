@@ -0,0 +1,68 @@
+package com.dtbbanking.card_service.benchmark;
+
+import com.dtbbanking.card_service.dto.CardAuthorizationRequestDto;
+import com.dtbbanking.card_service.dto.CardAuthorizationResponseDto;
+import com.dtbbanking.card_service.model.Card;
+import com.dtbbanking.card_service.model.CardStatus;
+import com.dtbbanking.card_service.model.CardType;
+import com.dtbbanking.card_service.service.CardAuthorizationService;
+import com.dtbbanking.card_service.service.CardStateIndex;
+import com.dtbbanking.card_service.utils.CardUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link CardAuthorizationService#authorize} against a loaded {@link CardStateIndex}.
+ * <p>
+ * The target is 50k authorizations/sec per instance; run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=CardAuthorizationBenchmark}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class CardAuthorizationBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int cards;
+
+    private CardAuthorizationService authorizationService;
+    private CardAuthorizationRequestDto[] requests;
+
+    @Setup
+    public void setUp() {
+        CardStateIndex index = new CardStateIndex();
+        requests = new CardAuthorizationRequestDto[Math.min(cards, 65_536)];
+
+        for (int i = 0; i < cards; i++) {
+            Card card = Card.builder()
+                    .id(UUID.randomUUID())
+                    .accountId(UUID.randomUUID())
+                    .cardType(CardType.VIRTUAL)
+                    .pan(CardUtils.generatePan())
+                    .cvv(CardUtils.generateCvv())
+                    .status(i % 50 == 0 ? CardStatus.BLOCKED : CardStatus.ACTIVE)
+                    .build();
+            index.put(card);
+            if (i < requests.length) {
+                requests[i] = new CardAuthorizationRequestDto(card.getPan(), card.getCvv());
+            }
+        }
+        index.markLoaded();
+
+        authorizationService = new CardAuthorizationService(index, null);
+    }
+
+    @Benchmark
+    public CardAuthorizationResponseDto authorize() {
+        CardAuthorizationRequestDto request = requests[ThreadLocalRandom.current().nextInt(requests.length)];
+        return authorizationService.authorize(request).block();
+    }
+}
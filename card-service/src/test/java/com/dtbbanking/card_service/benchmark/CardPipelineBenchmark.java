@@ -0,0 +1,177 @@
+package com.dtbbanking.card_service.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.dtbbanking.card_service.dto.CardRequestDto;
+import com.dtbbanking.card_service.dto.CardResponseDto;
+import com.dtbbanking.card_service.dto.UniversalResponse;
+import com.dtbbanking.card_service.mapper.CardMapper;
+import com.dtbbanking.card_service.model.Card;
+import com.dtbbanking.card_service.model.CardStatus;
+import com.dtbbanking.card_service.model.CardType;
+import com.dtbbanking.card_service.repository.CardRepository;
+import com.dtbbanking.card_service.service.AccountExistenceProjection;
+import com.dtbbanking.card_service.service.CardService;
+import com.dtbbanking.card_service.service.CardStateIndex;
+import com.dtbbanking.card_service.utils.CardUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the card paths without I/O: PAN generation and masking, {@link CardMapper},
+ * the JSON of a {@code UniversalResponse}, and the {@link CardService} pipelines over an in-memory
+ * {@link CardRepository}, with every account already in the local account projection. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=CardPipelineBenchmark}; the
+ * profile adds JMH's GC profiler, so {@code gc.alloc.rate.norm} gives the bytes allocated per
+ * call next to the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CardPipelineBenchmark {
+
+    private static final int CARDS = 10_000;
+    private static final int PAGE = 20;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final CardMapper cardMapper = new CardMapper();
+
+    private CardService cardService;
+    private Card card;
+    private CardResponseDto responseDto;
+    private UUID[] ids;
+    private CardRequestDto createRequest;
+
+    @Setup
+    public void setUp() {
+        // the service logs every status change at INFO; console output would be all we measure
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        AccountExistenceProjection accounts = new AccountExistenceProjection(beans.getBeanProvider(MeterRegistry.class), 10_000);
+        CardStateIndex cardStateIndex = new CardStateIndex();
+        Map<UUID, Card> cards = new HashMap<>();
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+        for (int i = 0; i < CARDS; i++) {
+            Card c = Card.builder()
+                    .id(UUID.randomUUID())
+                    .cardAlias("Card " + i)
+                    .accountId(UUID.randomUUID())
+                    .cardType(i % 2 == 0 ? CardType.VIRTUAL : CardType.PHYSICAL)
+                    .pan(CardUtils.generatePan())
+                    .cvv(CardUtils.generateCvv())
+                    .status(CardStatus.ACTIVE)
+                    .expiryDate(LocalDate.of(2027, 5, 1))
+                    .createdAt(createdAt.plusSeconds(i))
+                    .updatedAt(createdAt.plusSeconds(i))
+                    .build();
+            cards.put(c.getId(), c);
+            accounts.add(c.getAccountId());
+            cardStateIndex.put(c);
+        }
+        cardStateIndex.markLoaded();
+        ids = cards.keySet().toArray(new UUID[0]);
+        List<Card> all = new ArrayList<>(cards.values());
+
+        // created cards all get the same id, so the state index does not grow with every create
+        UUID createdId = UUID.randomUUID();
+        CardRepository repository = RepositoryStub.of(CardRepository.class)
+                .on("findById", args -> Mono.justOrEmpty(cards.get((UUID) args[0])))
+                .on("countByAccountId", args -> Mono.just(0L))
+                .on("existsByAccountIdAndCardType", args -> Mono.just(false))
+                .on("save", args -> {
+                    Card saved = (Card) args[0];
+                    if (saved.getId() == null) {
+                        saved.setId(createdId);
+                    }
+                    return Mono.just(saved);
+                })
+                .on("findAll", args -> Flux.fromIterable(all))
+                .build();
+        cardService = new CardService(repository, cardMapper, null, cardStateIndex, accounts, null);
+
+        card = cards.get(ids[0]);
+        responseDto = cardMapper.toDto(card);
+        createRequest = new CardRequestDto();
+        createRequest.setCardAlias("Travel");
+        createRequest.setAccountId(card.getAccountId());
+        createRequest.setCardType(CardType.VIRTUAL);
+    }
+
+    @Benchmark
+    public String generatePan() {
+        return CardUtils.generatePan();
+    }
+
+    @Benchmark
+    public String maskPan() {
+        return CardUtils.maskPan(card.getPan());
+    }
+
+    @Benchmark
+    public CardResponseDto toDto() {
+        return cardMapper.toDto(card);
+    }
+
+    @Benchmark
+    public CardResponseDto toDtoUnmasked() {
+        return cardMapper.toDtoUnmasked(card);
+    }
+
+    @Benchmark
+    public byte[] responseJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(UniversalResponse.ok(responseDto));
+    }
+
+    @Benchmark
+    public CardResponseDto createCard() {
+        return cardService.createCard(createRequest).block();
+    }
+
+    @Benchmark
+    public CardResponseDto getCardById() {
+        return cardService.getCardById(randomId(), false).block();
+    }
+
+    @Benchmark
+    public CardResponseDto getCardByIdUnmasked() {
+        return cardService.getCardById(randomId(), true).block();
+    }
+
+    @Benchmark
+    public CardResponseDto updateCardStatus() {
+        return cardService.updateCardStatus(randomId(), CardStatus.ACTIVE).block();
+    }
+
+    @Benchmark
+    public List<CardResponseDto> getCardsByFilters() {
+        return cardService.getCardsByFilters(null, null, null, 0, PAGE, false).collectList().block();
+    }
+
+    private UUID randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
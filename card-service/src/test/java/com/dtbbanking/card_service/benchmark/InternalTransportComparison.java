@@ -0,0 +1,137 @@
+package com.dtbbanking.card_service.benchmark;
+
+import com.dtbbanking.card_service.utils.UuidListCodec;
+import com.dtbbanking.card_service.utils.UuidListDecoder;
+import com.dtbbanking.card_service.utils.UuidListEncoder;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Closed-loop comparison of the HTTP and RSocket transports against a running account-service.
+ * <p>
+ * Usage: {@code InternalTransportComparison <httpBaseUrl> <rsocketHost:port> <seconds> <concurrency> <batchSize> <accountId>...},
+ * e.g. {@code http://localhost:8082/api/v1/accounts localhost:7082 30 256 1000 <id>...}.
+ * For each transport it runs single existence checks ({@code GET /{id}} vs {@code accounts.exists})
+ * and batched checks ({@code POST /internal/existing-ids} vs the {@code accounts.existing}
+ * request-channel), and prints the achieved rate and latency percentiles of each.
+ * </p>
+ */
+public class InternalTransportComparison {
+
+    public static void main(String[] args) {
+        if (args.length < 6) {
+            System.err.println("Usage: InternalTransportComparison <httpBaseUrl> <rsocketHost:port> "
+                    + "<seconds> <concurrency> <batchSize> <accountId>...");
+            System.exit(1);
+        }
+
+        String baseUrl = args[0];
+        String[] rsocketAddress = args[1].split(":");
+        Duration duration = Duration.ofSeconds(Long.parseLong(args[2]));
+        int concurrency = Integer.parseInt(args[3]);
+        int batchSize = Integer.parseInt(args[4]);
+        UUID[] accountIds = Arrays.stream(args, 5, args.length)
+                .map(UUID::fromString)
+                .toArray(UUID[]::new);
+        List<UUID> batch = Flux.range(0, batchSize)
+                .map(i -> accountIds[i % accountIds.length])
+                .collectList()
+                .block();
+
+        WebClient http = WebClient.builder()
+                .baseUrl(baseUrl)
+                .codecs(codecs -> {
+                    codecs.customCodecs().register(new UuidListEncoder());
+                    codecs.customCodecs().register(new UuidListDecoder());
+                })
+                .build();
+        RSocketRequester rsocket = RSocketRequester.builder()
+                .rsocketStrategies(RSocketStrategies.builder()
+                        .encoder(new Jackson2CborEncoder())
+                        .decoder(new Jackson2CborDecoder())
+                        .build())
+                .tcp(rsocketAddress[0], Integer.parseInt(rsocketAddress[1]));
+
+        run("http    exists  ", duration, concurrency, n -> http.get()
+                .uri("/{id}", accountIds[(int) (n % accountIds.length)])
+                .retrieve()
+                .toBodilessEntity()
+                .then());
+        run("rsocket exists  ", duration, concurrency, n -> rsocket.route("accounts.exists")
+                .data(accountIds[(int) (n % accountIds.length)])
+                .retrieveMono(Boolean.class)
+                .then());
+        run("http    batch/" + batchSize, duration, concurrency, n -> http.post()
+                .uri("/internal/existing-ids")
+                .contentType(UuidListCodec.MEDIA_TYPE)
+                .accept(UuidListCodec.MEDIA_TYPE)
+                .body(Flux.fromIterable(batch), UUID.class)
+                .retrieve()
+                .bodyToFlux(UUID.class)
+                .then());
+        run("rsocket batch/" + batchSize, duration, concurrency, n -> rsocket.route("accounts.existing")
+                .data(Flux.fromIterable(batch))
+                .retrieveFlux(UUID.class)
+                .then());
+
+        rsocket.dispose();
+    }
+
+    private static void run(String label, Duration duration, int concurrency, Function<Long, Mono<Void>> call) {
+        AtomicLong sequence = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong completed = new AtomicLong();
+        long[] latencies = new long[1 << 22];
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        long started = System.nanoTime();
+        Flux.range(0, concurrency)
+                .flatMap(worker -> Flux.<Long>generate(sink -> {
+                            if (System.nanoTime() < deadline) {
+                                sink.next(sequence.getAndIncrement());
+                            } else {
+                                sink.complete();
+                            }
+                        })
+                        .concatMap(n -> {
+                            long sent = System.nanoTime();
+                            return call.apply(n)
+                                    .doOnSuccess(v -> {
+                                        long i = completed.getAndIncrement();
+                                        if (i < latencies.length) {
+                                            latencies[(int) i] = System.nanoTime() - sent;
+                                        }
+                                    })
+                                    .onErrorResume(e -> {
+                                        errors.incrementAndGet();
+                                        return Mono.empty();
+                                    });
+                        }), concurrency)
+                .blockLast();
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        int samples = (int) Math.min(completed.get(), latencies.length);
+        long[] sorted = Arrays.copyOf(latencies, samples);
+        Arrays.sort(sorted);
+        System.out.printf("%s requests=%d errors=%d rate=%.0f/s p50=%.3fms p99=%.3fms p999=%.3fms%n",
+                label, completed.get(), errors.get(), completed.get() / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+}
@@ -0,0 +1,120 @@
+package com.dtbbanking.card_service.benchmark;
+
+import com.dtbbanking.card_service.utils.UuidListCodec;
+import com.dtbbanking.card_service.utils.UuidListDecoder;
+import com.dtbbanking.card_service.utils.UuidListEncoder;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of a UUID list as JSON versus {@code application/x-uuid-list}.
+ * <p>
+ * Encoding writes into pooled Netty buffers, as a Reactor Netty response does. Decoding reads
+ * the payload in 8 KiB chunks to mimic network reads, and the JSON side decodes to
+ * {@code Flux<UUID>} with Jackson's streaming array tokenizer. Payload sizes are printed at
+ * setup; run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=UuidListCodecBenchmark}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UuidListCodecBenchmark {
+
+    private static final ResolvableType UUID_TYPE = ResolvableType.forClass(UUID.class);
+    private static final ResolvableType UUID_LIST_TYPE = ResolvableType.forClassWithGenerics(List.class, UUID.class);
+    private static final int READ_CHUNK = 8192;
+
+    @Param({"10000", "1000000"})
+    private int ids;
+
+    private final NettyDataBufferFactory pooled = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private final Jackson2JsonEncoder jsonEncoder = new Jackson2JsonEncoder();
+    private final Jackson2JsonDecoder jsonDecoder = new Jackson2JsonDecoder();
+    private final UuidListEncoder binaryEncoder = new UuidListEncoder();
+    private final UuidListDecoder binaryDecoder = new UuidListDecoder();
+
+    private List<UUID> values;
+    private byte[] jsonPayload;
+    private byte[] binaryPayload;
+
+    @Setup
+    public void setUp() {
+        jsonDecoder.setMaxInMemorySize(-1);
+        values = new ArrayList<>(ids);
+        for (int i = 0; i < ids; i++) {
+            values.add(UUID.randomUUID());
+        }
+        jsonPayload = toBytes(jsonEncoder.encode(Flux.just(values), DefaultDataBufferFactory.sharedInstance,
+                UUID_LIST_TYPE, MediaType.APPLICATION_JSON, null));
+        binaryPayload = toBytes(binaryEncoder.encode(Flux.fromIterable(values), DefaultDataBufferFactory.sharedInstance,
+                UUID_TYPE, UuidListCodec.MEDIA_TYPE, null));
+        System.out.printf("%n%d ids: JSON %d bytes, x-uuid-list %d bytes%n", ids, jsonPayload.length, binaryPayload.length);
+    }
+
+    @Benchmark
+    public long encodeJson() {
+        return release(jsonEncoder.encode(Flux.just(values), pooled, UUID_LIST_TYPE, MediaType.APPLICATION_JSON, null));
+    }
+
+    @Benchmark
+    public long encodeBinary() {
+        return release(binaryEncoder.encode(Flux.fromIterable(values), pooled, UUID_TYPE, UuidListCodec.MEDIA_TYPE, null));
+    }
+
+    @Benchmark
+    public long decodeJson() {
+        return jsonDecoder.decode(chunks(jsonPayload), UUID_TYPE, MediaType.APPLICATION_JSON, null)
+                .count()
+                .block();
+    }
+
+    @Benchmark
+    public long decodeBinary() {
+        return binaryDecoder.decode(chunks(binaryPayload), UUID_TYPE, UuidListCodec.MEDIA_TYPE, null)
+                .count()
+                .block();
+    }
+
+    private static Flux<DataBuffer> chunks(byte[] payload) {
+        return Flux.range(0, (payload.length + READ_CHUNK - 1) / READ_CHUNK)
+                .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(payload, i * READ_CHUNK,
+                        Math.min(READ_CHUNK, payload.length - i * READ_CHUNK))));
+    }
+
+    private static long release(Flux<DataBuffer> buffers) {
+        return buffers
+                .map(buffer -> {
+                    int bytes = buffer.readableByteCount();
+                    DataBufferUtils.release(buffer);
+                    return (long) bytes;
+                })
+                .reduce(0L, Long::sum)
+                .block();
+    }
+
+    private static byte[] toBytes(Flux<DataBuffer> buffers) {
+        DataBuffer joined = DataBufferUtils.join(buffers).block();
+        byte[] bytes = new byte[joined.readableByteCount()];
+        joined.read(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,36 @@
+package com.dtbbanking.customer_service.configs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.r2dbc.pool.ConnectionPool;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryDecorator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Replaces the auto-configured connection pool with one built by {@link ConnectionPools}, so it gets
+ * the {@code db.pool.*} settings the auto-configuration has no properties for. With read routing
+ * or sharding, their configurations build all the pools instead.
+ */
+@Configuration
+public class ConnectionPoolConfig {
+
+    @Bean
+    public ConnectionPools connectionPools(R2dbcProperties r2dbcProperties,
+                                           ConnectionPoolProperties poolProperties,
+                                           ObjectProvider<ConnectionFactoryDecorator> decorators,
+                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ConnectionPools(r2dbcProperties.getPool(), poolProperties, decorators.orderedStream().toList(),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnExpression("!${db.routing.enabled:false} && !${customer.sharding.enabled:false}")
+    public ConnectionPool connectionFactory(R2dbcProperties r2dbcProperties, ConnectionPools connectionPools) {
+        return connectionPools.create(ReadRoutingConnectionFactory.PRIMARY, r2dbcProperties.getUrl(),
+                r2dbcProperties.getUsername(), r2dbcProperties.getPassword());
+    }
+}
@@ -0,0 +1,77 @@
+package com.dtbbanking.customer_service.configs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.r2dbc.spi.ConnectionFactory;
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured connection pool with one pool per customer shard behind a
+ * {@link ShardRoutingConnectionFactory} ({@code customer.sharding.enabled=true}), after bringing
+ * every shard's schema up to date with the Liquibase changelog (unless {@code spring.liquibase.enabled=false}).
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "customer.sharding.enabled", havingValue = "true")
+public class CustomerShardingConfig {
+
+    @Bean
+    public ShardRoutingConnectionFactory connectionFactory(R2dbcProperties r2dbcProperties,
+                                                           CustomerShardingProperties shardingProperties,
+                                                           @Value("${db.routing.enabled:false}") boolean readRouting,
+                                                           @Value("${spring.liquibase.change-log}") String changeLog,
+                                                           @Value("${spring.liquibase.enabled:true}") boolean migrateShards,
+                                                           ConnectionPools connectionPools,
+                                                           ObjectProvider<MeterRegistry> meterRegistry) throws LiquibaseException {
+        if (readRouting) {
+            throw new IllegalStateException("customer.sharding and db.routing cannot both be enabled");
+        }
+        List<CustomerShardingProperties.Shard> configured = shardingProperties.getShards();
+        if (configured.isEmpty()) {
+            throw new IllegalStateException("customer.sharding.enabled is set but no customer.sharding.shards are configured");
+        }
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        List<String> names = shardingProperties.shardNames();
+
+        Map<String, ConnectionFactory> shards = new LinkedHashMap<>();
+        for (int i = 0; i < configured.size(); i++) {
+            CustomerShardingProperties.Shard shard = configured.get(i);
+            String name = names.get(i);
+            boolean ownCredentials = shard.getUsername() != null;
+            String username = ownCredentials ? shard.getUsername() : r2dbcProperties.getUsername();
+            String password = ownCredentials ? shard.getPassword() : r2dbcProperties.getPassword();
+
+            if (migrateShards) {
+                migrate(name, shard.jdbcUrlOrDerived(), username, password, changeLog);
+            }
+            ConnectionFactory pool = connectionPools.create(name, shard.getUrl(), username, password);
+            ReadRoutingConnectionFactory.bindPoolMetrics(name, pool, registry);
+            shards.put(name, pool);
+        }
+        return new ShardRoutingConnectionFactory(shards);
+    }
+
+    private static void migrate(String name, String jdbcUrl, String username, String password,
+                                String changeLog) throws LiquibaseException {
+        log.info("Migrating customer shard {} ({})", name, jdbcUrl);
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(new DriverManagerDataSource(jdbcUrl, username, password));
+        liquibase.setChangeLog(changeLog);
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+    }
+}
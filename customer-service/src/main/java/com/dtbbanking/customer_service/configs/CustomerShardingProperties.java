@@ -0,0 +1,59 @@
+package com.dtbbanking.customer_service.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hash sharding of {@code tb_customers} across several Postgres instances ({@code customer.sharding.*}).
+ * Every shard pool uses the {@code spring.r2dbc.pool.*} sizes.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "customer.sharding")
+public class CustomerShardingProperties {
+
+    private boolean enabled;
+
+    /**
+     * The shards. A customer's shard follows from its id and the shard names, so names must stay
+     * the same for as long as the data lives on them; change the list only with the resharding tool.
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * Points per shard on the hash ring; more points give a more even spread.
+     */
+    private int virtualNodes = 256;
+
+    @Data
+    public static class Shard {
+        /**
+         * Defaults to {@code shard-<index>}.
+         */
+        private String name;
+        private String url;
+        /**
+         * Defaults to {@code url} with the {@code r2dbc:} scheme replaced by {@code jdbc:}; used for the schema migration.
+         */
+        private String jdbcUrl;
+        private String username;
+        private String password;
+
+        public String jdbcUrlOrDerived() {
+            return jdbcUrl != null ? jdbcUrl : url.replaceFirst("^r2dbc:", "jdbc:");
+        }
+    }
+
+    public List<String> shardNames() {
+        List<String> names = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            String name = shards.get(i).getName();
+            names.add(name != null ? name : "shard-" + i);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,26 @@
+package com.dtbbanking.customer_service.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service specific metric settings ({@code metrics.*}); the standard ones are under
+ * {@code management.metrics.*}.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "metrics")
+public class MetricsProperties {
+
+    /**
+     * SLO buckets of {@code http.server.requests}, by uri template (e.g. {@code /api/v1/customers/{id}}).
+     * Each duration becomes a {@code le} bucket, so Prometheus can count the requests within it.
+     */
+    private Map<String, List<Duration>> slo = new LinkedHashMap<>();
+}
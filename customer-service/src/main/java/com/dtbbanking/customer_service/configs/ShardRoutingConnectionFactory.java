@@ -0,0 +1,44 @@
+package com.dtbbanking.customer_service.configs;
+
+import com.dtbbanking.customer_service.repository.CustomerShards;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Sends each query to the shard named in its subscriber context by {@link CustomerShards}.
+ * A query without a shard fails rather than landing on an arbitrary shard; the first shard is the
+ * default target only so that connection metadata (used to pick the SQL dialect) can be read.
+ */
+public class ShardRoutingConnectionFactory extends AbstractRoutingConnectionFactory implements DisposableBean {
+
+    private final Map<String, ConnectionFactory> shards;
+
+    public ShardRoutingConnectionFactory(Map<String, ConnectionFactory> shards) {
+        this.shards = shards;
+        setTargetConnectionFactories(Map.copyOf(shards));
+        setDefaultTargetConnectionFactory(shards.values().iterator().next());
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> CustomerShards.shardKey(context)
+                .<Mono<Object>>map(Mono::just)
+                .orElseGet(() -> Mono.error(new IllegalStateException(
+                        "Customer query without a shard; wrap it in CustomerShards.onShardOf or fanOut"))));
+    }
+
+    @Override
+    public void destroy() {
+        shards.values().forEach(connectionFactory -> {
+            if (connectionFactory instanceof ConnectionPool pool) {
+                pool.dispose();
+            }
+        });
+    }
+}
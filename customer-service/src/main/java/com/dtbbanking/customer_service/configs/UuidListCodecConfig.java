@@ -0,0 +1,23 @@
+package com.dtbbanking.customer_service.configs;
+
+import com.dtbbanking.customer_service.utils.UuidListDecoder;
+import com.dtbbanking.customer_service.utils.UuidListEncoder;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the {@code application/x-uuid-list} codec with the WebFlux server and with the
+ * auto-configured {@code WebClient.Builder}.
+ */
+@Configuration
+public class UuidListCodecConfig {
+
+    @Bean
+    public CodecCustomizer uuidListCodecCustomizer() {
+        return configurer -> {
+            configurer.customCodecs().register(new UuidListEncoder());
+            configurer.customCodecs().register(new UuidListDecoder());
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.dtbbanking.customer_service.configs;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+@Configuration
+public class WebClientConfig {
+
+    @Bean
+    @Qualifier("accountServiceWebClient")
+    public WebClient accountServiceWebClient(WebClient.Builder builder,
+                                             @Value("${account.service.base-url}") String baseUrl) {
+        return builder
+                .baseUrl(baseUrl)
+                .build();
+    }
+}
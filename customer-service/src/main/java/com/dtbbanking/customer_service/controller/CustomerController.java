@@ -1,17 +1,26 @@
 package com.dtbbanking.customer_service.controller;
 
+import com.dtbbanking.customer_service.dto.BatchGetRequestDto;
+import com.dtbbanking.customer_service.dto.BatchGetResponseDto;
 import com.dtbbanking.customer_service.dto.CustomerRequestDto;
 import com.dtbbanking.customer_service.dto.CustomerResponseDto;
 import com.dtbbanking.customer_service.dto.UniversalResponse;
 import com.dtbbanking.customer_service.dto.UpdateCustomerRequestDto;
+import com.dtbbanking.customer_service.mapper.CustomerField;
+import com.dtbbanking.customer_service.service.CustomerJsonListService;
 import com.dtbbanking.customer_service.service.CustomerService;
+import com.dtbbanking.customer_service.utils.SparseFieldset;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
 import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
@@ -37,6 +46,7 @@ import java.util.stream.Collectors;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final CustomerJsonListService customerJsonListService;
     private final Validator validator;  // javax.validation.Validator
 
     /**
@@ -81,48 +91,95 @@ public class CustomerController {
     /**
      * Retrieves a customer by ID.
      *
-     * @param id The UUID of the customer.
+     * @param id     The UUID of the customer.
+     * @param fields Optional comma-separated response fields (e.g. {@code id,fullName}); only their
+     *               columns are read.
      * @return A {@link Mono} emitting a UniversalResponse with the customer data.
      */
     @GetMapping("/{id}")
-    public Mono<ResponseEntity<UniversalResponse<CustomerResponseDto>>> getCustomer(@PathVariable UUID id) {
+    public Mono<ResponseEntity<UniversalResponse<?>>> getCustomer(
+            @PathVariable UUID id,
+            @RequestParam(required = false) String fields) {
         log.info("Received request to fetch customer with ID: {}", id);
+        if (fields != null) {
+            return customerJsonListService.getCustomerById(id, CustomerField.FIELDSETS.parse(fields))
+                    .map(result -> ResponseEntity.ok(UniversalResponse.ok(result)));
+        }
         return customerService.getCustomerById(id)
                 .map(result -> ResponseEntity.ok(UniversalResponse.ok(result)));
     }
 
+    /**
+     * Retrieves several customers by ID in one query, e.g. {@code ?ids=a,b,c}.
+     *
+     * @param ids The customer UUIDs (at most {@value CustomerService#MAX_BATCH_GET_IDS}).
+     * @return A {@link Mono} emitting a UniversalResponse with the customers found, in request order,
+     *         and the IDs not found.
+     */
+    @GetMapping(params = "ids")
+    public Mono<ResponseEntity<UniversalResponse<BatchGetResponseDto<CustomerResponseDto>>>> getCustomersByIds(
+            @RequestParam List<UUID> ids) {
+        log.info("Received request to fetch {} customers by ID", ids.size());
+        return customerService.getCustomersByIds(ids)
+                .map(result -> ResponseEntity.ok(UniversalResponse.ok(result)));
+    }
+
+    /**
+     * Same as {@link #getCustomersByIds(List)}, with the IDs in the body for lists too long for a URL.
+     *
+     * @param request The request holding the customer UUIDs.
+     * @return A {@link Mono} emitting a UniversalResponse with the customers found, in request order,
+     *         and the IDs not found.
+     */
+    @PostMapping("/batch-get")
+    public Mono<ResponseEntity<UniversalResponse<BatchGetResponseDto<CustomerResponseDto>>>> batchGetCustomers(
+            @RequestBody BatchGetRequestDto request) {
+        return getCustomersByIds(request.getIds() == null ? List.of() : request.getIds());
+    }
+
     /**
      * Retrieves customers with optional filtering.
      *
-     * @param name  Optional name filter.
-     * @param start Optional start datetime for creation date filtering.
-     * @param end   Optional end datetime for creation date filtering.
-     * @param page  Page number for pagination (default is 0).
-     * @param size  Page size for pagination (default is 10).
-     * @return A {@link Mono} emitting a UniversalResponse with a list of customers.
+     * The body is written straight from the result rows by {@link CustomerJsonListService}; it is the
+     * same JSON as a UniversalResponse with a list of customers.
+     *
+     * @param name     Optional name filter.
+     * @param start    Optional start datetime for creation date filtering.
+     * @param end      Optional end datetime for creation date filtering.
+     * @param page     Page number for pagination (default is 0).
+     * @param size     Page size for pagination (default is 10).
+     * @param fields   Optional comma-separated response fields; only their columns are read.
+     * @param response The response, whose buffer factory the body is written with.
+     * @return A {@link Mono} emitting the streamed UniversalResponse with a list of customers.
      */
     @GetMapping
-    public Mono<ResponseEntity<UniversalResponse<List<CustomerResponseDto>>>> getCustomers(
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getCustomers(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields,
+            ServerHttpResponse response) {
 
-        Mono<List<CustomerResponseDto>> resultMono;
+        SparseFieldset<CustomerField> fieldset = CustomerField.FIELDSETS.parse(fields);
+        DataBufferFactory bufferFactory = response.bufferFactory();
+        Flux<DataBuffer> body;
 
         if (name != null) {
             log.info("Filtering customers by name='{}', page={}, size={}", name, page, size);
-            resultMono = customerService.getCustomersByFirstName(name, page, size).collectList();
+            body = customerJsonListService.getCustomersByFullName(fieldset, name, page, size, bufferFactory);
         } else if (start != null && end != null) {
             log.info("Filtering customers by creation date between {} and {}", start, end);
-            resultMono = customerService.getCustomersByCreatedDate(start, end, page, size).collectList();
+            body = customerJsonListService.getCustomersByCreatedDate(fieldset, start, end, page, size, bufferFactory);
         } else {
             log.info("No filter applied, returning all customers");
-            resultMono = customerService.getAllCustomers(page, size).collectList();
+            body = customerJsonListService.getAllCustomers(fieldset, page, size, bufferFactory);
         }
 
-        return resultMono.map(list -> ResponseEntity.ok(UniversalResponse.ok(list)));
+        return Mono.just(ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body));
     }
 
     /**
@@ -0,0 +1,50 @@
+package com.dtbbanking.customer_service.controller;
+
+import com.dtbbanking.customer_service.service.CustomerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * RSocket endpoints for internal service-to-service lookups.
+ *
+ * Served on the {@code spring.rsocket.server.port} TCP port; callers keep one multiplexed
+ * connection to it instead of an HTTP connection per in-flight call.
+ */
+@Controller
+@RequiredArgsConstructor
+public class CustomerRSocketController {
+
+    static final int EXISTING_IDS_BATCH = 1000;
+
+    private final CustomerService customerService;
+
+    /**
+     * Request-response: checks whether a customer exists.
+     *
+     * @param customerId The customer ID.
+     * @return A {@link Mono} emitting true if the customer exists.
+     */
+    @MessageMapping("customers.exists")
+    public Mono<Boolean> customerExists(UUID customerId) {
+        return customerService.customerExists(customerId);
+    }
+
+    /**
+     * Request-channel: streams back the IDs that exist out of a stream of customer IDs.
+     * IDs are checked in batches as they arrive, and requested from the caller only as fast as
+     * the results are consumed.
+     *
+     * @param customerIds The customer IDs to check.
+     * @return A {@link Flux} of the IDs that exist.
+     */
+    @MessageMapping("customers.existing")
+    public Flux<UUID> existingCustomerIds(Flux<UUID> customerIds) {
+        return customerIds.buffer(EXISTING_IDS_BATCH)
+                .concatMap(customerService::getExistingCustomerIds);
+    }
+}
@@ -0,0 +1,22 @@
+package com.dtbbanking.customer_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Result of a multi-get: the resources found, in request order, and the requested IDs that
+ * do not exist.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchGetResponseDto<T> {
+    private List<T> found;
+    private List<UUID> missingIds;
+}
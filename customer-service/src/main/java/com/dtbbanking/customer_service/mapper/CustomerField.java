@@ -0,0 +1,62 @@
+package com.dtbbanking.customer_service.mapper;
+
+import com.dtbbanking.customer_service.dto.CustomerResponseDto;
+import com.dtbbanking.customer_service.utils.SparseField;
+import com.dtbbanking.customer_service.utils.SparseFieldsets;
+import io.r2dbc.spi.Row;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The fields of {@link CustomerResponseDto} that can be picked with {@code ?fields=}, and the
+ * {@code tb_customers} columns each one needs.
+ */
+public enum CustomerField implements SparseField {
+
+    ID("id", "id") {
+        @Override
+        public Object read(Row row) {
+            return row.get("id", UUID.class);
+        }
+    },
+    FULL_NAME("fullName", "first_name", "last_name", "other_name") {
+        @Override
+        public Object read(Row row) {
+            return Stream.of(row.get("first_name", String.class), row.get("last_name", String.class),
+                            row.get("other_name", String.class))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.joining(" "));
+        }
+    },
+    CREATED_AT("createdAt", "created_at") {
+        @Override
+        public Object read(Row row) {
+            return row.get("created_at", LocalDateTime.class);
+        }
+    };
+
+    public static final SparseFieldsets<CustomerField> FIELDSETS = new SparseFieldsets<>(CustomerField.class, "tb_customers");
+
+    private final String jsonName;
+    private final List<String> columns;
+
+    CustomerField(String jsonName, String... columns) {
+        this.jsonName = jsonName;
+        this.columns = List.of(columns);
+    }
+
+    @Override
+    public String jsonName() {
+        return jsonName;
+    }
+
+    @Override
+    public List<String> columns() {
+        return columns;
+    }
+}
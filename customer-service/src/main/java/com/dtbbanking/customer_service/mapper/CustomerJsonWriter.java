@@ -0,0 +1,226 @@
+package com.dtbbanking.customer_service.mapper;
+
+import com.dtbbanking.customer_service.dto.CustomerResponseDto;
+import com.dtbbanking.customer_service.dto.UniversalResponse;
+import com.dtbbanking.customer_service.utils.SparseFieldset;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * Writes a {@code UniversalResponse<List<CustomerResponseDto>>} body straight from column values.
+ *
+ * The output is byte-for-byte what Jackson writes for {@link UniversalResponse#ok} of a list built
+ * with {@link CustomerMapper#toResponseDto}, without the entity, the DTO, the name-joining
+ * {@code Stream} or the envelope. UUIDs and full names are formatted into reused char arrays, and
+ * the generator writes into buffers from the response's (pooled) buffer factory, which are handed
+ * out as they fill up. With a {@code ?fields=} selection only the selected fields are written. One
+ * writer serves one response and is not thread-safe.
+ */
+public class CustomerJsonWriter implements AutoCloseable {
+
+    static final int FLUSH_THRESHOLD = 4096;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final DataBufferFactory bufferFactory;
+    private final JsonGenerator generator;
+    private final SparseFieldset<CustomerField> fields;
+    private final char[] uuidChars = new char[36];
+    private char[] nameChars = new char[64];
+    private DataBuffer current;
+
+    /**
+     * Starts a response and writes the envelope up to the opening of the {@code data} array.
+     *
+     * @param jsonFactory   the factory of the application's {@code ObjectMapper}
+     * @param bufferFactory the response's buffer factory
+     */
+    public CustomerJsonWriter(JsonFactory jsonFactory, DataBufferFactory bufferFactory) {
+        this(jsonFactory, bufferFactory, CustomerField.FIELDSETS.all());
+    }
+
+    /**
+     * Starts a response writing only the given fields.
+     *
+     * @param jsonFactory   the factory of the application's {@code ObjectMapper}
+     * @param bufferFactory the response's buffer factory
+     * @param fields        the fields to write for each customer
+     */
+    public CustomerJsonWriter(JsonFactory jsonFactory, DataBufferFactory bufferFactory, SparseFieldset<CustomerField> fields) {
+        this.bufferFactory = bufferFactory;
+        this.fields = fields;
+        this.current = bufferFactory.allocateBuffer(FLUSH_THRESHOLD);
+        try {
+            generator = jsonFactory.createGenerator(new CurrentBufferOutput(), JsonEncoding.UTF8);
+            generator.writeStartObject();
+            generator.writeNumberField("status", 200);
+            generator.writeStringField("message", "Success");
+            generator.writeArrayFieldStart("data");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes one customer as a {@link CustomerResponseDto} object. Values of fields that are not
+     * selected are ignored and may be null.
+     *
+     * @return true if a full buffer is ready to be taken with {@link #take()}
+     */
+    public boolean writeCustomer(UUID id, String firstName, String lastName, String otherName, LocalDateTime createdAt) {
+        try {
+            generator.writeStartObject();
+            if (fields.includes(CustomerField.ID)) {
+                generator.writeFieldName("id");
+                if (id == null) {
+                    generator.writeNull();
+                } else {
+                    writeUuid(id);
+                }
+            }
+            if (fields.includes(CustomerField.FULL_NAME)) {
+                generator.writeFieldName("fullName");
+                writeFullName(firstName, lastName, otherName);
+            }
+            if (fields.includes(CustomerField.CREATED_AT)) {
+                generator.writeFieldName("createdAt");
+                if (createdAt == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(createdAt));
+                }
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return current.readableByteCount() >= FLUSH_THRESHOLD;
+    }
+
+    /**
+     * @return the bytes written so far; the caller owns the buffer
+     */
+    public DataBuffer take() {
+        DataBuffer full = current;
+        current = bufferFactory.allocateBuffer(FLUSH_THRESHOLD);
+        return full;
+    }
+
+    /**
+     * Closes the {@code data} array and the envelope.
+     *
+     * @return the remaining bytes; the caller owns the buffer
+     */
+    public DataBuffer finish() {
+        try {
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        DataBuffer last = current;
+        current = null;
+        return last;
+    }
+
+    /**
+     * Releases the buffer being written if the response did not finish.
+     */
+    @Override
+    public void close() {
+        if (current != null) {
+            DataBufferUtils.release(current);
+            current = null;
+            try {
+                generator.close();
+            } catch (IOException ignored) {
+                // nothing left to write to
+            }
+        }
+    }
+
+    /**
+     * Same value as {@code UUID.toString()}, without allocating.
+     */
+    private void writeUuid(UUID id) throws IOException {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        hex(msb >>> 32, 8, 0);
+        uuidChars[8] = '-';
+        hex(msb >>> 16, 4, 9);
+        uuidChars[13] = '-';
+        hex(msb, 4, 14);
+        uuidChars[18] = '-';
+        hex(lsb >>> 48, 4, 19);
+        uuidChars[23] = '-';
+        hex(lsb, 12, 24);
+        generator.writeString(uuidChars, 0, uuidChars.length);
+    }
+
+    private void hex(long value, int digits, int offset) {
+        for (int i = digits - 1; i >= 0; i--) {
+            uuidChars[offset + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * Same value as {@link CustomerMapper#toResponseDto}: the non-null names joined by a space.
+     */
+    private void writeFullName(String firstName, String lastName, String otherName) throws IOException {
+        int length = 0;
+        length = appendName(firstName, length);
+        length = appendName(lastName, length);
+        length = appendName(otherName, length);
+        generator.writeString(nameChars, 0, length);
+    }
+
+    private int appendName(String name, int length) {
+        if (name == null) {
+            return length;
+        }
+        int needed = length + (length > 0 ? 1 : 0) + name.length();
+        if (needed > nameChars.length) {
+            char[] larger = new char[Math.max(needed, 2 * nameChars.length)];
+            System.arraycopy(nameChars, 0, larger, 0, length);
+            nameChars = larger;
+        }
+        if (length > 0) {
+            nameChars[length++] = ' ';
+        }
+        name.getChars(0, name.length(), nameChars, length);
+        return length + name.length();
+    }
+
+    /**
+     * Forwards the generator's output to whichever buffer is current.
+     */
+    private final class CurrentBufferOutput extends OutputStream {
+
+        @Override
+        public void write(int b) {
+            if (current != null) {
+                current.write((byte) b);
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            if (current != null) {
+                current.write(bytes, offset, length);
+            }
+        }
+    }
+}
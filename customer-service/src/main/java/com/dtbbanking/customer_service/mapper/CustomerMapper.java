@@ -3,6 +3,7 @@ package com.dtbbanking.customer_service.mapper;
 import com.dtbbanking.customer_service.dto.CustomerRequestDto;
 import com.dtbbanking.customer_service.dto.CustomerResponseDto;
 import com.dtbbanking.customer_service.models.Customer;
+import io.r2dbc.spi.Row;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
@@ -54,4 +55,21 @@ public class CustomerMapper {
                 .createdAt(entity.getCreatedAt())
                 .build();
     }
+
+    /**
+     * Reads a {@link Customer} entity from a full {@code tb_customers} row.
+     *
+     * @param row The result row.
+     * @return A {@link Customer} entity with the row's values.
+     */
+    public static Customer toEntity(Row row) {
+        return Customer.builder()
+                .id(row.get("id", UUID.class))
+                .firstName(row.get("first_name", String.class))
+                .lastName(row.get("last_name", String.class))
+                .otherName(row.get("other_name", String.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .updatedAt(row.get("updated_at", LocalDateTime.class))
+                .build();
+    }
 }
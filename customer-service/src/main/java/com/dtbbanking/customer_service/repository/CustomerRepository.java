@@ -10,6 +10,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.UUID;
 
 /**
@@ -34,12 +35,33 @@ public interface CustomerRepository extends R2dbcRepository<Customer, UUID> {
      * Searches for customers by their full name (first, other, and last names combined).
      *
      * This method performs a case-insensitive match using PostgreSQL's `ILIKE` and COALESCE for null handling.
+     * String queries do not apply a {@link Pageable} themselves, hence the explicit LIMIT and OFFSET.
      *
      * @param name     The name fragment to search for.
      * @param pageable The pagination information.
      * @return A {@link Flux} of customers whose full name matches the given input.
      */
     @Query("SELECT * FROM tb_customers WHERE " +
-            " (COALESCE(first_name, '') || ' ' || COALESCE(other_name, '') || ' ' || COALESCE(last_name, '')) ILIKE '%' || :name || '%'")
+            " (COALESCE(first_name, '') || ' ' || COALESCE(other_name, '') || ' ' || COALESCE(last_name, '')) ILIKE '%' || :name || '%'" +
+            " LIMIT :#{[1].pageSize} OFFSET :#{[1].offset}")
     Flux<Customer> searchByFullName(@Param("name") String name, Pageable pageable);
+
+    /**
+     * Returns which of the given customer IDs exist.
+     *
+     * @param ids The customer IDs to check.
+     * @return A {@link Flux} of the IDs that exist.
+     */
+    @Query("SELECT id FROM tb_customers WHERE id IN (:ids)")
+    Flux<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Loads the customers with the given IDs in one query, binding the IDs as a single array
+     * parameter rather than one parameter per ID.
+     *
+     * @param ids The customer IDs to load.
+     * @return A {@link Flux} of the customers that exist, in no particular order.
+     */
+    @Query("SELECT * FROM tb_customers WHERE id = ANY(:ids)")
+    Flux<Customer> findAllByIdArray(@Param("ids") UUID[] ids);
 }
@@ -0,0 +1,132 @@
+package com.dtbbanking.customer_service.repository;
+
+import com.dtbbanking.customer_service.configs.CustomerShardingProperties;
+import com.dtbbanking.customer_service.utils.ShardRing;
+import org.reactivestreams.Publisher;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * The sharding layer under {@link CustomerRepository} ({@code customer.sharding.*}).
+ * <p>
+ * A customer lives on the shard its id hashes to ({@link ShardRing}). Queries for one customer
+ * are sent to that shard by naming it in the subscriber context, which the shard routing
+ * connection factory reads; queries over many ids are split per shard; queries with no id fan
+ * out to every shard in parallel and their sorted results are k-way merged.
+ * </p>
+ * <p>
+ * With sharding off every method passes the query through unchanged.
+ * </p>
+ */
+@Component
+public class CustomerShards {
+
+    public static final String UNSHARDED = "unsharded";
+
+    private static final String SHARD_KEY = CustomerShards.class.getName() + ".SHARD";
+
+    private final ShardRing ring;
+
+    public CustomerShards(CustomerShardingProperties properties) {
+        this.ring = properties.isEnabled()
+                ? new ShardRing(properties.shardNames(), properties.getVirtualNodes())
+                : null;
+    }
+
+    public boolean isEnabled() {
+        return ring != null;
+    }
+
+    public List<String> shards() {
+        return ring != null ? ring.shards() : List.of(UNSHARDED);
+    }
+
+    public String shardOf(UUID id) {
+        return ring != null ? ring.shardFor(id) : UNSHARDED;
+    }
+
+    /**
+     * @return The shard named in the subscriber context, if any.
+     */
+    public static Optional<String> shardKey(ContextView context) {
+        return context.getOrEmpty(SHARD_KEY);
+    }
+
+    public <T> Mono<T> onShardOf(UUID id, Mono<T> query) {
+        return onShard(shardOf(id), query);
+    }
+
+    public <T> Flux<T> onShardOf(UUID id, Flux<T> query) {
+        return onShard(shardOf(id), query);
+    }
+
+    public <T> Mono<T> onShard(String shard, Mono<T> query) {
+        return UNSHARDED.equals(shard) ? query : query.contextWrite(context -> context.put(SHARD_KEY, shard));
+    }
+
+    public <T> Flux<T> onShard(String shard, Flux<T> query) {
+        return UNSHARDED.equals(shard) ? query : query.contextWrite(context -> context.put(SHARD_KEY, shard));
+    }
+
+    /**
+     * Splits items by the shard of their id, keeping their order within each shard.
+     */
+    public <T> Map<String, List<T>> groupByShard(Collection<T> items, Function<T, UUID> id) {
+        if (ring == null) {
+            return Map.of(UNSHARDED, List.copyOf(items));
+        }
+        Map<String, List<T>> groups = new LinkedHashMap<>();
+        for (T item : items) {
+            groups.computeIfAbsent(ring.shardFor(id.apply(item)), shard -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    /**
+     * Runs a query over many ids once per shard, with that shard's ids, in parallel.
+     *
+     * @param ids   The ids.
+     * @param query The query for a list of ids on one shard.
+     * @return The results of every shard, in no particular order.
+     */
+    public <T> Flux<T> byShard(Collection<UUID> ids, Function<List<UUID>, Flux<T>> query) {
+        return Flux.fromIterable(groupByShard(ids, Function.identity()).entrySet())
+                .flatMap(group -> onShard(group.getKey(), query.apply(group.getValue())));
+    }
+
+    /**
+     * Runs a query on every shard in parallel and k-way merges the results into one page.
+     * Each shard is asked for the first {@code (page + 1) * size} rows only (limit pushdown); the
+     * merge stops reading as soon as the page is full.
+     *
+     * @param query The query for one shard, given its row limit; rows must come sorted by {@code order}.
+     * @param order The sort order of the rows.
+     * @param page  The page number (zero-based).
+     * @param size  The page size.
+     * @return The rows of the page, in order.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Flux<T> fanOut(IntFunction<Flux<T>> query, Comparator<? super T> order, int page, int size) {
+        long offset = (long) page * size;
+        int limit = (int) Math.min(offset + size, Integer.MAX_VALUE);
+        Publisher<T>[] perShard = shards().stream()
+                .map(shard -> onShard(shard, query.apply(limit)))
+                .toArray(Publisher[]::new);
+        return Flux.mergeComparing(order, perShard)
+                .skip(offset)
+                .take(size);
+    }
+}
@@ -0,0 +1,86 @@
+package com.dtbbanking.customer_service.repository;
+
+import com.dtbbanking.customer_service.mapper.CustomerMapper;
+import com.dtbbanking.customer_service.models.Customer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The {@link CustomerRepository} queries that need more than a shard key when
+ * {@code customer.sharding.enabled} is set: inserts, whose id must be chosen before the shard is
+ * known, and the list queries, which fan out to every shard (see {@link CustomerShards#fanOut}).
+ * <p>
+ * Lists are ordered by {@code created_at, id} so the shards' rows can be merged into one page;
+ * the unsharded queries do not guarantee an order.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class ShardedCustomerQueries {
+
+    // Postgres order of the ORDER BY below: NULLS FIRST, uuid compared as unsigned bytes
+    static final Comparator<Customer> ORDER = Comparator
+            .comparing(Customer::getCreatedAt, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(Customer::getId, ShardedCustomerQueries::compareUuids);
+
+    private static final String ORDER_AND_LIMIT = " ORDER BY created_at NULLS FIRST, id LIMIT :limit";
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+    private final CustomerShards customerShards;
+
+    /**
+     * Inserts a customer on its shard, giving it an id first if it has none.
+     *
+     * @param customer The customer to insert.
+     * @return A {@link Mono} emitting the inserted customer.
+     */
+    public Mono<Customer> insert(Customer customer) {
+        if (customer.getId() == null) {
+            customer.setId(UUID.randomUUID());
+        }
+        return customerShards.onShardOf(customer.getId(), r2dbcEntityTemplate.insert(customer));
+    }
+
+    public Flux<Customer> findAll(int page, int size) {
+        return fanOut("", Map.of(), page, size);
+    }
+
+    public Flux<Customer> searchByFullName(String name, int page, int size) {
+        return fanOut("WHERE (COALESCE(first_name, '') || ' ' || COALESCE(other_name, '') || ' ' || COALESCE(last_name, '')) "
+                + "ILIKE '%' || :name || '%'", Map.of("name", name), page, size);
+    }
+
+    public Flux<Customer> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end, int page, int size) {
+        Map<String, Object> bindings = new LinkedHashMap<>();
+        bindings.put("start", start);
+        bindings.put("end", end);
+        return fanOut("WHERE created_at BETWEEN :start AND :end", bindings, page, size);
+    }
+
+    private Flux<Customer> fanOut(String where, Map<String, Object> bindings, int page, int size) {
+        String sql = "SELECT * FROM tb_customers " + where + ORDER_AND_LIMIT;
+        return customerShards.fanOut(limit -> {
+            DatabaseClient.GenericExecuteSpec query = databaseClient.sql(sql).bind("limit", limit);
+            for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+                query = query.bind(binding.getKey(), binding.getValue());
+            }
+            return query.map((row, metadata) -> CustomerMapper.toEntity(row)).all();
+        }, ORDER, page, size);
+    }
+
+    static int compareUuids(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
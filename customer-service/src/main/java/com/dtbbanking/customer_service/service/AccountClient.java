@@ -0,0 +1,33 @@
+package com.dtbbanking.customer_service.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Calls to the internal account-service endpoints.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountClient {
+
+    private final WebClient accountServiceWebClient;
+
+    /**
+     * Deletes every account of a customer. tb_accounts has no foreign key to tb_customers, which
+     * may be sharded across other databases, so this replaces the database cascade.
+     *
+     * @param customerId the customer id
+     * @return Mono completing once account-service has deleted the accounts
+     */
+    public Mono<Void> deleteAccountsOfCustomer(UUID customerId) {
+        return accountServiceWebClient.delete()
+                .uri("/internal/customers/{customerId}", customerId)
+                .retrieve()
+                .toBodilessEntity()
+                .then();
+    }
+}
@@ -0,0 +1,247 @@
+package com.dtbbanking.customer_service.service;
+
+import com.dtbbanking.customer_service.mapper.CustomerMapper;
+import com.dtbbanking.customer_service.models.Customer;
+import com.dtbbanking.customer_service.repository.CustomerShards;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Group commit for customer creation (opt-in, {@code customer.create-coalescing.*}).
+ * <p>
+ * Creates that arrive within {@code max-wait} of each other, up to {@code max-batch-size}, are
+ * written by one multi-row {@code INSERT ... RETURNING} (a single statement, so a single
+ * transaction and commit) instead of one round trip and commit each. Each caller's {@code Mono}
+ * completes with its own row, matched by an id assigned before the insert. If the batch insert
+ * fails, its rows are retried one by one so that a bad row only fails its own caller. With
+ * {@code customer.sharding.enabled}, a batch is split into one insert per shard.
+ * </p>
+ * <p>
+ * Batches are cut with fair backpressure, so a burst while every flush slot is busy waits in the
+ * queue instead of overflowing it. Should the batching pipeline still terminate with an error, the
+ * creates it held fail and a new pipeline takes over.
+ * </p>
+ * <p>
+ * A caller that cancels after its create was queued does not withdraw it; the row is still written.
+ * </p>
+ */
+@Slf4j
+@Component
+public class CustomerCreateCoalescer {
+
+    // Constant text, so the statement is prepared once whatever the batch size
+    private static final String INSERT_SQL = """
+            INSERT INTO tb_customers (id, first_name, last_name, other_name, created_at, updated_at)
+            SELECT n.id, n.first_name, n.last_name, n.other_name, n.created_at::timestamp, n.updated_at::timestamp
+            FROM unnest($1::uuid[], $2::varchar[], $3::varchar[], $4::varchar[], $5::varchar[], $6::varchar[])
+                AS n(id, first_name, last_name, other_name, created_at, updated_at)
+            RETURNING id, first_name, last_name, other_name, created_at, updated_at
+            """;
+
+    private static final Duration EMIT_RETRY = Duration.ofSeconds(1);
+
+    private final DatabaseClient databaseClient;
+    private final CustomerShards customerShards;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final Duration maxWait;
+    private final int concurrency;
+    private volatile Pipeline pipeline;
+
+    private final DistributionSummary batchSize;
+    private final Timer addedWait;
+
+    public CustomerCreateCoalescer(DatabaseClient databaseClient,
+                                   CustomerShards customerShards,
+                                   ObjectProvider<MeterRegistry> meterRegistry,
+                                   @Value("${customer.create-coalescing.enabled:false}") boolean enabled,
+                                   @Value("${customer.create-coalescing.max-batch-size:100}") int maxBatchSize,
+                                   @Value("${customer.create-coalescing.max-wait:PT0.005S}") Duration maxWait,
+                                   @Value("${customer.create-coalescing.concurrency:2}") int concurrency) {
+        this.databaseClient = databaseClient;
+        this.customerShards = customerShards;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWait = maxWait;
+        this.concurrency = concurrency;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.batchSize = DistributionSummary.builder("customer.create.batch.size")
+                .description("Customer creates written per multi-row insert")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.addedWait = Timer.builder("customer.create.batch.wait")
+                .description("Time a customer create waited for its batch to be flushed")
+                .publishPercentileHistogram()
+                .register(registry);
+
+        if (enabled) {
+            start();
+        }
+    }
+
+    private void start() {
+        Pipeline started = new Pipeline(Sinks.many().unicast().onBackpressureBuffer(), ConcurrentHashMap.newKeySet());
+        pipeline = started;
+        started.queue().asFlux()
+                .bufferTimeout(maxBatchSize, maxWait, true)
+                .flatMap(batch -> Mono.defer(() -> flush(batch))
+                        .onErrorResume(e -> {
+                            log.error("Flush of {} customer creates failed", batch.size(), e);
+                            batch.forEach(create -> create.result().tryEmitError(e));
+                            return Mono.empty();
+                        }), concurrency)
+                .subscribe(null, e -> restart(started, e));
+    }
+
+    private void restart(Pipeline failed, Throwable error) {
+        log.error("Customer create batching failed, restarting it", error);
+        start();
+        failed.outstanding().forEach(create -> create.result().tryEmitError(error));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a customer for the next batch insert. The customer is given an id if it has none.
+     *
+     * @param customer The customer to insert.
+     * @return A {@link Mono} emitting the inserted row.
+     */
+    public Mono<Customer> create(Customer customer) {
+        return Mono.defer(() -> {
+            if (customer.getId() == null) {
+                customer.setId(UUID.randomUUID());
+            }
+            Pipeline current = pipeline;
+            PendingCreate create = new PendingCreate(customer, Sinks.one(), System.nanoTime());
+            current.outstanding().add(create);
+            current.queue().emitNext(create, Sinks.EmitFailureHandler.busyLooping(EMIT_RETRY));
+            return create.result().asMono()
+                    .doFinally(signal -> current.outstanding().remove(create));
+        });
+    }
+
+    private Mono<Void> flush(List<PendingCreate> batch) {
+        long flushedAt = System.nanoTime();
+        batchSize.record(batch.size());
+        batch.forEach(create -> addedWait.record(flushedAt - create.queuedAt(), TimeUnit.NANOSECONDS));
+
+        return Flux.fromIterable(customerShards.groupByShard(batch, create -> create.customer().getId()).entrySet())
+                .flatMap(group -> customerShards.onShard(group.getKey(), flushShard(group.getValue())))
+                .then();
+    }
+
+    private Mono<Void> flushShard(List<PendingCreate> batch) {
+        return insert(batch)
+                .doOnNext(inserted -> complete(batch, inserted))
+                .then()
+                .onErrorResume(e -> {
+                    if (batch.size() == 1) {
+                        batch.get(0).result().tryEmitError(e);
+                        return Mono.empty();
+                    }
+                    log.warn("Batch insert of {} customers failed, inserting them one by one: {}", batch.size(), e.getMessage());
+                    return Flux.fromIterable(batch)
+                            .concatMap(this::insertAlone)
+                            .then();
+                });
+    }
+
+    private Mono<Void> insertAlone(PendingCreate create) {
+        return insert(List.of(create))
+                .doOnNext(inserted -> complete(List.of(create), inserted))
+                .onErrorResume(e -> {
+                    create.result().tryEmitError(e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<Map<UUID, Customer>> insert(List<PendingCreate> batch) {
+        int size = batch.size();
+        UUID[] ids = new UUID[size];
+        String[] firstNames = new String[size];
+        String[] lastNames = new String[size];
+        String[] otherNames = new String[size];
+        String[] createdAt = new String[size];
+        String[] updatedAt = new String[size];
+        for (int i = 0; i < size; i++) {
+            Customer customer = batch.get(i).customer();
+            ids[i] = customer.getId();
+            firstNames[i] = customer.getFirstName();
+            lastNames[i] = customer.getLastName();
+            otherNames[i] = customer.getOtherName();
+            createdAt[i] = timestamp(customer.getCreatedAt());
+            updatedAt[i] = timestamp(customer.getUpdatedAt());
+        }
+        return databaseClient.sql(INSERT_SQL)
+                .bind(0, ids)
+                .bind(1, firstNames)
+                .bind(2, lastNames)
+                .bind(3, otherNames)
+                .bind(4, createdAt)
+                .bind(5, updatedAt)
+                .map((row, metadata) -> CustomerMapper.toEntity(row))
+                .all()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+    }
+
+    private static void complete(List<PendingCreate> batch, Map<UUID, Customer> inserted) {
+        for (PendingCreate create : batch) {
+            Customer customer = inserted.get(create.customer().getId());
+            if (customer != null) {
+                create.result().tryEmitValue(customer);
+            } else {
+                create.result().tryEmitError(new IllegalStateException("Customer missing from batch insert result"));
+            }
+        }
+    }
+
+    private static String timestamp(LocalDateTime value) {
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Flushes the creates still queued, then stops batching.
+     */
+    @PreDestroy
+    public void stop() {
+        if (pipeline != null) {
+            pipeline.queue().tryEmitComplete();
+        }
+    }
+
+    /**
+     * A batching pipeline and the creates queued to it that have not completed yet.
+     */
+    private record Pipeline(Sinks.Many<PendingCreate> queue, Set<PendingCreate> outstanding) {
+    }
+
+    private record PendingCreate(Customer customer, Sinks.One<Customer> result, long queuedAt) {
+    }
+}
@@ -0,0 +1,154 @@
+package com.dtbbanking.customer_service.service;
+
+import com.dtbbanking.customer_service.errors.GlobalException;
+import com.dtbbanking.customer_service.mapper.CustomerField;
+import com.dtbbanking.customer_service.mapper.CustomerJsonWriter;
+import com.dtbbanking.customer_service.models.Customer;
+import com.dtbbanking.customer_service.repository.CustomerShards;
+import com.dtbbanking.customer_service.repository.ShardedCustomerQueries;
+import com.dtbbanking.customer_service.utils.ReadRouting;
+import com.dtbbanking.customer_service.utils.SparseFieldset;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.r2dbc.spi.Row;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Read-only customer queries that select only the columns of the requested fields.
+ *
+ * The list queries run the same queries as the {@link CustomerService} list methods and hand each
+ * row's values to a {@link CustomerJsonWriter} instead of mapping it to an entity and a DTO. With all
+ * fields the body is identical to the mapped path. It streams, so an error after the first buffer
+ * has been sent ends the response early instead of producing an error body.
+ *
+ * With {@code customer.sharding.enabled} the lists come from {@link ShardedCustomerQueries}, which
+ * reads whole rows from every shard; only the requested fields are still written.
+ */
+@Service
+public class CustomerJsonListService {
+
+    private final DatabaseClient databaseClient;
+    private final CustomerShards customerShards;
+    private final ShardedCustomerQueries shardedCustomerQueries;
+    private final JsonFactory jsonFactory;
+
+    public CustomerJsonListService(DatabaseClient databaseClient, CustomerShards customerShards,
+                                   ShardedCustomerQueries shardedCustomerQueries, ObjectMapper objectMapper) {
+        if (objectMapper.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            throw new IllegalStateException("CustomerJsonWriter writes dates as ISO strings; "
+                    + "spring.jackson.serialization.write-dates-as-timestamps must stay false");
+        }
+        this.databaseClient = databaseClient;
+        this.customerShards = customerShards;
+        this.shardedCustomerQueries = shardedCustomerQueries;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Retrieves the given fields of a customer.
+     *
+     * @param id     The UUID of the customer.
+     * @param fields The fields to read.
+     * @return A {@link Mono} emitting the customer as a JSON object of the given fields.
+     */
+    public Mono<Map<String, Object>> getCustomerById(UUID id, SparseFieldset<CustomerField> fields) {
+        return customerShards.onShardOf(id, databaseClient.sql(fields.select() + " WHERE id = :id")
+                        .bind("id", id)
+                        .map((row, metadata) -> fields.read(row))
+                        .one())
+                .switchIfEmpty(Mono.error(new GlobalException("Customer not found")));
+    }
+
+    /**
+     * Same rows as {@link CustomerService#getAllCustomers(int, int)}.
+     */
+    public Flux<DataBuffer> getAllCustomers(SparseFieldset<CustomerField> fields, int page, int size,
+                                            DataBufferFactory bufferFactory) {
+        if (customerShards.isEnabled()) {
+            return streamEntities(fields, shardedCustomerQueries.findAll(page, size), bufferFactory);
+        }
+        return stream(fields, databaseClient.sql(fields.select() + " LIMIT :limit OFFSET :offset")
+                .bind("limit", size)
+                .bind("offset", (long) page * size), bufferFactory);
+    }
+
+    /**
+     * Same rows as {@link CustomerService#getCustomersByFirstName(String, int, int)}.
+     */
+    public Flux<DataBuffer> getCustomersByFullName(SparseFieldset<CustomerField> fields, String name, int page, int size,
+                                                   DataBufferFactory bufferFactory) {
+        if (customerShards.isEnabled()) {
+            return streamEntities(fields, shardedCustomerQueries.searchByFullName(name, page, size), bufferFactory);
+        }
+        return stream(fields, databaseClient.sql(fields.select() + " WHERE (COALESCE(first_name, '') || ' ' || COALESCE(other_name, '') "
+                        + "|| ' ' || COALESCE(last_name, '')) ILIKE '%' || :name || '%' LIMIT :limit OFFSET :offset")
+                .bind("name", name)
+                .bind("limit", size)
+                .bind("offset", (long) page * size), bufferFactory);
+    }
+
+    /**
+     * Same rows as {@link CustomerService#getCustomersByCreatedDate(LocalDateTime, LocalDateTime, int, int)},
+     * and likewise may be served by a read replica.
+     */
+    public Flux<DataBuffer> getCustomersByCreatedDate(SparseFieldset<CustomerField> fields, LocalDateTime start,
+                                                      LocalDateTime end, int page, int size,
+                                                      DataBufferFactory bufferFactory) {
+        if (customerShards.isEnabled()) {
+            return ReadRouting.readOnly(streamEntities(fields,
+                    shardedCustomerQueries.findByCreatedAtBetween(start, end, page, size), bufferFactory));
+        }
+        return ReadRouting.readOnly(stream(fields,
+                databaseClient.sql(fields.select() + " WHERE created_at BETWEEN :start AND :end LIMIT :limit OFFSET :offset")
+                        .bind("start", start)
+                        .bind("end", end)
+                        .bind("limit", size)
+                        .bind("offset", (long) page * size),
+                bufferFactory));
+    }
+
+    private Flux<DataBuffer> stream(SparseFieldset<CustomerField> fields, DatabaseClient.GenericExecuteSpec query,
+                                    DataBufferFactory bufferFactory) {
+        return write(fields, writer -> query.map((row, metadata) -> write(writer, fields, row)).all(), bufferFactory);
+    }
+
+    private Flux<DataBuffer> streamEntities(SparseFieldset<CustomerField> fields, Flux<Customer> customers,
+                                            DataBufferFactory bufferFactory) {
+        // the writer skips the values of fields that are not selected
+        return write(fields, writer -> customers.map(customer -> writer.writeCustomer(customer.getId(),
+                customer.getFirstName(), customer.getLastName(), customer.getOtherName(), customer.getCreatedAt())),
+                bufferFactory);
+    }
+
+    private Flux<DataBuffer> write(SparseFieldset<CustomerField> fields, Function<CustomerJsonWriter, Flux<Boolean>> rows,
+                                   DataBufferFactory bufferFactory) {
+        return Flux.using(
+                () -> new CustomerJsonWriter(jsonFactory, bufferFactory, fields),
+                writer -> rows.apply(writer)
+                        .filter(Boolean::booleanValue)
+                        .map(full -> writer.take())
+                        .concatWith(Mono.fromSupplier(writer::finish)),
+                CustomerJsonWriter::close);
+    }
+
+    private static Boolean write(CustomerJsonWriter writer, SparseFieldset<CustomerField> fields, Row row) {
+        boolean name = fields.includes(CustomerField.FULL_NAME);
+        return writer.writeCustomer(
+                fields.includes(CustomerField.ID) ? row.get("id", UUID.class) : null,
+                name ? row.get("first_name", String.class) : null,
+                name ? row.get("last_name", String.class) : null,
+                name ? row.get("other_name", String.class) : null,
+                fields.includes(CustomerField.CREATED_AT) ? row.get("created_at", LocalDateTime.class) : null);
+    }
+}
@@ -0,0 +1,245 @@
+package com.dtbbanking.customer_service.service;
+
+import com.dtbbanking.customer_service.mapper.CustomerMapper;
+import com.dtbbanking.customer_service.models.Customer;
+import com.dtbbanking.customer_service.utils.ShardRing;
+import io.r2dbc.spi.ConnectionFactories;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Online resharding of {@code tb_customers}: moves customers from the shard layout {@code from}
+ * to the layout {@code to} (see {@code customer.sharding.shards}) while the service keeps serving
+ * from {@code from}.
+ * <ol>
+ *     <li>{@code copy}: walks every {@code from} shard in id order, {@code batch-size} rows at a
+ *     time, and upserts each row whose shard differs under {@code to} into its new shard.</li>
+ *     <li>{@code copy --since=<start of the previous copy>}: copies the rows created or updated
+ *     while the previous pass ran; repeat until a pass is short.</li>
+ *     <li>Switch the service to {@code to} and run one last {@code copy --since}.</li>
+ *     <li>{@code cleanup}: deletes from every shard the rows that no longer belong there.</li>
+ * </ol>
+ * <p>
+ * A customer deleted between its copy and the switch comes back on its new shard; run the
+ * switch in a quiet window, or delete such customers again afterwards.
+ * </p>
+ * <p>
+ * Run from the service jar:
+ * {@code java -cp customer-service.jar -Dloader.main=com.dtbbanking.customer_service.service.CustomerResharder
+ * org.springframework.boot.loader.launch.PropertiesLauncher --from=shard-0=r2dbc:postgresql://user:pw@host/db
+ * --to=shard-0=...,shard-1=... --phase=copy}
+ * </p>
+ */
+@Slf4j
+public class CustomerResharder {
+
+    private static final String PAGE_SQL = """
+            SELECT * FROM tb_customers
+            WHERE id > :after AND (CAST(:since AS timestamp) IS NULL OR COALESCE(updated_at, created_at) >= CAST(:since AS timestamp))
+            ORDER BY id LIMIT :limit
+            """;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO tb_customers (id, first_name, last_name, other_name, created_at, updated_at)
+            SELECT n.id, n.first_name, n.last_name, n.other_name, n.created_at::timestamp, n.updated_at::timestamp
+            FROM unnest($1::uuid[], $2::varchar[], $3::varchar[], $4::varchar[], $5::varchar[], $6::varchar[])
+                AS n(id, first_name, last_name, other_name, created_at, updated_at)
+            ON CONFLICT (id) DO UPDATE SET first_name = EXCLUDED.first_name, last_name = EXCLUDED.last_name,
+                other_name = EXCLUDED.other_name, created_at = EXCLUDED.created_at, updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String DELETE_SQL = "DELETE FROM tb_customers WHERE id = ANY($1::uuid[])";
+
+    // Smallest uuid, the start of every id walk
+    private static final UUID FIRST = new UUID(0, 0);
+
+    private final ShardRing from;
+    private final ShardRing to;
+    private final Map<String, DatabaseClient> databases;
+    private final int batchSize;
+
+    /**
+     * @param from      The current shard layout.
+     * @param to        The new shard layout.
+     * @param databases A client for every shard of either layout, by name.
+     * @param batchSize Rows read per query.
+     */
+    public CustomerResharder(ShardRing from, ShardRing to, Map<String, DatabaseClient> databases, int batchSize) {
+        this.from = from;
+        this.to = to;
+        this.databases = databases;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Copies the customers whose shard changes to their new shard, one {@code from} shard at a time.
+     *
+     * @param since Only copy customers created or updated at or after this time, or all if null.
+     * @return A {@link Mono} emitting the number of customers copied.
+     */
+    public Mono<Long> copy(LocalDateTime since) {
+        return Flux.fromIterable(from.shards())
+                .concatMap(shard -> walk(shard, since)
+                        .concatMap(batch -> copyBatch(shard, batch)))
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Deletes from every {@code to} shard the customers that belong to another shard of {@code to}.
+     *
+     * @return A {@link Mono} emitting the number of customers deleted.
+     */
+    public Mono<Long> cleanup() {
+        return Flux.fromIterable(to.shards())
+                .concatMap(shard -> walk(shard, null)
+                        .concatMap(batch -> {
+                            List<UUID> misplaced = batch.stream()
+                                    .map(Customer::getId)
+                                    .filter(id -> !to.shardFor(id).equals(shard))
+                                    .toList();
+                            if (misplaced.isEmpty()) {
+                                return Mono.just(0L);
+                            }
+                            return databases.get(shard).sql(DELETE_SQL)
+                                    .bind(0, misplaced.toArray(UUID[]::new))
+                                    .fetch()
+                                    .rowsUpdated();
+                        }))
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Reads a shard in id order, one batch at a time, by keyset so each query starts where the
+     * last ended.
+     */
+    private Flux<List<Customer>> walk(String shard, LocalDateTime since) {
+        DatabaseClient database = databases.get(shard);
+        return page(database, FIRST, since)
+                .expand(batch -> batch.size() < batchSize
+                        ? Mono.empty()
+                        : page(database, batch.get(batch.size() - 1).getId(), since))
+                .filter(batch -> !batch.isEmpty());
+    }
+
+    private Mono<List<Customer>> page(DatabaseClient database, UUID after, LocalDateTime since) {
+        DatabaseClient.GenericExecuteSpec query = database.sql(PAGE_SQL)
+                .bind("after", after)
+                .bind("limit", batchSize);
+        query = since != null ? query.bind("since", since) : query.bindNull("since", LocalDateTime.class);
+        return query.map((row, metadata) -> CustomerMapper.toEntity(row))
+                .all()
+                .collectList();
+    }
+
+    private Mono<Long> copyBatch(String shard, List<Customer> batch) {
+        Map<String, List<Customer>> moving = new LinkedHashMap<>();
+        for (Customer customer : batch) {
+            String target = to.shardFor(customer.getId());
+            if (!target.equals(shard)) {
+                moving.computeIfAbsent(target, name -> new ArrayList<>()).add(customer);
+            }
+        }
+        return Flux.fromIterable(moving.entrySet())
+                .concatMap(group -> upsert(databases.get(group.getKey()), group.getValue()))
+                .reduce(0L, Long::sum)
+                .doOnNext(copied -> log.info("Copied {} of {} customers read from {} (up to id {})",
+                        copied, batch.size(), shard, batch.get(batch.size() - 1).getId()));
+    }
+
+    private static Mono<Long> upsert(DatabaseClient database, List<Customer> customers) {
+        int size = customers.size();
+        UUID[] ids = new UUID[size];
+        String[] firstNames = new String[size];
+        String[] lastNames = new String[size];
+        String[] otherNames = new String[size];
+        String[] createdAt = new String[size];
+        String[] updatedAt = new String[size];
+        for (int i = 0; i < size; i++) {
+            Customer customer = customers.get(i);
+            ids[i] = customer.getId();
+            firstNames[i] = customer.getFirstName();
+            lastNames[i] = customer.getLastName();
+            otherNames[i] = customer.getOtherName();
+            createdAt[i] = timestamp(customer.getCreatedAt());
+            updatedAt[i] = timestamp(customer.getUpdatedAt());
+        }
+        return database.sql(UPSERT_SQL)
+                .bind(0, ids)
+                .bind(1, firstNames)
+                .bind(2, lastNames)
+                .bind(3, otherNames)
+                .bind(4, createdAt)
+                .bind(5, updatedAt)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static String timestamp(LocalDateTime value) {
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Command line entry point; see the class comment. Options: {@code --from}, {@code --to}
+     * (comma-separated {@code name=r2dbc-url} lists), {@code --phase} ({@code copy} or
+     * {@code cleanup}), {@code --since} (ISO local date-time), {@code --batch-size} (default 1000)
+     * and {@code --virtual-nodes} (default 256, as {@code customer.sharding.virtual-nodes}).
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --option=value but got " + arg);
+            }
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        Map<String, String> fromUrls = shardUrls(required(options, "from"));
+        Map<String, String> toUrls = shardUrls(required(options, "to"));
+        int virtualNodes = Integer.parseInt(options.getOrDefault("virtual-nodes", "256"));
+
+        Map<String, DatabaseClient> databases = new LinkedHashMap<>();
+        fromUrls.forEach((name, url) -> databases.put(name, DatabaseClient.create(ConnectionFactories.get(url))));
+        toUrls.forEach((name, url) -> databases.putIfAbsent(name, DatabaseClient.create(ConnectionFactories.get(url))));
+
+        CustomerResharder resharder = new CustomerResharder(
+                new ShardRing(List.copyOf(fromUrls.keySet()), virtualNodes),
+                new ShardRing(List.copyOf(toUrls.keySet()), virtualNodes),
+                databases,
+                Integer.parseInt(options.getOrDefault("batch-size", "1000")));
+
+        String phase = required(options, "phase");
+        LocalDateTime started = LocalDateTime.now();
+        Long rows = switch (phase) {
+            case "copy" -> resharder.copy(options.containsKey("since") ? LocalDateTime.parse(options.get("since")) : null).block();
+            case "cleanup" -> resharder.cleanup().block();
+            default -> throw new IllegalArgumentException("Unknown phase " + phase + "; expected copy or cleanup");
+        };
+        log.info("{} finished: {} customers; pass the start time {} as --since to the next copy", phase, rows, started);
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing --" + name);
+        }
+        return value;
+    }
+
+    private static Map<String, String> shardUrls(String list) {
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (String entry : list.split(",")) {
+            int equals = entry.indexOf('=');
+            urls.put(entry.substring(0, equals).trim(), entry.substring(equals + 1).trim());
+        }
+        return urls;
+    }
+}
@@ -1,5 +1,6 @@
 package com.dtbbanking.customer_service.service;
 
+import com.dtbbanking.customer_service.dto.BatchGetResponseDto;
 import com.dtbbanking.customer_service.dto.CustomerRequestDto;
 import com.dtbbanking.customer_service.dto.CustomerResponseDto;
 import com.dtbbanking.customer_service.dto.UpdateCustomerRequestDto;
@@ -7,6 +8,9 @@ import com.dtbbanking.customer_service.errors.GlobalException;
 import com.dtbbanking.customer_service.mapper.CustomerMapper;
 import com.dtbbanking.customer_service.models.Customer;
 import com.dtbbanking.customer_service.repository.CustomerRepository;
+import com.dtbbanking.customer_service.repository.CustomerShards;
+import com.dtbbanking.customer_service.repository.ShardedCustomerQueries;
+import com.dtbbanking.customer_service.utils.ReadRouting;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
@@ -17,22 +21,34 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Service class responsible for customer-related business logic.
  *
- * Handles creation, update, retrieval, filtering, and deletion of customer records.
+ * Handles creation, update, retrieval, filtering, and deletion of customer records. With
+ * {@code customer.sharding.enabled}, queries go through {@link CustomerShards}: single-customer
+ * queries to the customer's shard, lists to every shard.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CustomerService {
 
+    public static final int MAX_BATCH_GET_IDS = 1000;
+
     private final CustomerRepository customerRepository;
+    private final CustomerCreateCoalescer customerCreateCoalescer;
+    private final CustomerShards customerShards;
+    private final ShardedCustomerQueries shardedCustomerQueries;
+    private final AccountClient accountClient;
 
     /**
-     * Creates a new customer in the system.
+     * Creates a new customer in the system. With {@code customer.create-coalescing.enabled}, the insert
+     * is batched with concurrent creates by {@link CustomerCreateCoalescer}.
      *
      * @param dto The request DTO containing the customer data.
      * @return A {@link Mono} emitting the created customer's response DTO.
@@ -41,7 +57,15 @@ public class CustomerService {
         Customer customer = CustomerMapper.toEntity(dto);
         log.info("Creating new customer: {}", customer.getFirstName());
 
-        return customerRepository.save(customer)
+        Mono<Customer> insert;
+        if (customerCreateCoalescer.isEnabled()) {
+            insert = customerCreateCoalescer.create(customer);
+        } else if (customerShards.isEnabled()) {
+            insert = shardedCustomerQueries.insert(customer);
+        } else {
+            insert = customerRepository.save(customer);
+        }
+        return insert
                 .doOnSuccess(saved -> log.info("Customer created with ID: {}", saved.getId()))
                 .map(CustomerMapper::toResponseDto);
     }
@@ -54,7 +78,7 @@ public class CustomerService {
      * @return A {@link Mono} emitting the updated customer's response DTO.
      */
     public Mono<CustomerResponseDto> updateCustomer(UUID id, UpdateCustomerRequestDto dto) {
-        return customerRepository.findById(id)
+        return customerShards.onShardOf(id, customerRepository.findById(id)
                 .switchIfEmpty(Mono.error(new GlobalException("Customer not found")))
                 .flatMap(existingCustomer -> {
                     if (dto.getFirstName() != null) {
@@ -67,7 +91,7 @@ public class CustomerService {
                         existingCustomer.setOtherName(dto.getOtherName());
                     }
                     return customerRepository.save(existingCustomer);
-                })
+                }))
                 .doOnSuccess(updated -> log.info("Customer updated with ID: {}", updated.getId()))
                 .map(CustomerMapper::toResponseDto);
     }
@@ -81,12 +105,46 @@ public class CustomerService {
     public Mono<CustomerResponseDto> getCustomerById(UUID id) {
         log.debug("Fetching customer by ID: {}", id);
 
-        return customerRepository.findById(id)
+        return customerShards.onShardOf(id, customerRepository.findById(id))
                 .doOnNext(c -> log.info("Found customer: {} {}", c.getFirstName(), c.getLastName()))
                 .switchIfEmpty(Mono.error(new GlobalException("Customer not found")))
                 .map(CustomerMapper::toResponseDto);
     }
 
+    /**
+     * Retrieves several customers by ID in one query. Duplicate IDs are looked up once.
+     *
+     * @param ids The customer UUIDs, at most {@value #MAX_BATCH_GET_IDS}.
+     * @return A {@link Mono} emitting the customers found, in request order, and the IDs not found.
+     */
+    public Mono<BatchGetResponseDto<CustomerResponseDto>> getCustomersByIds(List<UUID> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_BATCH_GET_IDS) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Between 1 and " + MAX_BATCH_GET_IDS + " ids are required"));
+        }
+        List<UUID> requested = List.copyOf(new LinkedHashSet<>(ids));
+        log.debug("Fetching {} customers by ID", requested.size());
+
+        return customerShards.byShard(requested, shardIds -> customerRepository.findAllByIdArray(shardIds.toArray(new UUID[0])))
+                .collectMap(Customer::getId)
+                .map(customers -> {
+                    List<CustomerResponseDto> found = new ArrayList<>(customers.size());
+                    List<UUID> missingIds = new ArrayList<>();
+                    for (UUID id : requested) {
+                        Customer customer = customers.get(id);
+                        if (customer == null) {
+                            missingIds.add(id);
+                        } else {
+                            found.add(CustomerMapper.toResponseDto(customer));
+                        }
+                    }
+                    return BatchGetResponseDto.<CustomerResponseDto>builder()
+                            .found(found)
+                            .missingIds(missingIds)
+                            .build();
+                });
+    }
+
     /**
      * Retrieves a paginated list of customers filtered by first name.
      *
@@ -98,12 +156,15 @@ public class CustomerService {
     public Flux<CustomerResponseDto> getCustomersByFirstName(String name, int page, int size) {
         log.debug("Searching customers by name like: {}", name);
 
-        return customerRepository.searchByFullName(name, PageRequest.of(page, size))
-                .map(CustomerMapper::toResponseDto);
+        Flux<Customer> customers = customerShards.isEnabled()
+                ? shardedCustomerQueries.searchByFullName(name, page, size)
+                : customerRepository.searchByFullName(name, PageRequest.of(page, size));
+        return customers.map(CustomerMapper::toResponseDto);
     }
 
     /**
-     * Retrieves a paginated list of customers created within a specific date range.
+     * Retrieves a paginated list of customers created within a specific date range. May be
+     * served by a read replica.
      *
      * @param start Start of the date range.
      * @param end   End of the date range.
@@ -114,25 +175,31 @@ public class CustomerService {
     public Flux<CustomerResponseDto> getCustomersByCreatedDate(LocalDateTime start, LocalDateTime end, int page, int size) {
         log.debug("Searching customers created between {} and {}", start, end);
 
-        return customerRepository.findByCreatedAtBetween(start, end, PageRequest.of(page, size))
+        Flux<Customer> customers = customerShards.isEnabled()
+                ? shardedCustomerQueries.findByCreatedAtBetween(start, end, page, size)
+                : customerRepository.findByCreatedAtBetween(start, end, PageRequest.of(page, size));
+        return ReadRouting.readOnly(customers)
                 .map(CustomerMapper::toResponseDto);
     }
 
     /**
-     * Deletes a customer by their ID.
+     * Deletes a customer by their ID, after account-service has deleted the customer's accounts.
+     * There is no foreign key cascade to do so, as customers may be sharded away from the
+     * accounts; if account-service fails, the customer is kept and the delete can be retried.
      *
      * @param id The UUID of the customer to delete.
      * @return A {@link Mono} that completes when the customer is deleted or errors if not found.
      */
     public Mono<Void> deleteCustomer(UUID id) {
-        return customerRepository.existsById(id)
+        return customerShards.onShardOf(id, customerRepository.existsById(id)
                 .flatMap(exists -> {
                     if (exists) {
-                        return customerRepository.deleteById(id);
+                        return accountClient.deleteAccountsOfCustomer(id)
+                                .then(Mono.defer(() -> customerRepository.deleteById(id)));
                     } else {
                         return Mono.error(new GlobalException("Customer not found"));
                     }
-                });
+                }));
     }
 
     /**
@@ -143,9 +210,32 @@ public class CustomerService {
      * @return A {@link Flux} emitting all customers within the given page.
      */
     public Flux<CustomerResponseDto> getAllCustomers(int page, int size) {
-        return customerRepository.findAll()
-                .skip((long) page * size)
-                .take(size)
-                .map(CustomerMapper::toResponseDto);
+        Flux<Customer> customers = customerShards.isEnabled()
+                ? shardedCustomerQueries.findAll(page, size)
+                : customerRepository.findAll().skip((long) page * size).take(size);
+        return customers.map(CustomerMapper::toResponseDto);
+    }
+
+    /**
+     * Checks whether a customer exists.
+     *
+     * @param id The UUID of the customer.
+     * @return A {@link Mono} emitting true if the customer exists.
+     */
+    public Mono<Boolean> customerExists(UUID id) {
+        return customerShards.onShardOf(id, customerRepository.existsById(id));
+    }
+
+    /**
+     * Returns which of the given customer IDs exist, in one query.
+     *
+     * @param ids The customer IDs to check.
+     * @return A {@link Flux} of the IDs that exist.
+     */
+    public Flux<UUID> getExistingCustomerIds(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return customerShards.byShard(ids, customerRepository::findExistingIds);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,77 @@
+package com.dtbbanking.customer_service.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Consistent hash ring over shard names. Each shard is placed on the ring at
+ * {@code virtualNodes} points, and a UUID belongs to the shard at the first point at or after its
+ * hash. Adding a shard therefore moves only about {@code 1/(n+1)} of the keys, all of them to the
+ * new shard.
+ */
+public final class ShardRing {
+
+    private final List<String> shards;
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+
+    public ShardRing(List<String> shards, int virtualNodes) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = List.copyOf(shards);
+        for (String shard : shards) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(pointOf(shard + "#" + i), shard);
+            }
+        }
+    }
+
+    public List<String> shards() {
+        return shards;
+    }
+
+    /**
+     * @param id The customer UUID.
+     * @return The name of the shard that stores it.
+     */
+    public String shardFor(UUID id) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(id));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    /**
+     * Random UUIDs are already uniform, but the bits are mixed anyway so sequential or
+     * hand-made ids spread too.
+     */
+    static long hash(UUID id) {
+        return mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+    }
+
+    private static long pointOf(String node) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(node.getBytes(StandardCharsets.UTF_8));
+            long point = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                point = (point << 8) | (digest[i] & 0xFF);
+            }
+            return point;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // MurmurHash3 fmix64 finalizer
+    private static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,51 @@
+package com.dtbbanking.customer_service.utils;
+
+import io.r2dbc.spi.Row;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The fields picked by one {@code ?fields=} value, with the {@code SELECT} clause that reads just
+ * their columns. Instances are built once per distinct set by {@link SparseFieldsets} and shared;
+ * they are immutable.
+ *
+ * @param <F> the resource's field enum
+ */
+public final class SparseFieldset<F extends Enum<F> & SparseField> {
+
+    private final Set<F> fields;
+    private final String select;
+
+    SparseFieldset(Set<F> fields, String table) {
+        this.fields = fields;
+        Set<String> columns = new LinkedHashSet<>();
+        fields.forEach(field -> columns.addAll(field.columns()));
+        this.select = "SELECT " + String.join(", ", columns) + " FROM " + table;
+    }
+
+    public boolean includes(F field) {
+        return fields.contains(field);
+    }
+
+    /**
+     * @return {@code SELECT <columns> FROM <table>}, to be followed by the query's own clauses
+     */
+    public String select() {
+        return select;
+    }
+
+    /**
+     * Reads a row selected with {@link #select()} into a JSON object holding only these fields,
+     * in the resource's field order.
+     */
+    public Map<String, Object> read(Row row) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (F field : fields) {
+            values.put(field.jsonName(), field.read(row));
+        }
+        return values;
+    }
+}
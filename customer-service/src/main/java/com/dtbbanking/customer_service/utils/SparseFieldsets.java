@@ -0,0 +1,81 @@
+package com.dtbbanking.customer_service.utils;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Parses {@code ?fields=} values for one resource and caches the {@link SparseFieldset} of each
+ * distinct field combination, so the column list and {@code SELECT} clause are built once per
+ * combination rather than per request. The cache is keyed by the parsed set, not the raw string,
+ * so it holds at most one entry per subset of the resource's fields however the value is spelled.
+ *
+ * @param <F> the resource's field enum
+ */
+public final class SparseFieldsets<F extends Enum<F> & SparseField> {
+
+    private final Class<F> type;
+    private final String table;
+    private final Map<String, F> byName;
+    private final Map<Set<F>, SparseFieldset<F>> cache = new ConcurrentHashMap<>();
+    private final SparseFieldset<F> all;
+
+    public SparseFieldsets(Class<F> type, String table) {
+        this.type = type;
+        this.table = table;
+        this.byName = Arrays.stream(type.getEnumConstants())
+                .collect(Collectors.toUnmodifiableMap(SparseField::jsonName, Function.identity()));
+        this.all = of(EnumSet.allOf(type));
+    }
+
+    /**
+     * @return the fieldset holding every field, as returned without {@code ?fields=}
+     */
+    public SparseFieldset<F> all() {
+        return all;
+    }
+
+    /**
+     * Parses a comma-separated list of JSON field names; blank names are ignored.
+     *
+     * @param fields the {@code fields} parameter, may be null
+     * @return the (cached) fieldset, or {@link #all()} if no field is named
+     * @throws ResponseStatusException 400 if a name is not a field of this resource
+     */
+    public SparseFieldset<F> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return all;
+        }
+        Set<F> selected = EnumSet.noneOf(type);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            F field = byName.get(trimmed);
+            if (field == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Unknown field '" + trimmed + "', expected any of " + names());
+            }
+            selected.add(field);
+        }
+        return selected.isEmpty() ? all : of(selected);
+    }
+
+    private SparseFieldset<F> of(Set<F> fields) {
+        return cache.computeIfAbsent(fields, key -> new SparseFieldset<>(Collections.unmodifiableSet(key), table));
+    }
+
+    private List<String> names() {
+        return Arrays.stream(type.getEnumConstants()).map(SparseField::jsonName).toList();
+    }
+}
@@ -0,0 +1,77 @@
+package com.dtbbanking.customer_service;
+
+import com.dtbbanking.customer_service.configs.ConnectionPoolProperties;
+import com.dtbbanking.customer_service.configs.ConnectionPools;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import reactor.core.publisher.Mono;
+import reactor.pool.PoolAcquirePendingLimitException;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionPoolsTest {
+
+    private static final String URL = "r2dbc:postgresql://localhost:5432/dtbbanking";
+
+    @Test
+    void failsFastOnceThePendingLimitIsReached() {
+        ConnectionPoolProperties settings = new ConnectionPoolProperties();
+        settings.setMaxPendingAcquires(1);
+        settings.setWarmUp(false);
+        R2dbcProperties.Pool sizes = new R2dbcProperties.Pool();
+        sizes.setInitialSize(0);
+        sizes.setMaxSize(1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // the decorator swaps in a database that never answers: the first caller holds the only
+        // slot while its connection opens, the second waits
+        ConnectionPool pool = new ConnectionPools(sizes, settings, List.of(factory -> new Unresponsive()), registry)
+                .create("primary", URL, "dtb", "dtbpassword");
+
+        // both fail with "pool shut down" at dispose
+        pool.create().subscribe(connection -> { }, error -> { });
+        pool.create().subscribe(connection -> { }, error -> { });
+
+        StepVerifier.create(pool.create())
+                .expectError(PoolAcquirePendingLimitException.class)
+                .verify(Duration.ofSeconds(5));
+        assertThat(registry.get("db.pool.statement-cache.limit").tag("pool", "primary").gauge().value()).isEqualTo(256);
+        pool.dispose();
+    }
+
+    @Test
+    void startsWithoutWarmConnectionsWhenTheDatabaseIsDown() {
+        ConnectionPoolProperties settings = new ConnectionPoolProperties();
+        settings.setWarmUpTimeout(Duration.ofMillis(200));
+        R2dbcProperties.Pool sizes = new R2dbcProperties.Pool();
+        sizes.setInitialSize(2);
+
+        ConnectionPool pool = new ConnectionPools(sizes, settings, List.of(factory -> new Unresponsive()),
+                new SimpleMeterRegistry()).create("primary", URL, "dtb", "dtbpassword");
+
+        assertThat(pool.getMetrics().orElseThrow().idleSize()).isZero();
+        pool.dispose();
+    }
+
+    private static final class Unresponsive implements ConnectionFactory {
+
+        @Override
+        public Publisher<? extends Connection> create() {
+            return Mono.never();
+        }
+
+        @Override
+        public ConnectionFactoryMetadata getMetadata() {
+            return () -> "unresponsive";
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.dtbbanking.customer_service;
 
 import com.dtbbanking.customer_service.controller.CustomerController;
+import com.dtbbanking.customer_service.dto.BatchGetRequestDto;
+import com.dtbbanking.customer_service.dto.BatchGetResponseDto;
 import com.dtbbanking.customer_service.dto.CustomerRequestDto;
 import com.dtbbanking.customer_service.dto.CustomerResponseDto;
 import com.dtbbanking.customer_service.dto.UniversalResponse;
 import com.dtbbanking.customer_service.dto.UpdateCustomerRequestDto;
+import com.dtbbanking.customer_service.mapper.CustomerField;
+import com.dtbbanking.customer_service.service.CustomerJsonListService;
 import com.dtbbanking.customer_service.service.CustomerService;
+import com.dtbbanking.customer_service.utils.SparseFieldset;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Path;
 import jakarta.validation.Validator;
@@ -15,7 +20,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -23,6 +32,7 @@ import reactor.test.StepVerifier;
 import java.time.LocalDateTime;
 import java.util.*;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -33,6 +43,9 @@ public class CustomerControllerTest {
     @Mock
     private CustomerService customerService;
 
+    @Mock
+    private CustomerJsonListService customerJsonListService;
+
     @Mock
     private Validator validator;
 
@@ -45,8 +58,6 @@ public class CustomerControllerTest {
     private UniversalResponse<CustomerResponseDto> universalResponse;
     private UpdateCustomerRequestDto updateRequestDto;
     private LocalDateTime now;
-    private List<CustomerResponseDto> responseList;
-    private UniversalResponse<List<CustomerResponseDto>> universalResponseList;
 
     @BeforeEach
     void setUp() {
@@ -68,8 +79,6 @@ public class CustomerControllerTest {
                 .build();
 
         universalResponse = UniversalResponse.ok(responseDto);
-        responseList = List.of(responseDto);
-        universalResponseList = UniversalResponse.ok(responseList);
 
         updateRequestDto = new UpdateCustomerRequestDto();
         updateRequestDto.setFirstName("Jane");
@@ -109,7 +118,7 @@ public class CustomerControllerTest {
     void getCustomer_ShouldReturnCustomer() {
         when(customerService.getCustomerById(customerId)).thenReturn(Mono.just(responseDto));
 
-        Mono<ResponseEntity<UniversalResponse<CustomerResponseDto>>> result = customerController.getCustomer(customerId);
+        Mono<ResponseEntity<UniversalResponse<?>>> result = customerController.getCustomer(customerId, null);
 
         StepVerifier.create(result)
                 .expectNext(ResponseEntity.ok(universalResponse))
@@ -119,49 +128,95 @@ public class CustomerControllerTest {
     }
 
     @Test
-    void getCustomers_WithNoFilters_ShouldReturnAllCustomers() {
-        when(customerService.getAllCustomers(0, 10)).thenReturn(Flux.just(responseDto));
+    void getCustomer_WithFields_ShouldReturnSelectedFields() {
+        Map<String, Object> selected = Map.of("fullName", "John Doe");
+        when(customerJsonListService.getCustomerById(eq(customerId), any())).thenReturn(Mono.just(selected));
+
+        StepVerifier.create(customerController.getCustomer(customerId, "fullName"))
+                .expectNext(ResponseEntity.ok(UniversalResponse.ok(selected)))
+                .verifyComplete();
 
-        Mono<ResponseEntity<UniversalResponse<List<CustomerResponseDto>>>> result =
-                customerController.getCustomers(null, null, null, 0, 10);
+        verify(customerJsonListService).getCustomerById(customerId, CustomerField.FIELDSETS.parse("fullName"));
+        verifyNoInteractions(customerService);
+    }
 
-        StepVerifier.create(result)
-                .expectNext(ResponseEntity.ok(universalResponseList))
+    @Test
+    void getCustomers_WithFields_ShouldStreamSelectedFields() {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        Flux<DataBuffer> body = Flux.just(response.bufferFactory().wrap(new byte[]{'{', '}'}));
+        SparseFieldset<CustomerField> fields = CustomerField.FIELDSETS.parse("id,fullName");
+        when(customerJsonListService.getAllCustomers(fields, 0, 10, response.bufferFactory())).thenReturn(body);
+
+        StepVerifier.create(customerController.getCustomers(null, null, null, 0, 10, " fullName, id", response))
+                .expectNextMatches(entity -> isStreamedJson(entity, body))
+                .verifyComplete();
+    }
+
+    @Test
+    void getCustomers_WithUnknownField_ShouldFail() {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+
+        assertThatThrownBy(() -> customerController.getCustomers(null, null, null, 0, 10, "id,pan", response))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("pan");
+        verifyNoInteractions(customerJsonListService);
+    }
+
+    @Test
+    void getCustomers_WithNoFilters_ShouldReturnAllCustomers() {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        Flux<DataBuffer> body = Flux.just(response.bufferFactory().wrap(new byte[]{'{', '}'}));
+        when(customerJsonListService.getAllCustomers(CustomerField.FIELDSETS.all(), 0, 10, response.bufferFactory())).thenReturn(body);
+
+        StepVerifier.create(customerController.getCustomers(null, null, null, 0, 10, null, response))
+                .expectNextMatches(entity -> isStreamedJson(entity, body))
                 .verifyComplete();
 
-        verify(customerService).getAllCustomers(0, 10);
+        verify(customerJsonListService).getAllCustomers(CustomerField.FIELDSETS.all(), 0, 10, response.bufferFactory());
     }
 
     @Test
     void getCustomers_WithNameFilter_ShouldReturnFilteredCustomers() {
         String name = "John";
-        when(customerService.getCustomersByFirstName(name, 0, 10)).thenReturn(Flux.just(responseDto));
-
-        Mono<ResponseEntity<UniversalResponse<List<CustomerResponseDto>>>> result =
-                customerController.getCustomers(name, null, null, 0, 10);
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        Flux<DataBuffer> body = Flux.just(response.bufferFactory().wrap(new byte[]{'{', '}'}));
+        when(customerJsonListService.getCustomersByFullName(CustomerField.FIELDSETS.all(), name, 0, 10, response.bufferFactory())).thenReturn(body);
 
-        StepVerifier.create(result)
-                .expectNext(ResponseEntity.ok(universalResponseList))
+        StepVerifier.create(customerController.getCustomers(name, null, null, 0, 10, null, response))
+                .expectNextMatches(entity -> isStreamedJson(entity, body))
                 .verifyComplete();
 
-        verify(customerService).getCustomersByFirstName(name, 0, 10);
+        verify(customerJsonListService).getCustomersByFullName(CustomerField.FIELDSETS.all(), name, 0, 10, response.bufferFactory());
     }
 
     @Test
     void getCustomers_WithDateFilter_ShouldReturnFilteredCustomers() {
         LocalDateTime start = now.minusDays(1);
         LocalDateTime end = now.plusDays(1);
-        when(customerService.getCustomersByCreatedDate(start, end, 0, 10))
-                .thenReturn(Flux.just(responseDto));
-
-        Mono<ResponseEntity<UniversalResponse<List<CustomerResponseDto>>>> result =
-                customerController.getCustomers(null, start, end, 0, 10);
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        Flux<DataBuffer> body = Flux.just(response.bufferFactory().wrap(new byte[]{'{', '}'}));
+        when(customerJsonListService.getCustomersByCreatedDate(CustomerField.FIELDSETS.all(), start, end, 0, 10, response.bufferFactory()))
+                .thenReturn(body);
 
-        StepVerifier.create(result)
-                .expectNext(ResponseEntity.ok(universalResponseList))
+        StepVerifier.create(customerController.getCustomers(null, start, end, 0, 10, null, response))
+                .expectNextMatches(entity -> isStreamedJson(entity, body))
                 .verifyComplete();
 
-        verify(customerService).getCustomersByCreatedDate(start, end, 0, 10);
+        verify(customerJsonListService).getCustomersByCreatedDate(CustomerField.FIELDSETS.all(), start, end, 0, 10, response.bufferFactory());
+    }
+
+    @Test
+    void batchGetCustomers_ShouldResolveIds() {
+        UUID missing = UUID.randomUUID();
+        BatchGetResponseDto<CustomerResponseDto> found = BatchGetResponseDto.<CustomerResponseDto>builder()
+                .found(List.of(responseDto))
+                .missingIds(List.of(missing))
+                .build();
+        when(customerService.getCustomersByIds(List.of(customerId, missing))).thenReturn(Mono.just(found));
+
+        StepVerifier.create(customerController.batchGetCustomers(new BatchGetRequestDto(List.of(customerId, missing))))
+                .expectNext(ResponseEntity.ok(UniversalResponse.ok(found)))
+                .verifyComplete();
     }
 
     @Test
@@ -176,4 +231,10 @@ public class CustomerControllerTest {
 
         verify(customerService).deleteCustomer(customerId);
     }
-}
\ No newline at end of file
+
+    private static boolean isStreamedJson(ResponseEntity<Flux<DataBuffer>> entity, Flux<DataBuffer> body) {
+        return entity.getStatusCode().is2xxSuccessful()
+                && MediaType.APPLICATION_JSON.equals(entity.getHeaders().getContentType())
+                && entity.getBody() == body;
+    }
+}
@@ -0,0 +1,193 @@
+package com.dtbbanking.customer_service;
+
+import com.dtbbanking.customer_service.configs.CustomerShardingProperties;
+import com.dtbbanking.customer_service.models.Customer;
+import com.dtbbanking.customer_service.repository.CustomerShards;
+import com.dtbbanking.customer_service.service.CustomerCreateCoalescer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.RowsFetchSpec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CustomerCreateCoalescerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger statements = new AtomicInteger();
+    private Duration insertLatency = Duration.ZERO;
+    private final AtomicBoolean failNextStatement = new AtomicBoolean();
+    private CustomerCreateCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() {
+        if (coalescer != null) {
+            coalescer.stop();
+        }
+    }
+
+    @Test
+    void writesConcurrentCreatesWithOneInsert() {
+        coalescer = coalescer(true);
+
+        List<Customer> created = Flux.range(0, 5)
+                .flatMap(i -> coalescer.create(customer("First" + i, "Last" + i)))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(created).extracting(Customer::getFirstName)
+                .containsExactlyInAnyOrder("First0", "First1", "First2", "First3", "First4");
+        assertThat(created).allSatisfy(customer -> assertThat(customer.getId()).isNotNull());
+        assertThat(statements).hasValue(1);
+        assertThat(registry.get("customer.create.batch.size").summary().totalAmount()).isEqualTo(5);
+        assertThat(registry.get("customer.create.batch.wait").timer().count()).isEqualTo(5);
+    }
+
+    @Test
+    void failsOnlyTheBadRowOfAFailedBatch() {
+        coalescer = coalescer(true);
+
+        Mono<Customer> good = coalescer.create(customer("Good", "Row"));
+        Mono<Customer> bad = coalescer.create(customer("Bad", "Row"));
+
+        StepVerifier.create(Flux.merge(good.map(Customer::getFirstName).onErrorReturn("failed"),
+                        bad.map(Customer::getFirstName).onErrorReturn("failed")).collectList())
+                .assertNext(results -> assertThat(results).containsExactlyInAnyOrder("Good", "failed"))
+                .verifyComplete();
+        // the failed batch, then one insert per row
+        assertThat(statements).hasValue(3);
+    }
+
+    @Test
+    void queuesBatchesWhileEveryFlushIsBusy() {
+        // a slow database: batches fill and time out far faster than the single flush slot frees up
+        insertLatency = Duration.ofMillis(50);
+        coalescer = coalescer(true, 2, Duration.ofMillis(1), 1);
+
+        List<Customer> created = Flux.range(0, 40)
+                .delayElements(Duration.ofMillis(2))
+                .flatMap(i -> coalescer.create(customer("First" + i, "Last" + i)))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertThat(created).hasSize(40);
+        assertThat(statements.get()).isLessThan(40);
+    }
+
+    @Test
+    void failsTheBatchAndKeepsBatchingWhenAFlushThrows() {
+        coalescer = coalescer(true);
+        failNextStatement.set(true);
+
+        StepVerifier.create(coalescer.create(customer("First", "Last")))
+                .expectErrorMessage("connection closed")
+                .verify(Duration.ofSeconds(5));
+        StepVerifier.create(coalescer.create(customer("Second", "Last")).map(Customer::getFirstName))
+                .expectNext("Second")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void isInactiveUnlessEnabled() {
+        coalescer = coalescer(false);
+
+        assertThat(coalescer.isEnabled()).isFalse();
+    }
+
+    private CustomerCreateCoalescer coalescer(boolean enabled) {
+        return coalescer(enabled, 10, Duration.ofMillis(50), 1);
+    }
+
+    private CustomerCreateCoalescer coalescer(boolean enabled, int maxBatchSize, Duration maxWait, int concurrency) {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<MeterRegistry> meterRegistry = mock(ObjectProvider.class);
+        when(meterRegistry.getIfAvailable(any())).thenReturn(registry);
+        return new CustomerCreateCoalescer(databaseClient(), new CustomerShards(new CustomerShardingProperties()), meterRegistry, enabled,
+                maxBatchSize, maxWait, concurrency);
+    }
+
+    /**
+     * A database that inserts every row of a statement, or none if any first name is "Bad", taking
+     * {@link #insertLatency} per statement. {@link #failNextStatement} makes the next statement throw.
+     */
+    private DatabaseClient databaseClient() {
+        DatabaseClient client = mock(DatabaseClient.class);
+        when(client.sql(anyString())).thenAnswer(invocation -> {
+            if (failNextStatement.getAndSet(false)) {
+                throw new IllegalStateException("connection closed");
+            }
+            return statement();
+        });
+        return client;
+    }
+
+    @SuppressWarnings("unchecked")
+    private DatabaseClient.GenericExecuteSpec statement() {
+        Object[] bindings = new Object[6];
+        DatabaseClient.GenericExecuteSpec spec = mock(DatabaseClient.GenericExecuteSpec.class);
+        when(spec.bind(anyInt(), any())).thenAnswer(invocation -> {
+            bindings[(int) invocation.getArgument(0)] = invocation.getArgument(1);
+            return spec;
+        });
+        when(spec.map(any(BiFunction.class))).thenAnswer(invocation -> {
+            BiFunction<Row, RowMetadata, Customer> mapper = invocation.getArgument(0);
+            RowsFetchSpec<Customer> rows = mock(RowsFetchSpec.class);
+            when(rows.all()).thenAnswer(all -> Flux.defer(() -> {
+                statements.incrementAndGet();
+                UUID[] ids = (UUID[]) bindings[0];
+                String[] firstNames = (String[]) bindings[1];
+                if (Arrays.asList(firstNames).contains("Bad")) {
+                    return Flux.error(new DataIntegrityViolationException("bad row"));
+                }
+                return Flux.range(0, ids.length).map(i -> mapper.apply(row(bindings, i), null));
+            }).delaySubscription(insertLatency));
+            return rows;
+        });
+        return spec;
+    }
+
+    private static Row row(Object[] bindings, int i) {
+        Row row = mock(Row.class);
+        when(row.get("id", UUID.class)).thenReturn(((UUID[]) bindings[0])[i]);
+        when(row.get("first_name", String.class)).thenReturn(((String[]) bindings[1])[i]);
+        when(row.get("last_name", String.class)).thenReturn(((String[]) bindings[2])[i]);
+        when(row.get("other_name", String.class)).thenReturn(((String[]) bindings[3])[i]);
+        when(row.get("created_at", LocalDateTime.class)).thenReturn(LocalDateTime.parse(((String[]) bindings[4])[i]));
+        when(row.get("updated_at", LocalDateTime.class)).thenReturn(LocalDateTime.parse(((String[]) bindings[5])[i]));
+        return row;
+    }
+
+    private static Customer customer(String firstName, String lastName) {
+        LocalDateTime now = LocalDateTime.now();
+        return Customer.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+}
@@ -0,0 +1,120 @@
+package com.dtbbanking.customer_service;
+
+import com.dtbbanking.customer_service.dto.UniversalResponse;
+import com.dtbbanking.customer_service.mapper.CustomerField;
+import com.dtbbanking.customer_service.mapper.CustomerJsonWriter;
+import com.dtbbanking.customer_service.mapper.CustomerMapper;
+import com.dtbbanking.customer_service.models.Customer;
+import com.dtbbanking.customer_service.utils.SparseFieldset;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CustomerJsonWriterTest {
+
+    // Spring Boot's default ObjectMapper writes dates as ISO strings
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void writesSameBytesAsMappedPath() throws Exception {
+        List<Customer> customers = List.of(
+                customer(UUID.randomUUID(), "John", "Doe", null, LocalDateTime.of(2024, 5, 1, 10, 0)),
+                customer(UUID.randomUUID(), "Jane", "Smith", "Wanjiru", LocalDateTime.of(2024, 5, 1, 10, 0, 7, 120_000_000)),
+                customer(new UUID(0, 1), "Ünïcode \"quoted\"", "Back\\slash", "", LocalDateTime.of(1999, 12, 31, 23, 59, 59, 999_999_999)),
+                customer(new UUID(-1, -1), null, null, null, null));
+
+        assertEquals(mapped(customers), streamed(customers));
+    }
+
+    @Test
+    void writesSameBytesForEmptyAndLargePages() throws Exception {
+        assertEquals(mapped(List.of()), streamed(List.of()));
+
+        List<Customer> customers = IntStream.range(0, 500)
+                .mapToObj(i -> customer(UUID.randomUUID(), "First" + i, "Last" + i, i % 3 == 0 ? null : "Other" + i,
+                        LocalDateTime.of(2024, 1, 1, 0, 0).plusNanos(i * 1_000_001L)))
+                .toList();
+        assertEquals(mapped(customers), streamed(customers));
+    }
+
+    @Test
+    void writesOnlySelectedFields() throws Exception {
+        List<Customer> customers = List.of(
+                customer(new UUID(0, 1), "John", "Doe", null, LocalDateTime.of(2024, 5, 1, 10, 0)));
+
+        assertEquals("{\"status\":200,\"message\":\"Success\",\"data\":[{\"fullName\":\"John Doe\"}]}",
+                streamed(customers, CustomerField.FIELDSETS.parse("fullName")));
+        assertEquals("{\"status\":200,\"message\":\"Success\",\"data\":[{\"id\":\"00000000-0000-0000-0000-000000000001\","
+                        + "\"createdAt\":\"2024-05-01T10:00:00\"}]}",
+                streamed(customers, CustomerField.FIELDSETS.parse("createdAt,id")));
+    }
+
+    @Test
+    void handsOutFullBuffersWhileWriting() {
+        CustomerJsonWriter writer = new CustomerJsonWriter(objectMapper.getFactory(), DefaultDataBufferFactory.sharedInstance);
+        boolean full = false;
+        for (int i = 0; i < 500 && !full; i++) {
+            full = writer.writeCustomer(UUID.randomUUID(), "First", "Last", null, LocalDateTime.now());
+        }
+        assertTrue(full);
+        writer.close();
+    }
+
+    private String mapped(List<Customer> customers) throws Exception {
+        return objectMapper.writeValueAsString(UniversalResponse.ok(customers.stream()
+                .map(CustomerMapper::toResponseDto)
+                .toList()));
+    }
+
+    private String streamed(List<Customer> customers) throws Exception {
+        return streamed(customers, CustomerField.FIELDSETS.all());
+    }
+
+    private String streamed(List<Customer> customers, SparseFieldset<CustomerField> fields) throws Exception {
+        List<DataBuffer> buffers = new ArrayList<>();
+        try (CustomerJsonWriter writer = new CustomerJsonWriter(objectMapper.getFactory(),
+                DefaultDataBufferFactory.sharedInstance, fields)) {
+            for (Customer c : customers) {
+                if (writer.writeCustomer(c.getId(), c.getFirstName(), c.getLastName(), c.getOtherName(), c.getCreatedAt())) {
+                    buffers.add(writer.take());
+                }
+            }
+            buffers.add(writer.finish());
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (DataBuffer buffer : buffers) {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            out.write(bytes);
+            DataBufferUtils.release(buffer);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Customer customer(UUID id, String first, String last, String other, LocalDateTime createdAt) {
+        return Customer.builder()
+                .id(id)
+                .firstName(first)
+                .lastName(last)
+                .otherName(other)
+                .createdAt(createdAt)
+                .build();
+    }
+}
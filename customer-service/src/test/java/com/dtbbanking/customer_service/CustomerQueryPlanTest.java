@@ -0,0 +1,128 @@
+package com.dtbbanking.customer_service;
+
+import com.dtbbanking.customer_service.repository.CustomerRepository;
+import io.r2dbc.spi.ConnectionFactories;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query plans of every {@link CustomerRepository} method on a seeded, analyzed tb_customers (skipped
+ * without Docker). A method whose plan loses its index, gains a sequential scan or exceeds its
+ * cost ceiling fails with the expected and actual plan properties side by side. A new repository
+ * method fails {@link #everyRepositoryMethodHasAPlanCheck()} until it is given an expectation.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CustomerQueryPlanTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15");
+
+    // 200k customers over four years, more of them recent; first and last names are Zipf-like,
+    // a few shared by many customers
+    private static final String SEED = """
+            SELECT setseed(0.47);
+            INSERT INTO tb_customers (id, first_name, last_name, other_name, created_at, updated_at)
+            SELECT gen_random_uuid(),
+                   (ARRAY['John', 'Mary', 'Peter', 'Grace', 'James', 'Faith', 'David', 'Mercy', 'Joseph', 'Esther',
+                          'Daniel', 'Amina', 'Brian', 'Wanjiru', 'Kevin', 'Achieng'])[1 + floor(power(random(), 3) * 16)::int],
+                   (ARRAY['Kamau', 'Otieno', 'Mwangi', 'Wanjiku', 'Kiprono', 'Ochieng', 'Njoroge', 'Mutua', 'Kariuki',
+                          'Onyango', 'Wambui', 'Kimani', 'Mohamed', 'Chebet', 'Patel', 'Ruto'])[1 + floor(power(random(), 2) * 16)::int],
+                   CASE WHEN random() < 0.35 THEN 'Wairimu' END,
+                   created_at,
+                   created_at
+            FROM (SELECT now() - sqrt(random()) * INTERVAL '4 years' AS created_at
+                  FROM generate_series(1, 200000)) AS customers;
+            ANALYZE tb_customers;
+            """;
+
+    private static QueryPlans plans;
+    private static CustomerRepository repository;
+    private static UUID customerId;
+
+    @BeforeAll
+    static void seed() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute(SEED);
+        customerId = jdbc.queryForObject("SELECT id FROM tb_customers LIMIT 1", UUID.class);
+
+        plans = new QueryPlans(ConnectionFactories.get("r2dbc:postgresql://"
+                + POSTGRES.getUsername() + ":" + POSTGRES.getPassword() + "@" + POSTGRES.getHost() + ":"
+                + POSTGRES.getFirstMappedPort() + "/" + POSTGRES.getDatabaseName()), Map.of());
+        repository = new R2dbcRepositoryFactory(new R2dbcEntityTemplate(plans.connectionFactory()))
+                .getRepository(CustomerRepository.class);
+    }
+
+    // Cost ceilings are about twice the estimates on the seeded data
+    private static Map<String, Check> checks() {
+        Map<String, Check> checks = new LinkedHashMap<>();
+        checks.put("findByCreatedAtBetween(LocalDateTime, LocalDateTime, Pageable)", new Check(
+                () -> repository.findByCreatedAtBetween(LocalDateTime.now().minusDays(7), LocalDateTime.now(), PageRequest.of(0, 20)),
+                QueryPlans.expect().usesIndex("idx_tb_customers_created_at_id").maxCost(150)));
+        checks.put("searchByFullName(String, Pageable)", new Check(
+                () -> repository.searchByFullName("kamau", PageRequest.of(0, 20)),
+                QueryPlans.expect().seqScan("substring search over the concatenated names").maxCost(1_000)));
+        checks.put("findExistingIds(Collection)", new Check(
+                () -> repository.findExistingIds(List.of(customerId, UUID.randomUUID(), UUID.randomUUID())),
+                QueryPlans.expect().usesIndex("tb_customers_pkey").maxCost(50)));
+        checks.put("findAllByIdArray(UUID[])", new Check(
+                () -> repository.findAllByIdArray(new UUID[]{customerId, UUID.randomUUID(), UUID.randomUUID()}),
+                QueryPlans.expect().usesIndex("tb_customers_pkey").maxCost(50)));
+        return checks;
+    }
+
+    @TestFactory
+    Stream<DynamicTest> repositoryMethodPlans() {
+        return checks().entrySet().stream().map(check -> DynamicTest.dynamicTest(check.getKey(),
+                () -> check.getValue().expectation().verify(check.getKey(), plans.explain(check.getValue().call().get()))));
+    }
+
+    @Test
+    void everyRepositoryMethodHasAPlanCheck() {
+        assertThat(checks().keySet()).containsExactlyInAnyOrderElementsOf(Arrays.stream(CustomerRepository.class.getDeclaredMethods())
+                .map(CustomerQueryPlanTest::signature)
+                .toList());
+    }
+
+    private static String signature(Method method) {
+        return method.getName() + Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    private record Check(Supplier<Publisher<?>> call, QueryPlans.Expectation expectation) {
+    }
+}
@@ -5,18 +5,26 @@ import com.dtbbanking.customer_service.dto.UpdateCustomerRequestDto;
 import com.dtbbanking.customer_service.errors.DuplicateResourceException;
 import com.dtbbanking.customer_service.errors.GlobalException;
 import com.dtbbanking.customer_service.models.Customer;
+import com.dtbbanking.customer_service.configs.CustomerShardingProperties;
 import com.dtbbanking.customer_service.repository.CustomerRepository;
+import com.dtbbanking.customer_service.repository.CustomerShards;
+import com.dtbbanking.customer_service.repository.ShardedCustomerQueries;
+import com.dtbbanking.customer_service.service.AccountClient;
+import com.dtbbanking.customer_service.service.CustomerCreateCoalescer;
 import com.dtbbanking.customer_service.service.CustomerService;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -33,6 +41,8 @@ import org.springframework.web.server.ResponseStatusException;
 public class CustomerServiceTest {
 
     private CustomerRepository customerRepository;
+    private CustomerCreateCoalescer customerCreateCoalescer;
+    private AccountClient accountClient;
     private CustomerService customerService;
 
     private Customer savedCustomer;
@@ -40,7 +50,11 @@ public class CustomerServiceTest {
     @BeforeEach
     void setUp() {
         customerRepository = Mockito.mock(CustomerRepository.class);
-        customerService = new CustomerService(customerRepository);
+        customerCreateCoalescer = Mockito.mock(CustomerCreateCoalescer.class);
+        accountClient = Mockito.mock(AccountClient.class);
+        customerService = new CustomerService(customerRepository, customerCreateCoalescer,
+                new CustomerShards(new CustomerShardingProperties()), Mockito.mock(ShardedCustomerQueries.class),
+                accountClient);
 
         savedCustomer = Customer.builder()
                 .id(UUID.randomUUID())
@@ -70,6 +84,48 @@ public class CustomerServiceTest {
     }
 
 
+    @Test
+    void testCreateCustomer_coalescedWhenEnabled() {
+        CustomerRequestDto dto = new CustomerRequestDto();
+        dto.setFirstName("Faisal");
+        dto.setLastName("Abdirashid");
+        when(customerCreateCoalescer.isEnabled()).thenReturn(true);
+        when(customerCreateCoalescer.create(any(Customer.class))).thenReturn(Mono.just(savedCustomer));
+
+        StepVerifier.create(customerService.createCustomer(dto))
+                .expectNextMatches(response -> response.getId().equals(savedCustomer.getId()))
+                .verifyComplete();
+
+        Mockito.verify(customerRepository, Mockito.never()).save(any());
+    }
+
+    @Test
+    void testGetCustomersByIds_keepsRequestOrderAndReportsMissing() {
+        Customer other = Customer.builder().id(UUID.randomUUID()).firstName("Amina").lastName("Hassan").build();
+        UUID missing = UUID.randomUUID();
+        when(customerRepository.findAllByIdArray(any(UUID[].class))).thenReturn(Flux.just(savedCustomer, other));
+
+        StepVerifier.create(customerService.getCustomersByIds(
+                        List.of(other.getId(), missing, savedCustomer.getId(), other.getId())))
+                .expectNextMatches(result -> result.getFound().size() == 2
+                        && result.getFound().get(0).getId().equals(other.getId())
+                        && result.getFound().get(1).getId().equals(savedCustomer.getId())
+                        && result.getMissingIds().equals(List.of(missing)))
+                .verifyComplete();
+
+        Mockito.verify(customerRepository).findAllByIdArray(new UUID[]{other.getId(), missing, savedCustomer.getId()});
+    }
+
+    @Test
+    void testGetCustomersByIds_rejectsTooManyIds() {
+        List<UUID> ids = Stream.generate(UUID::randomUUID).limit(CustomerService.MAX_BATCH_GET_IDS + 1).toList();
+
+        StepVerifier.create(customerService.getCustomersByIds(ids))
+                .expectError(ResponseStatusException.class)
+                .verify();
+        Mockito.verifyNoInteractions(customerRepository);
+    }
+
     @Test
     void testGetCustomerById_success() {
         when(customerRepository.findById(any(UUID.class))).thenReturn(Mono.just(savedCustomer));
@@ -118,10 +174,31 @@ public class CustomerServiceTest {
         UUID id = UUID.randomUUID();
 
         when(customerRepository.existsById(id)).thenReturn(Mono.just(true));
+        when(accountClient.deleteAccountsOfCustomer(id)).thenReturn(Mono.empty());
         when(customerRepository.deleteById(id)).thenReturn(Mono.empty());
 
         StepVerifier.create(customerService.deleteCustomer(id))
                 .verifyComplete();
+
+        InOrder order = Mockito.inOrder(accountClient, customerRepository);
+        order.verify(accountClient).deleteAccountsOfCustomer(id);
+        order.verify(customerRepository).deleteById(id);
+    }
+
+    @Test
+    void testDeleteCustomer_keepsTheCustomerWhenItsAccountsCannotBeDeleted() {
+        UUID id = UUID.randomUUID();
+
+        when(customerRepository.existsById(id)).thenReturn(Mono.just(true));
+        when(accountClient.deleteAccountsOfCustomer(id))
+                .thenReturn(Mono.error(new IllegalStateException("account-service unavailable")));
+        when(customerRepository.deleteById(id)).thenReturn(Mono.empty());
+
+        StepVerifier.create(customerService.deleteCustomer(id))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        Mockito.verify(customerRepository, Mockito.never()).deleteById(id);
     }
 
     @Test
@@ -0,0 +1,203 @@
+package com.dtbbanking.customer_service;
+
+import com.dtbbanking.customer_service.configs.ConnectionPoolProperties;
+import com.dtbbanking.customer_service.configs.ConnectionPools;
+import com.dtbbanking.customer_service.configs.CustomerShardingConfig;
+import com.dtbbanking.customer_service.configs.CustomerShardingProperties;
+import com.dtbbanking.customer_service.configs.ShardRoutingConnectionFactory;
+import com.dtbbanking.customer_service.models.Customer;
+import com.dtbbanking.customer_service.repository.CustomerShards;
+import com.dtbbanking.customer_service.repository.ShardedCustomerQueries;
+import com.dtbbanking.customer_service.service.CustomerResharder;
+import com.dtbbanking.customer_service.utils.ShardRing;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sharding against real Postgres instances, one container per shard (skipped without Docker).
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CustomerShardingIntegrationTest {
+
+    private static final String CHANGE_LOG = "classpath:db/changelog/db.changelog-master.yaml";
+
+    @Container
+    private static final PostgreSQLContainer<?> SHARD_0 = new PostgreSQLContainer<>("postgres:15");
+    @Container
+    private static final PostgreSQLContainer<?> SHARD_1 = new PostgreSQLContainer<>("postgres:15");
+    @Container
+    private static final PostgreSQLContainer<?> SHARD_2 = new PostgreSQLContainer<>("postgres:15");
+
+    private ShardRoutingConnectionFactory connectionFactory;
+    private CustomerShards customerShards;
+    private ShardedCustomerQueries queries;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        CustomerShardingProperties properties = properties(SHARD_0, SHARD_1);
+        // only gives the spare shard its schema; it joins in reshardsOntoAnAddedShard
+        connectionFactory(properties(SHARD_2)).destroy();
+
+        connectionFactory = connectionFactory(properties);
+        customerShards = new CustomerShards(properties);
+        queries = new ShardedCustomerQueries(DatabaseClient.create(connectionFactory),
+                new R2dbcEntityTemplate(connectionFactory), customerShards);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (PostgreSQLContainer<?> shard : List.of(SHARD_0, SHARD_1, SHARD_2)) {
+            direct(shard).sql("DELETE FROM tb_customers").then().block();
+        }
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void storesEachCustomerOnItsShardAndMergesLists() {
+        List<Customer> inserted = insert(200);
+
+        Map<String, Long> stored = Map.of(
+                "shard-0", count(SHARD_0),
+                "shard-1", count(SHARD_1));
+        assertThat(stored.values()).allSatisfy(count -> assertThat(count).isPositive());
+        assertThat(stored.values().stream().mapToLong(Long::longValue).sum()).isEqualTo(200);
+        for (Customer customer : inserted) {
+            PostgreSQLContainer<?> home = customerShards.shardOf(customer.getId()).equals("shard-0") ? SHARD_0 : SHARD_1;
+            assertThat(exists(home, customer.getId())).isTrue();
+        }
+
+        List<UUID> expected = inserted.stream()
+                .sorted(Comparator.comparing(Customer::getCreatedAt).thenComparing(Customer::getId, CustomerShardingIntegrationTest::unsigned))
+                .skip(40)
+                .limit(20)
+                .map(Customer::getId)
+                .toList();
+        assertThat(queries.findAll(2, 20).map(Customer::getId).collectList().block()).isEqualTo(expected);
+    }
+
+    @Test
+    void reshardsOntoAnAddedShard() {
+        List<Customer> inserted = insert(300);
+
+        ShardRing from = new ShardRing(List.of("shard-0", "shard-1"), 256);
+        ShardRing to = new ShardRing(List.of("shard-0", "shard-1", "shard-2"), 256);
+        Map<String, DatabaseClient> databases = new LinkedHashMap<>();
+        databases.put("shard-0", direct(SHARD_0));
+        databases.put("shard-1", direct(SHARD_1));
+        databases.put("shard-2", direct(SHARD_2));
+        CustomerResharder resharder = new CustomerResharder(from, to, databases, 50);
+
+        long moving = inserted.stream().filter(c -> to.shardFor(c.getId()).equals("shard-2")).count();
+        assertThat(resharder.copy(null).block()).isEqualTo(moving);
+        assertThat(count(SHARD_2)).isEqualTo(moving);
+        assertThat(resharder.copy(LocalDateTime.now().plusMinutes(1)).block()).isZero();
+
+        assertThat(resharder.cleanup().block()).isEqualTo(moving);
+        assertThat(count(SHARD_0) + count(SHARD_1) + count(SHARD_2)).isEqualTo(300);
+        for (Customer customer : inserted) {
+            PostgreSQLContainer<?> home = switch (to.shardFor(customer.getId())) {
+                case "shard-0" -> SHARD_0;
+                case "shard-1" -> SHARD_1;
+                default -> SHARD_2;
+            };
+            assertThat(exists(home, customer.getId())).isTrue();
+        }
+    }
+
+    private List<Customer> insert(int count) {
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        return Flux.fromStream(IntStream.range(0, count).boxed())
+                .concatMap(i -> queries.insert(Customer.builder()
+                        .firstName("First" + i)
+                        .lastName("Last" + i)
+                        // a few ties, so the id breaks them
+                        .createdAt(base.plusSeconds(i / 3))
+                        .updatedAt(base.plusSeconds(i / 3))
+                        .build()))
+                .collectList()
+                .block();
+    }
+
+    private static ShardRoutingConnectionFactory connectionFactory(CustomerShardingProperties properties) throws Exception {
+        R2dbcProperties r2dbcProperties = new R2dbcProperties();
+        r2dbcProperties.setUsername(SHARD_0.getUsername());
+        r2dbcProperties.setPassword(SHARD_0.getPassword());
+        @SuppressWarnings("unchecked")
+        ObjectProvider<MeterRegistry> meterRegistry = mock(ObjectProvider.class);
+        when(meterRegistry.getIfAvailable(any())).thenReturn(new SimpleMeterRegistry());
+        ConnectionPools connectionPools = new ConnectionPools(r2dbcProperties.getPool(), new ConnectionPoolProperties(),
+                List.of(), new SimpleMeterRegistry());
+
+        ShardRoutingConnectionFactory connectionFactory = new CustomerShardingConfig()
+                .connectionFactory(r2dbcProperties, properties, false, CHANGE_LOG, true, connectionPools, meterRegistry);
+        connectionFactory.afterPropertiesSet();
+        return connectionFactory;
+    }
+
+    private static boolean exists(PostgreSQLContainer<?> shard, UUID id) {
+        return direct(shard).sql("SELECT count(*) FROM tb_customers WHERE id = :id")
+                .bind("id", id)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block() == 1L;
+    }
+
+    private static long count(PostgreSQLContainer<?> shard) {
+        return direct(shard).sql("SELECT count(*) FROM tb_customers")
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block();
+    }
+
+    private static DatabaseClient direct(PostgreSQLContainer<?> shard) {
+        return DatabaseClient.create(ConnectionFactories.get(r2dbcUrl(shard)));
+    }
+
+    private static String r2dbcUrl(PostgreSQLContainer<?> shard) {
+        return "r2dbc:postgresql://" + shard.getUsername() + ":" + shard.getPassword() + "@" + shard.getHost()
+                + ":" + shard.getFirstMappedPort() + "/" + shard.getDatabaseName();
+    }
+
+    private static CustomerShardingProperties properties(PostgreSQLContainer<?>... containers) {
+        CustomerShardingProperties properties = new CustomerShardingProperties();
+        properties.setEnabled(true);
+        for (PostgreSQLContainer<?> container : containers) {
+            CustomerShardingProperties.Shard shard = new CustomerShardingProperties.Shard();
+            shard.setUrl("r2dbc:postgresql://" + container.getHost() + ":" + container.getFirstMappedPort()
+                    + "/" + container.getDatabaseName());
+            properties.getShards().add(shard);
+        }
+        return properties;
+    }
+
+    private static int unsigned(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
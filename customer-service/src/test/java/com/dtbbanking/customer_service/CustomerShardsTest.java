@@ -0,0 +1,89 @@
+package com.dtbbanking.customer_service;
+
+import com.dtbbanking.customer_service.configs.CustomerShardingProperties;
+import com.dtbbanking.customer_service.repository.CustomerShards;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerShardsTest {
+
+    private final CustomerShards shards = new CustomerShards(properties(3));
+
+    @Test
+    void fanOutMergesShardsInOrderAndPages() {
+        // shard-i holds i, i + 3, i + 6, ... below 30
+        Map<String, Integer> limits = new ConcurrentHashMap<>();
+        List<Integer> page = shards.fanOut(limit -> Flux.deferContextual(context -> {
+                    String shard = CustomerShards.shardKey(context).orElseThrow();
+                    limits.put(shard, limit);
+                    int first = Integer.parseInt(shard.substring("shard-".length()));
+                    return Flux.range(0, 10).map(i -> first + 3 * i).take(limit);
+                }), Comparator.<Integer>naturalOrder(), 2, 4)
+                .collectList()
+                .block();
+
+        assertThat(page).containsExactly(8, 9, 10, 11);
+        assertThat(limits).containsOnlyKeys("shard-0", "shard-1", "shard-2");
+        assertThat(limits.values()).containsOnly(12);
+    }
+
+    @Test
+    void routesSingleIdsToTheirShard() {
+        UUID id = UUID.randomUUID();
+
+        StepVerifier.create(shards.onShardOf(id, Mono.deferContextual(context -> Mono.just(CustomerShards.shardKey(context)))))
+                .assertNext(shard -> assertThat(shard).contains(shards.shardOf(id)))
+                .verifyComplete();
+    }
+
+    @Test
+    void splitsIdsByShard() {
+        List<UUID> ids = IntStream.range(0, 100).mapToObj(i -> UUID.randomUUID()).toList();
+        List<String> queried = new ArrayList<>();
+
+        List<UUID> found = shards.byShard(ids, group -> Flux.deferContextual(context -> {
+                    String shard = CustomerShards.shardKey(context).orElseThrow();
+                    assertThat(group).allSatisfy(id -> assertThat(shards.shardOf(id)).isEqualTo(shard));
+                    synchronized (queried) {
+                        queried.add(shard);
+                    }
+                    return Flux.fromIterable(group);
+                }))
+                .collectList()
+                .block();
+
+        assertThat(found).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(queried).containsExactlyInAnyOrder("shard-0", "shard-1", "shard-2");
+    }
+
+    @Test
+    void passesQueriesThroughWhenDisabled() {
+        CustomerShards unsharded = new CustomerShards(new CustomerShardingProperties());
+
+        assertThat(unsharded.isEnabled()).isFalse();
+        StepVerifier.create(unsharded.onShardOf(UUID.randomUUID(), Mono.deferContextual(context -> Mono.just(CustomerShards.shardKey(context)))))
+                .assertNext(shard -> assertThat(shard).isEmpty())
+                .verifyComplete();
+    }
+
+    static CustomerShardingProperties properties(int count) {
+        CustomerShardingProperties properties = new CustomerShardingProperties();
+        properties.setEnabled(true);
+        for (int i = 0; i < count; i++) {
+            properties.getShards().add(new CustomerShardingProperties.Shard());
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,118 @@
+package com.dtbbanking.customer_service;
+
+import com.dtbbanking.customer_service.configs.StatementCountingFilter;
+import com.dtbbanking.customer_service.service.AccountClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * SQL statements per customer endpoint against a migrated Postgres (skipped without Docker).
+ * Raising a budget should be a deliberate change: a query per row of a result fails here first.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CustomerStatementBudgetTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15");
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + POSTGRES.getHost() + ":"
+                + POSTGRES.getFirstMappedPort() + "/" + POSTGRES.getDatabaseName());
+        registry.add("spring.r2dbc.username", POSTGRES::getUsername);
+        registry.add("spring.r2dbc.password", POSTGRES::getPassword);
+        registry.add("spring.liquibase.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.liquibase.user", POSTGRES::getUsername);
+        registry.add("spring.liquibase.password", POSTGRES::getPassword);
+        registry.add("spring.rsocket.server.port", () -> 0);
+        // Liquibase owns the schema, not the schema.sql on the test classpath
+        registry.add("spring.sql.init.mode", () -> "never");
+    }
+
+    // account-service, which deletes the accounts of a deleted customer
+    @MockitoBean
+    private AccountClient accountClient;
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private StatementCountingFilter statementCountingFilter;
+
+    private StatementBudget budget;
+
+    @BeforeEach
+    void setUp() {
+        budget = new StatementBudget(statementCountingFilter);
+        when(accountClient.deleteAccountsOfCustomer(any())).thenReturn(Mono.empty());
+    }
+
+    @Test
+    void customerEndpointsStayWithinTheirStatementBudgets() throws Exception {
+        AtomicReference<String> created = new AtomicReference<>();
+        budget.expect("POST /api/v1/customers", 1, () -> client.post().uri("/api/v1/customers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("firstName", "Amina", "lastName", "Otieno"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.data.id").value(created::set));
+        String id = created.get();
+
+        budget.expect("GET /api/v1/customers/{id}", 1, () -> client.get().uri("/api/v1/customers/{id}", id)
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("GET /api/v1/customers/{id}", 1, () -> client.get().uri("/api/v1/customers/{id}?fields=id,fullName", id)
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("GET /api/v1/customers", 1, () -> client.get().uri("/api/v1/customers?ids={a},{b}", id, UUID.randomUUID())
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("POST /api/v1/customers/batch-get", 1, () -> client.post().uri("/api/v1/customers/batch-get")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("ids", List.of(id, UUID.randomUUID())))
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("GET /api/v1/customers", 1, () -> client.get().uri("/api/v1/customers?name=amina&size=20")
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("GET /api/v1/customers", 1, () -> client.get().uri(builder -> builder.path("/api/v1/customers")
+                        .queryParam("start", LocalDateTime.now().minusDays(1))
+                        .queryParam("end", LocalDateTime.now().plusDays(1))
+                        .build())
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("GET /api/v1/customers", 1, () -> client.get().uri("/api/v1/customers")
+                .exchange()
+                .expectStatus().isOk());
+        // read and update
+        budget.expect("PUT /api/v1/customers/{id}", 2, () -> client.put().uri("/api/v1/customers/{id}", id)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("otherName", "Wanjiru"))
+                .exchange()
+                .expectStatus().isOk());
+        budget.expect("DELETE /api/v1/customers/{id}", 2, () -> client.delete().uri("/api/v1/customers/{id}", id)
+                .exchange()
+                .expectStatus().isOk());
+    }
+}
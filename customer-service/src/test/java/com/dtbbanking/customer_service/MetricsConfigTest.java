@@ -0,0 +1,89 @@
+package com.dtbbanking.customer_service;
+
+import com.dtbbanking.customer_service.configs.CustomerShardingProperties;
+import com.dtbbanking.customer_service.configs.MetricsConfig;
+import com.dtbbanking.customer_service.configs.MetricsProperties;
+import com.dtbbanking.customer_service.models.Customer;
+import com.dtbbanking.customer_service.repository.CustomerRepository;
+import com.dtbbanking.customer_service.repository.CustomerShards;
+import com.dtbbanking.customer_service.repository.ShardedCustomerQueries;
+import com.dtbbanking.customer_service.service.AccountClient;
+import com.dtbbanking.customer_service.service.CustomerCreateCoalescer;
+import com.dtbbanking.customer_service.service.CustomerService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MetricsConfigTest {
+
+    @Test
+    void addsSloBucketsToConfiguredEndpointsOnly() {
+        MetricsProperties properties = new MetricsProperties();
+        properties.getSlo().put("/api/v1/customers/{id}", List.of(Duration.ofMillis(50), Duration.ofMillis(100)));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(new MetricsConfig().endpointSloFilter(properties));
+
+        Timer configured = Timer.builder("http.server.requests").tag("uri", "/api/v1/customers/{id}").register(registry);
+        Timer other = Timer.builder("http.server.requests").tag("uri", "/api/v1/customers").register(registry);
+        configured.record(Duration.ofMillis(30));
+        configured.record(Duration.ofMillis(80));
+        other.record(Duration.ofMillis(30));
+
+        CountAtBucket[] buckets = configured.takeSnapshot().histogramCounts();
+        assertThat(Arrays.stream(buckets).map(bucket -> bucket.bucket(TimeUnit.MILLISECONDS)))
+                .containsExactly(50.0, 100.0);
+        assertThat(Arrays.stream(buckets).map(CountAtBucket::count)).containsExactly(1.0, 2.0);
+        assertThat(other.takeSnapshot().histogramCounts()).isEmpty();
+    }
+
+    @Test
+    void observesServicePipelinesByServiceAndMethod() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        @SuppressWarnings("unchecked")
+        ObjectProvider<ObservationRegistry> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable(any())).thenReturn(observationRegistry);
+
+        CustomerRepository repository = mock(CustomerRepository.class);
+        UUID id = UUID.randomUUID();
+        when(repository.findById(id)).thenReturn(Mono.just(Customer.builder()
+                .id(id).firstName("Faisal").lastName("Abdirashid").createdAt(LocalDateTime.now()).build()));
+        CustomerService service = new CustomerService(repository, mock(CustomerCreateCoalescer.class),
+                new CustomerShards(new CustomerShardingProperties()), Mockito.mock(ShardedCustomerQueries.class),
+                mock(AccountClient.class));
+
+        CustomerService observed = (CustomerService) MetricsConfig.servicePipelineMetrics(provider, true)
+                .postProcessAfterInitialization(service, "customerService");
+        observed.getCustomerById(id).block();
+
+        Timer timer = meterRegistry.find("service.pipeline")
+                .tag("service", "CustomerService")
+                .tag("method", "getCustomerById")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(1);
+
+        Object untouched = MetricsConfig.servicePipelineMetrics(provider, false)
+                .postProcessAfterInitialization(service, "customerService");
+        assertThat(untouched).isSameAs(service);
+    }
+}
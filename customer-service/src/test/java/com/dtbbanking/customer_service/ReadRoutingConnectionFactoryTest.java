@@ -0,0 +1,82 @@
+package com.dtbbanking.customer_service;
+
+import com.dtbbanking.customer_service.configs.ReadRoutingConnectionFactory;
+import com.dtbbanking.customer_service.utils.ReadRouting;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class ReadRoutingConnectionFactoryTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ReadRoutingConnectionFactory routing;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, ConnectionFactory> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", mock(ConnectionFactory.class));
+        replicas.put("replica-1", mock(ConnectionFactory.class));
+        routing = new ReadRoutingConnectionFactory(mock(ConnectionFactory.class), replicas,
+                Duration.ofSeconds(5), Duration.ofSeconds(2), registry);
+        routing.updateLag("replica-0", 0);
+        routing.updateLag("replica-1", 0.5);
+    }
+
+    @Test
+    void sendsReadsToReplicasRoundRobinAndEverythingElseToPrimary() {
+        assertEquals("replica-0", routing.route(readOnly(Context.empty())));
+        assertEquals("replica-1", routing.route(readOnly(Context.empty())));
+        assertEquals("replica-0", routing.route(readOnly(Context.empty())));
+        assertEquals(ReadRoutingConnectionFactory.PRIMARY, routing.route(Context.empty()));
+        assertEquals(2, registry.get("db.routing.queries").tag("pool", "replica-0").counter().count());
+    }
+
+    @Test
+    void skipsLaggingReplicasAndFallsBackToPrimary() {
+        routing.updateLag("replica-0", 30);
+
+        assertEquals("replica-1", routing.route(readOnly(Context.empty())));
+        assertEquals("replica-1", routing.route(readOnly(Context.empty())));
+
+        routing.updateLag("replica-1", Double.POSITIVE_INFINITY);
+
+        assertEquals(ReadRoutingConnectionFactory.PRIMARY, routing.route(readOnly(Context.empty())));
+        assertEquals(1, registry.get("db.routing.queries").tag("reason", "replica-unavailable").counter().count());
+    }
+
+    @Test
+    void readsTheirOwnWritesWithinARequest() {
+        Context request = ReadRouting.withRequestScope(Context.empty());
+
+        assertEquals("replica-0", routing.route(readOnly(request)));
+        assertEquals(ReadRoutingConnectionFactory.PRIMARY, routing.route(request));
+        assertEquals(ReadRoutingConnectionFactory.PRIMARY, routing.route(readOnly(request)));
+        // another request is unaffected
+        assertEquals("replica-1", routing.route(readOnly(ReadRouting.withRequestScope(Context.empty()))));
+    }
+
+    @Test
+    void readOnlyMarksTheSubscriberContext() {
+        StepVerifier.create(ReadRouting.readOnly(Mono.deferContextual(context -> Mono.just(ReadRouting.isReadOnly(context)))))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    private static ContextView readOnly(Context context) {
+        return ReadRouting.readOnly(Mono.deferContextual(Mono::just))
+                .contextWrite(context)
+                .block();
+    }
+}
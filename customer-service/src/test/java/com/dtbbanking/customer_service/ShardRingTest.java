@@ -0,0 +1,58 @@
+package com.dtbbanking.customer_service;
+
+import com.dtbbanking.customer_service.utils.ShardRing;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardRingTest {
+
+    private static final List<UUID> IDS = IntStream.range(0, 30_000).mapToObj(i -> UUID.randomUUID()).toList();
+
+    @Test
+    void spreadsIdsEvenly() {
+        ShardRing ring = new ShardRing(List.of("shard-0", "shard-1", "shard-2"), 256);
+
+        Map<String, Integer> counts = new HashMap<>();
+        IDS.forEach(id -> counts.merge(ring.shardFor(id), 1, Integer::sum));
+
+        assertThat(counts).containsOnlyKeys("shard-0", "shard-1", "shard-2");
+        // within 20% of a third each
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(8_000, 12_000));
+    }
+
+    @Test
+    void isStableAcrossInstances() {
+        ShardRing first = new ShardRing(List.of("shard-0", "shard-1"), 64);
+        ShardRing second = new ShardRing(List.of("shard-0", "shard-1"), 64);
+
+        assertThat(IDS).allSatisfy(id -> assertThat(second.shardFor(id)).isEqualTo(first.shardFor(id)));
+    }
+
+    @Test
+    void addingAShardOnlyMovesIdsOntoIt() {
+        ShardRing before = new ShardRing(List.of("shard-0", "shard-1", "shard-2"), 256);
+        ShardRing after = new ShardRing(List.of("shard-0", "shard-1", "shard-2", "shard-3"), 256);
+
+        long moved = IDS.stream().filter(id -> !before.shardFor(id).equals(after.shardFor(id))).count();
+
+        assertThat(IDS).allSatisfy(id -> {
+            String shard = after.shardFor(id);
+            assertThat(shard).isIn(before.shardFor(id), "shard-3");
+        });
+        // about a quarter moves
+        assertThat(moved).isBetween(6_000L, 9_000L);
+    }
+
+    @Test
+    void requiresAShard() {
+        assertThatThrownBy(() -> new ShardRing(List.of(), 256)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
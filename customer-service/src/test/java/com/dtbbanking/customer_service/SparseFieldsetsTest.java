@@ -0,0 +1,43 @@
+package com.dtbbanking.customer_service;
+
+import com.dtbbanking.customer_service.mapper.CustomerField;
+import com.dtbbanking.customer_service.utils.SparseFieldset;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SparseFieldsetsTest {
+
+    @Test
+    void selectsOnlyTheColumnsOfTheRequestedFields() {
+        assertThat(CustomerField.FIELDSETS.parse("id").select())
+                .isEqualTo("SELECT id FROM tb_customers");
+        assertThat(CustomerField.FIELDSETS.parse("fullName,id").select())
+                .isEqualTo("SELECT id, first_name, last_name, other_name FROM tb_customers");
+        assertThat(CustomerField.FIELDSETS.all().select())
+                .isEqualTo("SELECT id, first_name, last_name, other_name, created_at FROM tb_customers");
+    }
+
+    @Test
+    void cachesOneFieldsetPerCombination() {
+        SparseFieldset<CustomerField> fields = CustomerField.FIELDSETS.parse("id,fullName");
+
+        assertThat(CustomerField.FIELDSETS.parse(" fullName ,id,,id")).isSameAs(fields);
+        assertThat(CustomerField.FIELDSETS.parse("id,fullName,createdAt")).isSameAs(CustomerField.FIELDSETS.all());
+        assertThat(CustomerField.FIELDSETS.parse(null)).isSameAs(CustomerField.FIELDSETS.all());
+        assertThat(CustomerField.FIELDSETS.parse(" , ")).isSameAs(CustomerField.FIELDSETS.all());
+        assertThat(fields.includes(CustomerField.ID)).isTrue();
+        assertThat(fields.includes(CustomerField.CREATED_AT)).isFalse();
+    }
+
+    @Test
+    void rejectsUnknownFields() {
+        assertThatThrownBy(() -> CustomerField.FIELDSETS.parse("id,first_name"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST))
+                .hasMessageContaining("first_name");
+    }
+}
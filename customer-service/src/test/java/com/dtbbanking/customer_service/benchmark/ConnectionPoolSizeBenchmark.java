@@ -0,0 +1,98 @@
+package com.dtbbanking.customer_service.benchmark;
+
+import com.dtbbanking.customer_service.configs.ConnectionPoolProperties;
+import com.dtbbanking.customer_service.configs.ConnectionPools;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import liquibase.integration.spring.SpringLiquibase;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query throughput against pool size: {@value #CONCURRENCY} callers at once look customers up by
+ * id through a pool of {@code poolSize} connections, with and without the prepared statement
+ * cache. Throughput climbs with the pool until Postgres (here a local container) runs out of
+ * CPU, then stays flat or drops; {@code spring.r2dbc.pool.max-size} belongs just before that
+ * knee. Needs Docker. Run with {@code mvn -Pbenchmark test-compile exec:exec
+ * -Dbenchmark.include=ConnectionPoolSizeBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ConnectionPoolSizeBenchmark {
+
+    private static final int CONCURRENCY = 64;
+    private static final int CUSTOMERS = 10_000;
+
+    @Param({"1", "2", "5", "10", "20", "50"})
+    private int poolSize;
+
+    @Param({"0", "256"})
+    private int statementCache;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConnectionPool pool;
+    private DatabaseClient databaseClient;
+    private List<UUID> ids;
+
+    @Setup
+    public void setUp() throws Exception {
+        postgres = new PostgreSQLContainer<>("postgres:15");
+        postgres.start();
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO tb_customers (first_name, last_name, created_at, updated_at) "
+                + "SELECT 'First' || n, 'Last' || n, now(), now() FROM generate_series(1, ?) n", CUSTOMERS);
+        ids = jdbc.queryForList("SELECT id FROM tb_customers", UUID.class);
+
+        R2dbcProperties.Pool sizes = new R2dbcProperties.Pool();
+        sizes.setInitialSize(poolSize);
+        sizes.setMaxSize(poolSize);
+        ConnectionPoolProperties settings = new ConnectionPoolProperties();
+        settings.setPreparedStatementCacheSize(statementCache);
+        settings.setMaxPendingAcquires(-1);
+        pool = new ConnectionPools(sizes, settings, List.of(), new SimpleMeterRegistry())
+                .create("benchmark", "r2dbc:postgresql://" + postgres.getHost() + ":" + postgres.getFirstMappedPort()
+                        + "/" + postgres.getDatabaseName(), postgres.getUsername(), postgres.getPassword());
+        databaseClient = DatabaseClient.create(pool);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.dispose();
+        postgres.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENCY)
+    public long lookups() {
+        return Flux.range(0, CONCURRENCY)
+                .flatMap(i -> databaseClient.sql("SELECT * FROM tb_customers WHERE id = $1")
+                        .bind(0, ids.get(ThreadLocalRandom.current().nextInt(ids.size())))
+                        .fetch()
+                        .one(), CONCURRENCY)
+                .count()
+                .block();
+    }
+}
@@ -0,0 +1,106 @@
+package com.dtbbanking.customer_service.benchmark;
+
+import com.dtbbanking.customer_service.dto.CustomerResponseDto;
+import com.dtbbanking.customer_service.dto.UniversalResponse;
+import com.dtbbanking.customer_service.mapper.CustomerJsonWriter;
+import com.dtbbanking.customer_service.mapper.CustomerMapper;
+import com.dtbbanking.customer_service.models.Customer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one customer list page: entity to DTO to {@code UniversalResponse} through the
+ * WebFlux Jackson encoder, versus {@link CustomerJsonWriter} writing the same bytes from column
+ * values. Both write into pooled Netty buffers, as a Reactor Netty response does. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=CustomerListJsonBenchmark};
+ * the profile adds JMH's GC profiler, so {@code gc.alloc.rate.norm} gives the bytes allocated
+ * per page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerListJsonBenchmark {
+
+    private static final ResolvableType RESPONSE_TYPE = ResolvableType.forClassWithGenerics(
+            UniversalResponse.class, ResolvableType.forClassWithGenerics(List.class, CustomerResponseDto.class));
+
+    @Param({"10", "100", "1000"})
+    private int rows;
+
+    private final NettyDataBufferFactory pooled = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final Jackson2JsonEncoder encoder = new Jackson2JsonEncoder(objectMapper);
+
+    private List<Customer> customers;
+
+    @Setup
+    public void setUp() {
+        customers = new ArrayList<>(rows);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 10, 0, 0, 123_000_000);
+        for (int i = 0; i < rows; i++) {
+            customers.add(Customer.builder()
+                    .id(UUID.randomUUID())
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .otherName(i % 3 == 0 ? null : "Other" + i)
+                    .createdAt(createdAt.plusSeconds(i))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public int mapped() {
+        List<CustomerResponseDto> dtos = new ArrayList<>(rows);
+        for (Customer customer : customers) {
+            dtos.add(CustomerMapper.toResponseDto(customer));
+        }
+        DataBuffer buffer = encoder.encodeValue(UniversalResponse.ok(dtos), pooled, RESPONSE_TYPE,
+                MediaType.APPLICATION_JSON, null);
+        int bytes = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+
+    @Benchmark
+    public int streamed(Blackhole blackhole) {
+        int bytes = 0;
+        try (CustomerJsonWriter writer = new CustomerJsonWriter(objectMapper.getFactory(), pooled)) {
+            for (Customer customer : customers) {
+                if (writer.writeCustomer(customer.getId(), customer.getFirstName(), customer.getLastName(),
+                        customer.getOtherName(), customer.getCreatedAt())) {
+                    bytes += release(writer.take());
+                }
+            }
+            bytes += release(writer.finish());
+        }
+        blackhole.consume(bytes);
+        return bytes;
+    }
+
+    private static int release(DataBuffer buffer) {
+        int bytes = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return bytes;
+    }
+}
@@ -0,0 +1,154 @@
+package com.dtbbanking.customer_service.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.dtbbanking.customer_service.configs.CustomerShardingProperties;
+import com.dtbbanking.customer_service.dto.BatchGetResponseDto;
+import com.dtbbanking.customer_service.dto.CustomerRequestDto;
+import com.dtbbanking.customer_service.dto.CustomerResponseDto;
+import com.dtbbanking.customer_service.dto.UniversalResponse;
+import com.dtbbanking.customer_service.dto.UpdateCustomerRequestDto;
+import com.dtbbanking.customer_service.mapper.CustomerMapper;
+import com.dtbbanking.customer_service.models.Customer;
+import com.dtbbanking.customer_service.repository.CustomerRepository;
+import com.dtbbanking.customer_service.repository.CustomerShards;
+import com.dtbbanking.customer_service.service.CustomerCreateCoalescer;
+import com.dtbbanking.customer_service.service.CustomerService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the customer paths without I/O: {@link CustomerMapper}, the JSON of a
+ * {@code UniversalResponse}, and the {@link CustomerService} pipelines over an in-memory
+ * {@link CustomerRepository}. Run with {@code mvn -Pbenchmark test-compile exec:exec
+ * -Dbenchmark.include=CustomerPipelineBenchmark}; the profile adds JMH's GC profiler, so
+ * {@code gc.alloc.rate.norm} gives the bytes allocated per call next to the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerPipelineBenchmark {
+
+    private static final int CUSTOMERS = 10_000;
+    private static final int BATCH = 50;
+    private static final int PAGE = 20;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private CustomerService customerService;
+    private Customer customer;
+    private CustomerResponseDto responseDto;
+    private UUID[] ids;
+    private List<UUID> idList;
+    private CustomerRequestDto createRequest;
+    private UpdateCustomerRequestDto updateRequest;
+
+    @Setup
+    public void setUp() {
+        // the service logs every create and lookup at INFO; console output would be all we measure
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        Map<UUID, Customer> customers = new HashMap<>();
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            Customer c = Customer.builder()
+                    .id(UUID.randomUUID())
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .otherName(i % 3 == 0 ? null : "Other" + i)
+                    .createdAt(createdAt.plusSeconds(i))
+                    .updatedAt(createdAt.plusSeconds(i))
+                    .build();
+            customers.put(c.getId(), c);
+        }
+        ids = customers.keySet().toArray(new UUID[0]);
+        idList = Arrays.asList(ids);
+        List<Customer> all = new ArrayList<>(customers.values());
+
+        CustomerRepository repository = RepositoryStub.of(CustomerRepository.class)
+                .on("findById", args -> Mono.justOrEmpty(customers.get((UUID) args[0])))
+                .on("save", args -> Mono.just((Customer) args[0]))
+                .on("findAll", args -> Flux.fromIterable(all))
+                .on("findAllByIdArray", args -> Flux.fromArray((UUID[]) args[0]).mapNotNull(customers::get))
+                .build();
+        CustomerShards shards = new CustomerShards(new CustomerShardingProperties());
+        CustomerCreateCoalescer coalescer = new CustomerCreateCoalescer(null, shards,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class), false, 100, Duration.ofMillis(5), 2);
+        customerService = new CustomerService(repository, coalescer, shards, null, null);
+
+        customer = customers.get(ids[0]);
+        responseDto = CustomerMapper.toResponseDto(customer);
+        createRequest = new CustomerRequestDto();
+        createRequest.setFirstName("Faisal");
+        createRequest.setLastName("Abdirashid");
+        createRequest.setEmail("faisaldev26@gmail.com");
+        createRequest.setPhoneNumber("254795881812");
+        createRequest.setNationalId("38481165");
+        updateRequest = new UpdateCustomerRequestDto();
+        updateRequest.setOtherName("Updated");
+    }
+
+    @Benchmark
+    public CustomerResponseDto toResponseDto() {
+        return CustomerMapper.toResponseDto(customer);
+    }
+
+    @Benchmark
+    public byte[] responseJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(UniversalResponse.ok(responseDto));
+    }
+
+    @Benchmark
+    public CustomerResponseDto getCustomerById() {
+        return customerService.getCustomerById(randomId()).block();
+    }
+
+    @Benchmark
+    public CustomerResponseDto createCustomer() {
+        return customerService.createCustomer(createRequest).block();
+    }
+
+    @Benchmark
+    public CustomerResponseDto updateCustomer() {
+        return customerService.updateCustomer(randomId(), updateRequest).block();
+    }
+
+    @Benchmark
+    public BatchGetResponseDto<CustomerResponseDto> getCustomersByIds() {
+        int from = ThreadLocalRandom.current().nextInt(ids.length - BATCH);
+        return customerService.getCustomersByIds(idList.subList(from, from + BATCH)).block();
+    }
+
+    @Benchmark
+    public List<CustomerResponseDto> getAllCustomers() {
+        return customerService.getAllCustomers(0, PAGE).collectList().block();
+    }
+
+    private UUID randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
@@ -0,0 +1,15 @@
+#!/bin/bash
+# Streaming replica of the postgres service: cloned with pg_basebackup on first start,
+# then runs as a hot standby (read-only) following the primary.
+set -e
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+  until pg_basebackup --host=postgres --username="$PGUSER" --pgdata="$PGDATA" \
+      --wal-method=stream --write-recovery-conf --checkpoint=fast; do
+    echo "Waiting for the primary to accept replication connections"
+    sleep 2
+  done
+  chmod 0700 "$PGDATA"
+fi
+
+exec postgres
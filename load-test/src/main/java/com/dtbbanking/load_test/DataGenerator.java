@@ -0,0 +1,209 @@
+package com.dtbbanking.load_test;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seeds {@code tb_customers}, {@code tb_accounts} and {@code tb_cards} with millions of
+ * {@link SyntheticData} rows over the COPY protocol, bypassing the services (one HTTP call per
+ * row would take hours). The schema must exist, i.e. the services have run their migrations.
+ * <p>
+ * Chunks of customers are generated and copied by {@code --threads} workers, each on its own
+ * connection and committing per chunk. Where the user may (a superuser, like the docker-compose
+ * and Testcontainers {@code dtb}), the load runs with {@code session_replication_role = replica}:
+ * the per-row notify triggers and foreign key checks are skipped, and {@code tb_account_ibans} is
+ * copied alongside the accounts instead of by trigger. Otherwise the triggers do their work, which
+ * is several times slower, and the card-service listeners receive a notification per card.
+ * </p>
+ * <p>
+ * Running services keep in-memory views (e.g. the card state index) that do not see rows loaded
+ * with the triggers off: seed first, then start or restart the services.
+ * </p>
+ */
+public class DataGenerator {
+
+    private static final String COPY_CUSTOMERS =
+            "COPY tb_customers (id, first_name, last_name, other_name, created_at, updated_at) FROM STDIN";
+    private static final String COPY_ACCOUNTS =
+            "COPY tb_accounts (id, iban, bic_swift, customer_id, created_at, updated_at) FROM STDIN";
+    private static final String COPY_ACCOUNT_IBANS =
+            "COPY tb_account_ibans (iban, account_id) FROM STDIN";
+    private static final String COPY_CARDS =
+            "COPY tb_cards (id, card_alias, account_id, type, pan, cvv, status, expiry_date, created_at, updated_at) FROM STDIN";
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.parse(args);
+        SyntheticData data = new SyntheticData(settings.seed(), settings.until(), settings.years());
+
+        try (Connection connection = connect(settings)) {
+            createPartitions(connection, data.firstDay());
+        }
+
+        int chunks = (int) ((settings.customers() + SyntheticData.CHUNK_SIZE - 1) / SyntheticData.CHUNK_SIZE);
+        System.out.printf("Generating %d customers with seed %d on %d threads%n",
+                settings.customers(), settings.seed(), settings.threads());
+
+        AtomicInteger nextChunk = new AtomicInteger();
+        AtomicInteger doneChunks = new AtomicInteger();
+        AtomicLong rows = new AtomicLong();
+        long start = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(settings.threads());
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < settings.threads(); i++) {
+                running.add(workers.submit(() -> {
+                    try (Connection connection = connect(settings)) {
+                        boolean triggersOff = disableTriggers(connection);
+                        connection.setAutoCommit(false);
+                        CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+                        int chunk;
+                        while ((chunk = nextChunk.getAndIncrement()) < chunks) {
+                            long first = (long) chunk * SyntheticData.CHUNK_SIZE;
+                            SyntheticData.Chunk rowsOfChunk = data.chunk(chunk,
+                                    (int) Math.min(SyntheticData.CHUNK_SIZE, settings.customers() - first));
+                            copy(copy, rowsOfChunk, triggersOff);
+                            connection.commit();
+                            rows.addAndGet(rowsOfChunk.rows());
+                            progress(doneChunks.incrementAndGet(), chunks, rows.get(), start);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : running) {
+                worker.get();
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+
+        try (Connection connection = connect(settings); Statement statement = connection.createStatement()) {
+            // fresh statistics, or the first queries are planned for empty tables
+            statement.execute("ANALYZE tb_customers, tb_accounts, tb_account_ibans, tb_cards");
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Loaded %,d rows in %.1f s (%,.0f rows/min)%n", rows.get(), seconds, rows.get() / seconds * 60);
+    }
+
+    private static void copy(CopyManager copy, SyntheticData.Chunk chunk, boolean triggersOff)
+            throws SQLException, IOException {
+        copy.copyIn(COPY_CUSTOMERS, bytes(chunk.customers));
+        copy.copyIn(COPY_ACCOUNTS, bytes(chunk.accounts));
+        if (triggersOff) {
+            copy.copyIn(COPY_ACCOUNT_IBANS, bytes(chunk.ibans));
+        }
+        copy.copyIn(COPY_CARDS, bytes(chunk.cards));
+    }
+
+    private static ByteArrayInputStream bytes(StringBuilder rows) {
+        return new ByteArrayInputStream(rows.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Monthly partitions from the oldest generated row onwards; rows outside every partition
+     * would fail the COPY.
+     */
+    private static void createPartitions(Connection connection, LocalDate from) throws SQLException {
+        for (String table : List.of("tb_accounts", "tb_cards")) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT create_monthly_partitions(?, ?, ?, 3)")) {
+                statement.setString(1, table);
+                statement.setString(2, table);
+                statement.setObject(3, from);
+                statement.execute();
+            }
+        }
+    }
+
+    /**
+     * @return true if this session skips triggers and foreign key checks
+     */
+    private static boolean disableTriggers(Connection connection) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET session_replication_role = replica");
+            return true;
+        } catch (SQLException e) {
+            System.out.printf("Triggers stay on (%s); the load is slower%n", e.getMessage());
+            return false;
+        }
+    }
+
+    private static void progress(int done, int chunks, long rows, long start) {
+        if (done % Math.max(1, chunks / 20) == 0 || done == chunks) {
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%3d%%  %,d rows  %,.0f rows/min%n", done * 100 / chunks, rows, rows / seconds * 60);
+        }
+    }
+
+    private static Connection connect(Settings settings) throws SQLException {
+        return DriverManager.getConnection(settings.jdbcUrl(), settings.user(), settings.password());
+    }
+
+    /**
+     * @param customers Customers to generate; each has 1–3 accounts and each account 0–2 cards,
+     *                  about 4 rows per customer in all.
+     * @param seed      Same seed (and {@code until}), same rows.
+     * @param years     How far back {@code created_at} goes.
+     * @param until     Newest {@code created_at}; defaults to the start of today (UTC).
+     * @param threads   Parallel generators, each with its own connection.
+     */
+    record Settings(
+            String jdbcUrl,
+            String user,
+            String password,
+            long customers,
+            long seed,
+            int years,
+            LocalDateTime until,
+            int threads) {
+
+        static Settings parse(String... args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Expected --name=value, got " + arg);
+                }
+                int split = arg.indexOf('=');
+                values.put(arg.substring(2, split), arg.substring(split + 1));
+            }
+
+            Settings settings = new Settings(
+                    values.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5432/dtbbanking"),
+                    values.getOrDefault("user", "dtb"),
+                    values.getOrDefault("password", "dtbpassword"),
+                    Long.parseLong(values.getOrDefault("customers", "1000000")),
+                    Long.parseLong(values.getOrDefault("seed", "42")),
+                    Integer.parseInt(values.getOrDefault("years", "5")),
+                    values.containsKey("until")
+                            ? LocalDateTime.parse(values.get("until"))
+                            : LocalDate.now(ZoneOffset.UTC).atStartOfDay(),
+                    Integer.parseInt(values.getOrDefault("threads",
+                            String.valueOf(Runtime.getRuntime().availableProcessors()))));
+            if (settings.customers() <= 0 || settings.threads() <= 0) {
+                throw new IllegalArgumentException("--customers and --threads must be positive");
+            }
+            return settings;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.dtbbanking.load_test;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency, throughput and errors per endpoint. Latencies are recorded in microseconds into HDR
+ * histograms, which keep three significant digits at any percentile.
+ */
+public class LatencyReport {
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private volatile long startedNanos = System.nanoTime();
+
+    /**
+     * @param endpoint     e.g. {@code GET /api/v1/customers/{id}}
+     * @param latencyNanos From when the request was due, not when it was sent, so a backlog on
+     *                     the client side still shows up as latency.
+     */
+    public void recordSuccess(String endpoint, long latencyNanos) {
+        endpoint(endpoint).latency.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+    }
+
+    public void recordError(String endpoint, long latencyNanos, Throwable error) {
+        Endpoint e = endpoint(endpoint);
+        e.latency.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        e.errors.increment();
+        errors.computeIfAbsent(endpoint + " " + errorType(error), k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Drops everything recorded so far, e.g. at the end of the warm-up.
+     */
+    public void reset() {
+        endpoints.clear();
+        errors.clear();
+        startedNanos = System.nanoTime();
+    }
+
+    /**
+     * @return the report as nested maps, ready for Jackson
+     */
+    public Map<String, Object> toMap() {
+        double seconds = Math.max((System.nanoTime() - startedNanos) / 1e9, 1e-9);
+        long requests = 0;
+        long failed = 0;
+        Map<String, Object> byEndpoint = new LinkedHashMap<>();
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet().stream().sorted(Map.Entry.comparingByKey()).toList()) {
+            Histogram latency = entry.getValue().latency.copy();
+            long count = latency.getTotalCount();
+            long errorCount = entry.getValue().errors.sum();
+            requests += count;
+            failed += errorCount;
+
+            Map<String, Object> percentiles = new LinkedHashMap<>();
+            percentiles.put("p50", millis(latency.getValueAtPercentile(50)));
+            percentiles.put("p90", millis(latency.getValueAtPercentile(90)));
+            percentiles.put("p99", millis(latency.getValueAtPercentile(99)));
+            percentiles.put("p999", millis(latency.getValueAtPercentile(99.9)));
+            percentiles.put("max", millis(latency.getMaxValue()));
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", count);
+            stats.put("errors", errorCount);
+            stats.put("errorRate", count == 0 ? 0.0 : (double) errorCount / count);
+            stats.put("throughput", count / seconds);
+            stats.put("latencyMs", percentiles);
+            stats.put("histogram", encode(latency));
+            byEndpoint.put(entry.getKey(), stats);
+        }
+
+        Map<String, Object> errorCounts = new LinkedHashMap<>();
+        errors.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> errorCounts.put(entry.getKey(), entry.getValue().sum()));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("seconds", seconds);
+        report.put("requests", requests);
+        report.put("throughput", requests / seconds);
+        report.put("errorRate", requests == 0 ? 0.0 : (double) failed / requests);
+        report.put("endpoints", byEndpoint);
+        report.put("errors", errorCounts);
+        return report;
+    }
+
+    /**
+     * @return one line per endpoint, for the console
+     */
+    public String summary() {
+        StringBuilder summary = new StringBuilder(String.format("%-48s %9s %7s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "p50 ms", "p99 ms", "p999 ms"));
+        endpoints.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry -> {
+            Histogram latency = entry.getValue().latency.copy();
+            summary.append(String.format("%-48s %9d %7d %9.2f %9.2f %9.2f%n", entry.getKey(),
+                    latency.getTotalCount(), entry.getValue().errors.sum(),
+                    millis(latency.getValueAtPercentile(50)),
+                    millis(latency.getValueAtPercentile(99)),
+                    millis(latency.getValueAtPercentile(99.9))));
+        });
+        return summary.toString();
+    }
+
+    static String errorType(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return String.valueOf(response.getStatusCode().value());
+        }
+        return error.getClass().getSimpleName();
+    }
+
+    private Endpoint endpoint(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, k -> new Endpoint());
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    // base64 of the compressed histogram, so runs can be merged or plotted later
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    private static final class Endpoint {
+        private final Histogram latency = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
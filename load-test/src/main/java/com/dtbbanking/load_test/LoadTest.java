@@ -0,0 +1,113 @@
+package com.dtbbanking.load_test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Drives the mixed {@link Scenario} against the three services at a fixed arrival rate and writes
+ * latency percentiles, throughput and error rates per endpoint to a JSON report.
+ * <p>
+ * Arrivals follow the schedule whatever the response times (an open model, like real users), and
+ * each latency counts from when its request was due. A saturated service therefore shows up as
+ * growing latency instead of a quietly lower request rate.
+ * </p>
+ * <p>
+ * Without URLs, Postgres is started in Docker and the services from their jars (see
+ * {@link ServiceCluster}); with {@code --customer-url}, {@code --account-url} and
+ * {@code --card-url} an existing deployment is used. See {@link LoadTestSettings} for the options.
+ * </p>
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+
+        if (settings.external()) {
+            run(settings, settings.customerUrl(), settings.accountUrl(), settings.cardUrl());
+            return;
+        }
+        try (ServiceCluster cluster = new ServiceCluster(settings.servicesDir(), settings.serviceJvmArgs(),
+                settings.report().toAbsolutePath().getParent().resolve("load-test-logs"))) {
+            Runtime.getRuntime().addShutdownHook(new Thread(cluster::close));
+            cluster.start();
+            run(settings, cluster.customerUrl(), cluster.accountUrl(), cluster.cardUrl());
+        }
+    }
+
+    static void run(LoadTestSettings settings, String customerUrl, String accountUrl, String cardUrl) throws Exception {
+        // one pool for all three services, large enough that connections are not what limits the run
+        ConnectionProvider connections = ConnectionProvider.builder("load-test")
+                .maxConnections(settings.maxInFlight())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        HttpClient httpClient = HttpClient.create(connections).responseTimeout(Duration.ofSeconds(30));
+        WebClient.Builder client = WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient));
+
+        LatencyReport report = new LatencyReport();
+        Scenario scenario = new Scenario(client.clone().baseUrl(customerUrl).build(),
+                client.clone().baseUrl(accountUrl).build(),
+                client.clone().baseUrl(cardUrl).build(),
+                settings.mix(), report);
+
+        System.out.printf("Seeding %d customer/account/card chains%n", settings.seedChains());
+        Flux.range(0, settings.seedChains())
+                .flatMap(i -> scenario.seed(), 16)
+                .blockLast();
+
+        Duration total = settings.warmUp().plus(settings.duration());
+        long arrivals = total.toNanos() * settings.arrivalRate() / 1_000_000_000L;
+        long warmUpArrivals = settings.warmUp().toNanos() * settings.arrivalRate() / 1_000_000_000L;
+        long periodNanos = 1_000_000_000L / settings.arrivalRate();
+        System.out.printf("Running %d requests/s for %s after a %s warm-up%n",
+                settings.arrivalRate(), settings.duration(), settings.warmUp());
+
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        Flux.interval(Duration.ofNanos(periodNanos))
+                .take(arrivals)
+                // arrivals beyond max-in-flight wait here; their latency counts from when they were due
+                .onBackpressureBuffer()
+                .doOnNext(i -> {
+                    if (i == warmUpArrivals) {
+                        report.reset();
+                    }
+                })
+                .flatMap(i -> scenario.next(start + i * periodNanos), settings.maxInFlight())
+                .blockLast();
+
+        Map<String, Object> target = new LinkedHashMap<>();
+        target.put("arrivalRate", settings.arrivalRate());
+        target.put("duration", settings.duration().toString());
+        target.put("warmUp", settings.warmUp().toString());
+        target.put("maxInFlight", settings.maxInFlight());
+        target.put("mix", settings.mix());
+        Map<String, Object> output = new LinkedHashMap<>();
+        output.put("startedAt", startedAt.toString());
+        output.put("target", target);
+        output.putAll(report.toMap());
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToEnable(SerializationFeature.INDENT_OUTPUT)
+                .build();
+        Path path = settings.report().toAbsolutePath();
+        Files.createDirectories(path.getParent());
+        objectMapper.writeValue(path.toFile(), output);
+
+        System.out.print(report.summary());
+        System.out.printf("Report written to %s%n", path);
+        connections.dispose();
+    }
+}
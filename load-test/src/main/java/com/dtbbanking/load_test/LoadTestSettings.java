@@ -0,0 +1,109 @@
+package com.dtbbanking.load_test;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings of one run, from {@code --name=value} arguments.
+ *
+ * @param arrivalRate   Requests started per second, whatever the response times (open model).
+ * @param duration      Measured part of the run.
+ * @param warmUp        Run at the same rate before measuring; not reported.
+ * @param maxInFlight   Requests outstanding at once; later arrivals queue, and their wait counts
+ *                      towards their latency.
+ * @param seedChains    Customer → account → card chains created before the run, for the lookups.
+ * @param mix           Relative weight of each {@link Scenario.Operation}.
+ * @param report        Where the JSON report is written.
+ * @param servicesDir   Directory holding the three service modules, whose jars are started.
+ * @param serviceJvmArgs JVM options for each started service.
+ * @param customerUrl   With all three URLs set, the services at those URLs are load tested and
+ *                      nothing is started (e.g. a docker-compose deployment).
+ */
+public record LoadTestSettings(
+        int arrivalRate,
+        Duration duration,
+        Duration warmUp,
+        int maxInFlight,
+        int seedChains,
+        Map<Scenario.Operation, Integer> mix,
+        Path report,
+        Path servicesDir,
+        List<String> serviceJvmArgs,
+        String customerUrl,
+        String accountUrl,
+        String cardUrl) {
+
+    static final Map<Scenario.Operation, Integer> DEFAULT_MIX = defaultMix();
+
+    public static LoadTestSettings parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int split = arg.indexOf('=');
+            values.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+
+        LoadTestSettings settings = new LoadTestSettings(
+                Integer.parseInt(values.getOrDefault("rate", "100")),
+                Duration.parse(values.getOrDefault("duration", "PT60S")),
+                Duration.parse(values.getOrDefault("warm-up", "PT15S")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "1024")),
+                Integer.parseInt(values.getOrDefault("seed-chains", "200")),
+                values.containsKey("mix") ? parseMix(values.get("mix")) : DEFAULT_MIX,
+                Path.of(values.getOrDefault("report", "target/load-report.json")),
+                Path.of(values.getOrDefault("services-dir", "..")),
+                values.containsKey("service-jvm-args")
+                        ? Arrays.asList(values.get("service-jvm-args").trim().split("\\s+"))
+                        : List.of(),
+                values.get("customer-url"),
+                values.get("account-url"),
+                values.get("card-url"));
+        if (settings.arrivalRate() <= 0) {
+            throw new IllegalArgumentException("--rate must be positive");
+        }
+        return settings;
+    }
+
+    /**
+     * @return true if the services are already running at the given URLs.
+     */
+    public boolean external() {
+        return customerUrl != null && accountUrl != null && cardUrl != null;
+    }
+
+    /**
+     * @param mix e.g. {@code create-chain:10,get-customer:20}; operations left out are not run
+     */
+    static Map<Scenario.Operation, Integer> parseMix(String mix) {
+        Map<Scenario.Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight, got " + entry);
+            }
+            weights.put(Scenario.Operation.valueOf(parts[0].toUpperCase().replace('-', '_')), Integer.parseInt(parts[1]));
+        }
+        return weights;
+    }
+
+    private static Map<Scenario.Operation, Integer> defaultMix() {
+        Map<Scenario.Operation, Integer> weights = new LinkedHashMap<>();
+        weights.put(Scenario.Operation.CREATE_CHAIN, 10);
+        weights.put(Scenario.Operation.GET_CUSTOMER, 20);
+        weights.put(Scenario.Operation.GET_ACCOUNT, 20);
+        weights.put(Scenario.Operation.GET_CARD, 20);
+        weights.put(Scenario.Operation.SEARCH_CUSTOMERS_BY_NAME, 8);
+        weights.put(Scenario.Operation.FILTER_CUSTOMERS_BY_CREATED_DATE, 5);
+        weights.put(Scenario.Operation.FILTER_ACCOUNTS_BY_IBAN, 7);
+        weights.put(Scenario.Operation.FILTER_CARDS_BY_ALIAS, 5);
+        weights.put(Scenario.Operation.SEARCH_ACCOUNTS_BY_CARD_ALIAS, 5);
+        return weights;
+    }
+}
@@ -0,0 +1,169 @@
+package com.dtbbanking.load_test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * The mixed workload: each arrival runs one {@link Operation}, picked by weight. Lookups and
+ * filters use data of chains created earlier in the run (or while seeding).
+ */
+public class Scenario {
+
+    public enum Operation {
+        /** Creates a customer, then an account for it, then a card for the account. */
+        CREATE_CHAIN,
+        GET_CUSTOMER,
+        GET_ACCOUNT,
+        GET_CARD,
+        SEARCH_CUSTOMERS_BY_NAME,
+        FILTER_CUSTOMERS_BY_CREATED_DATE,
+        FILTER_ACCOUNTS_BY_IBAN,
+        FILTER_CARDS_BY_ALIAS,
+        /** Account filter on card alias, which pages through card-service for the account ids. */
+        SEARCH_ACCOUNTS_BY_CARD_ALIAS
+    }
+
+    // Chains kept for lookups; older ones are overwritten
+    private static final int KNOWN_CHAINS = 10_000;
+
+    private final WebClient customers;
+    private final WebClient accounts;
+    private final WebClient cards;
+    private final LatencyReport report;
+    private final Operation[] weighted;
+    private final LocalDateTime startedAt = LocalDateTime.now().minusMinutes(1);
+
+    private final AtomicReferenceArray<Chain> chains = new AtomicReferenceArray<>(KNOWN_CHAINS);
+    private final AtomicLong completed = new AtomicLong();
+
+    public Scenario(WebClient customers, WebClient accounts, WebClient cards,
+                    Map<Operation, Integer> mix, LatencyReport report) {
+        this.customers = customers;
+        this.accounts = accounts;
+        this.cards = cards;
+        this.report = report;
+        this.weighted = mix.entrySet().stream()
+                .flatMap(entry -> Stream.generate(entry::getKey).limit(entry.getValue()))
+                .toArray(Operation[]::new);
+        if (weighted.length == 0) {
+            throw new IllegalArgumentException("The operation mix is empty");
+        }
+    }
+
+    /**
+     * Runs one randomly picked operation. Errors are recorded, not propagated.
+     *
+     * @param dueNanos {@link System#nanoTime()} at which the arrival was scheduled
+     */
+    public Mono<Void> next(long dueNanos) {
+        Operation operation = weighted[ThreadLocalRandom.current().nextInt(weighted.length)];
+        Chain chain = randomChain();
+        if (chain == null && operation != Operation.CREATE_CHAIN) {
+            operation = Operation.CREATE_CHAIN;
+        }
+        return run(operation, chain, dueNanos);
+    }
+
+    /**
+     * Creates a chain outside of the measurement, so lookups have something to find.
+     */
+    public Mono<Void> seed() {
+        return createChain(System.nanoTime(), false);
+    }
+
+    private Mono<Void> run(Operation operation, Chain chain, long dueNanos) {
+        return switch (operation) {
+            case CREATE_CHAIN -> createChain(dueNanos, true);
+            case GET_CUSTOMER -> get(customers, "GET /api/v1/customers/{id}", "/{id}", dueNanos, chain.customerId());
+            case GET_ACCOUNT -> get(accounts, "GET /api/v1/accounts/{id}", "/{id}", dueNanos, chain.accountId());
+            case GET_CARD -> get(cards, "GET /api/v1/cards/{id}", "/{id}", dueNanos, chain.cardId());
+            case SEARCH_CUSTOMERS_BY_NAME -> get(customers, "GET /api/v1/customers?name", "?name={name}&size=10",
+                    dueNanos, chain.firstName());
+            case FILTER_CUSTOMERS_BY_CREATED_DATE -> get(customers, "GET /api/v1/customers?start&end",
+                    "?start={start}&end={end}&size=10", dueNanos, startedAt, LocalDateTime.now());
+            case FILTER_ACCOUNTS_BY_IBAN -> get(accounts, "GET /api/v1/accounts?iban", "?iban={iban}&size=10",
+                    dueNanos, chain.iban().substring(0, 12));
+            case FILTER_CARDS_BY_ALIAS -> get(cards, "GET /api/v1/cards?alias", "?alias={alias}&size=10",
+                    dueNanos, chain.cardAlias());
+            case SEARCH_ACCOUNTS_BY_CARD_ALIAS -> get(accounts, "GET /api/v1/accounts?cardAlias",
+                    "?cardAlias={alias}&size=10", dueNanos, chain.cardAlias());
+        };
+    }
+
+    private Mono<Void> createChain(long dueNanos, boolean record) {
+        String firstName = "Load" + Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+        String cardAlias = "Card " + firstName;
+        return post(customers, "POST /api/v1/customers", dueNanos, record,
+                Map.of("firstName", firstName, "lastName", "Test"), data -> data.get("id").asText())
+                .flatMap(customerId -> post(accounts, "POST /api/v1/accounts", System.nanoTime(), record,
+                        Map.of("bicSwift", "DTKEKENA", "customerId", customerId),
+                        data -> new String[]{data.get("id").asText(), data.get("iban").asText()})
+                        .flatMap(account -> post(cards, "POST /api/v1/cards", System.nanoTime(), record,
+                                Map.of("cardAlias", cardAlias, "accountId", account[0],
+                                        "cardType", ThreadLocalRandom.current().nextBoolean() ? "VIRTUAL" : "PHYSICAL"),
+                                data -> data.get("id").asText())
+                                .doOnNext(cardId -> chains.set((int) (completed.getAndIncrement() % KNOWN_CHAINS), new Chain(
+                                        UUID.fromString(customerId), firstName,
+                                        UUID.fromString(account[0]), account[1],
+                                        UUID.fromString(cardId), cardAlias)))))
+                .then();
+    }
+
+    private <T> Mono<T> post(WebClient client, String endpoint, long dueNanos, boolean record,
+                             Map<String, ?> body, Function<JsonNode, T> result) {
+        return client.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .map(response -> result.apply(response.get("data")))
+                .doOnSuccess(value -> {
+                    if (record) {
+                        report.recordSuccess(endpoint, System.nanoTime() - dueNanos);
+                    }
+                })
+                .onErrorResume(error -> {
+                    if (record) {
+                        report.recordError(endpoint, System.nanoTime() - dueNanos, error);
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> get(WebClient client, String endpoint, String uri, long dueNanos, Object... variables) {
+        return client.get()
+                .uri(uri, variables)
+                .retrieve()
+                .toBodilessEntity()
+                .doOnSuccess(response -> report.recordSuccess(endpoint, System.nanoTime() - dueNanos))
+                .onErrorResume(error -> {
+                    report.recordError(endpoint, System.nanoTime() - dueNanos, error);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Chain randomChain() {
+        long known = Math.min(completed.get(), KNOWN_CHAINS);
+        if (known == 0) {
+            return null;
+        }
+        // null in the moment between a chain being counted and stored
+        return chains.get(ThreadLocalRandom.current().nextInt((int) known));
+    }
+
+    private record Chain(UUID customerId, String firstName, UUID accountId, String iban,
+                         UUID cardId, String cardAlias) {
+    }
+}
@@ -0,0 +1,220 @@
+package com.dtbbanking.load_test;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Postgres in a Testcontainers container and the three services, each started from its packaged
+ * jar on free ports and wired to the others over localhost. The services run as separate JVMs,
+ * as deployed: they cannot share one classpath, since each brings its own {@code application.yml}
+ * and Liquibase changelog under the same names.
+ * <p>
+ * The services can be restarted in another {@link StartupMode} against the same database, timing
+ * each one's startup (see {@link StartupTime}).
+ * </p>
+ */
+public class ServiceCluster implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final Pattern PROCESS_RUNNING_FOR = Pattern.compile("\\(process running for ([\\d.]+)\\)");
+
+    private final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("dtbbanking")
+            .withUsername("dtb")
+            .withPassword("dtbpassword");
+    private final List<Process> processes = new ArrayList<>();
+    private final Path servicesDir;
+    private final List<String> jvmArgs;
+    private final Path logDir;
+
+    private Service customer;
+    private Service account;
+    private Service card;
+
+    public ServiceCluster(Path servicesDir, List<String> jvmArgs, Path logDir) {
+        this.servicesDir = servicesDir;
+        this.jvmArgs = jvmArgs;
+        this.logDir = logDir;
+    }
+
+    /**
+     * Starts Postgres, then the services one after another (their migrations depend on each
+     * other's tables), each once the previous one reports healthy.
+     */
+    public void start() throws IOException, InterruptedException {
+        postgres.start();
+        Files.createDirectories(logDir);
+        customer = new Service("customer-service", "/api/v1/customers", freePort(), freePort());
+        account = new Service("account-service", "/api/v1/accounts", freePort(), freePort());
+        card = new Service("card-service", "/api/v1/cards", freePort(), freePort());
+        launchAll(StartupMode.JIT);
+    }
+
+    /**
+     * Stops the services and starts them again in the given mode, on the same ports and database.
+     *
+     * @return how long each service took to start
+     */
+    public List<Startup> restart(StartupMode mode) throws IOException, InterruptedException {
+        stopServices();
+        return launchAll(mode);
+    }
+
+    public String customerUrl() {
+        return customer.url() + customer.api();
+    }
+
+    public String accountUrl() {
+        return account.url() + account.api();
+    }
+
+    public String cardUrl() {
+        return card.url() + card.api();
+    }
+
+    @Override
+    public void close() {
+        stopServices();
+        postgres.stop();
+    }
+
+    private List<Startup> launchAll(StartupMode mode) throws IOException, InterruptedException {
+        List<Startup> startups = new ArrayList<>();
+        startups.add(launch(customer, mode, List.of()));
+        startups.add(launch(account, mode, List.of(
+                "--customer.service.base-url=" + customer.url() + "/api/v1/customers",
+                "--customer.service.rsocket.host=localhost",
+                "--customer.service.rsocket.port=" + customer.rsocketPort(),
+                "--card.service.base-url=" + card.url() + "/api/v1/cards",
+                "--card.service.rsocket.host=localhost",
+                "--card.service.rsocket.port=" + card.rsocketPort())));
+        startups.add(launch(card, mode, List.of(
+                "--account.service.base-url=" + account.url() + "/api/v1/accounts",
+                "--account.service.rsocket.host=localhost",
+                "--account.service.rsocket.port=" + account.rsocketPort())));
+        return startups;
+    }
+
+    private void stopServices() {
+        for (Process process : processes.reversed()) {
+            process.destroy();
+        }
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        processes.clear();
+    }
+
+    private Startup launch(Service service, StartupMode mode, List<String> wiring) throws IOException, InterruptedException {
+        String jdbcUrl = postgres.getJdbcUrl();
+        String r2dbcUrl = "r2dbc:postgresql://" + postgres.getHost() + ":"
+                + postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/" + postgres.getDatabaseName();
+
+        List<String> command = new ArrayList<>(mode.command(Path.of(System.getProperty("java.home"), "bin", "java"),
+                servicesDir.resolve(service.name()).resolve("target"), service.name(), jvmArgs));
+        command.addAll(List.of("--server.port=" + service.httpPort(),
+                "--spring.rsocket.server.port=" + service.rsocketPort(),
+                "--spring.liquibase.url=" + jdbcUrl,
+                "--spring.liquibase.enabled=" + mode.migrates(),
+                "--spring.r2dbc.url=" + r2dbcUrl));
+        command.addAll(wiring);
+
+        Path log = logDir.resolve(service.name() + "-" + mode.id() + ".log");
+        long launched = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        processes.add(process);
+        awaitHealthy(service, process, log);
+        Duration ready = Duration.ofNanos(System.nanoTime() - launched);
+        firstRequest(service, log);
+        Duration firstResponse = Duration.ofNanos(System.nanoTime() - launched);
+        return new Startup(service.name(), mode, reportedStartup(log), ready, firstResponse);
+    }
+
+    /**
+     * The first request to a real endpoint, which still initializes more than the health check did
+     * (e.g. the JSON mapping of the entity and its repository query).
+     */
+    private void firstRequest(Service service, Path log) {
+        HttpStatusCode status = WebClient.create(service.url() + service.api() + "?size=1").get()
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()))
+                .block(Duration.ofSeconds(30));
+        if (status == null || !status.is2xxSuccessful()) {
+            throw new IllegalStateException("First request to " + service.name() + " returned " + status + ", see " + log);
+        }
+    }
+
+    /**
+     * @return the JVM (or native process) uptime at which Spring Boot reported the application
+     * started, or null if it did not log it
+     */
+    private static Duration reportedStartup(Path log) throws IOException {
+        Matcher matcher = PROCESS_RUNNING_FOR.matcher(Files.readString(log));
+        return matcher.find() ? Duration.ofMillis(Math.round(Double.parseDouble(matcher.group(1)) * 1000)) : null;
+    }
+
+    private void awaitHealthy(Service service, Process process, Path log) throws InterruptedException {
+        WebClient health = WebClient.create(service.url() + "/actuator/health");
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(service.name() + " exited during startup, see " + log);
+            }
+            Boolean up = health.get()
+                    .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().is2xxSuccessful()))
+                    .onErrorReturn(false)
+                    .block(Duration.ofSeconds(5));
+            if (Boolean.TRUE.equals(up)) {
+                return;
+            }
+            // short, as it bounds how precisely StartupTime measures readiness
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException(service.name() + " not healthy after " + STARTUP_TIMEOUT + ", see " + log);
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param reported      Process uptime when the application reported it had started.
+     * @param ready         From launch until the health endpoint answered.
+     * @param firstResponse From launch until the first request to the API was answered.
+     */
+    public record Startup(String service, StartupMode mode, Duration reported, Duration ready, Duration firstResponse) {
+    }
+
+    private record Service(String name, String api, int httpPort, int rsocketPort) {
+
+        String url() {
+            return "http://localhost:" + httpPort;
+        }
+    }
+}
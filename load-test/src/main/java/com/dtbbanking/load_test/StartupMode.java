@@ -0,0 +1,149 @@
+package com.dtbbanking.load_test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * How a service is started: from its jar as deployed today, with Spring AOT and/or a class data
+ * sharing archive (jar built with {@code mvn -Paot package}), or as a GraalVM native executable
+ * ({@code mvn -Pnative native:compile}). Only {@link #JIT} runs Liquibase on startup; the other
+ * modes are the optimized startup, where migrations run as a separate step.
+ */
+public enum StartupMode {
+
+    JIT(false, false),
+    AOT(true, false),
+    CDS(false, true),
+    AOT_CDS(true, true),
+    NATIVE(false, false);
+
+    private final boolean aot;
+    private final boolean cds;
+
+    StartupMode(boolean aot, boolean cds) {
+        this.aot = aot;
+        this.cds = cds;
+    }
+
+    /**
+     * @param id e.g. {@code aot-cds}
+     */
+    public static StartupMode parse(String id) {
+        return valueOf(id.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    public String id() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    public boolean migrates() {
+        return this == JIT;
+    }
+
+    /**
+     * @param java    The {@code java} executable.
+     * @param target  The service's {@code target} directory.
+     * @param name    The service (and artifact) name.
+     * @param jvmArgs JVM options, also passed to a native executable.
+     * @return the command up to, not including, the application arguments; for the CDS modes the
+     * jar is extracted and the archive created by a training run first, if not done since the jar
+     * was built
+     */
+    public List<String> command(Path java, Path target, String name, List<String> jvmArgs)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        if (this == NATIVE) {
+            Path executable = target.resolve(name);
+            if (!Files.isExecutable(executable)) {
+                throw new IllegalStateException("No native executable " + executable
+                        + "; run mvn -Pnative native:compile -DskipTests in " + name);
+            }
+            command.add(executable.toString());
+            command.addAll(jvmArgs);
+            return command;
+        }
+
+        Path jar = jar(target, name);
+        command.add(java.toString());
+        command.addAll(jvmArgs);
+        if (aot) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        if (cds) {
+            Path extracted = target.resolve(id());
+            Path archive = extracted.resolve("app.jsa");
+            if (!Files.exists(archive) || Files.getLastModifiedTime(archive).compareTo(Files.getLastModifiedTime(jar)) < 0) {
+                train(java, jar, extracted, archive, command);
+            }
+            command.add("-XX:SharedArchiveFile=" + archive);
+            jar = extracted.resolve(jar.getFileName());
+        }
+        command.add("-jar");
+        command.add(jar.toString());
+        return command;
+    }
+
+    /**
+     * Extracts the jar (CDS needs plain jars on the class path) and refreshes the application
+     * context once, without connecting to the database, dumping the classes it loaded.
+     */
+    private static void train(Path java, Path jar, Path extracted, Path archive, List<String> launch)
+            throws IOException, InterruptedException {
+        delete(extracted);
+        run(List.of(java.toString(), "-Djarmode=tools", "-jar", jar.toString(), "extract",
+                "--destination", extracted.toString()), extracted.resolveSibling(extracted.getFileName() + "-extract.log"));
+
+        List<String> training = new ArrayList<>(launch);
+        training.addAll(List.of("-XX:ArchiveClassesAtExit=" + archive,
+                "-Dspring.context.exit=onRefresh",
+                "-Dspring.liquibase.enabled=false",
+                "-Ddb.pool.warm-up=false",
+                "-jar", extracted.resolve(jar.getFileName()).toString()));
+        run(training, extracted.resolveSibling(extracted.getFileName() + "-training.log"));
+        if (!Files.exists(archive)) {
+            throw new IllegalStateException("Training run did not create " + archive);
+        }
+    }
+
+    private static void run(List<String> command, Path log) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException(String.join(" ", command) + " failed, see " + log);
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    static Path jar(Path target, String name) throws IOException {
+        if (Files.isDirectory(target)) {
+            try (Stream<Path> files = Files.list(target)) {
+                return files.filter(file -> file.getFileName().toString().matches(name + "-.*\\.jar"))
+                        .findFirst()
+                        .orElseThrow(() -> missingJar(name, target));
+            }
+        }
+        throw missingJar(name, target);
+    }
+
+    private static IllegalStateException missingJar(String name, Path target) {
+        return new IllegalStateException("No jar in " + target + "; run mvn package -DskipTests in " + name);
+    }
+}
@@ -0,0 +1,192 @@
+package com.dtbbanking.load_test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Starts the three services in each {@link StartupMode} several times and reports, per mode and
+ * service, how long startup took: as reported by Spring Boot, until the health endpoint answered
+ * and until the first API request was answered.
+ * <p>
+ * Postgres is started once and migrated by a first start, which is not measured; every measured
+ * start then finds the schema up to date, as on a redeploy. See {@link Settings} for the options.
+ * </p>
+ */
+public class StartupTime {
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.parse(args);
+        Path report = settings.report().toAbsolutePath();
+
+        List<ServiceCluster.Startup> startups = new ArrayList<>();
+        try (ServiceCluster cluster = new ServiceCluster(settings.servicesDir(), settings.serviceJvmArgs(),
+                report.getParent().resolve("startup-logs"))) {
+            Runtime.getRuntime().addShutdownHook(new Thread(cluster::close));
+            cluster.start();
+            for (StartupMode mode : settings.modes()) {
+                for (int run = 1; run <= settings.runs(); run++) {
+                    System.out.printf("Starting the services in %s mode, run %d of %d%n", mode.id(), run, settings.runs());
+                    startups.addAll(cluster.restart(mode));
+                }
+            }
+        }
+
+        Map<String, Object> output = new LinkedHashMap<>();
+        output.put("startedAt", Instant.now().toString());
+        output.put("runs", settings.runs());
+        output.put("serviceJvmArgs", settings.serviceJvmArgs());
+        output.put("modes", summarize(startups));
+        output.put("samples", startups.stream().map(StartupTime::sample).toList());
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToEnable(SerializationFeature.INDENT_OUTPUT)
+                .build();
+        Files.createDirectories(report.getParent());
+        objectMapper.writeValue(report.toFile(), output);
+        String table = table(startups);
+        Path summary = report.resolveSibling(report.getFileName().toString().replaceFirst("\\.json$", "") + ".md");
+        Files.writeString(summary, table);
+
+        System.out.print(table);
+        System.out.printf("Report written to %s and %s%n", report, summary);
+    }
+
+    /**
+     * @return per mode and service the median, min and max in ms of each measured duration
+     */
+    static Map<String, Object> summarize(List<ServiceCluster.Startup> startups) {
+        Map<String, Object> modes = new LinkedHashMap<>();
+        for (Map.Entry<StartupMode, Map<String, List<ServiceCluster.Startup>>> mode : group(startups).entrySet()) {
+            Map<String, Object> services = new LinkedHashMap<>();
+            mode.getValue().forEach((service, samples) -> {
+                Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("reportedMs", stats(samples, ServiceCluster.Startup::reported));
+                stats.put("readyMs", stats(samples, ServiceCluster.Startup::ready));
+                stats.put("firstResponseMs", stats(samples, ServiceCluster.Startup::firstResponse));
+                services.put(service, stats);
+            });
+            modes.put(mode.getKey().id(), services);
+        }
+        return modes;
+    }
+
+    /**
+     * @return the medians as a Markdown table, one row per mode and service
+     */
+    static String table(List<ServiceCluster.Startup> startups) {
+        StringBuilder table = new StringBuilder()
+                .append("| Mode | Service | Started (s) | Ready (s) | First response (s) |\n")
+                .append("|---|---|---:|---:|---:|\n");
+        group(startups).forEach((mode, services) -> services.forEach((service, samples) -> table
+                .append("| ").append(mode.id())
+                .append(" | ").append(service)
+                .append(" | ").append(seconds(median(samples, ServiceCluster.Startup::reported)))
+                .append(" | ").append(seconds(median(samples, ServiceCluster.Startup::ready)))
+                .append(" | ").append(seconds(median(samples, ServiceCluster.Startup::firstResponse)))
+                .append(" |\n")));
+        return table.toString();
+    }
+
+    private static Map<StartupMode, Map<String, List<ServiceCluster.Startup>>> group(List<ServiceCluster.Startup> startups) {
+        Map<StartupMode, Map<String, List<ServiceCluster.Startup>>> grouped = new LinkedHashMap<>();
+        for (ServiceCluster.Startup startup : startups) {
+            grouped.computeIfAbsent(startup.mode(), mode -> new LinkedHashMap<>())
+                    .computeIfAbsent(startup.service(), service -> new ArrayList<>())
+                    .add(startup);
+        }
+        return grouped;
+    }
+
+    private static Map<String, Object> stats(List<ServiceCluster.Startup> samples,
+                                             Function<ServiceCluster.Startup, Duration> duration) {
+        List<Long> millis = millis(samples, duration);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        if (millis.isEmpty()) {
+            return stats;
+        }
+        stats.put("median", median(samples, duration));
+        stats.put("min", millis.getFirst());
+        stats.put("max", millis.getLast());
+        return stats;
+    }
+
+    private static Long median(List<ServiceCluster.Startup> samples, Function<ServiceCluster.Startup, Duration> duration) {
+        List<Long> millis = millis(samples, duration);
+        return millis.isEmpty() ? null : millis.get(millis.size() / 2);
+    }
+
+    private static List<Long> millis(List<ServiceCluster.Startup> samples, Function<ServiceCluster.Startup, Duration> duration) {
+        return samples.stream()
+                .map(duration)
+                .filter(Objects::nonNull)
+                .map(Duration::toMillis)
+                .sorted()
+                .toList();
+    }
+
+    private static String seconds(Long millis) {
+        return millis == null ? "-" : String.format("%.2f", millis / 1000.0);
+    }
+
+    private static Map<String, Object> sample(ServiceCluster.Startup startup) {
+        Map<String, Object> sample = new LinkedHashMap<>();
+        sample.put("mode", startup.mode().id());
+        sample.put("service", startup.service());
+        sample.put("reportedMs", startup.reported() == null ? null : startup.reported().toMillis());
+        sample.put("readyMs", startup.ready().toMillis());
+        sample.put("firstResponseMs", startup.firstResponse().toMillis());
+        return sample;
+    }
+
+    /**
+     * @param modes          Measured in this order ({@code --modes=jit,aot,cds,aot-cds}); the
+     *                       service jars must be built with {@code -Paot} for the AOT modes, and
+     *                       with {@code -Pnative native:compile} for {@code native}.
+     * @param runs           Starts per mode; the report gives the median.
+     * @param report         Where the JSON report is written; a Markdown table goes next to it.
+     * @param servicesDir    Directory holding the three service modules.
+     * @param serviceJvmArgs JVM options for each started service.
+     */
+    record Settings(List<StartupMode> modes, int runs, Path report, Path servicesDir, List<String> serviceJvmArgs) {
+
+        static Settings parse(String... args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Expected --name=value, got " + arg);
+                }
+                int split = arg.indexOf('=');
+                values.put(arg.substring(2, split), arg.substring(split + 1));
+            }
+
+            Settings settings = new Settings(
+                    Arrays.stream(values.getOrDefault("modes", "jit,aot,cds,aot-cds").split(","))
+                            .map(StartupMode::parse)
+                            .toList(),
+                    Integer.parseInt(values.getOrDefault("runs", "3")),
+                    Path.of(values.getOrDefault("report", "target/startup-report.json")),
+                    Path.of(values.getOrDefault("services-dir", "..")),
+                    values.containsKey("service-jvm-args")
+                            ? Arrays.asList(values.get("service-jvm-args").trim().split("\\s+"))
+                            : List.of());
+            if (settings.runs() <= 0) {
+                throw new IllegalArgumentException("--runs must be positive");
+            }
+            return settings;
+        }
+    }
+}
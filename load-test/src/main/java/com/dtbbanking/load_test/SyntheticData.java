@@ -0,0 +1,327 @@
+package com.dtbbanking.load_test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Deterministic customer → account → card rows in the COPY text format, generated one chunk of
+ * {@link #CHUNK_SIZE} customers at a time. A chunk depends only on the seed and its index, so
+ * chunks can be generated in any order, on any thread, and always come out the same.
+ * <p>
+ * Names and card aliases follow Zipf distributions (a few very common, a long tail of rare ones),
+ * IBANs carry valid ISO 7064 check digits and PANs a valid Luhn digit, and both are unique
+ * within one seed. {@code created_at} is spread over the given number of years, with more
+ * customers joining recently; accounts and cards are created after their owner.
+ * </p>
+ */
+public class SyntheticData {
+
+    public static final int CHUNK_SIZE = 10_000;
+    static final int MAX_ACCOUNTS_PER_CUSTOMER = 3;
+    static final int MAX_CARDS_PER_ACCOUNT = 2;
+
+    private static final String[] FIRST_NAMES = {
+            "John", "Mary", "Peter", "Grace", "James", "Faith", "David", "Mercy", "Joseph", "Esther",
+            "Daniel", "Ann", "Samuel", "Joyce", "Brian", "Lucy", "Kevin", "Jane", "Dennis", "Sarah",
+            "Michael", "Nancy", "Paul", "Elizabeth", "Stephen", "Caroline", "George", "Beatrice", "Collins",
+            "Winnie", "Moses", "Purity", "Victor", "Agnes", "Eric", "Janet", "Francis", "Catherine", "Kennedy",
+            "Diana", "Amina", "Hassan", "Fatuma", "Omar", "Wanjiru", "Kipchoge", "Achieng", "Otieno", "Njeri",
+            "Mwangi", "Chebet", "Wafula", "Akinyi", "Barasa", "Zawadi", "Baraka", "Imani", "Neema", "Juma", "Halima"
+    };
+    private static final String[] LAST_NAMES = {
+            "Kamau", "Otieno", "Mwangi", "Wanjiku", "Kiprono", "Ochieng", "Njoroge", "Mutua", "Kariuki", "Onyango",
+            "Wambui", "Kimani", "Odhiambo", "Chebet", "Mohamed", "Ali", "Cheruiyot", "Njuguna", "Wafula", "Macharia",
+            "Omondi", "Kiptoo", "Muthoni", "Nyambura", "Korir", "Maina", "Achieng", "Rotich", "Gitau", "Barasa",
+            "Ndungu", "Kirui", "Wekesa", "Owino", "Langat", "Koech", "Waweru", "Juma", "Nyongesa", "Mbugua",
+            "Hassan", "Abdi", "Patel", "Shah", "Smith", "Wairimu", "Kinyua", "Kilonzo", "Musyoka", "Ruto"
+    };
+    private static final String[] CARD_ALIASES = {
+            "Main", "Salary", "Shopping", "Online", "Travel", "Savings", "Daily", "Personal", "Groceries", "Fuel",
+            "Business", "Family", "Bills", "Subscriptions", "Emergency", "School Fees", "Holiday", "Rent", "Joint",
+            "Kids", "Backup", "Work Expenses", "Entertainment", "Gifts", "Medical", "Car", "Chama", "Side Hustle"
+    };
+    // BIC and the bank code used in the IBAN; the first is the bank's own and by far the most common
+    private static final String[] BICS = {"DTKEKENA", "KCBLKENX", "EQBLKENA", "SCBLKENX", "CBAFKENX"};
+    private static final double[] BIC_WEIGHTS = cumulative(new double[]{0.86, 0.05, 0.04, 0.03, 0.02});
+
+    private static final double[] FIRST_NAME_WEIGHTS = zipf(FIRST_NAMES.length, 1.0);
+    private static final double[] LAST_NAME_WEIGHTS = zipf(LAST_NAMES.length, 0.9);
+    private static final double[] ALIAS_WEIGHTS = zipf(CARD_ALIASES.length, 1.2);
+
+    private static final long ACCOUNT_NUMBERS = 100_000_000_000_000L;   // 14 digits
+    private static final long CARD_NUMBERS = 1_000_000_000L;            // 9 digits after the BIN
+    // Multipliers coprime to 10, so numbering in sequence gives distinct, scattered numbers
+    private static final long ACCOUNT_NUMBER_STEP = 982_451_653L;
+    private static final long CARD_NUMBER_STEP = 387_420_489L;
+    private static final String BIN = "400000";
+
+    private final long seed;
+    private final long now;
+    private final long since;
+    private final LocalDate today;
+
+    /**
+     * @param seed  same seed, same rows
+     * @param now   newest {@code created_at}
+     * @param years how far back customers go
+     */
+    public SyntheticData(long seed, LocalDateTime now, int years) {
+        this.seed = seed;
+        this.now = now.toEpochSecond(ZoneOffset.UTC);
+        this.since = now.minusYears(years).toEpochSecond(ZoneOffset.UTC);
+        this.today = now.toLocalDate();
+    }
+
+    /**
+     * @return oldest possible {@code created_at}, from which partitions are needed
+     */
+    public LocalDate firstDay() {
+        return LocalDateTime.ofEpochSecond(since, 0, ZoneOffset.UTC).toLocalDate();
+    }
+
+    /**
+     * @param index     chunk number; chunk {@code i} holds customers {@code i * CHUNK_SIZE} onwards
+     * @param customers customers in this chunk, at most {@link #CHUNK_SIZE}
+     */
+    public Chunk chunk(int index, int customers) {
+        if (customers > CHUNK_SIZE) {
+            throw new IllegalArgumentException("At most " + CHUNK_SIZE + " customers per chunk");
+        }
+        SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + index);
+        Chunk chunk = new Chunk(customers);
+
+        for (int c = 0; c < customers; c++) {
+            // every customer owns fixed account and card number slots, used or not
+            long customerNumber = (long) index * CHUNK_SIZE + c;
+            UUID customerId = uuid(random);
+            String firstName = FIRST_NAMES[pick(random, FIRST_NAME_WEIGHTS)];
+            String lastName = LAST_NAMES[pick(random, LAST_NAME_WEIGHTS)];
+            String otherName = random.nextInt(100) < 35 ? FIRST_NAMES[pick(random, FIRST_NAME_WEIGHTS)] : null;
+            // density rising linearly towards now: the customer base has been growing
+            long customerCreated = since + (long) ((now - since) * Math.sqrt(random.nextDouble()));
+            chunk.customers.append(customerId).append('\t').append(firstName).append('\t').append(lastName).append('\t');
+            appendNullable(chunk.customers, otherName).append('\t');
+            appendTimestamp(chunk.customers, customerCreated).append('\t');
+            appendTimestamp(chunk.customers, updatedAt(random, customerCreated)).append('\n');
+
+            int accounts = weighted(random, 60, 30, 10) + 1;
+            for (int a = 0; a < accounts; a++) {
+                long accountNumber = customerNumber * MAX_ACCOUNTS_PER_CUSTOMER + a;
+                UUID accountId = uuid(random);
+                int bic = pick(random, BIC_WEIGHTS);
+                String iban = iban(BICS[bic].substring(0, 4), scatter(accountNumber, ACCOUNT_NUMBER_STEP, ACCOUNT_NUMBERS));
+                // mostly opened soon after joining
+                long accountCreated = customerCreated + (long) ((now - customerCreated) * Math.pow(random.nextDouble(), 3));
+                chunk.accounts.append(accountId).append('\t').append(iban).append('\t').append(BICS[bic]).append('\t')
+                        .append(customerId).append('\t');
+                appendTimestamp(chunk.accounts, accountCreated).append('\t');
+                appendTimestamp(chunk.accounts, updatedAt(random, accountCreated)).append('\n');
+                chunk.ibans.append(iban).append('\t').append(accountId).append('\n');
+                chunk.accountRows++;
+
+                // at most one card of each type per account
+                int cards = weighted(random, 20, 50, 30);
+                boolean firstVirtual = random.nextInt(100) < 60;
+                for (int k = 0; k < cards; k++) {
+                    String type = (k == 0) == firstVirtual ? "VIRTUAL" : "PHYSICAL";
+                    long cardCreated = accountCreated + (long) ((now - accountCreated) * Math.pow(random.nextDouble(), 2));
+                    LocalDate expiry = LocalDateTime.ofEpochSecond(cardCreated, 0, ZoneOffset.UTC).toLocalDate().plusYears(3);
+                    String status = expiry.isBefore(today) ? "EXPIRED" : random.nextInt(100) < 3 ? "BLOCKED" : "ACTIVE";
+                    // aliases repeat across customers; some are named after the holder
+                    String alias = random.nextInt(100) < 15
+                            ? firstName + "'s " + (type.equals("VIRTUAL") ? "Virtual" : "Card")
+                            : CARD_ALIASES[pick(random, ALIAS_WEIGHTS)];
+                    chunk.cards.append(uuid(random)).append('\t').append(alias).append('\t').append(accountId).append('\t')
+                            .append(type).append('\t')
+                            .append(pan(scatter(accountNumber * MAX_CARDS_PER_ACCOUNT + k, CARD_NUMBER_STEP, CARD_NUMBERS))).append('\t');
+                    appendDigits(chunk.cards, random.nextInt(1000), 3).append('\t').append(status).append('\t')
+                            .append(expiry).append('\t');
+                    appendTimestamp(chunk.cards, cardCreated).append('\t');
+                    appendTimestamp(chunk.cards, updatedAt(random, cardCreated)).append('\n');
+                    chunk.cardRows++;
+                }
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * @param bankCode four letters
+     * @param account  up to 14 digits
+     * @return {@code KE}, ISO 7064 MOD 97-10 check digits, bank code and zero-padded account number
+     */
+    static String iban(String bankCode, long account) {
+        StringBuilder bban = appendDigits(new StringBuilder(18).append(bankCode), account, 14);
+        int check = 98 - mod97(bban + "KE00");
+        StringBuilder iban = new StringBuilder(22).append("KE");
+        return appendDigits(iban, check, 2).append(bban).toString();
+    }
+
+    /**
+     * @return true if the IBAN's check digits are right
+     */
+    static boolean validIban(String iban) {
+        return mod97(iban.substring(4) + iban.substring(0, 4)) == 1;
+    }
+
+    /**
+     * @param account up to 9 digits
+     * @return 16-digit PAN: {@value #BIN}, the zero-padded account number and a Luhn check digit
+     */
+    static String pan(long account) {
+        StringBuilder pan = appendDigits(new StringBuilder(16).append(BIN), account, 9);
+        return pan.append(luhnCheckDigit(pan)).toString();
+    }
+
+    /**
+     * @return true if the number passes the Luhn check
+     */
+    static boolean validPan(String pan) {
+        return luhnCheckDigit(pan.substring(0, pan.length() - 1)) == pan.charAt(pan.length() - 1) - '0';
+    }
+
+    private static int luhnCheckDigit(CharSequence payload) {
+        int sum = 0;
+        // doubled from the rightmost payload digit, which sits next to the check digit
+        for (int i = payload.length() - 1, doubled = 1; i >= 0; i--, doubled ^= 1) {
+            int digit = payload.charAt(i) - '0';
+            if (doubled == 1) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    // letters count as two digits (A = 10 ... Z = 35)
+    private static int mod97(String value) {
+        int remainder = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            remainder = Character.isDigit(ch)
+                    ? (remainder * 10 + ch - '0') % 97
+                    : (remainder * 100 + ch - 'A' + 10) % 97;
+        }
+        return remainder;
+    }
+
+    // n -> n * step mod range is a bijection when step is coprime to range, so numbers stay unique
+    private long scatter(long n, long step, long range) {
+        return (n * step % range + Math.floorMod(seed, range)) % range;
+    }
+
+    private long updatedAt(SplittableRandom random, long created) {
+        return random.nextInt(100) < 20 ? created + (long) ((now - created) * random.nextDouble()) : created;
+    }
+
+    private static UUID uuid(SplittableRandom random) {
+        long most = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long least = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(most, least);
+    }
+
+    private static int weighted(SplittableRandom random, int... percentages) {
+        int roll = random.nextInt(100);
+        int i = 0;
+        while (roll >= percentages[i]) {
+            roll -= percentages[i++];
+        }
+        return i;
+    }
+
+    private static int pick(SplittableRandom random, double[] cumulative) {
+        double roll = random.nextDouble();
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] <= roll) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static double[] zipf(int size, double exponent) {
+        double[] weights = new double[size];
+        for (int rank = 1; rank <= size; rank++) {
+            weights[rank - 1] = 1 / Math.pow(rank, exponent);
+        }
+        return cumulative(weights);
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double[] cumulative = new double[weights.length];
+        double running = 0;
+        for (int i = 0; i < weights.length; i++) {
+            running += weights[i];
+            cumulative[i] = running / total;
+        }
+        cumulative[weights.length - 1] = 1;
+        return cumulative;
+    }
+
+    private static StringBuilder appendNullable(StringBuilder out, String value) {
+        return value == null ? out.append("\\N") : out.append(value);
+    }
+
+    private static StringBuilder appendDigits(StringBuilder out, long value, int width) {
+        String digits = Long.toString(value);
+        for (int i = digits.length(); i < width; i++) {
+            out.append('0');
+        }
+        return out.append(digits);
+    }
+
+    // yyyy-MM-dd HH:mm:ss without a formatter, which would dominate generation time
+    private static StringBuilder appendTimestamp(StringBuilder out, long epochSecond) {
+        long days = Math.floorDiv(epochSecond, 86_400);
+        int secondOfDay = (int) Math.floorMod(epochSecond, 86_400);
+        LocalDate date = LocalDate.ofEpochDay(days);
+        appendDigits(out, date.getYear(), 4).append('-');
+        appendDigits(out, date.getMonthValue(), 2).append('-');
+        appendDigits(out, date.getDayOfMonth(), 2).append(' ');
+        appendDigits(out, secondOfDay / 3600, 2).append(':');
+        appendDigits(out, secondOfDay / 60 % 60, 2).append(':');
+        return appendDigits(out, secondOfDay % 60, 2);
+    }
+
+    /**
+     * Rows of one chunk, tab-separated with {@code \N} for null, in the column order of
+     * {@link DataGenerator}'s COPY statements.
+     */
+    public static final class Chunk {
+
+        final StringBuilder customers;
+        final StringBuilder accounts;
+        final StringBuilder ibans;
+        final StringBuilder cards;
+        final int customerRows;
+        int accountRows;
+        int cardRows;
+
+        private Chunk(int customers) {
+            this.customers = new StringBuilder(customers * 96);
+            this.accounts = new StringBuilder(customers * 2 * 128);
+            this.ibans = new StringBuilder(customers * 2 * 64);
+            this.cards = new StringBuilder(customers * 3 * 160);
+            this.customerRows = customers;
+        }
+
+        public int rows() {
+            return customerRows + accountRows + cardRows;
+        }
+    }
+}
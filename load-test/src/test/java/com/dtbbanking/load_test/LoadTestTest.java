@@ -0,0 +1,94 @@
+package com.dtbbanking.load_test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoadTestTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final Queue<String> requests = new ConcurrentLinkedQueue<>();
+    private DisposableServer server;
+
+    @BeforeEach
+    void startFakeServices() {
+        server = HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .post("/api/v1/customers", (request, response) -> created(response, "{\"id\":\"" + UUID.randomUUID() + "\"}"))
+                        .post("/api/v1/accounts", (request, response) -> created(response,
+                                "{\"id\":\"" + UUID.randomUUID() + "\",\"iban\":\"KE12ABCDEF0123456789AB\"}"))
+                        .post("/api/v1/cards", (request, response) -> created(response, "{\"id\":\"" + UUID.randomUUID() + "\"}"))
+                        .get("/api/v1/cards/{id}", (request, response) -> response.status(404).send())
+                        .get("/**", (request, response) -> {
+                            requests.add(request.uri());
+                            return response.sendString(Mono.just("{}"));
+                        }))
+                .bindNow();
+    }
+
+    @AfterEach
+    void stopFakeServices() {
+        server.disposeNow();
+    }
+
+    @Test
+    void reportsEveryEndpointOfTheMix() throws Exception {
+        String base = "http://localhost:" + server.port() + "/api/v1/";
+        Path report = tempDir.resolve("report.json");
+        LoadTestSettings settings = LoadTestSettings.parse("--rate=200", "--duration=PT2S", "--warm-up=PT0S",
+                "--seed-chains=5", "--report=" + report,
+                "--customer-url=" + base + "customers", "--account-url=" + base + "accounts", "--card-url=" + base + "cards");
+
+        LoadTest.run(settings, settings.customerUrl(), settings.accountUrl(), settings.cardUrl());
+
+        JsonNode json = new ObjectMapper().readTree(report.toFile());
+        assertThat(json.get("target").get("arrivalRate").asInt()).isEqualTo(200);
+        assertThat(json.get("requests").asLong()).isGreaterThan(300);
+        JsonNode endpoints = json.get("endpoints");
+        assertThat(endpoints.has("POST /api/v1/customers")).isTrue();
+        assertThat(endpoints.has("POST /api/v1/cards")).isTrue();
+        assertThat(endpoints.has("GET /api/v1/accounts?cardAlias")).isTrue();
+        assertThat(endpoints.get("GET /api/v1/customers/{id}").get("latencyMs").get("p999").asDouble()).isPositive();
+        assertThat(endpoints.get("GET /api/v1/cards/{id}").get("errorRate").asDouble()).isEqualTo(1.0);
+        assertThat(json.get("errors").get("GET /api/v1/cards/{id} 404").asLong())
+                .isEqualTo(endpoints.get("GET /api/v1/cards/{id}").get("requests").asLong());
+        assertThat(requests).anyMatch(uri -> uri.startsWith("/api/v1/accounts?cardAlias=Card%20Load"));
+        assertThat(requests).anyMatch(uri -> uri.matches("/api/v1/customers\\?start=\\d{4}-.*&end=.*&size=10"));
+    }
+
+    @Test
+    void parsesTheOperationMix() {
+        LoadTestSettings settings = LoadTestSettings.parse("--mix=create-chain:1,get-card:3");
+
+        assertThat(settings.mix()).containsExactly(
+                Map.entry(Scenario.Operation.CREATE_CHAIN, 1),
+                Map.entry(Scenario.Operation.GET_CARD, 3));
+        assertThat(settings.external()).isFalse();
+        assertThatThrownBy(() -> LoadTestSettings.parse("rate=5")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Mono<Void> created(HttpServerResponse response, String data) {
+        return response.header("Content-Type", "application/json")
+                .sendString(Mono.just("{\"status\":200,\"message\":\"Success\",\"data\":" + data + "}"))
+                .then();
+    }
+}
@@ -0,0 +1,68 @@
+package com.dtbbanking.load_test;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StartupTimeTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void parsesModesInTheGivenOrder() {
+        StartupTime.Settings settings = StartupTime.Settings.parse("--modes=aot-cds, jit", "--runs=5");
+
+        assertThat(settings.modes()).containsExactly(StartupMode.AOT_CDS, StartupMode.JIT);
+        assertThat(settings.runs()).isEqualTo(5);
+        assertThat(StartupTime.Settings.parse().modes())
+                .containsExactly(StartupMode.JIT, StartupMode.AOT, StartupMode.CDS, StartupMode.AOT_CDS);
+        assertThatThrownBy(() -> StartupTime.Settings.parse("--modes=interpreted"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void reportsTheMedianPerModeAndService() {
+        List<ServiceCluster.Startup> startups = List.of(
+                startup(StartupMode.JIT, 9_000, 9_500, 10_200),
+                startup(StartupMode.JIT, 8_000, 8_400, 9_100),
+                startup(StartupMode.JIT, 12_000, 12_300, 13_000),
+                startup(StartupMode.AOT_CDS, 4_000, 4_200, 4_900));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> jit = (Map<String, Object>) ((Map<String, Object>) StartupTime.summarize(startups).get("jit"))
+                .get("customer-service");
+        assertThat(jit.get("firstResponseMs")).isEqualTo(Map.of("median", 10_200L, "min", 9_100L, "max", 13_000L));
+        assertThat(StartupTime.table(startups))
+                .contains("| jit | customer-service | 9.00 | 9.50 | 10.20 |")
+                .contains("| aot-cds | customer-service | 4.00 | 4.20 | 4.90 |");
+    }
+
+    @Test
+    void startsTheJarWithAotOrTheNativeExecutable() throws Exception {
+        Path jar = Files.createFile(tempDir.resolve("card-service-0.0.1-SNAPSHOT.jar"));
+        Path java = Path.of("java");
+
+        assertThat(StartupMode.JIT.command(java, tempDir, "card-service", List.of("-Xmx1g")))
+                .containsExactly("java", "-Xmx1g", "-jar", jar.toString());
+        assertThat(StartupMode.AOT.command(java, tempDir, "card-service", List.of()))
+                .containsExactly("java", "-Dspring.aot.enabled=true", "-jar", jar.toString());
+        assertThatThrownBy(() -> StartupMode.NATIVE.command(java, tempDir, "card-service", List.of()))
+                .hasMessageContaining("mvn -Pnative native:compile");
+        assertThatThrownBy(() -> StartupMode.JIT.command(java, tempDir, "account-service", List.of()))
+                .hasMessageContaining("No jar in");
+    }
+
+    private static ServiceCluster.Startup startup(StartupMode mode, long reported, long ready, long firstResponse) {
+        return new ServiceCluster.Startup("customer-service", mode, Duration.ofMillis(reported),
+                Duration.ofMillis(ready), Duration.ofMillis(firstResponse));
+    }
+}
@@ -0,0 +1,114 @@
+package com.dtbbanking.load_test;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyntheticDataTest {
+
+    private static final LocalDateTime UNTIL = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private final SyntheticData data = new SyntheticData(7, UNTIL, 5);
+
+    @Test
+    void sameSeedAndChunkGiveTheSameRows() {
+        SyntheticData.Chunk first = data.chunk(3, 500);
+        SyntheticData.Chunk again = new SyntheticData(7, UNTIL, 5).chunk(3, 500);
+        SyntheticData.Chunk otherSeed = new SyntheticData(8, UNTIL, 5).chunk(3, 500);
+
+        assertThat(again.cards.toString()).isEqualTo(first.cards.toString());
+        assertThat(again.customers.toString()).isEqualTo(first.customers.toString());
+        assertThat(otherSeed.customers.toString()).isNotEqualTo(first.customers.toString());
+    }
+
+    @Test
+    void generatesValidUniqueIbansAndPans() {
+        Set<String> ibans = new HashSet<>();
+        Set<String> pans = new HashSet<>();
+        int accounts = 0;
+        int cards = 0;
+        for (int chunk = 0; chunk < 3; chunk++) {
+            SyntheticData.Chunk rows = data.chunk(chunk, 2_000);
+            for (String[] account : rows(rows.accounts)) {
+                assertThat(account[1]).hasSize(22).startsWith("KE").satisfies(iban ->
+                        assertThat(SyntheticData.validIban(iban)).isTrue());
+                ibans.add(account[1]);
+                accounts++;
+            }
+            for (String[] card : rows(rows.cards)) {
+                assertThat(card[4]).hasSize(16).startsWith("400000").satisfies(pan ->
+                        assertThat(SyntheticData.validPan(pan)).isTrue());
+                pans.add(card[4]);
+                cards++;
+            }
+        }
+
+        assertThat(ibans).hasSize(accounts);
+        assertThat(pans).hasSize(cards);
+        assertThat(SyntheticData.validIban("GB82WEST12345698765432")).isTrue();
+        assertThat(SyntheticData.validIban("GB82WEST12345698765431")).isFalse();
+        assertThat(SyntheticData.validPan("4111111111111111")).isTrue();
+        assertThat(SyntheticData.validPan("4111111111111112")).isFalse();
+    }
+
+    @Test
+    void keepsRowsReferentiallyConsistentAndSpreadOverTime() {
+        SyntheticData.Chunk chunk = data.chunk(0, SyntheticData.CHUNK_SIZE);
+        List<String[]> customers = rows(chunk.customers);
+        List<String[]> accounts = rows(chunk.accounts);
+        List<String[]> cards = rows(chunk.cards);
+
+        assertThat(customers).hasSize(SyntheticData.CHUNK_SIZE);
+        assertThat(chunk.rows()).isEqualTo(customers.size() + accounts.size() + cards.size());
+        assertThat(rows(chunk.ibans)).hasSize(accounts.size());
+
+        Map<String, String> customerCreated = customers.stream().collect(Collectors.toMap(c -> c[0], c -> c[4]));
+        Map<String, String> accountCreated = new HashMap<>();
+        for (String[] account : accounts) {
+            assertThat(account[4]).isGreaterThanOrEqualTo(customerCreated.get(account[3]));
+            accountCreated.put(account[0], account[4]);
+        }
+        Map<String, List<String>> cardTypes = new HashMap<>();
+        for (String[] card : cards) {
+            assertThat(card[8]).isGreaterThanOrEqualTo(accountCreated.get(card[2]));
+            assertThat(LocalDate.parse(card[7])).isEqualTo(LocalDate.parse(card[8].substring(0, 10)).plusYears(3));
+            if (LocalDate.parse(card[7]).isBefore(UNTIL.toLocalDate())) {
+                assertThat(card[6]).isEqualTo("EXPIRED");
+            } else {
+                assertThat(card[6]).isIn("ACTIVE", "BLOCKED");
+            }
+            cardTypes.computeIfAbsent(card[2], id -> new ArrayList<>()).add(card[3]);
+        }
+        assertThat(cardTypes.values()).allSatisfy(types -> assertThat(types).doesNotHaveDuplicates().hasSizeLessThanOrEqualTo(2));
+
+        // every year is represented, the latest more than the first
+        Map<String, Long> perYear = customers.stream().collect(Collectors.groupingBy(c -> c[4].substring(0, 4), Collectors.counting()));
+        assertThat(perYear).containsKeys("2021", "2022", "2023", "2024", "2025");
+        assertThat(perYear.get("2025")).isGreaterThan(perYear.get("2021"));
+
+        // skewed: the most common first name and alias are far above a uniform share
+        assertThat(mostCommonShare(customers, 1)).isGreaterThan(0.1);
+        assertThat(mostCommonShare(cards, 1)).isGreaterThan(0.1);
+        assertThat(customers).anyMatch(c -> c[3].equals("\\N")).anyMatch(c -> !c[3].equals("\\N"));
+    }
+
+    private static double mostCommonShare(List<String[]> rows, int column) {
+        Map<String, Long> counts = rows.stream().collect(Collectors.groupingBy(row -> row[column], Collectors.counting()));
+        return (double) counts.values().stream().mapToLong(Long::longValue).max().orElseThrow() / rows.size();
+    }
+
+    private static List<String[]> rows(StringBuilder copyText) {
+        return Arrays.stream(copyText.toString().split("\n")).map(row -> row.split("\t")).toList();
+    }
+}